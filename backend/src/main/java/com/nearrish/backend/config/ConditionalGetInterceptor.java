@@ -0,0 +1,77 @@
+package com.nearrish.backend.config;
+
+import com.nearrish.backend.security.ApiAuthentication;
+import com.nearrish.backend.service.ContentVersions;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.util.DigestUtils;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+
+/**
+ * Conditional GET for the feed, post and profile endpoints it is registered on (see {@link WebMvcConfig}).
+ *
+ * The ETag is the MD5 of the {@link ContentVersions} version that covers the response, the request URI and query,
+ * and the viewer, so equal tags mean equal bodies. Endpoints with a {@code userId}, {@code authorId} or {@code id}
+ * path variable are covered by that user's version, everything else by the global one. A matching
+ * {@code If-None-Match} is answered with 304 here, before the handler runs, so no repository is queried.
+ * Public endpoints may be stored by shared caches but are always revalidated; the rest are private.
+ */
+@Component
+public class ConditionalGetInterceptor implements HandlerInterceptor {
+
+    private static final String PUBLIC_PREFIX = "/api/public/";
+    private static final String PUBLIC_CACHE = CacheControl.noCache().cachePublic().getHeaderValue();
+    private static final String PRIVATE_CACHE = CacheControl.noCache().cachePrivate().getHeaderValue();
+
+    private final ContentVersions versions;
+
+    public ConditionalGetInterceptor(ContentVersions versions) {
+        this.versions = versions;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        String method = request.getMethod();
+        if (!"GET".equals(method) && !"HEAD".equals(method)) return true;
+
+        boolean isPublic = request.getRequestURI().startsWith(PUBLIC_PREFIX);
+        String viewerId = isPublic ? "" : viewerId();
+        long version = version(request);
+        String etag = "\"" + DigestUtils.md5DigestAsHex((version + "|" + viewerId + "|" + request.getRequestURI()
+                + "?" + request.getQueryString()).getBytes(StandardCharsets.UTF_8)) + "\"";
+
+        response.setHeader(HttpHeaders.CACHE_CONTROL, isPublic ? PUBLIC_CACHE : PRIVATE_CACHE);
+        if (!isPublic) response.setHeader(HttpHeaders.VARY, "AUTH");
+        // Last-Modified is informational: it has one-second resolution, so If-Modified-Since alone could miss a
+        // change within the same second. Only the ETag is validated.
+        response.setDateHeader(HttpHeaders.LAST_MODIFIED, version);
+        return !new ServletWebRequest(request, response).checkNotModified(etag);
+    }
+
+    private long version(HttpServletRequest request) {
+        @SuppressWarnings("unchecked")
+        Map<String, String> vars = (Map<String, String>) request.getAttribute(HandlerMapping.URI_TEMPLATE_VARIABLES_ATTRIBUTE);
+        if (vars != null) {
+            for (String name : new String[] {"userId", "authorId", "id"}) {
+                String userId = vars.get(name);
+                if (userId != null) return versions.user(userId);
+            }
+        }
+        return versions.global();
+    }
+
+    private static String viewerId() {
+        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+        return auth instanceof ApiAuthentication api ? api.getUserId() : "";
+    }
+}
@@ -1,14 +1,32 @@
 package com.nearrish.backend.config;
 
 import org.springframework.context.annotation.Configuration;
-import org.springframework.web.servlet.config.annotation.ResourceHandlerRegistry;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
 
 @Configuration
 public class WebMvcConfig implements WebMvcConfigurer {
+
+    private final ConditionalGetInterceptor conditionalGetInterceptor;
+
+    public WebMvcConfig(ConditionalGetInterceptor conditionalGetInterceptor) {
+        this.conditionalGetInterceptor = conditionalGetInterceptor;
+    }
+
+    // Uploads under /uploads/ are served by UploadController.
+
+    // Feed, post and profile reads whose bodies only change with ContentVersions.
     @Override
-    public void addResourceHandlers(ResourceHandlerRegistry registry) {
-        registry.addResourceHandler("/uploads/**")
-                .addResourceLocations("file:/app/uploads/");
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(conditionalGetInterceptor)
+                .addPathPatterns(
+                        "/api/posts/feed", "/api/posts/feed/*",
+                        "/api/posts/*", "/api/posts/*/replies", "/api/posts/*/thread",
+                        "/api/posts/by-author/*",
+                        "/api/public/posts/feed", "/api/public/posts/feed/*",
+                        "/api/public/posts/by-user/*",
+                        "/api/public/users/*", "/api/public/users/*/friend-count")
+                .excludePathPatterns("/api/posts/upload-image", "/api/public/users/online",
+                        "/api/public/users/search");
     }
 }
@@ -5,12 +5,20 @@ import com.nearrish.backend.entity.*;
 import com.nearrish.backend.repository.*;
 import com.nearrish.backend.security.ApiAuthentication;
 import com.nearrish.backend.service.AdminStatsService;
+import com.nearrish.backend.service.AuthorCache;
+import com.nearrish.backend.service.ChatService;
+import com.nearrish.backend.service.ContentVersions;
 import com.nearrish.backend.service.ModerationClient;
+import com.nearrish.backend.service.PostViewCache;
+import com.nearrish.backend.service.SocialGraph;
+import com.nearrish.backend.service.UserSearchService;
+import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.http.HttpStatus;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.server.ResponseStatusException;
 
+import java.io.IOException;
 import java.time.LocalDateTime;
 import java.util.*;
 import java.util.stream.Collectors;
@@ -27,6 +35,13 @@ public class AdminController {
     private final UserToxicityReportRepository toxicityReportRepository;
     private final ModerationClient moderationClient;
     private final AdminStatsService adminStatsService;
+    private final UserSearchService userSearchService;
+    private final SocialGraph socialGraph;
+    private final ContentVersions versions;
+    private final PostViewCache postViews;
+    private final AuthorCache authorCache;
+    private final StreamingJson streamingJson;
+    private final ChatService chatService;
 
     public AdminController(UserRepository userRepository,
                            PostRepository postRepository,
@@ -35,7 +50,14 @@ public class AdminController {
                            LikeRepository likeRepository,
                            UserToxicityReportRepository toxicityReportRepository,
                            ModerationClient moderationClient,
-                           AdminStatsService adminStatsService) {
+                           AdminStatsService adminStatsService,
+                           UserSearchService userSearchService,
+                           SocialGraph socialGraph,
+                           ContentVersions versions,
+                           PostViewCache postViews,
+                           AuthorCache authorCache,
+                           StreamingJson streamingJson,
+                           ChatService chatService) {
         this.userRepository = userRepository;
         this.postRepository = postRepository;
         this.commentRepository = commentRepository;
@@ -44,6 +66,13 @@ public class AdminController {
         this.toxicityReportRepository = toxicityReportRepository;
         this.moderationClient = moderationClient;
         this.adminStatsService = adminStatsService;
+        this.userSearchService = userSearchService;
+        this.socialGraph = socialGraph;
+        this.versions = versions;
+        this.postViews = postViews;
+        this.authorCache = authorCache;
+        this.streamingJson = streamingJson;
+        this.chatService = chatService;
     }
 
     // ── Verify ─────────────────────────────────────────────────────────────────
@@ -56,26 +85,27 @@ public class AdminController {
 
     // ── Users ──────────────────────────────────────────────────────────────────
 
+    // Streamed with each user's toxicity report joined in, so neither the list nor a query per user is needed.
     @GetMapping("/users")
-    public List<Map<String, Object>> getUsers() {
+    public void getUsers(HttpServletResponse response) throws IOException {
         requireAdmin();
-        List<User> users = userRepository.findAllDistinct();
-        return users.stream().map(u -> {
-            Map<String, Object> row = new LinkedHashMap<>();
-            row.put("userId", u.getId());
-            row.put("username", u.getUsername());
-            row.put("name", u.getName());
-            row.put("nickname", u.getNickname());
-            row.put("email", u.getEmail());
-            row.put("address", u.getAddress());
-            row.put("avatarUrl", u.getAvatarUrl());
-            toxicityReportRepository.findByUserId(u.getId()).ifPresent(r -> {
-                row.put("toxicityScore", r.getScore());
-                row.put("toxicitySummary", r.getSummary());
-                row.put("toxicityGeneratedAt", r.getGeneratedAt().toString());
-            });
-            return row;
-        }).collect(Collectors.toList());
+        streamingJson.writeArray(response, userRepository::streamAdminRows, (json, row) -> {
+            json.writeStartObject();
+            json.writeStringField("userId", (String) row[0]);
+            json.writeStringField("username", (String) row[1]);
+            json.writeStringField("name", (String) row[2]);
+            json.writeStringField("nickname", (String) row[3]);
+            json.writeStringField("email", (String) row[4]);
+            json.writeStringField("address", (String) row[5]);
+            json.writeStringField("avatarUrl", (String) row[6]);
+            if (row[7] != null) {
+                json.writeNumberField("toxicityScore", ((Number) row[7]).intValue());
+                json.writeStringField("toxicitySummary", (String) row[8]);
+                json.writeStringField("toxicityGeneratedAt",
+                        row[9] != null ? row[9].toString() : null);
+            }
+            json.writeEndObject();
+        });
     }
 
     @DeleteMapping("/users/{id}")
@@ -84,6 +114,11 @@ public class AdminController {
         User user = userRepository.findById(id)
                 .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "User not found"));
         userRepository.delete(user);
+        userSearchService.onUserRemoved(id);
+        socialGraph.onUserRemoved(id);
+        versions.onUserChanged(id);
+        authorCache.invalidate(id);
+        chatService.onUserRemoved(id);
         return Map.of("status", "deleted");
     }
 
@@ -102,20 +137,20 @@ public class AdminController {
                 .filter(Comment::isModerated)
                 .collect(Collectors.toList());
 
-        // Build authorId → username map to avoid N+1 lookups
+        // Resolve all authors at once to avoid N+1 lookups
         Set<String> authorIds = flaggedPosts.stream()
                 .map(Post::getAuthorId)
                 .filter(Objects::nonNull)
                 .collect(Collectors.toSet());
-        Map<String, String> idToUsername = userRepository.findAllById(authorIds).stream()
-                .collect(Collectors.toMap(User::getId, User::getUsername));
+        Map<String, AuthorCache.Author> authors = authorCache.getAll(authorIds);
 
         List<Map<String, Object>> postRows = flaggedPosts.stream().map(p -> {
             Map<String, Object> row = new LinkedHashMap<>();
             row.put("id", p.getId());
             row.put("type", "post");
             row.put("authorId", p.getAuthorId());
-            row.put("authorName", idToUsername.getOrDefault(p.getAuthorId(), "unknown"));
+            AuthorCache.Author author = authors.get(p.getAuthorId());
+            row.put("authorName", author != null ? author.username() : "unknown");
             row.put("content", p.getText());
             row.put("severity", p.getModerationSeverity());
             row.put("category", p.getModerationCategory());
@@ -382,6 +417,13 @@ public class AdminController {
         return adminStatsService.buildLiveSnapshot();
     }
 
+    /** Hit, miss and eviction counts of the single-post view cache. */
+    @GetMapping("/stats/post-cache")
+    public Map<String, Object> getPostCacheStats() {
+        requireAdmin();
+        return postViews.stats();
+    }
+
     @GetMapping("/stats/post-activity")
     public List<Map<String, Object>> getPostActivity(
             @RequestParam(defaultValue = "7") int days) {
@@ -7,6 +7,7 @@ import com.nearrish.backend.entity.User;
 import com.nearrish.backend.repository.UserRepository;
 import com.nearrish.backend.service.ModerationClient;
 import com.nearrish.backend.service.TotpService;
+import com.nearrish.backend.service.UserSearchService;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RestController;
@@ -17,13 +18,16 @@ public class AuthenticationController {
     private final ApiAuthenticationService authenticationService;
     private final ModerationClient moderationClient;
     private final TotpService totpService;
+    private final UserSearchService userSearchService;
 
     public AuthenticationController(UserRepository userRepository, ApiAuthenticationService authenticationService,
-                                    ModerationClient moderationClient, TotpService totpService) {
+                                    ModerationClient moderationClient, TotpService totpService,
+                                    UserSearchService userSearchService) {
         this.userRepository = userRepository;
         this.authenticationService = authenticationService;
         this.moderationClient = moderationClient;
         this.totpService = totpService;
+        this.userSearchService = userSearchService;
     }
 
     @PostMapping("/api/auth/login")
@@ -81,6 +85,7 @@ public class AuthenticationController {
         user.setNickname(form.getNickname());
         user.setAddress(form.getAddress());
         userRepository.save(user);
+        userSearchService.onUserSaved(user);
         String sessionToken = authenticationService.createJwtForUser(user, true);
         return new RegistrationFormResponse(true, null, sessionToken);
     }
@@ -3,10 +3,11 @@ package com.nearrish.backend.controller;
 import com.nearrish.backend.entity.Conversation;
 import com.nearrish.backend.entity.Message;
 import com.nearrish.backend.entity.User;
-import com.nearrish.backend.repository.ConversationReadStateRepository;
-import com.nearrish.backend.repository.MessageRepository;
 import com.nearrish.backend.security.ApiAuthentication;
 import com.nearrish.backend.service.ChatService;
+import com.nearrish.backend.service.CursorPage;
+import com.nearrish.backend.service.MessageCursor;
+import com.nearrish.backend.service.UnreadCounters;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.bind.annotation.*;
@@ -20,32 +21,27 @@ import java.util.Map;
 public class ChatController {
 
     private final ChatService chatService;
-    private final MessageRepository messageRepository;
-    private final ConversationReadStateRepository readStateRepository;
+    private final UnreadCounters unreadCounters;
 
-    public ChatController(ChatService chatService, MessageRepository messageRepository,
-                          ConversationReadStateRepository readStateRepository) {
+    public ChatController(ChatService chatService, UnreadCounters unreadCounters) {
         this.chatService = chatService;
-        this.messageRepository = messageRepository;
-        this.readStateRepository = readStateRepository;
+        this.unreadCounters = unreadCounters;
     }
 
+    /** A page of the inbox, most recently active first; pass {@code nextCursor} back as {@code cursor} for more. */
     @GetMapping("/conversations")
-    public List<Map<String, Object>> getConversations() {
-        User me = currentUser();
-        return chatService.getConversations(me).stream()
-                .map(c -> {
-                    Map<String, Object> dto = new HashMap<>(toConversationDto(c));
-                    var last = messageRepository.findTopByConversationIdOrderByCreatedAtDesc(c.getId());
-                    dto.put("lastMessage", last.map(this::toMessageDto).orElse(null));
-                    java.time.LocalDateTime lastReadAt = readStateRepository
-                            .findByConversationIdAndUserId(c.getId(), me.getId())
-                            .map(rs -> rs.getLastReadAt())
-                            .orElse(java.time.LocalDateTime.of(2000, 1, 1, 0, 0));
-                    dto.put("unreadCount", messageRepository.countUnreadSince(c.getId(), me.getId(), lastReadAt));
-                    return dto;
-                })
-                .toList();
+    public CursorPage<Map<String, Object>> getConversations(
+            @RequestParam(defaultValue = "30") int limit,
+            @RequestParam(required = false) String cursor) {
+        CursorPage<ChatService.InboxEntry> page = chatService.getInbox(currentUser(), MessageCursor.decode(cursor), limit);
+        return new CursorPage<>(page.items().stream().map(this::toInboxDto).toList(), page.nextCursor());
+    }
+
+    /** Unread messages for badges: the total, and the count per conversation that has any. */
+    @GetMapping("/unread")
+    public Map<String, Object> getUnread() {
+        UnreadCounters.Unread unread = unreadCounters.get(currentUser().getId());
+        return Map.of("total", unread.total(), "conversations", unread.conversations());
     }
 
     @PostMapping("/conversations/{userId}")
@@ -53,17 +49,15 @@ public class ChatController {
         return toConversationDto(chatService.getOrCreateConversation(currentUser(), userId));
     }
 
+    /** A page of history, oldest first; pass {@code nextCursor} back as {@code cursor} for the page before it. */
     @GetMapping("/conversations/{conversationId}/messages")
-    public List<Map<String, Object>> getMessages(
+    public CursorPage<Map<String, Object>> getMessages(
             @PathVariable String conversationId,
             @RequestParam(defaultValue = "20") int limit,
-            @RequestParam(required = false) String before) {
-        java.time.LocalDateTime beforeDt = before != null
-                ? java.time.LocalDateTime.parse(before)
-                : null;
-        return chatService.getMessages(currentUser(), conversationId, limit, beforeDt).stream()
-                .map(this::toMessageDto)
-                .toList();
+            @RequestParam(required = false) String cursor) {
+        CursorPage<ChatService.MessageRow> page = chatService.getMessages(currentUser(), conversationId,
+                MessageCursor.decode(cursor), limit);
+        return new CursorPage<>(page.items().stream().map(this::toMessageDto).toList(), page.nextCursor());
     }
 
     @PostMapping("/conversations/group")
@@ -120,11 +114,50 @@ public class ChatController {
         );
     }
 
+    private Map<String, Object> toInboxDto(ChatService.InboxEntry c) {
+        Map<String, Object> dto = new HashMap<>();
+        dto.put("id", c.id());
+        dto.put("name", c.name() != null ? c.name() : "");
+        dto.put("group", c.group());
+        dto.put("participants", c.participants().stream()
+                .map(p -> {
+                    Map<String, Object> m = new HashMap<>();
+                    m.put("id", p.id());
+                    m.put("username", p.username());
+                    m.put("email", p.email());
+                    m.put("avatarUrl", p.avatarUrl());
+                    return m;
+                })
+                .toList());
+        dto.put("createdAt", c.createdAt().toString());
+        dto.put("lastMessage", c.lastMessage() != null ? toLastMessageDto(c, c.lastMessage()) : null);
+        dto.put("unreadCount", c.unreadCount());
+        return dto;
+    }
+
+    // Shaped like toMessageDto; the sender's details are only known while they are still a participant.
+    private Map<String, Object> toLastMessageDto(ChatService.InboxEntry c, ChatService.LastMessage last) {
+        Map<String, Object> sender = new HashMap<>();
+        sender.put("id", last.senderId());
+        c.participants().stream().filter(p -> p.id().equals(last.senderId())).findFirst().ifPresent(p -> {
+            sender.put("username", p.username());
+            sender.put("email", p.email());
+        });
+        Map<String, Object> dto = new HashMap<>();
+        dto.put("id", last.id());
+        dto.put("conversationId", c.id());
+        dto.put("sender", sender);
+        dto.put("content", last.preview());
+        dto.put("createdAt", last.createdAt().toString());
+        dto.put("moderated", last.moderated());
+        return dto;
+    }
+
     private Map<String, Object> toMessageDto(Message m) {
         Map<String, Object> dto = new HashMap<>();
         dto.put("id", m.getId());
         dto.put("conversationId", m.getConversation().getId());
-        dto.put("sender", Map.of("id", m.getSender().getId(), "username", m.getSender().getUsername(), "email", m.getSender().getEmail()));
+        dto.put("sender", senderDto(m.getSender().getId(), m.getSender().getUsername(), m.getSender().getEmail()));
         dto.put("content", m.getContent());
         dto.put("read", m.isRead());
         dto.put("createdAt", m.getCreatedAt().toString());
@@ -133,6 +166,28 @@ public class ChatController {
         return dto;
     }
 
+    private Map<String, Object> toMessageDto(ChatService.MessageRow m) {
+        Map<String, Object> dto = new HashMap<>();
+        dto.put("id", m.id());
+        dto.put("conversationId", m.conversationId());
+        dto.put("sender", senderDto(m.senderId(), m.senderUsername(), m.senderEmail()));
+        dto.put("content", m.content());
+        dto.put("read", m.read());
+        dto.put("createdAt", m.createdAt().toString());
+        dto.put("moderated", m.moderated());
+        dto.put("moderationReason", m.moderationReason());
+        return dto;
+    }
+
+    // OAuth accounts may have no email, which Map.of would reject.
+    private static Map<String, Object> senderDto(String id, String username, String email) {
+        Map<String, Object> sender = new HashMap<>();
+        sender.put("id", id);
+        sender.put("username", username);
+        sender.put("email", email);
+        return sender;
+    }
+
     private User currentUser() {
         Authentication auth = SecurityContextHolder.getContext().getAuthentication();
         return ((ApiAuthentication) auth).getUser();
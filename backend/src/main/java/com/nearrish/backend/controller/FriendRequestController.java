@@ -57,16 +57,13 @@ public class FriendRequestController {
 
     @GetMapping
     public List<Map<String, String>> getFriends() {
-        // Use HashMap (not Map.of) so null avatarUrl values are allowed
-        return friendRequestService.getFriends(currentUser()).stream()
-                .map(u -> {
-                    Map<String, String> m = new HashMap<>();
-                    m.put("id", u.getId());
-                    m.put("username", u.getUsername());
-                    m.put("avatarUrl", u.getAvatarUrl());
-                    return m;
-                })
-                .toList();
+        return toSummaries(friendRequestService.getFriends(currentUser()));
+    }
+
+    /** Friends shared with a specific user. */
+    @GetMapping("/mutual/{userId}")
+    public List<Map<String, String>> getMutualFriends(@PathVariable String userId) {
+        return toSummaries(friendRequestService.getMutualFriends(currentUser(), userId));
     }
 
     @GetMapping("/requests/incoming")
@@ -79,6 +76,19 @@ public class FriendRequestController {
         return friendRequestService.getOutgoingRequests(currentUser());
     }
 
+    private static List<Map<String, String>> toSummaries(List<User> users) {
+        // Use HashMap (not Map.of) so null avatarUrl values are allowed
+        return users.stream()
+                .map(u -> {
+                    Map<String, String> m = new HashMap<>();
+                    m.put("id", u.getId());
+                    m.put("username", u.getUsername());
+                    m.put("avatarUrl", u.getAvatarUrl());
+                    return m;
+                })
+                .toList();
+    }
+
     private User currentUser() {
         Authentication auth = SecurityContextHolder.getContext().getAuthentication();
         return ((ApiAuthentication) auth).getUser();
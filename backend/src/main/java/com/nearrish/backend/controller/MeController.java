@@ -6,6 +6,20 @@ import com.nearrish.backend.repository.PostRepository;
 import com.nearrish.backend.repository.UserRepository;
 import com.nearrish.backend.repository.UserToxicityReportRepository;
 import com.nearrish.backend.security.ApiAuthentication;
+import com.nearrish.backend.service.AfterCommit;
+import com.nearrish.backend.service.AuthorCache;
+import com.nearrish.backend.service.ChatService;
+import com.nearrish.backend.service.ContentVersions;
+import com.nearrish.backend.service.FeedChangeLog;
+import com.nearrish.backend.service.GeoIndexService;
+import com.nearrish.backend.service.ImageVariants;
+import com.nearrish.backend.service.HotFeedService;
+import com.nearrish.backend.service.PostViewCache;
+import com.nearrish.backend.service.SearchIndexService;
+import com.nearrish.backend.service.SocialGraph;
+import com.nearrish.backend.service.TimelineService;
+import com.nearrish.backend.service.UploadStore;
+import com.nearrish.backend.service.UserSearchService;
 import jakarta.transaction.Transactional;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
@@ -16,12 +30,8 @@ import org.springframework.web.multipart.MultipartFile;
 import org.springframework.security.crypto.scrypt.SCryptPasswordEncoder;
 
 import java.io.IOException;
-import java.nio.file.Files;
-import java.nio.file.Path;
-import java.nio.file.Paths;
 import java.util.HashMap;
 import java.util.Map;
-import java.util.UUID;
 
 /**
  * Authenticated /api/users/me endpoints.
@@ -35,14 +45,46 @@ public class MeController {
     private final PostRepository postRepository;
     private final UserToxicityReportRepository toxicityReportRepository;
     private final ConversationReadStateRepository conversationReadStateRepository;
+    private final TimelineService timelineService;
+    private final GeoIndexService geoIndexService;
+    private final SearchIndexService searchIndexService;
+    private final UserSearchService userSearchService;
+    private final SocialGraph socialGraph;
+    private final HotFeedService hotFeedService;
+    private final FeedChangeLog changeLog;
+    private final PostViewCache postViews;
+    private final ContentVersions versions;
+    private final AuthorCache authorCache;
+    private final UploadStore uploadStore;
+    private final ImageVariants imageVariants;
+    private final ChatService chatService;
 
     public MeController(UserRepository userRepository, PostRepository postRepository,
                         UserToxicityReportRepository toxicityReportRepository,
-                        ConversationReadStateRepository conversationReadStateRepository) {
+                        ConversationReadStateRepository conversationReadStateRepository,
+                        TimelineService timelineService, GeoIndexService geoIndexService,
+                        SearchIndexService searchIndexService, UserSearchService userSearchService,
+                        SocialGraph socialGraph, HotFeedService hotFeedService,
+                        FeedChangeLog changeLog, PostViewCache postViews, ContentVersions versions,
+                        AuthorCache authorCache, UploadStore uploadStore, ImageVariants imageVariants,
+                        ChatService chatService) {
         this.userRepository = userRepository;
         this.postRepository = postRepository;
         this.toxicityReportRepository = toxicityReportRepository;
         this.conversationReadStateRepository = conversationReadStateRepository;
+        this.timelineService = timelineService;
+        this.geoIndexService = geoIndexService;
+        this.searchIndexService = searchIndexService;
+        this.userSearchService = userSearchService;
+        this.socialGraph = socialGraph;
+        this.hotFeedService = hotFeedService;
+        this.changeLog = changeLog;
+        this.postViews = postViews;
+        this.versions = versions;
+        this.authorCache = authorCache;
+        this.uploadStore = uploadStore;
+        this.imageVariants = imageVariants;
+        this.chatService = chatService;
     }
 
     /** GET /api/users/me — return own profile including avatarUrl */
@@ -68,6 +110,9 @@ public class MeController {
         if (body.containsKey("nickname")) user.setNickname(body.get("nickname"));
         if (body.containsKey("address"))  user.setAddress(body.get("address"));
         userRepository.save(user);
+        userSearchService.onUserSaved(user);
+        versions.onUserChanged(user.getId());
+        authorCache.invalidate(user.getId());
         Map<String, String> result = new HashMap<>();
         result.put("id", user.getId());
         result.put("username", user.getUsername());
@@ -82,15 +127,15 @@ public class MeController {
     /** POST /api/users/me/avatar — upload a profile picture */
     @PostMapping("/avatar")
     public Map<String, String> uploadAvatar(@RequestParam("file") MultipartFile file) throws IOException {
-        String filename = UUID.randomUUID() + "_" + file.getOriginalFilename();
-        Path uploadDir = Paths.get("/app/uploads");
-        Files.createDirectories(uploadDir);
-        Files.copy(file.getInputStream(), uploadDir.resolve(filename));
-
-        String url = "/uploads/" + filename;
+        UploadStore.Stored stored = uploadStore.store(file.getInputStream(), file.getOriginalFilename());
+        imageVariants.submit(stored);
+        String url = stored.url();
         User user = currentUser();
         user.setAvatarUrl(url);
         userRepository.save(user);
+        userSearchService.onUserSaved(user);
+        versions.onUserChanged(user.getId());
+        authorCache.invalidate(user.getId());
 
         return Map.of("avatarUrl", url);
     }
@@ -149,6 +194,23 @@ public class MeController {
         // Like, Message, Notification, Conversation (all have @OnDelete CASCADE on user FK)
         userRepository.delete(user);
 
+        // Their posts may sit in any number of timelines; account deletion is rare enough to rebuild.
+        // The in-memory indexes drop them only once the delete commits, so a rollback leaves them intact
+        // and no request between the two reads a half-removed account.
+        AfterCommit.run(() -> {
+            timelineService.invalidateAll();
+            changeLog.invalidateAll();
+            postViews.clear();
+            geoIndexService.onAuthorRemoved(userId);
+            searchIndexService.onAuthorRemoved(userId);
+            hotFeedService.onAuthorRemoved(userId);
+            userSearchService.onUserRemoved(userId);
+        });
+        socialGraph.onUserRemoved(userId);
+        versions.onUserChanged(userId);
+        authorCache.invalidate(userId);
+        chatService.onUserRemoved(userId);
+
         return ResponseEntity.noContent().build();
     }
 
@@ -2,41 +2,42 @@ package com.nearrish.backend.controller;
 
 import com.nearrish.backend.entity.Post;
 import com.nearrish.backend.entity.User;
-import com.nearrish.backend.repository.CommentRepository;
-import com.nearrish.backend.repository.LikeRepository;
-import com.nearrish.backend.repository.UserRepository;
 import com.nearrish.backend.security.ApiAuthentication;
+import com.nearrish.backend.service.CursorPage;
+import com.nearrish.backend.service.FeedCursor;
+import com.nearrish.backend.service.FeedDelta;
+import com.nearrish.backend.service.FeedWatermark;
+import com.nearrish.backend.service.ImageVariants;
+import com.nearrish.backend.service.MapTile;
 import com.nearrish.backend.service.PostService;
+import com.nearrish.backend.service.ThreadSlice;
+import com.nearrish.backend.service.UploadStore;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.http.MediaType;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
-import java.nio.file.Files;
-import java.nio.file.Path;
-import java.nio.file.Paths;
 import java.util.List;
 import java.util.Map;
-import java.util.Set;
-import java.util.UUID;
-import java.util.stream.Collectors;
 
 @RestController
 @RequestMapping("/api/posts")
 public class PostController {
 
     private final PostService postService;
-    private final LikeRepository likeRepository;
-    private final UserRepository userRepository;
-    private final CommentRepository commentRepository;
+    private final PostResponseAssembler assembler;
+    private final UploadStore uploadStore;
+    private final ImageVariants imageVariants;
 
-    public PostController(PostService postService, LikeRepository likeRepository,
-                          UserRepository userRepository, CommentRepository commentRepository) {
+    public PostController(PostService postService, PostResponseAssembler assembler, UploadStore uploadStore,
+                          ImageVariants imageVariants) {
         this.postService = postService;
-        this.likeRepository = likeRepository;
-        this.userRepository = userRepository;
-        this.commentRepository = commentRepository;
+        this.assembler = assembler;
+        this.uploadStore = uploadStore;
+        this.imageVariants = imageVariants;
     }
 
     @PostMapping
@@ -54,43 +55,124 @@ public class PostController {
         }
         User user = currentUser();
         Post post = postService.createPost(user, text, respondingToId, latitude, longitude, imageUrl, vis);
-        return toResponse(post, user, user);
+        return assembler.toResponse(post, user);
     }
 
     @GetMapping("/feed")
-    public List<PostResponse> getFeed() {
+    public CursorPage<PostResponse> getFeed(@RequestParam(required = false) String cursor,
+                                            @RequestParam(defaultValue = "20") int limit) {
         User user = currentUser();
-        return toResponses(postService.getFeed(user), user);
+        CursorPage<Post> page = postService.getFeed(user, FeedCursor.decode(cursor), limit);
+        return new CursorPage<>(assembler.toResponses(page.items(), user), page.nextCursor());
+    }
+
+    /**
+     * Feed changes after the watermark in {@code cursor}: new posts and tombstones. Without one, returns a reset
+     * with the current watermark; take it before loading the full feed.
+     */
+    @GetMapping("/feed/since")
+    public FeedDelta<PostResponse> getFeedSince(@RequestParam(required = false) String cursor,
+                                                @RequestParam(defaultValue = "100") int limit) {
+        User user = currentUser();
+        FeedDelta<Post> delta = postService.getFeedSince(user, FeedWatermark.decode(cursor), limit);
+        return new FeedDelta<>(assembler.toResponses(delta.posts(), user), delta.removed(), delta.watermark(),
+                delta.reset(), delta.hasMore());
+    }
+
+    /** Recent posts the viewer may see, ranked by time-decayed likes and comments. */
+    @GetMapping("/feed/hot")
+    public CursorPage<PostResponse> getHotFeed(@RequestParam(required = false) String cursor,
+                                               @RequestParam(defaultValue = "20") int limit) {
+        User user = currentUser();
+        CursorPage<Post> page = postService.getHotFeed(user, FeedCursor.decode(cursor), limit);
+        return new CursorPage<>(assembler.toResponses(page.items(), user), page.nextCursor());
     }
 
     @GetMapping("/feed/geo")
-    public List<PostResponse> getGeoFeed() {
+    public CursorPage<PostResponse> getGeoFeed(@RequestParam(required = false) String cursor,
+                                               @RequestParam(defaultValue = "200") int limit) {
+        User user = currentUser();
+        CursorPage<Post> page = postService.getGeoFeed(user, FeedCursor.decode(cursor), limit);
+        return new CursorPage<>(assembler.toResponses(page.items(), user), page.nextCursor());
+    }
+
+    /** Map viewport feed from the spatial index. {@code west > east} means the box crosses the antimeridian. */
+    @GetMapping("/geo/bbox")
+    public CursorPage<PostResponse> getGeoBox(@RequestParam double south, @RequestParam double north,
+                                              @RequestParam double west, @RequestParam double east,
+                                              @RequestParam(required = false) String cursor,
+                                              @RequestParam(defaultValue = "200") int limit) {
         User user = currentUser();
-        return toResponses(postService.getGeoFeed(user), user);
+        CursorPage<Post> page = postService.getGeoFeedInBox(user, south, north, west, east,
+                FeedCursor.decode(cursor), limit);
+        return new CursorPage<>(assembler.toResponses(page.items(), user), page.nextCursor());
     }
 
+    @GetMapping("/geo/radius")
+    public List<PostResponse> getGeoRadius(@RequestParam double lat, @RequestParam double lng,
+                                           @RequestParam(defaultValue = "10") double radiusKm,
+                                           @RequestParam(defaultValue = "200") int limit) {
+        User user = currentUser();
+        return assembler.toResponses(postService.getPostsWithinRadius(user, lat, lng, radiusKm, limit), user);
+    }
+
+    @GetMapping("/geo/nearest")
+    public List<PostResponse> getNearest(@RequestParam double lat, @RequestParam double lng,
+                                         @RequestParam(defaultValue = "20") int k) {
+        User user = currentUser();
+        return assembler.toResponses(postService.getNearestPosts(user, lat, lng, k), user);
+    }
+
+    @GetMapping("/geo/tiles/{z}/{x}/{y}")
+    public MapTile getMapTile(@PathVariable int z, @PathVariable int x, @PathVariable int y) {
+        return postService.getMapTile(currentUser(), z, x, y);
+    }
+
+    /**
+     * Stores an image and queues its downscaled variants. Clients may request a variant by inserting
+     * {@code _s}, {@code _m} or {@code _l} before the URL's extension; the original is served until it exists.
+     */
     @PostMapping("/upload-image")
     public Map<String, String> uploadImage(@RequestParam("file") MultipartFile file) throws IOException {
-        String filename = UUID.randomUUID() + "_" + file.getOriginalFilename();
-        Path uploadDir = Paths.get("/app/uploads");
-        Files.createDirectories(uploadDir);
-        Files.copy(file.getInputStream(), uploadDir.resolve(filename));
-        return Map.of("filename", filename, "url", "/uploads/" + filename);
+        UploadStore.Stored stored = uploadStore.store(file.getInputStream(), file.getOriginalFilename());
+        imageVariants.submit(stored);
+        return Map.of("filename", stored.path(), "url", stored.url());
+    }
+
+    /**
+     * The image as the raw request body, streamed to the store without a multipart temp file. The store holds it to
+     * the multipart file size limit, answering 413 past it.
+     */
+    @PostMapping(value = "/upload-image", consumes = {"image/*", MediaType.APPLICATION_OCTET_STREAM_VALUE})
+    public Map<String, String> uploadImageBody(HttpServletRequest request) throws IOException {
+        MediaType type = MediaType.parseMediaType(request.getContentType());
+        UploadStore.Stored stored = uploadStore.store(request.getInputStream(), "upload." + type.getSubtype());
+        imageVariants.submit(stored);
+        return Map.of("filename", stored.path(), "url", stored.url());
     }
 
     @GetMapping("/{postId}")
     public PostResponse getPost(@PathVariable String postId) {
-        return toResponse(postService.getPost(postId), currentUser());
+        return assembler.toResponse(postService.getPostView(postId), currentUser());
     }
 
     @GetMapping("/by-author/{authorId}")
     public List<PostResponse> getPostsByAuthor(@PathVariable String authorId) {
-        return toResponses(postService.getPostsByAuthor(authorId), currentUser());
+        return assembler.toResponses(postService.getPostsByAuthor(authorId), currentUser());
     }
 
     @GetMapping("/{postId}/replies")
     public List<PostResponse> getReplies(@PathVariable String postId) {
-        return toResponses(postService.getReplies(postId), currentUser());
+        return assembler.toResponses(postService.getReplies(postId), currentUser());
+    }
+
+    /** Every reply below a post in one round trip; clients nest them by {@code respondingToId}. */
+    @GetMapping("/{postId}/thread")
+    public ThreadSlice<PostResponse> getThread(@PathVariable String postId,
+                                               @RequestParam(defaultValue = "10") int maxDepth,
+                                               @RequestParam(defaultValue = "200") int limit) {
+        ThreadSlice<Post> slice = postService.getThread(postId, maxDepth, limit);
+        return new ThreadSlice<>(assembler.toResponses(slice.replies(), currentUser()), slice.truncated());
     }
 
     @DeleteMapping("/{postId}")
@@ -98,32 +180,6 @@ public class PostController {
         postService.deletePost(currentUser(), postId);
     }
 
-    private List<PostResponse> toResponses(List<Post> posts, User currentUser) {
-        if (posts.isEmpty()) return List.of();
-        Set<String> authorIds = posts.stream().map(Post::getAuthorId).collect(Collectors.toSet());
-        Map<String, User> authorMap = userRepository.findAllById(authorIds)
-                .stream().collect(Collectors.toMap(User::getId, u -> u));
-        return posts.stream()
-                .map(p -> toResponse(p, authorMap.get(p.getAuthorId()), currentUser))
-                .collect(Collectors.toList());
-    }
-
-    private PostResponse toResponse(Post post, User currentUser) {
-        User author = userRepository.findById(post.getAuthorId()).orElse(null);
-        return toResponse(post, author, currentUser);
-    }
-
-    private PostResponse toResponse(Post post, User author, User currentUser) {
-        PostResponse.AuthorInfo info = author != null
-                ? new PostResponse.AuthorInfo(author.getId(), author.getUsername(), author.getAvatarUrl())
-                : new PostResponse.AuthorInfo(post.getAuthorId(), "Unknown", null);
-        long likeCount = likeRepository.countByPostId(post.getId());
-        boolean userLiked = currentUser != null
-                && likeRepository.existsByUserIdAndPostId(currentUser.getId(), post.getId());
-        long commentCount = commentRepository.countByPost_Id(post.getId());
-        return PostResponse.from(post, info, likeCount, userLiked, commentCount);
-    }
-
     private User currentUser() {
         Authentication auth = SecurityContextHolder.getContext().getAuthentication();
         return ((ApiAuthentication) auth).getUser();
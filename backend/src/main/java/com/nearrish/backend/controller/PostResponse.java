@@ -9,6 +9,8 @@ public class PostResponse {
     private String authorId;
     private long timestamp;
     private String respondingToId;
+    private String threadRootId;
+    private int depth;
     private Double latitude;
     private Double longitude;
     private String imageUrl;
@@ -22,16 +24,20 @@ public class PostResponse {
     private long likeCount;
     private boolean userLiked;
     private long commentCount;
+    private long replyCount;
 
     public record AuthorInfo(String id, String username, String avatarUrl) {}
 
-    public static PostResponse from(Post post, AuthorInfo author, long likeCount, boolean userLiked, long commentCount) {
+    public static PostResponse from(Post post, AuthorInfo author, long likeCount, boolean userLiked, long commentCount,
+                                    long replyCount) {
         PostResponse r = new PostResponse();
         r.id = post.getId();
         r.text = post.getText();
         r.authorId = post.getAuthorId();
         r.timestamp = post.getTimestamp();
         r.respondingToId = post.getRespondingToId();
+        r.threadRootId = post.getThreadRootId();
+        r.depth = post.getDepth();
         r.latitude = post.getLatitude();
         r.longitude = post.getLongitude();
         r.imageUrl = post.getImageUrl();
@@ -44,6 +50,7 @@ public class PostResponse {
         r.likeCount = likeCount;
         r.userLiked = userLiked;
         r.commentCount = commentCount;
+        r.replyCount = replyCount;
         return r;
     }
 
@@ -52,6 +59,8 @@ public class PostResponse {
     public String getAuthorId() { return authorId; }
     public long getTimestamp() { return timestamp; }
     public String getRespondingToId() { return respondingToId; }
+    public String getThreadRootId() { return threadRootId; }
+    public int getDepth() { return depth; }
     public Double getLatitude() { return latitude; }
     public Double getLongitude() { return longitude; }
     public String getImageUrl() { return imageUrl; }
@@ -64,4 +73,5 @@ public class PostResponse {
     public long getLikeCount() { return likeCount; }
     public boolean isUserLiked() { return userLiked; }
     public long getCommentCount() { return commentCount; }
+    public long getReplyCount() { return replyCount; }
 }
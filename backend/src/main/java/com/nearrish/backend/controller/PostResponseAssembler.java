@@ -0,0 +1,74 @@
+package com.nearrish.backend.controller;
+
+import com.nearrish.backend.entity.Post;
+import com.nearrish.backend.entity.User;
+import com.nearrish.backend.repository.LikeRepository;
+import com.nearrish.backend.service.AuthorCache;
+import com.nearrish.backend.service.EngagementCounterService;
+import com.nearrish.backend.service.PostViewCache;
+import org.springframework.stereotype.Component;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Turns posts into {@link PostResponse}s with author, like count, viewer-liked flag, comment and reply counts.
+ * Counts come from the denormalized counters and authors from {@link AuthorCache}, so a batch costs at most two
+ * set-based queries (authors not yet cached, and the viewer's likes) no matter how many posts it holds.
+ */
+@Component
+public class PostResponseAssembler {
+
+    private final AuthorCache authorCache;
+    private final LikeRepository likeRepository;
+    private final EngagementCounterService counters;
+
+    public PostResponseAssembler(AuthorCache authorCache, LikeRepository likeRepository,
+                                 EngagementCounterService counters) {
+        this.authorCache = authorCache;
+        this.likeRepository = likeRepository;
+        this.counters = counters;
+    }
+
+    /** @param viewer the authenticated user, or null for public endpoints (userLiked is then false) */
+    public List<PostResponse> toResponses(List<Post> posts, User viewer) {
+        if (posts.isEmpty()) return List.of();
+
+        List<String> postIds = posts.stream().map(Post::getId).toList();
+        Set<String> authorIds = new HashSet<>();
+        posts.forEach(p -> authorIds.add(p.getAuthorId()));
+
+        Map<String, AuthorCache.Author> authors = authorCache.getAll(authorIds);
+        Set<String> liked = viewer == null ? Set.of()
+                : new HashSet<>(likeRepository.findPostIdsLikedByUser(viewer.getId(), postIds));
+
+        return posts.stream()
+                .map(p -> PostResponse.from(p,
+                        authorInfo(p, authors.get(p.getAuthorId())),
+                        counters.postLikes(p),
+                        liked.contains(p.getId()),
+                        counters.postComments(p),
+                        counters.postReplies(p)))
+                .toList();
+    }
+
+    public PostResponse toResponse(Post post, User viewer) {
+        return toResponses(List.of(post), viewer).getFirst();
+    }
+
+    /** A cached view carries its counts; only the author and the viewer's like are looked up. */
+    public PostResponse toResponse(PostViewCache.PostView view, User viewer) {
+        Post p = view.post();
+        boolean liked = viewer != null && likeRepository.existsByUserIdAndPostId(viewer.getId(), p.getId());
+        return PostResponse.from(p, authorInfo(p, authorCache.get(p.getAuthorId())),
+                view.likes(), liked, view.comments(), view.replies());
+    }
+
+    private static PostResponse.AuthorInfo authorInfo(Post post, AuthorCache.Author author) {
+        return author != null
+                ? new PostResponse.AuthorInfo(author.id(), author.username(), author.avatarUrl())
+                : new PostResponse.AuthorInfo(post.getAuthorId(), "Unknown", null);
+    }
+}
@@ -1,7 +1,6 @@
 package com.nearrish.backend.controller;
 
 import com.nearrish.backend.entity.Comment;
-import com.nearrish.backend.repository.LikeRepository;
 import com.nearrish.backend.service.CommentService;
 import com.nearrish.backend.service.LikeService;
 import com.nearrish.backend.service.ModerationClient;
@@ -23,23 +22,17 @@ public class PublicInteractionController {
     private final CommentService commentService;
     private final LikeService likeService;
     private final ModerationClient moderationClient;
-    private final LikeRepository likeRepository;
 
     public PublicInteractionController(CommentService commentService, LikeService likeService,
-                                       ModerationClient moderationClient, LikeRepository likeRepository) {
+                                       ModerationClient moderationClient) {
         this.commentService = commentService;
         this.likeService = likeService;
         this.moderationClient = moderationClient;
-        this.likeRepository = likeRepository;
     }
 
     @GetMapping("/posts/{postId}/comments")
     public List<Comment> getComments(@PathVariable String postId) {
-        List<Comment> comments = commentService.getComments(postId);
-        for (Comment c : comments) {
-            c.setLikeCount(likeRepository.countByCommentId(c.getId()));
-        }
-        return comments;
+        return commentService.getComments(postId);
     }
 
     @GetMapping("/posts/{postId}/comments/{commentId}")
@@ -1,10 +1,11 @@
 package com.nearrish.backend.controller;
 
 import com.nearrish.backend.entity.Post;
-import com.nearrish.backend.entity.User;
-import com.nearrish.backend.repository.CommentRepository;
-import com.nearrish.backend.repository.LikeRepository;
-import com.nearrish.backend.repository.UserRepository;
+import com.nearrish.backend.service.CursorPage;
+import com.nearrish.backend.service.FeedCursor;
+import com.nearrish.backend.service.FeedDelta;
+import com.nearrish.backend.service.FeedWatermark;
+import com.nearrish.backend.service.MapTile;
 import com.nearrish.backend.service.PostService;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
@@ -13,40 +14,81 @@ import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
 import java.util.List;
-import java.util.Map;
-import java.util.Set;
-import java.util.stream.Collectors;
 
 @RestController
 @RequestMapping("/api/public/posts")
 public class PublicPostController {
 
     private final PostService postService;
-    private final LikeRepository likeRepository;
-    private final UserRepository userRepository;
-    private final CommentRepository commentRepository;
+    private final PostResponseAssembler assembler;
 
-    public PublicPostController(PostService postService, LikeRepository likeRepository,
-                                UserRepository userRepository, CommentRepository commentRepository) {
+    public PublicPostController(PostService postService, PostResponseAssembler assembler) {
         this.postService = postService;
-        this.likeRepository = likeRepository;
-        this.userRepository = userRepository;
-        this.commentRepository = commentRepository;
+        this.assembler = assembler;
     }
 
     @GetMapping("/feed")
-    public List<PostResponse> getPublicFeed() {
-        return enrich(postService.getPublicFeed());
+    public CursorPage<PostResponse> getPublicFeed(@RequestParam(required = false) String cursor,
+                                                  @RequestParam(defaultValue = "20") int limit) {
+        CursorPage<Post> page = postService.getPublicFeed(FeedCursor.decode(cursor), limit);
+        return new CursorPage<>(enrich(page.items()), page.nextCursor());
+    }
+
+    @GetMapping("/feed/since")
+    public FeedDelta<PostResponse> getPublicFeedSince(@RequestParam(required = false) String cursor,
+                                                      @RequestParam(defaultValue = "100") int limit) {
+        FeedDelta<Post> delta = postService.getFeedSince(null, FeedWatermark.decode(cursor), limit);
+        return new FeedDelta<>(enrich(delta.posts()), delta.removed(), delta.watermark(), delta.reset(),
+                delta.hasMore());
+    }
+
+    @GetMapping("/feed/hot")
+    public CursorPage<PostResponse> getPublicHotFeed(@RequestParam(required = false) String cursor,
+                                                     @RequestParam(defaultValue = "20") int limit) {
+        CursorPage<Post> page = postService.getHotFeed(null, FeedCursor.decode(cursor), limit);
+        return new CursorPage<>(enrich(page.items()), page.nextCursor());
     }
 
     @GetMapping("/feed/geo")
-    public List<PostResponse> getPublicGeoFeed() {
-        return enrich(postService.getPublicGeoFeed());
+    public CursorPage<PostResponse> getPublicGeoFeed(@RequestParam(required = false) String cursor,
+                                                     @RequestParam(defaultValue = "200") int limit) {
+        CursorPage<Post> page = postService.getPublicGeoFeed(FeedCursor.decode(cursor), limit);
+        return new CursorPage<>(enrich(page.items()), page.nextCursor());
+    }
+
+    @GetMapping("/geo/bbox")
+    public CursorPage<PostResponse> getPublicGeoBox(@RequestParam double south, @RequestParam double north,
+                                                    @RequestParam double west, @RequestParam double east,
+                                                    @RequestParam(required = false) String cursor,
+                                                    @RequestParam(defaultValue = "200") int limit) {
+        CursorPage<Post> page = postService.getGeoFeedInBox(null, south, north, west, east,
+                FeedCursor.decode(cursor), limit);
+        return new CursorPage<>(enrich(page.items()), page.nextCursor());
+    }
+
+    @GetMapping("/geo/radius")
+    public List<PostResponse> getPublicGeoRadius(@RequestParam double lat, @RequestParam double lng,
+                                                 @RequestParam(defaultValue = "10") double radiusKm,
+                                                 @RequestParam(defaultValue = "200") int limit) {
+        return enrich(postService.getPostsWithinRadius(null, lat, lng, radiusKm, limit));
+    }
+
+    @GetMapping("/geo/nearest")
+    public List<PostResponse> getPublicNearest(@RequestParam double lat, @RequestParam double lng,
+                                               @RequestParam(defaultValue = "20") int k) {
+        return enrich(postService.getNearestPosts(null, lat, lng, k));
+    }
+
+    @GetMapping("/geo/tiles/{z}/{x}/{y}")
+    public MapTile getPublicMapTile(@PathVariable int z, @PathVariable int x, @PathVariable int y) {
+        return postService.getMapTile(null, z, x, y);
     }
 
     @GetMapping("/search")
-    public List<PostResponse> searchPosts(@RequestParam String q) {
-        return enrich(postService.searchPublicPosts(q));
+    public List<PostResponse> searchPosts(@RequestParam String q,
+                                          @RequestParam(defaultValue = "0") int page,
+                                          @RequestParam(defaultValue = "20") int size) {
+        return enrich(postService.searchPublicPosts(q, page, size));
     }
 
     @GetMapping("/by-user/{userId}")
@@ -54,20 +96,8 @@ public class PublicPostController {
         return enrich(postService.getPublicPostsByAuthor(userId));
     }
 
+    // Anonymous endpoints: there is no viewer, so userLiked is always false.
     private List<PostResponse> enrich(List<Post> posts) {
-        if (posts.isEmpty()) return List.of();
-        Set<String> authorIds = posts.stream().map(Post::getAuthorId).collect(Collectors.toSet());
-        Map<String, User> authorMap = userRepository.findAllById(authorIds)
-                .stream().collect(Collectors.toMap(User::getId, u -> u));
-        return posts.stream().map(p -> {
-            User author = authorMap.get(p.getAuthorId());
-            PostResponse.AuthorInfo info = author != null
-                    ? new PostResponse.AuthorInfo(author.getId(), author.getUsername(), author.getAvatarUrl())
-                    : new PostResponse.AuthorInfo(p.getAuthorId(), "Unknown", null);
-            return PostResponse.from(p, info,
-                    likeRepository.countByPostId(p.getId()),
-                    false,
-                    commentRepository.countByPost_Id(p.getId()));
-        }).collect(Collectors.toList());
+        return assembler.toResponses(posts, null);
     }
 }
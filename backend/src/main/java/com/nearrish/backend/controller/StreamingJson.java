@@ -0,0 +1,71 @@
+package com.nearrish.backend.controller;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.StreamWriteFeature;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+/**
+ * Writes a list endpoint's body as a JSON array straight to the response, one row at a time, while the rows are
+ * still being read from a repository {@link Stream}. Memory per request is bounded by the query's fetch size and
+ * the output buffer rather than by the number of rows; nothing is collected into a list first.
+ *
+ * The stream is read inside a read-only transaction, which the repository streams need and which lets the JDBC
+ * driver use a cursor.
+ */
+@Component
+public class StreamingJson {
+
+    private static final JsonFactory JSON = JsonFactory.builder()
+            .disable(StreamWriteFeature.AUTO_CLOSE_TARGET)
+            .build();
+
+    /** Writes one row as a JSON value, usually an object. */
+    @FunctionalInterface
+    public interface RowWriter<T> {
+        void write(JsonGenerator json, T row) throws IOException;
+    }
+
+    private final TransactionTemplate readOnly;
+
+    public StreamingJson(PlatformTransactionManager transactionManager) {
+        this.readOnly = new TransactionTemplate(transactionManager);
+        this.readOnly.setReadOnly(true);
+    }
+
+    public <T> void writeArray(HttpServletResponse response, Supplier<Stream<T>> rows, RowWriter<T> writer)
+            throws IOException {
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        try (JsonGenerator json = JSON.createGenerator(response.getOutputStream(), JsonEncoding.UTF8)) {
+            json.writeStartArray();
+            try {
+                readOnly.executeWithoutResult(status -> {
+                    try (Stream<T> stream = rows.get()) {
+                        stream.forEach(row -> {
+                            try {
+                                writer.write(json, row);
+                            } catch (IOException e) {
+                                throw new UncheckedIOException(e);
+                            }
+                        });
+                    }
+                });
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+            json.writeEndArray();
+        }
+    }
+}
@@ -0,0 +1,154 @@
+package com.nearrish.backend.controller;
+
+import com.nearrish.backend.service.ImageVariants;
+import com.nearrish.backend.service.UploadStore;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.MediaTypeFactory;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.util.UriUtils;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+
+/**
+ * Serves stored uploads under {@code /uploads/}.
+ *
+ * Content-addressed files are sent with a year-long {@code immutable} Cache-Control and their hash as ETag, so
+ * browsers and proxies never revalidate them; a variant URL answered with the original (see {@link ImageVariants})
+ * gets a short max-age instead, since the variant will replace it. File metadata comes from
+ * {@link UploadStore#lookup}, conditional requests are answered from it, and a single byte range is supported.
+ *
+ * On Tomcat the body is handed to the connector's sendfile support, so the file goes from the page cache to the
+ * socket without passing through the JVM; elsewhere it is copied with {@link FileChannel#transferTo}.
+ */
+@RestController
+public class UploadController {
+
+    // Tomcat's request attributes for sendfile (org.apache.catalina.Globals).
+    private static final String SENDFILE_SUPPORTED = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+
+    private static final String IMMUTABLE = CacheControl.maxAge(Duration.ofDays(365)).cachePublic().immutable()
+            .getHeaderValue();
+    private static final String FALLBACK = CacheControl.maxAge(Duration.ofMinutes(1)).cachePublic().getHeaderValue();
+    private static final String MUTABLE = CacheControl.maxAge(Duration.ofDays(1)).cachePublic().getHeaderValue();
+
+    private final UploadStore store;
+
+    public UploadController(UploadStore store) {
+        this.store = store;
+    }
+
+    @GetMapping(UploadStore.URL_PREFIX + "**")
+    public void serve(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        String uri = request.getRequestURI().substring(request.getContextPath().length());
+        String path = UriUtils.decode(uri.substring(UploadStore.URL_PREFIX.length()), StandardCharsets.UTF_8);
+
+        UploadStore.FileInfo file = store.lookup(path);
+        boolean fallback = false;
+        if (file == null) {
+            String original = ImageVariants.originalOf(path);
+            file = original != null ? store.lookup(original) : null;
+            fallback = file != null;
+        }
+        if (file == null) {
+            response.sendError(HttpStatus.NOT_FOUND.value());
+            return;
+        }
+
+        response.setHeader(HttpHeaders.CACHE_CONTROL, fallback ? FALLBACK : file.immutable() ? IMMUTABLE : MUTABLE);
+        response.setHeader(HttpHeaders.ACCEPT_RANGES, "bytes");
+        response.setHeader("X-Content-Type-Options", "nosniff");
+        // A fallback shares the original's ETag, which stays correct: it is the original's bytes.
+        if (new ServletWebRequest(request, response).checkNotModified(file.etag(), file.lastModified())) return;
+
+        MediaType type = MediaTypeFactory.getMediaType(file.file().getFileName().toString())
+                .orElse(MediaType.APPLICATION_OCTET_STREAM);
+        response.setContentType(type.toString());
+
+        long start = 0, end = file.size() - 1;
+        long[] range = range(request, file);
+        if (range != null) {
+            if (range.length == 0) {
+                response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes */" + file.size());
+                response.sendError(HttpStatus.REQUESTED_RANGE_NOT_SATISFIABLE.value());
+                return;
+            }
+            start = range[0];
+            end = range[1];
+            response.setStatus(HttpStatus.PARTIAL_CONTENT.value());
+            response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes " + start + "-" + end + "/" + file.size());
+        }
+        long length = end - start + 1;
+        response.setContentLengthLong(length);
+        if ("HEAD".equals(request.getMethod()) || length == 0) return;
+
+        if (Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORTED))) {
+            request.setAttribute(SENDFILE_FILENAME, file.file().toString());
+            request.setAttribute(SENDFILE_START, start);
+            request.setAttribute(SENDFILE_END, end + 1);
+            return;
+        }
+        try (FileChannel in = FileChannel.open(file.file(), StandardOpenOption.READ)) {
+            OutputStream out = response.getOutputStream();
+            WritableByteChannel channel = Channels.newChannel(out);
+            long position = start, remaining = length;
+            while (remaining > 0) {
+                long sent = in.transferTo(position, remaining, channel);
+                if (sent <= 0) break;
+                position += sent;
+                remaining -= sent;
+            }
+            out.flush();
+        }
+    }
+
+    /**
+     * The single byte range requested, as {start, end} inclusive; an empty array if it cannot be satisfied; null to
+     * send the whole file (no Range header, a stale If-Range, several ranges, or a header this does not parse).
+     */
+    static long[] range(HttpServletRequest request, UploadStore.FileInfo file) {
+        String header = request.getHeader(HttpHeaders.RANGE);
+        if (header == null || !header.startsWith("bytes=") || header.indexOf(',') >= 0) return null;
+        String ifRange = request.getHeader(HttpHeaders.IF_RANGE);
+        if (ifRange != null && !ifRange.equals(file.etag())) return null;
+
+        String spec = header.substring("bytes=".length()).trim();
+        int dash = spec.indexOf('-');
+        if (dash < 0) return null;
+        long size = file.size();
+        try {
+            String first = spec.substring(0, dash).trim(), last = spec.substring(dash + 1).trim();
+            long start, end;
+            if (first.isEmpty()) {
+                // Suffix range: the last N bytes.
+                long n = Long.parseLong(last);
+                if (n <= 0) return new long[0];
+                start = Math.max(0, size - n);
+                end = size - 1;
+            } else {
+                start = Long.parseLong(first);
+                if (!last.isEmpty() && Long.parseLong(last) < start) return null;
+                end = last.isEmpty() ? size - 1 : Math.min(Long.parseLong(last), size - 1);
+            }
+            return start >= size ? new long[0] : new long[] {start, end};
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+}
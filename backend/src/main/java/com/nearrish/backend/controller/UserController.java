@@ -1,9 +1,11 @@
 package com.nearrish.backend.controller;
 
 import com.nearrish.backend.entity.User;
-import com.nearrish.backend.repository.FriendRequestRepository;
 import com.nearrish.backend.repository.UserRepository;
 import com.nearrish.backend.service.OnlineStatusService;
+import com.nearrish.backend.service.SocialGraph;
+import com.nearrish.backend.service.UserSearchService;
+import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.http.HttpStatus;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
@@ -12,6 +14,7 @@ import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 import org.springframework.web.server.ResponseStatusException;
 
+import java.io.IOException;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -22,13 +25,19 @@ import java.util.Set;
 public class UserController {
 
     private final UserRepository userRepository;
-    private final FriendRequestRepository friendRequestRepository;
+    private final SocialGraph socialGraph;
     private final OnlineStatusService onlineStatusService;
+    private final UserSearchService userSearchService;
+    private final StreamingJson streamingJson;
 
-    public UserController(UserRepository userRepository, FriendRequestRepository friendRequestRepository, OnlineStatusService onlineStatusService) {
+    public UserController(UserRepository userRepository, SocialGraph socialGraph,
+                          OnlineStatusService onlineStatusService, UserSearchService userSearchService,
+                          StreamingJson streamingJson) {
         this.userRepository = userRepository;
-        this.friendRequestRepository = friendRequestRepository;
+        this.socialGraph = socialGraph;
         this.onlineStatusService = onlineStatusService;
+        this.userSearchService = userSearchService;
+        this.streamingJson = streamingJson;
     }
 
     /** Returns the set of user IDs that are currently connected via WebSocket. */
@@ -37,18 +46,19 @@ public class UserController {
         return onlineStatusService.getOnlineUsers();
     }
 
-    /** Returns all users (id, username, avatarUrl) — used by the friends page to discover new users. */
+    /**
+     * Returns all users (id, username, avatarUrl) — used by the friends page to discover new users.
+     * Streamed straight from the database, so the list is never held in memory.
+     */
     @GetMapping
-    public List<Map<String, String>> listUsers() {
-        return userRepository.findAll().stream()
-                .map(u -> {
-                    Map<String, String> m = new HashMap<>();
-                    m.put("id", u.getId());
-                    m.put("username", u.getUsername());
-                    m.put("avatarUrl", u.getAvatarUrl());
-                    return m;
-                })
-                .toList();
+    public void listUsers(HttpServletResponse response) throws IOException {
+        streamingJson.writeArray(response, userRepository::streamListingRows, (json, row) -> {
+            json.writeStartObject();
+            json.writeStringField("id", (String) row[0]);
+            json.writeStringField("username", (String) row[1]);
+            json.writeStringField("avatarUrl", (String) row[2]);
+            json.writeEndObject();
+        });
     }
 
     @GetMapping("/{id}")
@@ -67,15 +77,16 @@ public class UserController {
     }
 
     @GetMapping("/search")
-    public List<Map<String, String>> searchUsers(@RequestParam String q) {
+    public List<Map<String, String>> searchUsers(@RequestParam String q,
+                                                 @RequestParam(defaultValue = "20") int limit) {
         if (q == null || q.isBlank()) return List.of();
-        return userRepository.searchByUsernameOrName(q.trim()).stream()
+        return userSearchService.search(q, null, false, 0, limit).items().stream()
                 .map(u -> {
                     Map<String, String> m = new HashMap<>();
-                    m.put("id", u.getId());
-                    m.put("username", u.getUsername());
-                    m.put("name", u.getName());
-                    m.put("avatarUrl", u.getAvatarUrl());
+                    m.put("id", u.id());
+                    m.put("username", u.username());
+                    m.put("name", u.name());
+                    m.put("avatarUrl", u.avatarUrl());
                     return m;
                 })
                 .toList();
@@ -86,7 +97,6 @@ public class UserController {
         if (!userRepository.existsById(id)) {
             throw new ResponseStatusException(HttpStatus.NOT_FOUND, "User not found");
         }
-        int count = friendRequestRepository.findAcceptedFriendships(id).size();
-        return Map.of("count", count);
+        return Map.of("count", socialGraph.friendCount(id));
     }
 }
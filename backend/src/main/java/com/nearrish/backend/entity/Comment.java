@@ -4,6 +4,7 @@ import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import jakarta.persistence.*;
+import org.hibernate.annotations.ColumnDefault;
 import org.hibernate.annotations.OnDelete;
 import org.hibernate.annotations.OnDeleteAction;
 
@@ -11,7 +12,10 @@ import java.time.LocalDateTime;
 import java.time.ZoneOffset;
 
 @Entity
-@Table(name = "comments")
+@Table(name = "comments", indexes = {
+        @Index(name = "idx_comment_created_at", columnList = "createdAt DESC"),
+        @Index(name = "idx_comment_like_count", columnList = "likeCount DESC")
+})
 public class Comment {
 
     @Id
@@ -34,7 +38,10 @@ public class Comment {
     private String  moderationReason;
     private String  sentiment;
 
-    @Transient
+    // Written only by EngagementCounterService bulk UPDATEs (see Post.likeCount).
+    // Responses overlay the live value with setLikeCount, which never reaches the database.
+    @ColumnDefault("0")
+    @Column(nullable = false, updatable = false)
     private long likeCount;
 
     // Keep as LocalDateTime so the DB TIMESTAMP column stays compatible.
@@ -10,6 +10,9 @@ import java.util.Set;
 @Table(name = "conversations")
 public class Conversation {
 
+    /** Longest last-message preview kept on the conversation row. */
+    public static final int PREVIEW_LENGTH = 200;
+
     @Id
     @GeneratedValue(strategy = GenerationType.UUID)
     private String id;
@@ -24,12 +27,22 @@ public class Conversation {
             joinColumns = @JoinColumn(name = "conversation_id",
                     foreignKey = @ForeignKey(foreignKeyDefinition = "FOREIGN KEY (conversation_id) REFERENCES conversations(id) ON DELETE CASCADE")),
             inverseJoinColumns = @JoinColumn(name = "user_id",
-                    foreignKey = @ForeignKey(foreignKeyDefinition = "FOREIGN KEY (user_id) REFERENCES users(id) ON DELETE CASCADE"))
+                    foreignKey = @ForeignKey(foreignKeyDefinition = "FOREIGN KEY (user_id) REFERENCES users(id) ON DELETE CASCADE")),
+            // The inbox starts from a user's memberships; the primary key leads with conversation_id.
+            indexes = @Index(name = "idx_conversation_participant_user", columnList = "user_id")
     )
     private Set<User> participants = new HashSet<>();
 
     private LocalDateTime createdAt = LocalDateTime.now();
 
+    // Denormalized from the newest message so the inbox does not have to look it up per conversation.
+    private String lastMessageId;
+    private LocalDateTime lastMessageAt;
+    @Column(length = PREVIEW_LENGTH)
+    private String lastMessagePreview;
+    private String lastMessageSenderId;
+    private boolean lastMessageModerated = false;
+
     public Conversation() {}
 
     public Conversation(User a, User b) {
@@ -49,4 +62,28 @@ public class Conversation {
     public boolean isGroup() { return isGroup; }
     public Set<User> getParticipants() { return participants; }
     public LocalDateTime getCreatedAt() { return createdAt; }
+    public String getLastMessageId() { return lastMessageId; }
+    public LocalDateTime getLastMessageAt() { return lastMessageAt; }
+    public String getLastMessagePreview() { return lastMessagePreview; }
+    public String getLastMessageSenderId() { return lastMessageSenderId; }
+    public boolean isLastMessageModerated() { return lastMessageModerated; }
+
+    /** Makes {@code message} the conversation's last message, or clears it when null. */
+    public void setLastMessage(Message message) {
+        if (message == null) {
+            lastMessageId = null;
+            lastMessageAt = null;
+            lastMessagePreview = null;
+            lastMessageSenderId = null;
+            lastMessageModerated = false;
+            return;
+        }
+        String content = message.getContent();
+        lastMessageId = message.getId();
+        lastMessageAt = message.getCreatedAt();
+        lastMessagePreview = content != null && content.length() > PREVIEW_LENGTH
+                ? content.substring(0, PREVIEW_LENGTH) : content;
+        lastMessageSenderId = message.getSender().getId();
+        lastMessageModerated = message.isModerated();
+    }
 }
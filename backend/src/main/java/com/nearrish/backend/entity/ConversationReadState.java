@@ -4,13 +4,15 @@ import jakarta.persistence.*;
 import java.time.LocalDateTime;
 
 /**
- * Tracks the last time a user read a conversation.
- * Used to compute per-user unread message counts without a shared isRead flag.
+ * Tracks the last time a user read a conversation, and how many messages from others arrived since.
+ * The count is kept per user so the inbox does not have to count messages, and without a shared isRead flag.
  */
 @Entity
 @Table(
     name = "conversation_read_state",
-    uniqueConstraints = @UniqueConstraint(columnNames = {"conversation_id", "user_id"})
+    uniqueConstraints = @UniqueConstraint(columnNames = {"conversation_id", "user_id"}),
+    // A user's unread counts are loaded by user; the unique constraint leads with conversation_id.
+    indexes = @Index(name = "idx_read_state_user", columnList = "user_id")
 )
 public class ConversationReadState {
 
@@ -27,6 +29,10 @@ public class ConversationReadState {
     @Column(name = "last_read_at", nullable = false)
     private LocalDateTime lastReadAt;
 
+    // Incremented in bulk by ChatService.sendMessage, reset by markAsRead.
+    @Column(name = "unread_count", nullable = false, columnDefinition = "integer default 0")
+    private int unreadCount = 0;
+
     public ConversationReadState() {}
 
     public ConversationReadState(String conversationId, String userId, LocalDateTime lastReadAt) {
@@ -40,4 +46,6 @@ public class ConversationReadState {
     public String getUserId() { return userId; }
     public LocalDateTime getLastReadAt() { return lastReadAt; }
     public void setLastReadAt(LocalDateTime lastReadAt) { this.lastReadAt = lastReadAt; }
+    public int getUnreadCount() { return unreadCount; }
+    public void setUnreadCount(int unreadCount) { this.unreadCount = unreadCount; }
 }
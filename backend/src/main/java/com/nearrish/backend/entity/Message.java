@@ -7,7 +7,10 @@ import org.hibernate.annotations.OnDeleteAction;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "messages")
+@Table(name = "messages", indexes = {
+        // Chat history reads one conversation's messages in (createdAt, id) order; the id makes the keyset exact.
+        @Index(name = "idx_message_conversation_time_id", columnList = "conversation_id, createdAt DESC, id DESC")
+})
 public class Message {
 
     @Id
@@ -25,6 +28,8 @@ public class Message {
 
     private String content;
     private boolean isRead = false;
+    // The partition key of messages on Postgres (see db/migration), so it is always set.
+    @Column(nullable = false)
     private LocalDateTime createdAt = LocalDateTime.now();
     private boolean moderated = false;
     private String moderationReason;
@@ -1,12 +1,23 @@
 package com.nearrish.backend.entity;
 
+import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.EnumType;
 import jakarta.persistence.Enumerated;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import org.hibernate.annotations.ColumnDefault;
 
 @Entity
+@Table(indexes = {
+        @Index(name = "idx_post_feed_keyset", columnList = "timestamp DESC, id DESC"),
+        @Index(name = "idx_post_thread", columnList = "threadRootId, threadPath"),
+        @Index(name = "idx_post_like_count", columnList = "likeCount DESC"),
+        @Index(name = "idx_post_comment_count", columnList = "commentCount DESC"),
+        @Index(name = "idx_post_severity", columnList = "moderationSeverity DESC")
+})
 public class Post {
 
     public enum Visibility { PUBLIC, FRIENDS_ONLY }
@@ -18,6 +29,17 @@ public class Post {
     private String authorId;
     private long timestamp;
     private String respondingToId;
+
+    // Materialized reply path. A reply stores its thread's top-level post and the ids of all its ancestors,
+    // top first, as "rootId/.../parentId/", so any subtree is one prefix scan within the thread.
+    // Top-level posts have no thread root, an empty path and depth 0.
+    private String threadRootId;
+    @Column(length = 2048)
+    private String threadPath;
+    @ColumnDefault("0")
+    @Column(nullable = false)
+    private int depth;
+
     private Double latitude;
     private Double longitude;
     private String imageUrl;
@@ -31,6 +53,21 @@ public class Post {
     private String  moderationReason;
     private String  sentiment;
 
+    // Denormalized counters. Only EngagementCounterService writes them, through bulk UPDATEs, so an
+    // entity save (e.g. after moderation) can never overwrite a concurrent increment.
+    @ColumnDefault("0")
+    @Column(nullable = false, updatable = false)
+    private long likeCount;
+
+    @ColumnDefault("0")
+    @Column(nullable = false, updatable = false)
+    private long commentCount;
+
+    // Direct replies only.
+    @ColumnDefault("0")
+    @Column(nullable = false, updatable = false)
+    private long replyCount;
+
     public Post(String text, String authorId, String respondingToId) {
         this.text = text;
         this.authorId = authorId;
@@ -50,6 +87,30 @@ public class Post {
     public Post() {
     }
 
+    // A detached copy of a visible post holding only what responses show; see PostDisplayRow. Never persisted.
+    public Post(String id, String text, String authorId, long timestamp, String respondingToId, String threadRootId,
+                int depth, Double latitude, Double longitude, String imageUrl, Visibility visibility,
+                Integer moderationSeverity, String moderationCategory, String moderationReason,
+                long likeCount, long commentCount, long replyCount) {
+        this.id = id;
+        this.text = text;
+        this.authorId = authorId;
+        this.timestamp = timestamp;
+        this.respondingToId = respondingToId;
+        this.threadRootId = threadRootId;
+        this.depth = depth;
+        this.latitude = latitude;
+        this.longitude = longitude;
+        this.imageUrl = imageUrl;
+        this.visibility = visibility;
+        this.moderationSeverity = moderationSeverity;
+        this.moderationCategory = moderationCategory;
+        this.moderationReason = moderationReason;
+        this.likeCount = likeCount;
+        this.commentCount = commentCount;
+        this.replyCount = replyCount;
+    }
+
     public String getId() { return id; }
 
     public String getText() { return text; }
@@ -64,6 +125,15 @@ public class Post {
     public String getRespondingToId() { return respondingToId; }
     public void setRespondingToId(String respondingToId) { this.respondingToId = respondingToId; }
 
+    public String getThreadRootId() { return threadRootId; }
+    public void setThreadRootId(String threadRootId) { this.threadRootId = threadRootId; }
+
+    public String getThreadPath() { return threadPath; }
+    public void setThreadPath(String threadPath) { this.threadPath = threadPath; }
+
+    public int getDepth() { return depth; }
+    public void setDepth(int depth) { this.depth = depth; }
+
     public Double getLatitude() { return latitude; }
     public void setLatitude(Double latitude) { this.latitude = latitude; }
 
@@ -91,6 +161,13 @@ public class Post {
     public String getSentiment() { return sentiment; }
     public void setSentiment(String sentiment) { this.sentiment = sentiment; }
 
+    /** Last flushed value; add {@code EngagementCounterService} pending deltas for the live count. */
+    public long getLikeCount() { return likeCount; }
+
+    public long getCommentCount() { return commentCount; }
+
+    public long getReplyCount() { return replyCount; }
+
     private String moderationTopic;
     public String getModerationTopic() { return moderationTopic; }
     public void setModerationTopic(String moderationTopic) { this.moderationTopic = moderationTopic; }
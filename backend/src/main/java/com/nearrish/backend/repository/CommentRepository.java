@@ -1,12 +1,17 @@
 package com.nearrish.backend.repository;
 
 import com.nearrish.backend.entity.Comment;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface CommentRepository extends JpaRepository<Comment, String> {
@@ -15,20 +20,39 @@ public interface CommentRepository extends JpaRepository<Comment, String> {
 
     long countByPost_Id(String postId);
 
+    long countByModeratedTrue();
+
     List<Comment> findByAuthor_Id(String authorId);
 
-    @Query("SELECT c FROM Comment c WHERE c.moderated = false AND LOWER(c.content) LIKE LOWER(CONCAT('%', :q, '%')) ORDER BY c.createdAt DESC")
-    List<Comment> searchComments(@Param("q") String q);
+    // Advanced-search browsing without a text query; the order comes from the Pageable's Sort.
+    @Query("SELECT c FROM Comment c WHERE c.moderated = false")
+    Page<Comment> browseUnmoderated(Pageable pageable);
 
-    @Query("SELECT c FROM Comment c WHERE c.moderated = false ORDER BY c.createdAt DESC")
-    List<Comment> findAllUnmoderated();
+    @Query("SELECT c FROM Comment c WHERE c.moderated = false AND c.author.id IN :ids")
+    Page<Comment> browseByAuthors(@Param("ids") Collection<String> ids, Pageable pageable);
 
-    @Query("SELECT c FROM Comment c WHERE c.moderated = false AND c.author.id IN :ids ORDER BY c.createdAt DESC")
-    List<Comment> findByAuthorIds(@Param("ids") List<String> ids);
+    // Ranking keys for a matched set: id, likeCount, createdAt
+    @Query("SELECT c.id, c.likeCount, c.createdAt FROM Comment c WHERE c.id IN :ids")
+    List<Object[]> findRankingRows(@Param("ids") Collection<String> ids);
 
-    @Query("SELECT c FROM Comment c WHERE c.moderated = false AND c.author.id IN :ids AND LOWER(c.content) LIKE LOWER(CONCAT('%', :q, '%')) ORDER BY c.createdAt DESC")
-    List<Comment> searchByAuthorIds(@Param("q") String q, @Param("ids") List<String> ids);
+    // Rows for SearchIndexService: id, authorId, content, createdAt, postId, post authorId, post visibility
+    @Query("SELECT c.id, c.author.id, c.content, c.createdAt, p.id, p.authorId, p.visibility " +
+           "FROM Comment c JOIN c.post p WHERE c.moderated = false " +
+           "AND (p.moderated IS NULL OR p.moderated = false)")
+    List<Object[]> findSearchIndexRows();
 
     @Query("SELECT c.post.id, COUNT(c) FROM Comment c WHERE c.post.id IN :ids GROUP BY c.post.id")
     List<Object[]> countByPostIds(@Param("ids") List<String> ids);
+
+    @Query("SELECT c.likeCount FROM Comment c WHERE c.id = :id")
+    Optional<Long> findLikeCount(@Param("id") String id);
+
+    @Modifying
+    @Query("UPDATE Comment c SET c.likeCount = c.likeCount + :delta WHERE c.id = :id")
+    int addToLikeCount(@Param("id") String id, @Param("delta") long delta);
+
+    @Modifying
+    @Query("UPDATE Comment c SET c.likeCount = (SELECT COUNT(l) FROM Like l WHERE l.comment.id = c.id) " +
+           "WHERE c.likeCount <> (SELECT COUNT(l) FROM Like l WHERE l.comment.id = c.id)")
+    int reconcileLikeCounts();
 }
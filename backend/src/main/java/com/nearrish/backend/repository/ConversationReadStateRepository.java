@@ -2,8 +2,12 @@ package com.nearrish.backend.repository;
 
 import com.nearrish.backend.entity.ConversationReadState;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
 import java.util.Optional;
 
 @Repository
@@ -11,7 +15,35 @@ public interface ConversationReadStateRepository extends JpaRepository<Conversat
 
     Optional<ConversationReadState> findByConversationIdAndUserId(String conversationId, String userId);
 
+    List<ConversationReadState> findByConversationId(String conversationId);
+
     void deleteByConversationId(String conversationId);
 
     void deleteByUserId(String userId);
+
+    void deleteByConversationIdAndUserId(String conversationId, String userId);
+
+    // Rows for a user's conversations with unread messages: conversationId, unreadCount
+    @Query("SELECT rs.conversationId, rs.unreadCount FROM ConversationReadState rs " +
+           "WHERE rs.userId = :userId AND rs.unreadCount > 0")
+    List<Object[]> findUnreadRows(@Param("userId") String userId);
+
+    /** Counts a new message as unread for everyone in the conversation except its sender. */
+    @Modifying
+    @Query("UPDATE ConversationReadState rs SET rs.unreadCount = rs.unreadCount + 1 " +
+           "WHERE rs.conversationId = :conversationId AND rs.userId <> :senderId")
+    int incrementUnread(@Param("conversationId") String conversationId, @Param("senderId") String senderId);
+
+    // Rows for participants without a read state: conversationId, userId
+    @Query("SELECT c.id, p.id FROM Conversation c JOIN c.participants p WHERE NOT EXISTS " +
+           "(SELECT rs FROM ConversationReadState rs WHERE rs.conversationId = c.id AND rs.userId = p.id)")
+    List<Object[]> findMissingRows();
+
+    /** Recounts unread messages from the messages table and repairs the counters that drifted. */
+    @Modifying
+    @Query("UPDATE ConversationReadState rs SET rs.unreadCount = (SELECT COUNT(m) FROM Message m " +
+           "WHERE m.conversation.id = rs.conversationId AND m.sender.id <> rs.userId AND m.createdAt > rs.lastReadAt) " +
+           "WHERE rs.unreadCount <> (SELECT COUNT(m) FROM Message m " +
+           "WHERE m.conversation.id = rs.conversationId AND m.sender.id <> rs.userId AND m.createdAt > rs.lastReadAt)")
+    int reconcileUnreadCounts();
 }
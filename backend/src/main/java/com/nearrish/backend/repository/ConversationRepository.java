@@ -1,10 +1,16 @@
 package com.nearrish.backend.repository;
 
 import com.nearrish.backend.entity.Conversation;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -16,4 +22,53 @@ public interface ConversationRepository extends JpaRepository<Conversation, Stri
 
     @Query("SELECT c FROM Conversation c JOIN c.participants p1 JOIN c.participants p2 WHERE p1.id = :userId1 AND p2.id = :userId2 AND c.isGroup = false")
     Optional<Conversation> findByTwoParticipants(String userId1, String userId2);
+
+    @Query("SELECT COUNT(p) > 0 FROM Conversation c JOIN c.participants p WHERE c.id = :conversationId AND p.id = :userId")
+    boolean hasParticipant(@Param("conversationId") String conversationId, @Param("userId") String userId);
+
+    // Rows for a user's inbox, most recently active first: id, name, isGroup, createdAt, lastMessageId,
+    // lastMessageAt, lastMessagePreview, lastMessageSenderId, lastMessageModerated, unreadCount.
+    // Keyset-paginated on (last activity, id): pass the last row of the previous page as (beforeAt, beforeId) to
+    // findInboxRowsBefore, or use findInboxRows for the first page.
+    @Query("SELECT c.id, c.name, c.isGroup, c.createdAt, c.lastMessageId, c.lastMessageAt, c.lastMessagePreview, " +
+           "c.lastMessageSenderId, c.lastMessageModerated, COALESCE(rs.unreadCount, 0) " +
+           "FROM Conversation c JOIN c.participants p " +
+           "LEFT JOIN ConversationReadState rs ON rs.conversationId = c.id AND rs.userId = :userId " +
+           "WHERE p.id = :userId ORDER BY COALESCE(c.lastMessageAt, c.createdAt) DESC, c.id DESC")
+    List<Object[]> findInboxRows(@Param("userId") String userId, Pageable pageable);
+
+    @Query("SELECT c.id, c.name, c.isGroup, c.createdAt, c.lastMessageId, c.lastMessageAt, c.lastMessagePreview, " +
+           "c.lastMessageSenderId, c.lastMessageModerated, COALESCE(rs.unreadCount, 0) " +
+           "FROM Conversation c JOIN c.participants p " +
+           "LEFT JOIN ConversationReadState rs ON rs.conversationId = c.id AND rs.userId = :userId " +
+           "WHERE p.id = :userId AND (COALESCE(c.lastMessageAt, c.createdAt) < :beforeAt " +
+           "OR (COALESCE(c.lastMessageAt, c.createdAt) = :beforeAt AND c.id < :beforeId)) " +
+           "ORDER BY COALESCE(c.lastMessageAt, c.createdAt) DESC, c.id DESC")
+    List<Object[]> findInboxRowsBefore(@Param("userId") String userId,
+                                       @Param("beforeAt") LocalDateTime beforeAt,
+                                       @Param("beforeId") String beforeId,
+                                       Pageable pageable);
+
+    // Rows for the participants of several conversations: conversationId, userId, username, email, avatarUrl
+    @Query("SELECT c.id, p.id, p.username, p.email, p.avatarUrl FROM Conversation c JOIN c.participants p " +
+           "WHERE c.id IN :ids")
+    List<Object[]> findParticipantRows(@Param("ids") Collection<String> ids);
+
+    /** Conversations that have messages but no denormalized last message (created before it was kept). */
+    @Query("SELECT c FROM Conversation c WHERE c.lastMessageId IS NULL " +
+           "AND EXISTS (SELECT m FROM Message m WHERE m.conversation = c)")
+    List<Conversation> findMissingLastMessage();
+
+    List<Conversation> findByLastMessageSenderId(String senderId);
+
+    /**
+     * Marks the last-message preview moderated, if {@code messageId} is still the last message. Called from the
+     * asynchronous moderation callback, hence its own transaction.
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE Conversation c SET c.lastMessageModerated = true " +
+           "WHERE c.id = :conversationId AND c.lastMessageId = :messageId")
+    int markLastMessageModerated(@Param("conversationId") String conversationId,
+                                 @Param("messageId") String messageId);
 }
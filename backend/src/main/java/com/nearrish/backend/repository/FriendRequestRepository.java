@@ -17,8 +17,13 @@ public interface FriendRequestRepository extends JpaRepository<FriendRequest, St
 
     List<FriendRequest> findBySenderIdAndStatus(String senderId, FriendRequest.Status status);
 
-    @Query("SELECT f FROM FriendRequest f WHERE (f.sender.id = :userId OR f.receiver.id = :userId) AND f.status = 'ACCEPTED'")
-    List<FriendRequest> findAcceptedFriendships(String userId);
+    // Edges for SocialGraph: senderId, receiverId of every accepted request.
+    @Query("SELECT f.sender.id, f.receiver.id FROM FriendRequest f WHERE f.status = 'ACCEPTED'")
+    List<Object[]> findAcceptedPairs();
+
+    @Query("SELECT f FROM FriendRequest f WHERE f.status = 'ACCEPTED' AND "
+            + "((f.sender.id = :userIdA AND f.receiver.id = :userIdB) OR (f.sender.id = :userIdB AND f.receiver.id = :userIdA))")
+    List<FriendRequest> findAcceptedBetween(String userIdA, String userIdB);
 
     boolean existsBySenderIdAndReceiverIdAndStatus(String senderId, String receiverId, FriendRequest.Status status);
 }
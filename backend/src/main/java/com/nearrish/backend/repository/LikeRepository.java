@@ -29,6 +29,9 @@ public interface LikeRepository extends JpaRepository<Like, String> {
     @Query("SELECT l.post.id, COUNT(l) FROM Like l WHERE l.post IS NOT NULL AND l.post.id IN :ids GROUP BY l.post.id")
     List<Object[]> countLikesByPostIds(@Param("ids") List<String> ids);
 
+    @Query("SELECT l.post.id FROM Like l WHERE l.user.id = :userId AND l.post.id IN :ids")
+    List<String> findPostIdsLikedByUser(@Param("userId") String userId, @Param("ids") List<String> ids);
+
     @Query("SELECT l.comment.id, COUNT(l) FROM Like l WHERE l.comment IS NOT NULL AND l.comment.id IN :ids GROUP BY l.comment.id")
     List<Object[]> countLikesByCommentIds(@Param("ids") List<String> ids);
 }
@@ -17,13 +17,28 @@ public interface MessageRepository extends JpaRepository<Message, String> {
 
     List<Message> findByConversationIdOrderByCreatedAt(String conversationId);
 
-    List<Message> findByConversationIdOrderByCreatedAtDesc(String conversationId, Pageable pageable);
-
-    @Query("SELECT m FROM Message m WHERE m.conversation.id = :conversationId AND m.createdAt < :before ORDER BY m.createdAt DESC")
-    List<Message> findBeforeCursor(@Param("conversationId") String conversationId, @Param("before") LocalDateTime before, Pageable pageable);
+    // Rows for a conversation's history, newest first: id, senderId, senderUsername, senderEmail, content,
+    // isRead, createdAt, moderated, moderationReason. Neither the conversation nor the sender entity is loaded.
+    // History is keyset-paginated on (createdAt, id) along idx_message_conversation_time_id: pass the last row
+    // of the previous page as (beforeAt, beforeId), or use findHistoryRows for the newest page.
+    @Query("SELECT m.id, s.id, s.username, s.email, m.content, m.isRead, m.createdAt, m.moderated, m.moderationReason " +
+           "FROM Message m JOIN m.sender s WHERE m.conversation.id = :conversationId " +
+           "ORDER BY m.createdAt DESC, m.id DESC")
+    List<Object[]> findHistoryRows(@Param("conversationId") String conversationId, Pageable pageable);
+
+    @Query("SELECT m.id, s.id, s.username, s.email, m.content, m.isRead, m.createdAt, m.moderated, m.moderationReason " +
+           "FROM Message m JOIN m.sender s WHERE m.conversation.id = :conversationId " +
+           "AND (m.createdAt < :beforeAt OR (m.createdAt = :beforeAt AND m.id < :beforeId)) " +
+           "ORDER BY m.createdAt DESC, m.id DESC")
+    List<Object[]> findHistoryRowsBefore(@Param("conversationId") String conversationId,
+                                         @Param("beforeAt") LocalDateTime beforeAt,
+                                         @Param("beforeId") String beforeId,
+                                         Pageable pageable);
 
     Optional<Message> findTopByConversationIdOrderByCreatedAtDesc(String conversationId);
 
+    Optional<Message> findTopByConversationIdAndSender_IdNotOrderByCreatedAtDesc(String conversationId, String senderId);
+
     /** Legacy per-message isRead (used for DM read-receipt checkmarks only). */
     @Query("SELECT COUNT(m) FROM Message m WHERE m.conversation.id = :conversationId AND m.sender.id <> :userId AND m.isRead = false")
     long countUnread(String conversationId, String userId);
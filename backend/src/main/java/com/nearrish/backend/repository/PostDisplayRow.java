@@ -0,0 +1,22 @@
+package com.nearrish.backend.repository;
+
+import com.nearrish.backend.entity.Post;
+
+/**
+ * A post as feed, search and map pages render it, read as one flat row together with its author's username and
+ * avatar and its denormalized counters. Built by a constructor expression, so nothing enters the persistence
+ * context. The author columns are null when the author no longer exists.
+ */
+public record PostDisplayRow(String id, String text, String authorId, String authorUsername, String authorAvatarUrl,
+                             long timestamp, String respondingToId, String threadRootId, int depth,
+                             Double latitude, Double longitude, String imageUrl, Post.Visibility visibility,
+                             Integer moderationSeverity, String moderationCategory, String moderationReason,
+                             long likeCount, long commentCount, long replyCount) {
+
+    /** A detached post carrying this row, for the response assembler. It must not be saved. */
+    public Post toPost() {
+        return new Post(id, text, authorId, timestamp, respondingToId, threadRootId, depth, latitude, longitude,
+                imageUrl, visibility, moderationSeverity, moderationCategory, moderationReason,
+                likeCount, commentCount, replyCount);
+    }
+}
@@ -1,17 +1,48 @@
 package com.nearrish.backend.repository;
 
 import com.nearrish.backend.entity.Post;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface PostRepository extends JpaRepository<Post, String> {
+
+    // Feed, search and map pages only render their posts: they read PostDisplayRow projections, one flat row per
+    // post with the author joined in and the denormalized counters, instead of managed entities.
+    String DISPLAY_ROWS = "SELECT new com.nearrish.backend.repository.PostDisplayRow(p.id, p.text, p.authorId, " +
+            "u.username, u.avatarUrl, p.timestamp, p.respondingToId, p.threadRootId, p.depth, p.latitude, " +
+            "p.longitude, p.imageUrl, p.visibility, p.moderationSeverity, p.moderationCategory, " +
+            "p.moderationReason, p.likeCount, p.commentCount, p.replyCount) " +
+            "FROM Post p LEFT JOIN User u ON u.id = p.authorId ";
+
     List<Post> findByAuthorId(String authorId);
 
+    // Analytics. Windowed reads are bounded ranges on the timestamp, which idx_post_feed_keyset leads with.
+    long countByTimestampGreaterThanEqual(long since);
+
+    long countByModeratedTrue();
+
+    long countByModerationSeverityGreaterThanEqual(int severity);
+
+    // Rows for per-day activity: timestamp, moderated, moderationSeverity
+    @Query("SELECT p.timestamp, p.moderated, p.moderationSeverity FROM Post p " +
+           "WHERE p.timestamp >= :since AND p.timestamp < :until")
+    List<Object[]> findActivityRows(@Param("since") long since, @Param("until") long until);
+
+    // Display rows for posts picked by an index (timeline, geo, search). Moderated posts are filtered here rather
+    // than after loading.
+    @Query(DISPLAY_ROWS + "WHERE p.id IN :ids AND p.moderated = false")
+    List<PostDisplayRow> findDisplayRows(@Param("ids") Collection<String> ids);
+
     void deleteByAuthorId(String authorId);
 
     @Query("SELECT p FROM Post p WHERE p.authorId = :authorId AND p.respondingToId IS NULL AND " +
@@ -22,47 +53,172 @@ public interface PostRepository extends JpaRepository<Post, String> {
 
     // Visibility-aware feed: PUBLIC posts from anyone, or FRIENDS_ONLY posts from user + friends.
     // NULL visibility is treated as PUBLIC for backward compatibility with existing rows.
-    @Query("SELECT p FROM Post p WHERE p.respondingToId IS NULL AND " +
+    // Feed queries are keyset-paginated on (timestamp, id): pass the last row of the previous
+    // page as (beforeTs, beforeId), or FeedCursor.START for the first page.
+    @Query(DISPLAY_ROWS + "WHERE p.respondingToId IS NULL AND " +
            "(p.visibility = 'PUBLIC' OR p.visibility IS NULL OR p.authorId IN :friendAndSelfIds) " +
            "AND (p.moderated IS NULL OR p.moderated = false) " +
-           "ORDER BY p.timestamp DESC")
-    List<Post> findFeedForUser(@Param("friendAndSelfIds") List<String> friendAndSelfIds);
+           "AND (p.timestamp < :beforeTs OR (p.timestamp = :beforeTs AND p.id < :beforeId)) " +
+           "ORDER BY p.timestamp DESC, p.id DESC")
+    List<PostDisplayRow> findFeedForUser(@Param("friendAndSelfIds") List<String> friendAndSelfIds,
+                                         @Param("beforeTs") long beforeTs,
+                                         @Param("beforeId") String beforeId,
+                                         Pageable pageable);
 
-    @Query("SELECT p FROM Post p WHERE p.respondingToId IS NULL " +
+    @Query(DISPLAY_ROWS + "WHERE p.respondingToId IS NULL " +
            "AND p.latitude IS NOT NULL AND p.longitude IS NOT NULL AND " +
            "(p.visibility = 'PUBLIC' OR p.visibility IS NULL OR p.authorId IN :friendAndSelfIds) " +
            "AND (p.moderated IS NULL OR p.moderated = false) " +
-           "ORDER BY p.timestamp DESC")
-    List<Post> findGeoFeedForUser(@Param("friendAndSelfIds") List<String> friendAndSelfIds);
+           "AND (p.timestamp < :beforeTs OR (p.timestamp = :beforeTs AND p.id < :beforeId)) " +
+           "ORDER BY p.timestamp DESC, p.id DESC")
+    List<PostDisplayRow> findGeoFeedForUser(@Param("friendAndSelfIds") List<String> friendAndSelfIds,
+                                            @Param("beforeTs") long beforeTs,
+                                            @Param("beforeId") String beforeId,
+                                            Pageable pageable);
 
-    @Query("SELECT p FROM Post p WHERE p.respondingToId IS NULL AND " +
-           "(p.visibility = 'PUBLIC' OR p.visibility IS NULL) " +
-           "AND (p.moderated IS NULL OR p.moderated = false) " +
-           "ORDER BY p.timestamp DESC")
-    List<Post> findPublicFeed();
 
-    @Query("SELECT p FROM Post p WHERE p.respondingToId IS NULL AND " +
-           "(p.visibility = 'PUBLIC' OR p.visibility IS NULL) AND " +
-           "LOWER(p.text) LIKE LOWER(CONCAT('%', :q, '%')) " +
+    @Query(DISPLAY_ROWS + "WHERE p.respondingToId IS NULL AND " +
+           "(p.visibility = 'PUBLIC' OR p.visibility IS NULL) " +
            "AND (p.moderated IS NULL OR p.moderated = false) " +
-           "ORDER BY p.timestamp DESC")
-    List<Post> searchPublicPosts(@Param("q") String q);
+           "AND (p.timestamp < :beforeTs OR (p.timestamp = :beforeTs AND p.id < :beforeId)) " +
+           "ORDER BY p.timestamp DESC, p.id DESC")
+    List<PostDisplayRow> findPublicFeed(@Param("beforeTs") long beforeTs,
+                                        @Param("beforeId") String beforeId,
+                                        Pageable pageable);
 
-    @Query("SELECT p FROM Post p WHERE p.respondingToId IS NULL " +
+    @Query(DISPLAY_ROWS + "WHERE p.respondingToId IS NULL " +
            "AND p.latitude IS NOT NULL AND p.longitude IS NOT NULL AND " +
            "(p.visibility = 'PUBLIC' OR p.visibility IS NULL) " +
            "AND (p.moderated IS NULL OR p.moderated = false) " +
-           "ORDER BY p.timestamp DESC")
-    List<Post> findPublicGeoFeed();
+           "AND (p.timestamp < :beforeTs OR (p.timestamp = :beforeTs AND p.id < :beforeId)) " +
+           "ORDER BY p.timestamp DESC, p.id DESC")
+    List<PostDisplayRow> findPublicGeoFeed(@Param("beforeTs") long beforeTs,
+                                           @Param("beforeId") String beforeId,
+                                           Pageable pageable);
+
+    // Advanced-search browsing without a text query. The order comes from the Pageable's Sort, over
+    // indexed columns (timestamp and the denormalized counters); the count query only runs when the
+    // page alone cannot tell the total.
+    @Query("SELECT p FROM Post p WHERE p.respondingToId IS NULL AND " +
+           "(p.visibility = 'PUBLIC' OR p.visibility IS NULL) " +
+           "AND (p.moderated IS NULL OR p.moderated = false)")
+    Page<Post> browsePublic(Pageable pageable);
+
+    @Query("SELECT p FROM Post p WHERE p.respondingToId IS NULL AND p.authorId IN :authorIds " +
+           "AND (p.visibility = 'PUBLIC' OR p.visibility IS NULL OR p.authorId IN :friendAndSelfIds) " +
+           "AND (p.moderated IS NULL OR p.moderated = false)")
+    Page<Post> browseByAuthors(@Param("authorIds") Collection<String> authorIds,
+                               @Param("friendAndSelfIds") Collection<String> friendAndSelfIds,
+                               Pageable pageable);
+
+    // Ids of top-level posts without a location, newest first, which nearest-first browsing lists after
+    // every geotagged post. friendAndSelfIds may be empty, leaving public posts only.
+    @Query("SELECT p.id FROM Post p WHERE p.respondingToId IS NULL " +
+           "AND (p.latitude IS NULL OR p.longitude IS NULL) " +
+           "AND (p.visibility = 'PUBLIC' OR p.visibility IS NULL OR p.authorId IN :friendAndSelfIds) " +
+           "AND (p.moderated IS NULL OR p.moderated = false) ORDER BY p.timestamp DESC, p.id DESC")
+    Page<String> browseUnlocatedIds(@Param("friendAndSelfIds") Collection<String> friendAndSelfIds,
+                                    Pageable pageable);
+
+    @Query("SELECT p.id FROM Post p WHERE p.respondingToId IS NULL AND p.authorId IN :authorIds " +
+           "AND (p.latitude IS NULL OR p.longitude IS NULL) " +
+           "AND (p.visibility = 'PUBLIC' OR p.visibility IS NULL OR p.authorId IN :friendAndSelfIds) " +
+           "AND (p.moderated IS NULL OR p.moderated = false) ORDER BY p.timestamp DESC, p.id DESC")
+    Page<String> browseUnlocatedIdsByAuthors(@Param("authorIds") Collection<String> authorIds,
+                                             @Param("friendAndSelfIds") Collection<String> friendAndSelfIds,
+                                             Pageable pageable);
 
-    @Query("SELECT p FROM Post p WHERE p.respondingToId IS NULL AND p.authorId IN :ids " +
+    // Ranking keys for a matched set: id, likeCount, commentCount, moderationSeverity, latitude, longitude, timestamp
+    @Query("SELECT p.id, p.likeCount, p.commentCount, p.moderationSeverity, p.latitude, p.longitude, p.timestamp " +
+           "FROM Post p WHERE p.id IN :ids")
+    List<Object[]> findRankingRows(@Param("ids") Collection<String> ids);
+
+    // Timeline seeds: only (id, timestamp) of the newest visible top-level posts, no entity hydration.
+    @Query("SELECT p.id, p.timestamp FROM Post p WHERE p.respondingToId IS NULL AND p.authorId IN :authorIds " +
            "AND (p.moderated IS NULL OR p.moderated = false) " +
-           "ORDER BY p.timestamp DESC")
-    List<Post> findByFriends(@Param("ids") List<String> ids);
+           "ORDER BY p.timestamp DESC, p.id DESC")
+    List<Object[]> findTimelineSeed(@Param("authorIds") List<String> authorIds, Pageable pageable);
 
-    @Query("SELECT p FROM Post p WHERE p.respondingToId IS NULL AND p.authorId IN :ids " +
+    @Query("SELECT p.id, p.timestamp FROM Post p WHERE p.respondingToId IS NULL AND " +
+           "(p.visibility = 'PUBLIC' OR p.visibility IS NULL) " +
            "AND (p.moderated IS NULL OR p.moderated = false) " +
-           "AND LOWER(p.text) LIKE LOWER(CONCAT('%', :q, '%')) " +
-           "ORDER BY p.timestamp DESC")
-    List<Post> searchByFriends(@Param("q") String q, @Param("ids") List<String> ids);
+           "ORDER BY p.timestamp DESC, p.id DESC")
+    List<Object[]> findPublicTimelineSeed(Pageable pageable);
+
+    boolean existsByTimestampGreaterThan(long timestamp);
+
+    // Rows for GeoIndexService: id, authorId, latitude, longitude, timestamp, visibility
+    @Query("SELECT p.id, p.authorId, p.latitude, p.longitude, p.timestamp, p.visibility FROM Post p " +
+           "WHERE p.respondingToId IS NULL AND p.latitude IS NOT NULL AND p.longitude IS NOT NULL " +
+           "AND (p.moderated IS NULL OR p.moderated = false)")
+    List<Object[]> findGeoIndexRows();
+
+    // Rows for SearchIndexService: id, authorId, text, timestamp, visibility
+    @Query("SELECT p.id, p.authorId, p.text, p.timestamp, p.visibility FROM Post p " +
+           "WHERE p.respondingToId IS NULL AND (p.moderated IS NULL OR p.moderated = false)")
+    List<Object[]> findSearchIndexRows();
+
+    // Rows for HotFeedService: id, authorId, timestamp, visibility, likeCount, commentCount
+    @Query("SELECT p.id, p.authorId, p.timestamp, p.visibility, p.likeCount, p.commentCount FROM Post p " +
+           "WHERE p.respondingToId IS NULL AND (p.moderated IS NULL OR p.moderated = false) " +
+           "AND p.timestamp >= :since")
+    List<Object[]> findHotRankingRows(@Param("since") long since);
+
+    // ── Reply threads ─────────────────────────────────────────────────────────
+
+    // Breadth first (depth, then time), so any prefix of the result is a connected top of the subtree.
+    @Query("SELECT p FROM Post p WHERE p.threadRootId = :rootId AND p.threadPath LIKE :pathPrefix " +
+           "AND p.depth <= :maxDepth ORDER BY p.depth ASC, p.timestamp ASC, p.id ASC")
+    List<Post> findSubtree(@Param("rootId") String rootId, @Param("pathPrefix") String pathPrefix,
+                           @Param("maxDepth") int maxDepth, Pageable pageable);
+
+    boolean existsByRespondingToIdIsNotNullAndThreadRootIdIsNull();
+
+    // Rows for the thread backfill: id, respondingToId, threadRootId, threadPath, depth
+    @Query("SELECT p.id, p.respondingToId, p.threadRootId, p.threadPath, p.depth FROM Post p " +
+           "WHERE p.respondingToId IS NOT NULL")
+    List<Object[]> findReplyThreadRows();
+
+    @Modifying
+    @Query("UPDATE Post p SET p.threadRootId = :rootId, p.threadPath = :path, p.depth = :depth WHERE p.id = :id")
+    int setThread(@Param("id") String id, @Param("rootId") String rootId, @Param("path") String path,
+                  @Param("depth") int depth);
+
+    // ── Denormalized counters (EngagementCounterService) ─────────────────────
+
+    @Query("SELECT p.likeCount FROM Post p WHERE p.id = :id")
+    Optional<Long> findLikeCount(@Param("id") String id);
+
+    @Query("SELECT p.commentCount FROM Post p WHERE p.id = :id")
+    Optional<Long> findCommentCount(@Param("id") String id);
+
+    @Query("SELECT p.replyCount FROM Post p WHERE p.id = :id")
+    Optional<Long> findReplyCount(@Param("id") String id);
+
+    @Modifying
+    @Query("UPDATE Post p SET p.likeCount = p.likeCount + :delta WHERE p.id = :id")
+    int addToLikeCount(@Param("id") String id, @Param("delta") long delta);
+
+    @Modifying
+    @Query("UPDATE Post p SET p.commentCount = p.commentCount + :delta WHERE p.id = :id")
+    int addToCommentCount(@Param("id") String id, @Param("delta") long delta);
+
+    @Modifying
+    @Query("UPDATE Post p SET p.replyCount = p.replyCount + :delta WHERE p.id = :id")
+    int addToReplyCount(@Param("id") String id, @Param("delta") long delta);
+
+    @Modifying
+    @Query("UPDATE Post p SET p.likeCount = (SELECT COUNT(l) FROM Like l WHERE l.post.id = p.id) " +
+           "WHERE p.likeCount <> (SELECT COUNT(l) FROM Like l WHERE l.post.id = p.id)")
+    int reconcileLikeCounts();
+
+    @Modifying
+    @Query("UPDATE Post p SET p.commentCount = (SELECT COUNT(c) FROM Comment c WHERE c.post.id = p.id) " +
+           "WHERE p.commentCount <> (SELECT COUNT(c) FROM Comment c WHERE c.post.id = p.id)")
+    int reconcileCommentCounts();
+
+    @Modifying
+    @Query("UPDATE Post p SET p.replyCount = (SELECT COUNT(r) FROM Post r WHERE r.respondingToId = p.id) " +
+           "WHERE p.replyCount <> (SELECT COUNT(r) FROM Post r WHERE r.respondingToId = p.id)")
+    int reconcileReplyCounts();
 }
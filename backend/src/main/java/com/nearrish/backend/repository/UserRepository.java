@@ -1,14 +1,19 @@
 package com.nearrish.backend.repository;
 
 import com.nearrish.backend.entity.User;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
-import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
+import org.springframework.data.repository.CrudRepository;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface UserRepository extends JpaRepository<User, String> {
@@ -27,8 +32,25 @@ public interface UserRepository extends JpaRepository<User, String> {
     @Query("SELECT DISTINCT u FROM User u")
     List<User> findAllDistinct();
 
-    @Query("SELECT u FROM User u WHERE LOWER(u.username) LIKE LOWER(CONCAT('%', :q, '%')) " +
-           "OR LOWER(u.name) LIKE LOWER(CONCAT('%', :q, '%'))")
-    List<User> searchByUsernameOrName(@Param("q") String q);
+    // Rows for UserSearchService: id, username, name, nickname, avatarUrl
+    @Query("SELECT u.id, u.username, u.name, u.nickname, u.avatarUrl FROM User u")
+    List<Object[]> findDirectoryRows();
+
+    // Rows for AuthorCache: id, username, avatarUrl
+    @Query("SELECT u.id, u.username, u.avatarUrl FROM User u WHERE u.id IN :ids")
+    List<Object[]> findAuthorRows(@Param("ids") Collection<String> ids);
+
+    // Streamed rows for the public user list: id, username, avatarUrl. Needs a transaction.
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query("SELECT u.id, u.username, u.avatarUrl FROM User u")
+    Stream<Object[]> streamListingRows();
+
+    // Streamed rows for the admin user list: id, username, name, nickname, email, address, avatarUrl,
+    // then the toxicity report's score, summary and generatedAt (null without a report). Needs a transaction.
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query("SELECT u.id, u.username, u.name, u.nickname, u.email, u.address, u.avatarUrl, " +
+           "r.score, r.summary, r.generatedAt " +
+           "FROM User u LEFT JOIN UserToxicityReport r ON r.userId = u.id")
+    Stream<Object[]> streamAdminRows();
 
 }
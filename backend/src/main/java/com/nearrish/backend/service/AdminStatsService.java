@@ -1,6 +1,5 @@
 package com.nearrish.backend.service;
 
-import com.nearrish.backend.entity.Post;
 import com.nearrish.backend.repository.*;
 import org.springframework.messaging.simp.SimpMessagingTemplate;
 import org.springframework.scheduling.annotation.Scheduled;
@@ -57,19 +56,18 @@ public class AdminStatsService {
     }
 
     public Map<String, Object> buildLiveSnapshot() {
-        List<Post> posts     = postRepository.findAll();
         long totalUsers      = userRepository.count();
-        long totalPosts      = posts.size();
+        long totalPosts      = postRepository.count();
         long totalComments   = commentRepository.count();
         long totalMessages   = messageRepository.count();
         long onlineNow       = onlineStatusService.getOnlineUsers().size();
 
-        long flaggedPosts    = posts.stream().filter(p -> p.getModerationSeverity() != null && p.getModerationSeverity() >= 2).count();
-        long blockedPosts    = posts.stream().filter(Post::isModerated).count();
-        long blockedComments = commentRepository.findAll().stream().filter(c -> c.isModerated()).count();
+        long flaggedPosts    = postRepository.countByModerationSeverityGreaterThanEqual(2);
+        long blockedPosts    = postRepository.countByModeratedTrue();
+        long blockedComments = commentRepository.countByModeratedTrue();
 
-        long postsLast1h  = countPostsInWindow(posts, 3_600_000L);
-        long postsLast24h = countPostsInWindow(posts, 86_400_000L);
+        long postsLast1h  = countPostsInWindow(3_600_000L);
+        long postsLast24h = countPostsInWindow(86_400_000L);
 
         double blockRate = totalPosts == 0 ? 0 : Math.round(blockedPosts * 10000.0 / totalPosts) / 100.0;
 
@@ -110,27 +108,31 @@ public class AdminStatsService {
     public List<Map<String, Object>> postActivityLastNDays(int days) {
         long now   = System.currentTimeMillis();
         long dayMs = 86_400_000L;
-        List<Post> posts = postRepository.findAll();
+        // Only the requested days are read; bucket i holds [now - (i+1) days, now - i days).
+        long[] total   = new long[days];
+        long[] blocked = new long[days];
+        long[] flagged = new long[days];
+        for (Object[] row : postRepository.findActivityRows(now - days * dayMs, now)) {
+            int i = (int) ((now - 1 - (long) row[0]) / dayMs);
+            if (i < 0 || i >= days) continue;
+            total[i]++;
+            if ((boolean) row[1]) blocked[i]++;
+            if (row[2] != null && (int) row[2] >= 2) flagged[i]++;
+        }
 
         List<Map<String, Object>> result = new ArrayList<>();
         for (int i = days - 1; i >= 0; i--) {
-            long dayStart = now - (long)(i + 1) * dayMs;
             long dayEnd   = now - (long) i * dayMs;
 
-            long total   = posts.stream().filter(p -> p.getTimestamp() >= dayStart && p.getTimestamp() < dayEnd).count();
-            long blocked = posts.stream().filter(p -> p.getTimestamp() >= dayStart && p.getTimestamp() < dayEnd && p.isModerated()).count();
-            long flagged = posts.stream().filter(p -> p.getTimestamp() >= dayStart && p.getTimestamp() < dayEnd
-                    && p.getModerationSeverity() != null && p.getModerationSeverity() >= 2).count();
-
             String iso = Instant.ofEpochMilli(dayEnd - 1).atZone(ZoneOffset.UTC)
                     .format(DateTimeFormatter.ofPattern("yyyy-MM-dd"));
 
             Map<String, Object> row = new LinkedHashMap<>();
             row.put("date",    iso);
             row.put("ts",      dayEnd);
-            row.put("posts",   total);
-            row.put("blocked", blocked);
-            row.put("flagged", flagged);
+            row.put("posts",   total[i]);
+            row.put("blocked", blocked[i]);
+            row.put("flagged", flagged[i]);
             result.add(row);
         }
         return result;
@@ -242,8 +244,7 @@ public class AdminStatsService {
 
     // ── Helpers ───────────────────────────────────────────────────────────────
 
-    private static long countPostsInWindow(List<Post> posts, long windowMs) {
-        long cutoff = System.currentTimeMillis() - windowMs;
-        return posts.stream().filter(p -> p.getTimestamp() >= cutoff).count();
+    private long countPostsInWindow(long windowMs) {
+        return postRepository.countByTimestampGreaterThanEqual(System.currentTimeMillis() - windowMs);
     }
 }
@@ -0,0 +1,37 @@
+package com.nearrish.backend.service;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Defers in-memory side effects of a database change until the change is committed. Caches and indexes
+ * updated before commit could be read, or reloaded from the old rows, by a concurrent request, and would
+ * keep the change if the transaction rolled back.
+ */
+public final class AfterCommit {
+
+    // Set while a deferred change runs. Synchronization is still active then, but a synchronization registered
+    // during afterCommit is never called back for it, so a nested change must run right away.
+    private static final ThreadLocal<Boolean> COMMITTED = ThreadLocal.withInitial(() -> false);
+
+    private AfterCommit() {}
+
+    /** Runs {@code change} after the current transaction commits, or right away outside a transaction. */
+    public static void run(Runnable change) {
+        if (TransactionSynchronizationManager.isSynchronizationActive() && !COMMITTED.get()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    COMMITTED.set(true);
+                    try {
+                        change.run();
+                    } finally {
+                        COMMITTED.remove();
+                    }
+                }
+            });
+        } else {
+            change.run();
+        }
+    }
+}
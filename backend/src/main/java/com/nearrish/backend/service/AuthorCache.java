@@ -0,0 +1,108 @@
+package com.nearrish.backend.service;
+
+import com.nearrish.backend.repository.UserRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The id, username and avatar of users shown as authors, kept in memory so that assembling a page of posts, search
+ * hits or the moderation queue does not load {@code User} entities (and their eagerly fetched roles) on every
+ * request. Misses are loaded together in one projection query; feed queries that join the author columns already
+ * {@link #offer} theirs.
+ *
+ * Bounded by entry count, evicting least recently used authors first. Deleted or unknown users are not cached.
+ * Callers drop an entry after commit when the user changes their profile or avatar or is deleted; the epoch moves
+ * on every invalidation, so rows loaded while one landed are returned but not cached.
+ */
+@Service
+public class AuthorCache {
+
+    /** What a response needs to show an author. */
+    public record Author(String id, String username, String avatarUrl) {}
+
+    private final UserRepository userRepository;
+    private final int maxEntries;
+    private final LinkedHashMap<String, Author> authors = new LinkedHashMap<>(256, 0.75f, true);
+    private final AtomicLong epoch = new AtomicLong();
+
+    public AuthorCache(UserRepository userRepository,
+                       @Value("${authors.cache.max-entries:50000}") int maxEntries) {
+        this.userRepository = userRepository;
+        this.maxEntries = maxEntries;
+    }
+
+    /** The author with {@code userId}, or null if there is no such user. */
+    public Author get(String userId) {
+        return getAll(List.of(userId)).get(userId);
+    }
+
+    /** The known authors among {@code userIds}, keyed by id; unknown ids are absent. */
+    public Map<String, Author> getAll(Collection<String> userIds) {
+        Map<String, Author> found = new HashMap<>();
+        List<String> missing = new ArrayList<>();
+        synchronized (this) {
+            for (String id : userIds) {
+                if (id == null || found.containsKey(id)) continue;
+                Author a = authors.get(id);
+                if (a != null) found.put(id, a);
+                else missing.add(id);
+            }
+        }
+        if (missing.isEmpty()) return found;
+
+        long before = epoch.get();
+        List<Author> loaded = new ArrayList<>();
+        for (Object[] row : userRepository.findAuthorRows(missing)) {
+            Author a = new Author((String) row[0], (String) row[1], (String) row[2]);
+            loaded.add(a);
+            found.put(a.id(), a);
+        }
+        put(loaded, before);
+        return found;
+    }
+
+    /** The current epoch, for {@link #offer}ing authors read after it by another query. */
+    public long epoch() {
+        return epoch.get();
+    }
+
+    /** Caches authors that a query started at {@code loadedAt} read, unless an invalidation landed since. */
+    public void offer(Collection<Author> loaded, long loadedAt) {
+        if (!loaded.isEmpty()) put(loaded, loadedAt);
+    }
+
+    // ── Invalidation ──────────────────────────────────────────────────────────
+
+    /** The user's username or avatar changed, or the user was deleted. */
+    public void invalidate(String userId) {
+        AfterCommit.run(() -> {
+            synchronized (this) {
+                epoch.incrementAndGet();
+                authors.remove(userId);
+            }
+        });
+    }
+
+    synchronized int size() {
+        return authors.size();
+    }
+
+    private synchronized void put(Collection<Author> loaded, long loadedAt) {
+        if (epoch.get() != loadedAt) return;
+        for (Author a : loaded) authors.put(a.id(), a);
+        Iterator<Author> eldest = authors.values().iterator();
+        while (authors.size() > maxEntries && eldest.hasNext()) {
+            eldest.next();
+            eldest.remove();
+        }
+    }
+}
@@ -10,21 +10,51 @@ import com.nearrish.backend.repository.ConversationRepository;
 import com.nearrish.backend.repository.MessageRepository;
 import com.nearrish.backend.repository.UserRepository;
 import jakarta.transaction.Transactional;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.http.HttpStatus;
 import org.springframework.messaging.simp.SimpMessagingTemplate;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.support.TransactionSynchronization;
-import org.springframework.transaction.support.TransactionSynchronizationManager;
 import org.springframework.web.server.ResponseStatusException;
 
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.CompletableFuture;
 
 @Service
 public class ChatService {
 
+    private static final Logger log = LoggerFactory.getLogger(ChatService.class);
+
+    static final int MAX_INBOX_PAGE = 100;
+    static final int MAX_HISTORY_PAGE = 100;
+
+    // Read state given to participants who predate read states: every message from others is unread.
+    private static final LocalDateTime NEVER_READ = LocalDateTime.of(2000, 1, 1, 0, 0);
+
+    public record Participant(String id, String username, String email, String avatarUrl) {}
+
+    /** The denormalized last message of a conversation; {@code preview} is cut to {@link Conversation#PREVIEW_LENGTH}. */
+    public record LastMessage(String id, String senderId, String preview, LocalDateTime createdAt, boolean moderated) {}
+
+    /** One inbox row: a conversation with its participants, last message (null if none) and the caller's unread count. */
+    public record InboxEntry(String id, String name, boolean group, LocalDateTime createdAt,
+                             List<Participant> participants, LastMessage lastMessage, long unreadCount) {}
+
+    /** A message as history pages return it, read as a flat row without the conversation or sender entities. */
+    public record MessageRow(String id, String conversationId, String senderId, String senderUsername,
+                             String senderEmail, String content, boolean read, LocalDateTime createdAt,
+                             boolean moderated, String moderationReason) {}
+
     private final ConversationRepository conversationRepository;
     private final MessageRepository messageRepository;
     private final UserRepository userRepository;
@@ -32,6 +62,7 @@ public class ChatService {
     private final ConversationReadStateRepository readStateRepository;
     private final SimpMessagingTemplate messagingTemplate;
     private final ModerationClient moderationClient;
+    private final UnreadCounters unreadCounters;
 
     public ChatService(ConversationRepository conversationRepository,
                        MessageRepository messageRepository,
@@ -39,7 +70,8 @@ public class ChatService {
                        BlockRepository blockRepository,
                        ConversationReadStateRepository readStateRepository,
                        SimpMessagingTemplate messagingTemplate,
-                       ModerationClient moderationClient) {
+                       ModerationClient moderationClient,
+                       UnreadCounters unreadCounters) {
         this.conversationRepository = conversationRepository;
         this.messageRepository = messageRepository;
         this.userRepository = userRepository;
@@ -47,6 +79,7 @@ public class ChatService {
         this.readStateRepository = readStateRepository;
         this.messagingTemplate = messagingTemplate;
         this.moderationClient = moderationClient;
+        this.unreadCounters = unreadCounters;
     }
 
     @Transactional
@@ -64,13 +97,47 @@ public class ChatService {
 
         return conversationRepository
                 .findByTwoParticipants(currentUser.getId(), otherUserId)
-                .orElseGet(() -> conversationRepository.save(new Conversation(currentUser, other)));
+                .orElseGet(() -> createReadStates(conversationRepository.save(new Conversation(currentUser, other)), null));
     }
 
     public List<Conversation> getConversations(User user) {
         return conversationRepository.findByParticipantId(user.getId());
     }
 
+    /**
+     * A page of the user's conversations, most recently active first; pass {@code nextCursor} back for the page
+     * after it. The last message and unread count are read from the conversation and read-state rows in the same
+     * query; participants come from one more.
+     */
+    public CursorPage<InboxEntry> getInbox(User user, MessageCursor cursor, int limit) {
+        int n = Math.max(1, Math.min(limit, MAX_INBOX_PAGE));
+        PageRequest request = PageRequest.of(0, n + 1);
+        List<Object[]> fetched = cursor == null
+                ? conversationRepository.findInboxRows(user.getId(), request)
+                : conversationRepository.findInboxRowsBefore(user.getId(), cursor.createdAt(), cursor.id(), request);
+        if (fetched.isEmpty()) return CursorPage.empty();
+        List<Object[]> rows = fetched.subList(0, Math.min(fetched.size(), n));
+
+        Map<String, List<Participant>> participants = new HashMap<>();
+        for (Object[] r : conversationRepository.findParticipantRows(rows.stream().map(r -> (String) r[0]).toList())) {
+            participants.computeIfAbsent((String) r[0], k -> new ArrayList<>())
+                    .add(new Participant((String) r[1], (String) r[2], (String) r[3], (String) r[4]));
+        }
+
+        List<InboxEntry> inbox = new ArrayList<>(rows.size());
+        for (Object[] r : rows) {
+            String id = (String) r[0];
+            LastMessage last = r[4] == null ? null
+                    : new LastMessage((String) r[4], (String) r[7], (String) r[6], (LocalDateTime) r[5], (Boolean) r[8]);
+            inbox.add(new InboxEntry(id, (String) r[1], (Boolean) r[2], (LocalDateTime) r[3],
+                    participants.getOrDefault(id, List.of()), last, ((Number) r[9]).longValue()));
+        }
+        if (fetched.size() <= n) return new CursorPage<>(inbox, null);
+        Object[] lastRow = rows.getLast();
+        LocalDateTime activity = lastRow[5] != null ? (LocalDateTime) lastRow[5] : (LocalDateTime) lastRow[3];
+        return new CursorPage<>(inbox, new MessageCursor(activity, (String) lastRow[0]).encode());
+    }
+
     @Transactional
     public Message sendMessage(User sender, String conversationId, String content) {
         Conversation conversation = conversationRepository.findById(conversationId)
@@ -93,72 +160,90 @@ public class ChatService {
         }
 
         // Build recent history for context-aware moderation (last 10 messages)
-        var history = messageRepository
-                .findByConversationIdOrderByCreatedAtDesc(conversationId, org.springframework.data.domain.PageRequest.of(0, 10))
-                .stream()
-                .map(m -> new ModerationClient.ChatMessage(m.getSender().getUsername(), m.getContent(), m.isModerated()))
+        var history = messageRepository.findHistoryRows(conversationId, PageRequest.of(0, 10)).stream()
+                .map(r -> new ModerationClient.ChatMessage((String) r[2], (String) r[4], (Boolean) r[7]))
                 .toList();
 
         Message message = messageRepository.save(new Message(conversation, sender, content));
         String messageId = message.getId();
         String senderUsername = sender.getUsername();
 
+        conversation.setLastMessage(message);
+        conversationRepository.save(conversation);
+
         // Capture all participant usernames before leaving the transactional context
         List<String> recipientUsernames = conversation.getParticipants().stream()
                 .filter(p -> !p.getId().equals(sender.getId()))
                 .map(User::getUsername)
                 .toList();
 
+        // One UPDATE for every recipient; only conversations that predate read states are missing rows.
+        if (readStateRepository.incrementUnread(conversationId, sender.getId()) < recipientUsernames.size()) {
+            createReadStates(conversation, sender.getId());
+        }
+        unreadCounters.onMessage(conversationId, conversation.getParticipants().stream()
+                .map(User::getId)
+                .filter(id -> !id.equals(sender.getId()))
+                .toList());
+
+        // Doubles as the recipients' unread delta: one more in this conversation
         recipientUsernames.forEach(username -> messagingTemplate.convertAndSendToUser(
                 username, "/queue/chat", conversationId + ":" + messageId
         ));
 
         // Moderate after transaction commits so the delete can find the row
-        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
-            @Override
-            public void afterCommit() {
-                CompletableFuture.runAsync(() -> {
-                    ModerationClient.Result mod = moderationClient.moderateChat(content, senderUsername, history);
-                    if (mod.isBlocked()) {
-                        String reason = mod.reason() != null ? mod.reason() : "Message removed by moderation";
-                        messageRepository.findById(messageId).ifPresent(msg -> {
-                            msg.setModerated(true);
-                            msg.setModerationReason(reason);
-                            messageRepository.save(msg);
-                        });
-                        // All participants see the reason
-                        String removedMsg = "REMOVED:" + messageId + ":" + reason;
-                        messagingTemplate.convertAndSendToUser(
-                                senderUsername, "/queue/chat", removedMsg
-                        );
-                        recipientUsernames.forEach(username -> messagingTemplate.convertAndSendToUser(
-                                username, "/queue/chat", removedMsg
-                        ));
-                    }
+        AfterCommit.run(() -> CompletableFuture.runAsync(() -> {
+            ModerationClient.Result mod = moderationClient.moderateChat(content, senderUsername, history);
+            if (mod.isBlocked()) {
+                String reason = mod.reason() != null ? mod.reason() : "Message removed by moderation";
+                messageRepository.findById(messageId).ifPresent(msg -> {
+                    msg.setModerated(true);
+                    msg.setModerationReason(reason);
+                    messageRepository.save(msg);
                 });
+                conversationRepository.markLastMessageModerated(conversationId, messageId);
+                // All participants see the reason
+                String removedMsg = "REMOVED:" + messageId + ":" + reason;
+                messagingTemplate.convertAndSendToUser(
+                        senderUsername, "/queue/chat", removedMsg
+                );
+                recipientUsernames.forEach(username -> messagingTemplate.convertAndSendToUser(
+                        username, "/queue/chat", removedMsg
+                ));
             }
-        });
+        }));
 
         return message;
     }
 
+    /**
+     * The page of history before {@code cursor} (the newest page when null), oldest message first. Keyset-paginated
+     * on (createdAt, id), so messages sharing a timestamp are neither skipped nor repeated, and a page deep in a long
+     * history costs an index seek like the first.
+     */
     @Transactional
-    public List<Message> getMessages(User user, String conversationId, int limit, java.time.LocalDateTime before) {
-        Conversation conversation = conversationRepository.findById(conversationId)
-                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Conversation not found"));
-
-        boolean isMember = conversation.getParticipants().stream()
-                .anyMatch(p -> p.getId().equals(user.getId()));
-        if (!isMember) {
+    public CursorPage<MessageRow> getMessages(User user, String conversationId, MessageCursor cursor, int limit) {
+        if (!conversationRepository.existsById(conversationId)) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Conversation not found");
+        }
+        if (!conversationRepository.hasParticipant(conversationId, user.getId())) {
             throw new ResponseStatusException(HttpStatus.FORBIDDEN, "You are not part of this conversation");
         }
 
-        org.springframework.data.domain.PageRequest pageable = org.springframework.data.domain.PageRequest.of(0, limit);
-        List<Message> msgs = before != null
-                ? messageRepository.findBeforeCursor(conversationId, before, pageable)
-                : messageRepository.findByConversationIdOrderByCreatedAtDesc(conversationId, pageable);
-        java.util.Collections.reverse(msgs);
-        return msgs;
+        int n = Math.max(1, Math.min(limit, MAX_HISTORY_PAGE));
+        PageRequest request = PageRequest.of(0, n + 1);
+        List<Object[]> rows = cursor == null
+                ? messageRepository.findHistoryRows(conversationId, request)
+                : messageRepository.findHistoryRowsBefore(conversationId, cursor.createdAt(), cursor.id(), request);
+
+        List<MessageRow> page = new ArrayList<>(Math.min(rows.size(), n));
+        for (Object[] r : rows.subList(0, Math.min(rows.size(), n))) {
+            page.add(new MessageRow((String) r[0], conversationId, (String) r[1], (String) r[2], (String) r[3],
+                    (String) r[4], (Boolean) r[5], (LocalDateTime) r[6], (Boolean) r[7], (String) r[8]));
+        }
+        String next = rows.size() > n ? MessageCursor.of(page.get(n - 1)).encode() : null;
+        Collections.reverse(page);
+        return new CursorPage<>(page, next);
     }
 
     @Transactional
@@ -184,7 +269,7 @@ public class ChatService {
             throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "A group chat requires at least 3 participants");
         }
 
-        return conversationRepository.save(new Conversation(name, participants));
+        return createReadStates(conversationRepository.save(new Conversation(name, participants)), null);
     }
 
     @Transactional
@@ -212,7 +297,7 @@ public class ChatService {
                 .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "User not found"));
 
         conversation.getParticipants().add(newMember);
-        return conversationRepository.save(conversation);
+        return createReadStates(conversationRepository.save(conversation), null);
     }
 
     @Transactional
@@ -237,6 +322,8 @@ public class ChatService {
         }
 
         conversation.getParticipants().removeIf(p -> p.getId().equals(userId));
+        readStateRepository.deleteByConversationIdAndUserId(conversationId, userId);
+        unreadCounters.onRead(userId, conversationId);
         return conversationRepository.save(conversation);
     }
 
@@ -286,8 +373,19 @@ public class ChatService {
         ConversationReadState readState = readStateRepository
                 .findByConversationIdAndUserId(conversationId, user.getId())
                 .orElse(new ConversationReadState(conversationId, user.getId(), java.time.LocalDateTime.now()));
+        int cleared = readState.getUnreadCount();
         readState.setLastReadAt(java.time.LocalDateTime.now());
+        readState.setUnreadCount(0);
         readStateRepository.save(readState);
+        unreadCounters.onRead(user.getId(), conversationId);
+
+        // The reader's badges (in every open session) drop what this read cleared: "UNREAD:convId:-n"
+        if (cleared > 0) {
+            String username = user.getUsername();
+            AfterCommit.run(() -> messagingTemplate.convertAndSendToUser(
+                    username, "/queue/chat", "UNREAD:" + conversationId + ":-" + cleared
+            ));
+        }
 
         // Notify other participants so their read receipts update in real-time
         conversation.getParticipants().stream()
@@ -299,6 +397,68 @@ public class ChatService {
                 ));
     }
 
+    /**
+     * Re-points the last message of conversations whose last message was sent by a deleted user; the delete
+     * cascaded to their messages, so the preview would otherwise show removed content.
+     */
+    @Transactional
+    public void onUserRemoved(String userId) {
+        for (Conversation conversation : conversationRepository.findByLastMessageSenderId(userId)) {
+            // Excludes the user's messages explicitly, since the cascade may not have been flushed yet.
+            conversation.setLastMessage(messageRepository
+                    .findTopByConversationIdAndSender_IdNotOrderByCreatedAtDesc(conversation.getId(), userId)
+                    .orElse(null));
+            conversationRepository.save(conversation);
+        }
+    }
+
+    /**
+     * Fills in the last message and read states of conversations created before they were kept, then
+     * recounts unread counters from the messages table. After the first run there is little to fill in.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional
+    public void backfillInbox() {
+        List<Conversation> missing = conversationRepository.findMissingLastMessage();
+        for (Conversation conversation : missing) {
+            messageRepository.findTopByConversationIdOrderByCreatedAtDesc(conversation.getId())
+                    .ifPresent(conversation::setLastMessage);
+        }
+        conversationRepository.saveAll(missing);
+
+        List<ConversationReadState> states = new ArrayList<>();
+        for (Object[] r : readStateRepository.findMissingRows()) {
+            states.add(new ConversationReadState((String) r[0], (String) r[1], NEVER_READ));
+        }
+        readStateRepository.saveAll(states);
+
+        int repaired = readStateRepository.reconcileUnreadCounts();
+        unreadCounters.clear();
+        if (!missing.isEmpty() || repaired > 0) {
+            log.info("Chat inbox backfill: {} last messages, {} read states added, {} unread counts repaired",
+                    missing.size(), states.size(), repaired);
+        }
+    }
+
+    /**
+     * Read states for participants who have none yet. They start with nothing unread, or, when
+     * {@code unreadFromId} is given, with that sender's message just sent unread for everyone else.
+     */
+    private Conversation createReadStates(Conversation conversation, String unreadFromId) {
+        Set<String> existing = new HashSet<>();
+        readStateRepository.findByConversationId(conversation.getId()).forEach(rs -> existing.add(rs.getUserId()));
+        LocalDateTime now = LocalDateTime.now();
+        List<ConversationReadState> states = new ArrayList<>();
+        for (User p : conversation.getParticipants()) {
+            if (existing.contains(p.getId())) continue;
+            ConversationReadState state = new ConversationReadState(conversation.getId(), p.getId(), now);
+            if (unreadFromId != null && !unreadFromId.equals(p.getId())) state.setUnreadCount(1);
+            states.add(state);
+        }
+        readStateRepository.saveAll(states);
+        return conversation;
+    }
+
     private boolean isBlockedInEitherDirection(String userAId, String userBId) {
         return blockRepository.existsByBlockerIdAndBlockedId(userAId, userBId) ||
                blockRepository.existsByBlockerIdAndBlockedId(userBId, userAId);
@@ -5,28 +5,62 @@ import com.nearrish.backend.entity.Post;
 import com.nearrish.backend.entity.User;
 import com.nearrish.backend.repository.CommentRepository;
 import com.nearrish.backend.repository.PostRepository;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
 import org.springframework.http.HttpStatus;
 import org.springframework.messaging.simp.SimpMessagingTemplate;
 import org.springframework.stereotype.Service;
 import org.springframework.web.server.ResponseStatusException;
 
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
 import java.util.concurrent.CompletableFuture;
 
+import static com.nearrish.backend.service.EngagementCounterService.Counter.COMMENT_LIKES;
+import static com.nearrish.backend.service.EngagementCounterService.Counter.POST_COMMENTS;
+
 @Service
 public class CommentService {
 
+    static final int MAX_SEARCH_PAGE = 100;
+    // Ids per ranking-row query, as in PostService.
+    private static final int RANKING_CHUNK = 1000;
+
     private final CommentRepository commentRepository;
     private final PostRepository postRepository;
     private final ModerationClient moderationClient;
     private final SimpMessagingTemplate messagingTemplate;
+    private final EngagementCounterService counters;
+    private final SearchIndexService searchIndexService;
+    private final SocialGraph socialGraph;
+    private final HotFeedService hotFeedService;
+    private final ContentVersions versions;
+    private final PostViewCache postViews;
 
     public CommentService(CommentRepository commentRepository, PostRepository postRepository,
-                          ModerationClient moderationClient, SimpMessagingTemplate messagingTemplate) {
+                          ModerationClient moderationClient, SimpMessagingTemplate messagingTemplate,
+                          EngagementCounterService counters, SearchIndexService searchIndexService,
+                          SocialGraph socialGraph, HotFeedService hotFeedService,
+                          ContentVersions versions, PostViewCache postViews) {
         this.commentRepository = commentRepository;
         this.postRepository = postRepository;
         this.moderationClient = moderationClient;
         this.messagingTemplate = messagingTemplate;
+        this.counters = counters;
+        this.searchIndexService = searchIndexService;
+        this.socialGraph = socialGraph;
+        this.hotFeedService = hotFeedService;
+        this.versions = versions;
+        this.postViews = postViews;
     }
 
     public Comment addComment(User author, String postId, String content) {
@@ -35,6 +69,11 @@ public class CommentService {
 
         Comment saved = commentRepository.save(new Comment(post, author, content));
         String savedId = saved.getId();
+        counters.add(POST_COMMENTS, postId, 1);
+        hotFeedService.onPostComments(postId, 1);
+        versions.onPostChanged(post.getAuthorId());
+        postViews.invalidate(postId);
+        searchIndexService.onCommentCreated(saved);
 
         messagingTemplate.convertAndSend("/topic/posts",
                 "NEW_COMMENT:" + postId + ":" + savedId);
@@ -53,6 +92,7 @@ public class CommentService {
                 commentRepository.save(c);
             });
             if (mod.isBlocked()) {
+                searchIndexService.onCommentRemoved(savedId);
                 String reason = mod.reason() != null ? mod.reason() : "Content removed by moderation";
                 messagingTemplate.convertAndSend("/topic/posts",
                         "MODERATED_COMMENT:" + savedId + ":" + postId + ":" + reason);
@@ -66,18 +106,19 @@ public class CommentService {
                 .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Comment not found"));
     }
 
+    /** Comments oldest first, each carrying its live like count. */
     public List<Comment> getComments(String postId) {
         if (!postRepository.existsById(postId)) {
             throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Post not found");
         }
-        return commentRepository.findByPost_IdOrderByCreatedAt(postId);
+        List<Comment> comments = commentRepository.findByPost_IdOrderByCreatedAt(postId);
+        comments.forEach(c -> c.setLikeCount(counters.commentLikes(c)));
+        return comments;
     }
 
     public long getCommentCount(String postId) {
-        if (!postRepository.existsById(postId)) {
-            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Post not found");
-        }
-        return commentRepository.countByPost_Id(postId);
+        return counters.current(POST_COMMENTS, postId)
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Post not found"));
     }
 
     public void deleteComment(User currentUser, String commentId) {
@@ -90,7 +131,110 @@ public class CommentService {
 
         String postId = comment.getPost().getId();
         commentRepository.delete(comment);
+        counters.add(POST_COMMENTS, postId, -1);
+        hotFeedService.onPostComments(postId, -1);
+        postRepository.findById(postId).ifPresent(p -> versions.onPostChanged(p.getAuthorId()));
+        postViews.invalidate(postId);
+        searchIndexService.onCommentRemoved(commentId);
         messagingTemplate.convertAndSend("/topic/posts",
                 "DELETED_COMMENT:" + postId + ":" + commentId);
     }
+
+    // ── Full-text search (served from SearchIndexService) ─────────────────────
+    // Comments are as visible as their post. A non-null authorIds restricts results to those authors.
+
+    /** Comments matching {@code q}, best match first, each carrying its live like count. */
+    public SearchPage<Comment> searchComments(User viewer, String q, Collection<String> authorIds, int page, int size) {
+        return search(viewer, q, authorIds, TextIndex.Order.RELEVANCE, page, size);
+    }
+
+    /** Comments matching {@code q}, newest first, each carrying its live like count. */
+    public SearchPage<Comment> searchRecentComments(User viewer, String q, Collection<String> authorIds,
+                                                    int page, int size) {
+        return search(viewer, q, authorIds, TextIndex.Order.NEWEST, page, size);
+    }
+
+    /**
+     * Comments matching {@code q}, most liked first. Only the like counts of the matches are read, a bounded
+     * heap keeps the best {@code (page + 1) * size}, and only the page is hydrated.
+     */
+    public SearchPage<Comment> searchMostLikedComments(User viewer, String q, Collection<String> authorIds,
+                                                       int page, int size) {
+        if (q == null || q.isBlank()) return SearchPage.empty();
+        int n = Math.max(1, Math.min(size, MAX_SEARCH_PAGE));
+        List<String> ids = searchIndexService.matchingCommentIds(q, friendAndSelfIds(viewer),
+                authorIds == null ? null : new HashSet<>(authorIds));
+        int from = PostService.offset(page, n);
+        if (from >= ids.size()) return new SearchPage<>(List.of(), ids.size());
+
+        PriorityQueue<Ranked> top = new PriorityQueue<>(MOST_LIKED.reversed());
+        for (int i = 0; i < ids.size(); i += RANKING_CHUNK) {
+            List<String> chunk = ids.subList(i, Math.min(i + RANKING_CHUNK, ids.size()));
+            for (Object[] r : commentRepository.findRankingRows(chunk)) {
+                String id = (String) r[0];
+                long likes = (Long) r[1] + counters.pendingDelta(COMMENT_LIKES, id);
+                top.add(new Ranked(id, likes, (LocalDateTime) r[2]));
+                if (top.size() > from + n) top.poll();
+            }
+        }
+        List<Ranked> ranked = new ArrayList<>(top);
+        ranked.sort(MOST_LIKED);
+        List<String> pageIds = ranked.subList(Math.min(from, ranked.size()), ranked.size()).stream()
+                .map(Ranked::id).toList();
+        return new SearchPage<>(loadInOrder(pageIds), ids.size());
+    }
+
+    // ── Browsing (advanced search without a text query) ───────────────────────
+
+    /**
+     * One page of unmoderated comments, newest or most liked first, sorted and paged by the database.
+     * A non-null authorIds restricts them to those authors.
+     */
+    public SearchPage<Comment> browseComments(Collection<String> authorIds, boolean mostLiked, int page, int size) {
+        if (authorIds != null && authorIds.isEmpty()) return SearchPage.empty();
+        int n = Math.max(1, Math.min(size, MAX_SEARCH_PAGE));
+        Sort sort = mostLiked
+                ? Sort.by(Sort.Order.desc("likeCount"), Sort.Order.desc("createdAt"), Sort.Order.desc("id"))
+                : Sort.by(Sort.Order.desc("createdAt"), Sort.Order.desc("id"));
+        PageRequest request = PageRequest.of(Math.max(0, page), n, sort);
+        Page<Comment> rows = authorIds == null
+                ? commentRepository.browseUnmoderated(request)
+                : commentRepository.browseByAuthors(authorIds, request);
+        rows.getContent().forEach(c -> c.setLikeCount(counters.commentLikes(c)));
+        return new SearchPage<>(rows.getContent(), (int) Math.min(rows.getTotalElements(), Integer.MAX_VALUE));
+    }
+
+    private SearchPage<Comment> search(User viewer, String q, Collection<String> authorIds,
+                                       TextIndex.Order order, int page, int size) {
+        if (q == null || q.isBlank()) return SearchPage.empty();
+        int n = Math.max(1, Math.min(size, MAX_SEARCH_PAGE));
+        TextIndex.Result r = searchIndexService.searchComments(q, friendAndSelfIds(viewer),
+                authorIds == null ? null : new HashSet<>(authorIds), order, PostService.offset(page, n), n);
+        return new SearchPage<>(loadInOrder(r.hits().stream().map(h -> h.doc().id()).toList()), r.total());
+    }
+
+    private record Ranked(String id, long likes, LocalDateTime createdAt) {}
+
+    // Most likes first, then newest, then by id so that pages never overlap.
+    private static final Comparator<Ranked> MOST_LIKED = Comparator.comparingLong(Ranked::likes).reversed()
+            .thenComparing(Ranked::createdAt, Comparator.nullsLast(Comparator.reverseOrder()))
+            .thenComparing(Ranked::id);
+
+    // One findAllById; missing and moderated comments are dropped.
+    private List<Comment> loadInOrder(List<String> ids) {
+        if (ids.isEmpty()) return List.of();
+        Map<String, Comment> byId = new HashMap<>();
+        commentRepository.findAllById(ids).forEach(c -> byId.put(c.getId(), c));
+        List<Comment> comments = ids.stream()
+                .map(byId::get)
+                .filter(c -> c != null && !c.isModerated())
+                .toList();
+        comments.forEach(c -> c.setLikeCount(counters.commentLikes(c)));
+        return comments;
+    }
+
+    // Null for an anonymous viewer, who only sees comments on public posts.
+    private Set<String> friendAndSelfIds(User viewer) {
+        return viewer == null ? null : new HashSet<>(socialGraph.friendAndSelfIds(viewer.getId()));
+    }
 }
@@ -0,0 +1,67 @@
+package com.nearrish.backend.service;
+
+import org.springframework.stereotype.Service;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Change versions behind conditional GETs: one global version, moved by every change that can alter a feed, post
+ * or profile response, and one per user, moved by changes to that user's profile or posts (including likes and
+ * comments on them). A change that may touch any user's responses raises a floor under every per-user version.
+ *
+ * A version is a millisecond timestamp that only moves forward, so it doubles as {@code Last-Modified}, and a
+ * restart never reissues a version from before it. Inside a transaction a change is applied after commit, so a
+ * version is never ahead of the data it describes.
+ */
+@Service
+public class ContentVersions {
+
+    private final long startedAt = System.currentTimeMillis();
+    private final AtomicLong global = new AtomicLong(startedAt);
+    private final Map<String, Long> users = new ConcurrentHashMap<>();
+    private final AtomicLong allUsers = new AtomicLong(startedAt);
+
+    // ── Maintenance ───────────────────────────────────────────────────────────
+
+    /** A post by {@code authorId} was created, deleted or moderated, or its likes or comments changed. */
+    public void onPostChanged(String authorId) {
+        onUserChanged(authorId);
+    }
+
+    /** The user's profile changed, or the user appeared or was deleted. Their name shows on every feed. */
+    public void onUserChanged(String userId) {
+        AfterCommit.run(() -> {
+            long v = bump(global);
+            users.merge(userId, v, Math::max);
+        });
+    }
+
+    /** A change that is not tied to one user, such as a reordering of the hot feed. */
+    public void onGlobalChange() {
+        AfterCommit.run(() -> bump(global));
+    }
+
+    /** A change that may alter any user's responses, such as a counter repair. */
+    public void onAllUsersChanged() {
+        AfterCommit.run(() -> {
+            long v = bump(global);
+            allUsers.accumulateAndGet(v, Math::max);
+        });
+    }
+
+    // ── Queries ───────────────────────────────────────────────────────────────
+
+    public long global() {
+        return global.get();
+    }
+
+    public long user(String userId) {
+        return Math.max(users.getOrDefault(userId, startedAt), allUsers.get());
+    }
+
+    private static long bump(AtomicLong version) {
+        return version.updateAndGet(v -> Math.max(v + 1, System.currentTimeMillis()));
+    }
+}
@@ -0,0 +1,14 @@
+package com.nearrish.backend.service;
+
+import java.util.List;
+
+/**
+ * One page of a keyset-paginated listing.
+ * {@code nextCursor} is null when there is nothing after the last item.
+ */
+public record CursorPage<T>(List<T> items, String nextCursor) {
+
+    public static <T> CursorPage<T> empty() {
+        return new CursorPage<>(List.of(), null);
+    }
+}
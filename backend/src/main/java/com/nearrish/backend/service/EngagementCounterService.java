@@ -0,0 +1,200 @@
+package com.nearrish.backend.service;
+
+import com.nearrish.backend.entity.Comment;
+import com.nearrish.backend.entity.Post;
+import com.nearrish.backend.repository.CommentRepository;
+import com.nearrish.backend.repository.PostRepository;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Write-behind buffer for the denormalized like, comment and reply counters on {@link Post} and {@link Comment}.
+ *
+ * Likes, comments and replies add a delta to an in-memory {@link LongAdder} per (counter, id); a scheduled flush
+ * folds all pending deltas into the counter columns in one transaction. A live count is therefore the
+ * stored column plus whatever is still pending, and neither reads nor broadcasts run a COUNT query.
+ *
+ * Counters can drift when rows disappear without going through the services (e.g. likes and comments
+ * removed by a cascading user delete), so {@link #reconcile()} periodically recounts from the source tables.
+ */
+@Service
+public class EngagementCounterService {
+
+    private static final Logger log = LoggerFactory.getLogger(EngagementCounterService.class);
+
+    public enum Counter { POST_LIKES, POST_COMMENTS, POST_REPLIES, COMMENT_LIKES }
+
+    private record Key(Counter counter, String id) {}
+
+    private final PostRepository postRepository;
+    private final CommentRepository commentRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final ContentVersions versions;
+    private final PostViewCache postViews;
+
+    // Writers share the read lock; flush takes the write lock only to swap the map, so no delta can land
+    // in an adder that has already been drained. The database write happens outside the lock.
+    private final ReentrantReadWriteLock swapLock = new ReentrantReadWriteLock();
+    private volatile ConcurrentHashMap<Key, LongAdder> pending = new ConcurrentHashMap<>();
+    // The batch being written; still counted by reads until it is committed.
+    private volatile Map<Key, Long> inFlight = Map.of();
+    // Held exclusively while a batch is written and committed, so current() never adds an in-flight
+    // delta to a column that already contains it. Writers are never blocked by it.
+    private final ReentrantReadWriteLock commitLock = new ReentrantReadWriteLock();
+
+    public EngagementCounterService(PostRepository postRepository,
+                                    CommentRepository commentRepository,
+                                    TransactionTemplate transactionTemplate,
+                                    ContentVersions versions,
+                                    PostViewCache postViews) {
+        this.postRepository = postRepository;
+        this.commentRepository = commentRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.versions = versions;
+        this.postViews = postViews;
+    }
+
+    // ── Writes ────────────────────────────────────────────────────────────────
+
+    public void add(Counter counter, String id, long delta) {
+        swapLock.readLock().lock();
+        try {
+            pending.computeIfAbsent(new Key(counter, id), k -> new LongAdder()).add(delta);
+        } finally {
+            swapLock.readLock().unlock();
+        }
+    }
+
+    // ── Reads ─────────────────────────────────────────────────────────────────
+
+    public long postLikes(Post post) {
+        return post.getLikeCount() + pendingDelta(Counter.POST_LIKES, post.getId());
+    }
+
+    public long postComments(Post post) {
+        return post.getCommentCount() + pendingDelta(Counter.POST_COMMENTS, post.getId());
+    }
+
+    public long postReplies(Post post) {
+        return post.getReplyCount() + pendingDelta(Counter.POST_REPLIES, post.getId());
+    }
+
+    public long commentLikes(Comment comment) {
+        return comment.getLikeCount() + pendingDelta(Counter.COMMENT_LIKES, comment.getId());
+    }
+
+    /**
+     * Exact live count read from the counter column by primary key, or empty if the post/comment does
+     * not exist. The entity-based getters above are cheaper but may be off by one in-flight batch while
+     * it commits; broadcasts and single-count endpoints use this instead.
+     */
+    public Optional<Long> current(Counter counter, String id) {
+        commitLock.readLock().lock();
+        try {
+            Optional<Long> stored = switch (counter) {
+                case POST_LIKES    -> postRepository.findLikeCount(id);
+                case POST_COMMENTS -> postRepository.findCommentCount(id);
+                case POST_REPLIES  -> postRepository.findReplyCount(id);
+                case COMMENT_LIKES -> commentRepository.findLikeCount(id);
+            };
+            return stored.map(v -> v + pendingDelta(counter, id));
+        } finally {
+            commitLock.readLock().unlock();
+        }
+    }
+
+    long pendingDelta(Counter counter, String id) {
+        Key key = new Key(counter, id);
+        LongAdder adder = pending.get(key);
+        return (adder == null ? 0 : adder.sum()) + inFlight.getOrDefault(key, 0L);
+    }
+
+    // ── Flush and reconciliation ─────────────────────────────────────────────
+
+    @Scheduled(fixedDelayString = "${counters.flush-interval-ms:250}")
+    public synchronized void flush() {
+        Map<Key, Long> batch = new HashMap<>();
+        swapLock.writeLock().lock();
+        try {
+            // Writers are excluded here, so the drained adders are final and reads never see a gap
+            // between the swap and the batch becoming visible as in-flight.
+            pending.forEach((k, v) -> {
+                long d = v.sum();
+                if (d != 0) batch.put(k, d);
+            });
+            pending = new ConcurrentHashMap<>();
+            inFlight = batch;
+        } finally {
+            swapLock.writeLock().unlock();
+        }
+        if (batch.isEmpty()) return;
+
+        commitLock.writeLock().lock();
+        try {
+            transactionTemplate.executeWithoutResult(status -> batch.forEach((k, d) -> {
+                switch (k.counter()) {
+                    case POST_LIKES    -> postRepository.addToLikeCount(k.id(), d);
+                    case POST_COMMENTS -> postRepository.addToCommentCount(k.id(), d);
+                    case POST_REPLIES  -> postRepository.addToReplyCount(k.id(), d);
+                    case COMMENT_LIKES -> commentRepository.addToLikeCount(k.id(), d);
+                }
+            }));
+        } catch (RuntimeException e) {
+            // Put the deltas back so the next flush retries them.
+            log.warn("Counter flush of {} keys failed, will retry: {}", batch.size(), e.getMessage());
+            inFlight = Map.of();
+            batch.forEach((k, d) -> add(k.counter(), k.id(), d));
+        } finally {
+            inFlight = Map.of();
+            commitLock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Recounts every counter from the likes, comments and posts tables and repairs the rows that drifted.
+     * Writers are held off from the final flush until the recount commits: a delta is recorded before its
+     * row commits, so one landing in between would be counted by the recount and then flushed on top of it.
+     */
+    @Scheduled(initialDelayString = "${counters.reconcile-initial-delay-ms:30000}",
+               fixedDelayString = "${counters.reconcile-interval-ms:3600000}")
+    public synchronized void reconcile() {
+        Integer repaired;
+        swapLock.writeLock().lock();
+        try {
+            flush();
+            if (!pending.isEmpty()) {
+                // The flush failed and put its deltas back; recounting now would count them twice.
+                log.warn("Counter reconciliation skipped: {} keys are still pending", pending.size());
+                return;
+            }
+            repaired = transactionTemplate.execute(status ->
+                    postRepository.reconcileLikeCounts()
+                            + postRepository.reconcileCommentCounts()
+                            + postRepository.reconcileReplyCounts()
+                            + commentRepository.reconcileLikeCounts());
+        } finally {
+            swapLock.writeLock().unlock();
+        }
+        if (repaired != null && repaired > 0) {
+            versions.onAllUsersChanged();
+            postViews.clear();
+            log.info("Counter reconciliation repaired {} rows", repaired);
+        }
+    }
+
+    @PreDestroy
+    public void flushOnShutdown() {
+        flush();
+    }
+}
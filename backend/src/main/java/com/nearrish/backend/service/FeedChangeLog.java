@@ -0,0 +1,98 @@
+package com.nearrish.backend.service;
+
+import com.nearrish.backend.entity.Post;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Predicate;
+
+/**
+ * Bounded, in-memory log of top-level feed changes: posts created, deleted or removed by moderation.
+ *
+ * Each change gets the next number of a sequence that only moves forward, assigned after commit, so a client that
+ * has seen change {@code n} has seen every visible change before it. The log keeps the most recent changes in a ring;
+ * a watermark older than the ring, or from another epoch (a restart or {@link #invalidateAll()}), is answered
+ * with a reset and the client reloads the whole feed.
+ */
+@Service
+public class FeedChangeLog {
+
+    public enum Kind { CREATED, DELETED, MODERATED }
+
+    record Change(long seq, String postId, String authorId, boolean isPublic, Kind kind) {}
+
+    /** Changes after a watermark, oldest first. {@code reset} means the watermark could not be answered. */
+    record Slice(List<Change> changes, FeedWatermark watermark, boolean reset, boolean hasMore) {}
+
+    private final Change[] ring;
+    private long epoch = ThreadLocalRandom.current().nextLong();
+    private long lastSeq;   // the newest change; slot lastSeq % ring.length
+
+    public FeedChangeLog(@Value("${feed.changes.capacity:10000}") int capacity) {
+        this.ring = new Change[Math.max(1, capacity)];
+    }
+
+    // ── Maintenance ───────────────────────────────────────────────────────────
+
+    public void onPostCreated(Post post) {
+        record(post, Kind.CREATED);
+    }
+
+    public void onPostDeleted(Post post) {
+        record(post, Kind.DELETED);
+    }
+
+    public void onPostModerated(Post post) {
+        record(post, Kind.MODERATED);
+    }
+
+    /** Starts a new epoch, so every client reloads its feed; e.g. after a bulk delete of an author's posts. */
+    public synchronized void invalidateAll() {
+        long next;
+        do next = ThreadLocalRandom.current().nextLong(); while (next == epoch);
+        epoch = next;
+        lastSeq = 0;
+        Arrays.fill(ring, null);
+    }
+
+    private void record(Post post, Kind kind) {
+        if (post.getRespondingToId() != null) return;
+        boolean isPublic = post.getVisibility() == null || post.getVisibility() == Post.Visibility.PUBLIC;
+        String postId = post.getId(), authorId = post.getAuthorId();
+        AfterCommit.run(() -> append(postId, authorId, isPublic, kind));
+    }
+
+    synchronized void append(String postId, String authorId, boolean isPublic, Kind kind) {
+        long seq = ++lastSeq;
+        ring[(int) (seq % ring.length)] = new Change(seq, postId, authorId, isPublic, kind);
+    }
+
+    // ── Queries ───────────────────────────────────────────────────────────────
+
+    /** The current end of the log; a client that loads its feed after taking it misses nothing. */
+    synchronized FeedWatermark head() {
+        return new FeedWatermark(epoch, lastSeq);
+    }
+
+    /**
+     * Up to {@code max} changes that pass {@code visible}, after {@code since}, oldest first. Changes that fail
+     * the filter are skipped but still advance the returned watermark.
+     */
+    synchronized Slice readSince(FeedWatermark since, Predicate<Change> visible, int max) {
+        long oldest = Math.max(1, lastSeq - ring.length + 1);
+        if (since == null || since.epoch() != epoch || since.seq() > lastSeq || since.seq() < oldest - 1) {
+            return new Slice(List.of(), head(), true, false);
+        }
+        List<Change> out = new ArrayList<>();
+        long seq = since.seq();
+        while (seq < lastSeq && out.size() < max) {
+            Change c = ring[(int) (++seq % ring.length)];
+            if (visible.test(c)) out.add(c);
+        }
+        return new Slice(out, new FeedWatermark(epoch, seq), false, seq < lastSeq);
+    }
+}
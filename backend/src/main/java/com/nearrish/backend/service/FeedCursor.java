@@ -0,0 +1,40 @@
+package com.nearrish.backend.service;
+
+import com.nearrish.backend.entity.Post;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Keyset position in a feed ordered by (timestamp DESC, id DESC).
+ * Clients only ever see the opaque {@link #encode()} form.
+ */
+public record FeedCursor(long timestamp, String id) {
+
+    /** Position before the newest possible post — the first page. */
+    public static final FeedCursor START = new FeedCursor(Long.MAX_VALUE, "");
+
+    public static FeedCursor of(Post post) {
+        return new FeedCursor(post.getTimestamp(), post.getId());
+    }
+
+    public String encode() {
+        String raw = timestamp + ":" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /** Returns {@link #START} for a missing cursor; rejects malformed ones with 400. */
+    public static FeedCursor decode(String token) {
+        if (token == null || token.isBlank()) return START;
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            int sep = raw.indexOf(':');
+            if (sep <= 0 || sep == raw.length() - 1) throw new IllegalArgumentException(raw);
+            return new FeedCursor(Long.parseLong(raw.substring(0, sep)), raw.substring(sep + 1));
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid cursor");
+        }
+    }
+}
@@ -0,0 +1,14 @@
+package com.nearrish.backend.service;
+
+import java.util.List;
+
+/**
+ * Feed changes after a client's watermark: new posts, newest first, and the ids of posts that left the feed.
+ * {@code reset} means the watermark is too old to answer and the client must reload the whole feed;
+ * {@code hasMore} means more changes follow and the client should ask again with the new watermark.
+ */
+public record FeedDelta<T>(List<T> posts, List<Tombstone> removed, String watermark, boolean reset,
+                           boolean hasMore) {
+
+    public record Tombstone(String postId, FeedChangeLog.Kind reason) {}
+}
@@ -0,0 +1,33 @@
+package com.nearrish.backend.service;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Position in the {@link FeedChangeLog}: the last change a client has seen. The epoch identifies one run of the
+ * log, so a watermark from before a restart or an invalidation is recognised and answered with a reset.
+ * Clients only ever see the opaque {@link #encode()} form.
+ */
+public record FeedWatermark(long epoch, long seq) {
+
+    public String encode() {
+        String raw = epoch + ":" + seq;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /** Returns null for a missing watermark; rejects malformed ones with 400. */
+    public static FeedWatermark decode(String token) {
+        if (token == null || token.isBlank()) return null;
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            int sep = raw.indexOf(':');
+            if (sep <= 0 || sep == raw.length() - 1) throw new IllegalArgumentException(raw);
+            return new FeedWatermark(Long.parseLong(raw.substring(0, sep)), Long.parseLong(raw.substring(sep + 1)));
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid watermark");
+        }
+    }
+}
@@ -10,8 +10,10 @@ import org.springframework.messaging.simp.SimpMessagingTemplate;
 import org.springframework.stereotype.Service;
 import org.springframework.web.server.ResponseStatusException;
 
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 
 @Service
 public class FriendRequestService {
@@ -19,13 +21,22 @@ public class FriendRequestService {
     private final FriendRequestRepository friendRequestRepository;
     private final UserRepository userRepository;
     private final SimpMessagingTemplate messagingTemplate;
+    private final TimelineService timelineService;
+    private final SocialGraph socialGraph;
+    private final ContentVersions versions;
 
     public FriendRequestService(FriendRequestRepository friendRequestRepository,
                                 UserRepository userRepository,
-                                SimpMessagingTemplate messagingTemplate) {
+                                SimpMessagingTemplate messagingTemplate,
+                                TimelineService timelineService,
+                                SocialGraph socialGraph,
+                                ContentVersions versions) {
         this.friendRequestRepository = friendRequestRepository;
         this.userRepository = userRepository;
         this.messagingTemplate = messagingTemplate;
+        this.timelineService = timelineService;
+        this.socialGraph = socialGraph;
+        this.versions = versions;
     }
 
     @Transactional
@@ -55,6 +66,11 @@ public class FriendRequestService {
         FriendRequest request = getRequestForReceiver(currentUser.getId(), requestId);
         request.setStatus(FriendRequest.Status.ACCEPTED);
         FriendRequest saved = friendRequestRepository.save(request);
+        // Graph first: timelines reseeded after commit read the audience from it.
+        socialGraph.onFriendshipAccepted(request.getSender().getId(), currentUser.getId());
+        timelineService.onFriendshipChanged(request.getSender().getId(), currentUser.getId());
+        versions.onUserChanged(request.getSender().getId());
+        versions.onUserChanged(currentUser.getId());
         messagingTemplate.convertAndSendToUser(
                 request.getSender().getUsername(), "/queue/friends",
                 Map.of("type", "REQUEST_ACCEPTED", "byUserId", currentUser.getId()));
@@ -71,11 +87,13 @@ public class FriendRequestService {
                 Map.of("type", "REQUEST_DECLINED", "byUserId", currentUser.getId()));
     }
 
-    @Transactional
     public List<User> getFriends(User user) {
-        return friendRequestRepository.findAcceptedFriendships(user.getId()).stream()
-                .map(f -> f.getSender().getId().equals(user.getId()) ? f.getReceiver() : f.getSender())
-                .toList();
+        return loadInOrder(socialGraph.friendsOf(user.getId()));
+    }
+
+    /** Friends the current user and the target user have in common. */
+    public List<User> getMutualFriends(User currentUser, String targetUserId) {
+        return loadInOrder(socialGraph.mutualFriends(currentUser.getId(), targetUserId));
     }
 
     public List<FriendRequest> getIncomingRequests(User user) {
@@ -103,22 +121,26 @@ public class FriendRequestService {
 
     @Transactional
     public void unfriend(User user, String friendUserId) {
-        FriendRequest friendship = friendRequestRepository.findAcceptedFriendships(user.getId()).stream()
-                .filter(f -> f.getSender().getId().equals(friendUserId) || f.getReceiver().getId().equals(friendUserId))
-                .findFirst()
-                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "No friendship found"));
+        // Requests accepted in both directions are one friendship; remove them all.
+        List<FriendRequest> friendships = friendRequestRepository.findAcceptedBetween(user.getId(), friendUserId);
+        if (friendships.isEmpty()) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "No friendship found");
+        }
+        FriendRequest friendship = friendships.getFirst();
         User otherUser = friendship.getSender().getId().equals(user.getId())
                 ? friendship.getReceiver() : friendship.getSender();
-        friendRequestRepository.delete(friendship);
+        friendRequestRepository.deleteAll(friendships);
+        socialGraph.onFriendshipRemoved(user.getId(), otherUser.getId());
+        timelineService.onFriendshipChanged(user.getId(), otherUser.getId());
+        versions.onUserChanged(user.getId());
+        versions.onUserChanged(otherUser.getId());
         messagingTemplate.convertAndSendToUser(
                 otherUser.getUsername(), "/queue/friends",
                 Map.of("type", "UNFRIENDED", "byUserId", user.getId()));
     }
 
     public Map<String, String> getFriendshipStatus(User currentUser, String targetUserId) {
-        boolean isFriend = friendRequestRepository.findAcceptedFriendships(currentUser.getId()).stream()
-                .anyMatch(f -> f.getSender().getId().equals(targetUserId) || f.getReceiver().getId().equals(targetUserId));
-        if (isFriend) return Map.of("status", "FRIEND");
+        if (socialGraph.areFriends(currentUser.getId(), targetUserId)) return Map.of("status", "FRIEND");
 
         if (friendRequestRepository.existsBySenderIdAndReceiverIdAndStatus(
                 currentUser.getId(), targetUserId, FriendRequest.Status.PENDING))
@@ -131,6 +153,14 @@ public class FriendRequestService {
         return Map.of("status", "NONE");
     }
 
+    // Users in the order of the given ids; ids of users deleted in the meantime are skipped.
+    private List<User> loadInOrder(List<String> ids) {
+        if (ids.isEmpty()) return List.of();
+        Map<String, User> byId = new HashMap<>();
+        for (User u : userRepository.findAllById(ids)) byId.put(u.getId(), u);
+        return ids.stream().map(byId::get).filter(Objects::nonNull).toList();
+    }
+
     private FriendRequest getRequestForReceiver(String userId, String requestId) {
         FriendRequest request = friendRequestRepository.findById(requestId)
                 .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Friend request not found"));
@@ -0,0 +1,268 @@
+package com.nearrish.backend.service;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+
+/**
+ * Uniform latitude/longitude grid of points. Each cell is {@code cellDegrees} on a side; a query only
+ * touches the cells overlapping its box, or — for boxes wider than the occupied part of the grid — only
+ * the occupied cells. Reads share a lock, writes take it exclusively.
+ */
+final class GeoGrid {
+
+    static final double EARTH_RADIUS_KM = 6371.0088;
+    static final double MAX_DISTANCE_KM = Math.PI * EARTH_RADIUS_KM;
+
+    record Point(String postId, String authorId, double lat, double lng, long timestamp, boolean isPublic) {}
+
+    record Hit(Point point, double distanceKm) {}
+
+    // Newest first, ties broken by id — the same order as the keyset feeds.
+    private static final Comparator<Point> NEWEST_FIRST =
+            Comparator.comparingLong(Point::timestamp).thenComparing(Point::postId).reversed();
+    private static final Comparator<Hit> NEAREST_FIRST =
+            Comparator.comparingDouble(Hit::distanceKm).thenComparing(h -> h.point().postId());
+
+    private final double cellDegrees;
+    private final int rows;
+    private final int cols;
+    private final Map<Integer, List<Point>> cells = new HashMap<>();
+    private final Map<String, Point> byId = new HashMap<>();
+    // Friends-only points by author, so a viewer's private overlay costs only their friends' posts.
+    private final Map<String, List<Point>> friendsOnlyByAuthor = new HashMap<>();
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    GeoGrid(double cellDegrees) {
+        this.cellDegrees = cellDegrees;
+        this.rows = (int) Math.ceil(180 / cellDegrees);
+        this.cols = (int) Math.ceil(360 / cellDegrees);
+    }
+
+    int size() {
+        lock.readLock().lock();
+        try {
+            return byId.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    int count(Predicate<Point> condition) {
+        lock.readLock().lock();
+        try {
+            return (int) byId.values().stream().filter(condition).count();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /** Adds the point, replacing any earlier point with the same post id; returns the replaced point or null. */
+    Point put(Point p) {
+        lock.writeLock().lock();
+        try {
+            Point old = removeLocked(p.postId());
+            byId.put(p.postId(), p);
+            cells.computeIfAbsent(cellOf(p.lat(), p.lng()), k -> new ArrayList<>()).add(p);
+            if (!p.isPublic()) friendsOnlyByAuthor.computeIfAbsent(p.authorId(), k -> new ArrayList<>()).add(p);
+            return old;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /** Returns the removed point, or null if the post was not indexed. */
+    Point remove(String postId) {
+        lock.writeLock().lock();
+        try {
+            return removeLocked(postId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    List<Point> removeIf(Predicate<Point> condition) {
+        lock.writeLock().lock();
+        try {
+            List<String> doomed = byId.values().stream().filter(condition).map(Point::postId).toList();
+            return doomed.stream().map(this::removeLocked).toList();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    void clear() {
+        lock.writeLock().lock();
+        try {
+            cells.clear();
+            byId.clear();
+            friendsOnlyByAuthor.clear();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Up to {@code limit} visible points inside the box that sort after {@code after}, newest first.
+     * {@code west > east} means the box crosses the antimeridian.
+     */
+    List<Point> newestWithin(double south, double north, double west, double east,
+                             Predicate<Point> visible, FeedCursor after, int limit) {
+        // Min-heap on recency holding the best `limit` seen so far.
+        PriorityQueue<Point> best = new PriorityQueue<>(limit + 1, NEWEST_FIRST.reversed());
+        lock.readLock().lock();
+        try {
+            forEachInBox(south, north, west, east, p -> {
+                if (!inBox(p, south, north, west, east) || !visible.test(p)) return;
+                if (!TimelineBuffer.isNewer(after.id(), after.timestamp(), p.postId(), p.timestamp())) return;
+                best.add(p);
+                if (best.size() > limit) best.poll();
+            });
+        } finally {
+            lock.readLock().unlock();
+        }
+        List<Point> out = new ArrayList<>(best);
+        out.sort(NEWEST_FIRST);
+        return out;
+    }
+
+    /** Up to {@code limit} visible points within {@code radiusKm} of the centre, nearest first. */
+    List<Hit> nearestWithin(double lat, double lng, double radiusKm, Predicate<Point> visible, int limit) {
+        PriorityQueue<Hit> best = new PriorityQueue<>(limit + 1, NEAREST_FIRST.reversed());
+        lock.readLock().lock();
+        try {
+            double dLat = Math.toDegrees(radiusKm / EARTH_RADIUS_KM);
+            double south = lat - dLat, north = lat + dLat;
+            double west = -180, east = 180;
+            // Longitude half-width of the circle's bounding box; the whole band if the circle reaches a pole.
+            double s = Math.sin(radiusKm / EARTH_RADIUS_KM) / Math.cos(Math.toRadians(lat));
+            if (south > -90 && north < 90 && s < 1) {
+                double dLng = Math.toDegrees(Math.asin(s));
+                west = wrapLng(lng - dLng);
+                east = wrapLng(lng + dLng);
+            }
+            forEachInBox(Math.max(-90, south), Math.min(90, north), west, east, p -> {
+                if (!visible.test(p)) return;
+                double d = haversineKm(lat, lng, p.lat(), p.lng());
+                if (d > radiusKm) return;
+                best.add(new Hit(p, d));
+                if (best.size() > limit) best.poll();
+            });
+        } finally {
+            lock.readLock().unlock();
+        }
+        List<Hit> out = new ArrayList<>(best);
+        out.sort(NEAREST_FIRST);
+        return out;
+    }
+
+    /**
+     * The {@code k} nearest visible points. Searches a radius that doubles until it holds k points;
+     * everything outside that radius is farther than everything inside, so the result is exact.
+     */
+    List<Hit> nearest(double lat, double lng, int k, Predicate<Point> visible) {
+        double radius = Math.max(1, cellDegrees * 111.2);
+        while (true) {
+            List<Hit> hits = nearestWithin(lat, lng, radius, visible, k);
+            if (hits.size() >= k || radius >= MAX_DISTANCE_KM) return hits;
+            radius = Math.min(radius * 2, MAX_DISTANCE_KM);
+        }
+    }
+
+    /** Friends-only points by any of the given authors, restricted to the box (west &le; east). */
+    List<Point> friendsOnlyWithin(Set<String> authorIds, double south, double north, double west, double east) {
+        List<Point> out = new ArrayList<>();
+        lock.readLock().lock();
+        try {
+            for (String authorId : authorIds) {
+                List<Point> own = friendsOnlyByAuthor.get(authorId);
+                if (own == null) continue;
+                for (Point p : own) {
+                    if (inBox(p, south, north, west, east)) out.add(p);
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        return out;
+    }
+
+    static double haversineKm(double lat1, double lng1, double lat2, double lng2) {
+        double dLat = Math.toRadians(lat2 - lat1);
+        double dLng = Math.toRadians(lng2 - lng1);
+        double a = Math.sin(dLat / 2) * Math.sin(dLat / 2)
+                + Math.cos(Math.toRadians(lat1)) * Math.cos(Math.toRadians(lat2))
+                * Math.sin(dLng / 2) * Math.sin(dLng / 2);
+        return 2 * EARTH_RADIUS_KM * Math.asin(Math.min(1, Math.sqrt(a)));
+    }
+
+    // ── Internals (callers hold the lock) ─────────────────────────────────────
+
+    private Point removeLocked(String postId) {
+        Point old = byId.remove(postId);
+        if (old == null) return null;
+        int key = cellOf(old.lat(), old.lng());
+        List<Point> cell = cells.get(key);
+        cell.removeIf(p -> p.postId().equals(postId));
+        if (cell.isEmpty()) cells.remove(key);
+        if (!old.isPublic()) {
+            List<Point> own = friendsOnlyByAuthor.get(old.authorId());
+            own.removeIf(p -> p.postId().equals(postId));
+            if (own.isEmpty()) friendsOnlyByAuthor.remove(old.authorId());
+        }
+        return old;
+    }
+
+    private void forEachInBox(double south, double north, double west, double east, Consumer<Point> action) {
+        int r0 = row(south), r1 = row(north);
+        int c0 = col(west), c1 = col(east);
+        boolean wraps = west > east;
+        int colSpan = wraps ? Math.min(cols, cols - c0 + c1 + 1) : c1 - c0 + 1;
+        long boxCells = (long) (r1 - r0 + 1) * colSpan;
+
+        if (boxCells > cells.size()) {
+            // Wide box over a sparse grid: cheaper to walk the occupied cells.
+            cells.forEach((key, points) -> {
+                int r = key / cols, c = key % cols;
+                if (r < r0 || r > r1) return;
+                if (wraps ? (c < c0 && c > c1) : (c < c0 || c > c1)) return;
+                points.forEach(action);
+            });
+            return;
+        }
+        for (int r = r0; r <= r1; r++) {
+            for (int i = 0; i < colSpan; i++) {
+                List<Point> points = cells.get(r * cols + (c0 + i) % cols);
+                if (points != null) points.forEach(action);
+            }
+        }
+    }
+
+    private static boolean inBox(Point p, double south, double north, double west, double east) {
+        if (p.lat() < south || p.lat() > north) return false;
+        return west <= east ? p.lng() >= west && p.lng() <= east : p.lng() >= west || p.lng() <= east;
+    }
+
+    private int cellOf(double lat, double lng) {
+        return row(lat) * cols + col(lng);
+    }
+
+    private int row(double lat) {
+        return Math.min(rows - 1, Math.max(0, (int) Math.floor((lat + 90) / cellDegrees)));
+    }
+
+    private int col(double lng) {
+        return Math.min(cols - 1, Math.max(0, (int) Math.floor((wrapLng(lng) + 180) / cellDegrees)));
+    }
+
+    private static double wrapLng(double lng) {
+        return lng >= -180 && lng <= 180 ? lng : ((lng + 180) % 360 + 360) % 360 - 180;
+    }
+}
@@ -0,0 +1,248 @@
+package com.nearrish.backend.service;
+
+import com.nearrish.backend.entity.Post;
+import com.nearrish.backend.repository.PostRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Predicate;
+
+/**
+ * In-memory spatial index over the geotagged top-level posts that can appear on the map.
+ *
+ * Built from the database once at startup and then kept current by {@link PostService}: posts are added
+ * on create and dropped on delete or moderation. Queries return post ids in result order; callers hydrate
+ * them and still drop anything moderated or deleted since, so a late index update only costs a slot.
+ *
+ * Map tiles come from {@link TileClusters}, a per-zoom count hierarchy of public posts, with a bounded
+ * LRU of rendered tiles in front of it. A viewer's friends-only posts are overlaid per request.
+ */
+@Service
+public class GeoIndexService {
+
+    private static final Logger log = LoggerFactory.getLogger(GeoIndexService.class);
+
+    // Above the clustering zooms a tile lists its posts individually, newest first, up to this many.
+    static final int MAX_TILE_POINTS = 500;
+
+    private final PostRepository postRepository;
+    private final GeoGrid grid;
+    private final TileClusters clusters = new TileClusters();
+
+    // Public layer of rendered tiles, keyed by tileKey(z, x, y). The epoch moves on every public change,
+    // so a tile rendered while a change landed is not cached. Moving the epoch with its evictions, and
+    // checking it with the put, happen while holding the map's own lock, so an eviction cannot slip in
+    // between a render's epoch check and its put.
+    private final Map<Long, List<RenderedCell>> tileCache;
+    private final AtomicLong publicEpoch = new AtomicLong();
+
+    private record RenderedCell(TileClusters.CellSum sum, GeoGrid.Point single) {}
+
+    public GeoIndexService(PostRepository postRepository,
+                           @Value("${geo.index.cell-degrees:0.1}") double cellDegrees,
+                           @Value("${geo.tiles.cache-size:4096}") int tileCacheSize) {
+        this.postRepository = postRepository;
+        this.grid = new GeoGrid(cellDegrees);
+        this.tileCache = Collections.synchronizedMap(new LinkedHashMap<>(256, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, List<RenderedCell>> eldest) {
+                return size() > tileCacheSize;
+            }
+        });
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        grid.clear();
+        clusters.clear();
+        for (Object[] r : postRepository.findGeoIndexRows()) {
+            GeoGrid.Point p = new GeoGrid.Point((String) r[0], (String) r[1], (Double) r[2], (Double) r[3],
+                    (Long) r[4], r[5] == null || r[5] == Post.Visibility.PUBLIC);
+            grid.put(p);
+            if (p.isPublic()) clusters.add(p.lat(), p.lng());
+        }
+        synchronized (tileCache) {
+            publicEpoch.incrementAndGet();
+            tileCache.clear();
+        }
+        log.info("Geo index holds {} posts", grid.size());
+    }
+
+    // ── Maintenance ───────────────────────────────────────────────────────────
+
+    public void onPostCreated(Post post) {
+        if (post.getLatitude() == null || post.getLongitude() == null) return;
+        if (post.getRespondingToId() != null || post.isModerated()) return;
+        GeoGrid.Point p = new GeoGrid.Point(post.getId(), post.getAuthorId(), post.getLatitude(),
+                post.getLongitude(), post.getTimestamp(),
+                post.getVisibility() == null || post.getVisibility() == Post.Visibility.PUBLIC);
+        unclusterIfPublic(grid.put(p));
+        if (p.isPublic()) {
+            clusters.add(p.lat(), p.lng());
+            evictTilesAt(p);
+        }
+    }
+
+    /** Called for deletions and moderation removals. */
+    public void onPostRemoved(Post post) {
+        unclusterIfPublic(grid.remove(post.getId()));
+    }
+
+    public void onAuthorRemoved(String authorId) {
+        grid.removeIf(p -> p.authorId().equals(authorId)).forEach(this::unclusterIfPublic);
+    }
+
+    private void unclusterIfPublic(GeoGrid.Point removed) {
+        if (removed == null || !removed.isPublic()) return;
+        clusters.remove(removed.lat(), removed.lng());
+        evictTilesAt(removed);
+    }
+
+    // Only the one tile per zoom that contains the point can change.
+    private void evictTilesAt(GeoGrid.Point p) {
+        synchronized (tileCache) {
+            publicEpoch.incrementAndGet();
+            for (int z = 0; z <= TileClusters.MAX_CLUSTER_ZOOM; z++) {
+                tileCache.remove(tileKey(z, TileClusters.cellX(p.lng(), z) >> TileClusters.CELL_BITS,
+                        TileClusters.cellY(p.lat(), z) >> TileClusters.CELL_BITS));
+            }
+        }
+    }
+
+    // ── Queries ───────────────────────────────────────────────────────────────
+
+    /**
+     * Visibility filter: public posts, plus friends-only posts by the given authors.
+     * A null set means an anonymous viewer, who only sees public posts.
+     */
+    static Predicate<GeoGrid.Point> visibleTo(Set<String> friendAndSelfIds) {
+        if (friendAndSelfIds == null) return GeoGrid.Point::isPublic;
+        return p -> p.isPublic() || friendAndSelfIds.contains(p.authorId());
+    }
+
+    /** Posts inside the box after {@code after}, newest first, as (id, timestamp) feed entries. */
+    List<TimelineBuffer.Entry> newestInBox(double south, double north, double west, double east,
+                                           Set<String> friendAndSelfIds, FeedCursor after, int limit) {
+        return grid.newestWithin(south, north, west, east, visibleTo(friendAndSelfIds), after, limit)
+                .stream().map(p -> new TimelineBuffer.Entry(p.postId(), p.timestamp())).toList();
+    }
+
+    List<GeoGrid.Hit> withinRadius(double lat, double lng, double radiusKm, Set<String> friendAndSelfIds, int limit) {
+        return grid.nearestWithin(lat, lng, radiusKm, visibleTo(friendAndSelfIds), limit);
+    }
+
+    List<GeoGrid.Hit> nearest(double lat, double lng, int k, Set<String> friendAndSelfIds) {
+        return grid.nearest(lat, lng, k, visibleTo(friendAndSelfIds));
+    }
+
+    /** As {@link #nearest(double, double, int, Set)}, only among posts by the given authors. */
+    List<GeoGrid.Hit> nearest(double lat, double lng, int k, Set<String> friendAndSelfIds, Set<String> authorIds) {
+        return grid.nearest(lat, lng, k, byAuthors(friendAndSelfIds, authorIds));
+    }
+
+    /** Clustered markers for tile (z, x, y); the caller has validated the coordinates. */
+    MapTile tile(int z, int x, int y, Set<String> friendAndSelfIds) {
+        double[] b = TileClusters.tileBounds(z, x, y);
+        List<MapTile.Cluster> out = new ArrayList<>();
+        if (z > TileClusters.MAX_CLUSTER_ZOOM) {
+            for (GeoGrid.Point p : grid.newestWithin(b[0], b[1], b[2], b[3], visibleTo(friendAndSelfIds),
+                    FeedCursor.START, MAX_TILE_POINTS)) {
+                out.add(new MapTile.Cluster(p.lat(), p.lng(), 1, p.postId()));
+            }
+            return new MapTile(z, x, y, out);
+        }
+
+        Map<Long, TileClusters.CellSum> sums = new HashMap<>();
+        Map<Long, GeoGrid.Point> singles = new HashMap<>();
+        for (RenderedCell c : publicLayer(z, x, y)) {
+            long k = cellKey(c.sum().cx(), c.sum().cy());
+            sums.put(k, c.sum());
+            if (c.single() != null) singles.put(k, c.single());
+        }
+        if (friendAndSelfIds != null) {
+            for (GeoGrid.Point p : grid.friendsOnlyWithin(friendAndSelfIds, b[0], b[1], b[2], b[3])) {
+                int cx = TileClusters.cellX(p.lng(), z), cy = TileClusters.cellY(p.lat(), z);
+                if (cx >> TileClusters.CELL_BITS != x || cy >> TileClusters.CELL_BITS != y) continue;   // on an edge
+                long k = cellKey(cx, cy);
+                TileClusters.CellSum one = new TileClusters.CellSum(cx, cy, 1, p.lat(), p.lng());
+                TileClusters.CellSum prev = sums.put(k, sums.containsKey(k) ? sums.get(k).plus(one) : one);
+                if (prev == null) singles.put(k, p);
+            }
+        }
+        sums.forEach((k, s) -> {
+            GeoGrid.Point single = s.count() == 1 ? singles.get(k) : null;
+            out.add(single != null
+                    ? new MapTile.Cluster(single.lat(), single.lng(), 1, single.postId())
+                    : new MapTile.Cluster(s.latSum() / s.count(), s.lngSum() / s.count(), s.count(), null));
+        });
+        return new MapTile(z, x, y, out);
+    }
+
+    private List<RenderedCell> publicLayer(int z, int x, int y) {
+        long key = tileKey(z, x, y);
+        List<RenderedCell> cached = tileCache.get(key);
+        if (cached != null) return cached;
+
+        long epoch = publicEpoch.get();
+        List<RenderedCell> rendered = new ArrayList<>();
+        for (TileClusters.CellSum s : clusters.tileCells(z, x, y)) {
+            rendered.add(new RenderedCell(s, s.count() == 1 ? publicPointIn(z, s.cx(), s.cy()) : null));
+        }
+        rendered = List.copyOf(rendered);
+        synchronized (tileCache) {
+            if (publicEpoch.get() == epoch) tileCache.put(key, rendered);
+        }
+        return rendered;
+    }
+
+    // The one public post in a cell, so single markers carry a post id.
+    private GeoGrid.Point publicPointIn(int z, int cx, int cy) {
+        double[] b = TileClusters.cellBounds(z, cx, cy);
+        List<GeoGrid.Point> found = grid.newestWithin(b[0], b[1], b[2], b[3],
+                p -> p.isPublic() && TileClusters.cellX(p.lng(), z) == cx && TileClusters.cellY(p.lat(), z) == cy,
+                FeedCursor.START, 1);
+        return found.isEmpty() ? null : found.getFirst();
+    }
+
+    private static long tileKey(int z, int x, int y) {
+        return ((long) z << 58) | ((long) x << 29) | y;
+    }
+
+    private static long cellKey(int cx, int cy) {
+        return ((long) cx << 32) | (cy & 0xffffffffL);
+    }
+
+    /** Great-circle distance in kilometres. */
+    public static double distanceKm(double lat1, double lng1, double lat2, double lng2) {
+        return GeoGrid.haversineKm(lat1, lng1, lat2, lng2);
+    }
+
+    int count(Set<String> friendAndSelfIds) {
+        return grid.count(visibleTo(friendAndSelfIds));
+    }
+
+    int count(Set<String> friendAndSelfIds, Set<String> authorIds) {
+        return grid.count(byAuthors(friendAndSelfIds, authorIds));
+    }
+
+    private static Predicate<GeoGrid.Point> byAuthors(Set<String> friendAndSelfIds, Set<String> authorIds) {
+        Predicate<GeoGrid.Point> visible = visibleTo(friendAndSelfIds);
+        return authorIds == null ? visible : visible.and(p -> authorIds.contains(p.authorId()));
+    }
+
+    int size() {
+        return grid.size();
+    }
+}
@@ -0,0 +1,121 @@
+package com.nearrish.backend.service;
+
+import com.nearrish.backend.entity.Post;
+import com.nearrish.backend.repository.PostRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static com.nearrish.backend.service.EngagementCounterService.Counter.POST_COMMENTS;
+import static com.nearrish.backend.service.EngagementCounterService.Counter.POST_LIKES;
+
+/**
+ * "Hot" feed: recent top-level posts ranked by likes and comments with exponential time decay, see {@link HotRanking}.
+ *
+ * Loaded at startup and then kept current by {@link PostService}, {@link LikeService} and {@link CommentService}:
+ * every like and comment moves one entry, so a page costs the same as a chronological one. Posts older than the
+ * horizon are no longer contenders and are dropped by a periodic rebucket, which also reloads the counts of the
+ * rest from the counter columns to repair missed or drifted events. An event that lands while a rebucket reads
+ * the database may be overwritten by the older count until the next run.
+ */
+@Service
+public class HotFeedService {
+
+    private static final Logger log = LoggerFactory.getLogger(HotFeedService.class);
+
+    // A rebucket only drops unlisted posts created this long before its query, so posts created while it runs stay.
+    private static final long CREATE_RACE_MARGIN_MS = 60_000;
+
+    private final PostRepository postRepository;
+    private final EngagementCounterService counters;
+    private final ContentVersions versions;
+    private final HotRanking ranking;
+    private final long horizonMs;
+
+    public HotFeedService(PostRepository postRepository, EngagementCounterService counters, ContentVersions versions,
+                          @Value("${feed.hot.half-life-hours:6}") double halfLifeHours,
+                          @Value("${feed.hot.horizon-days:3}") double horizonDays) {
+        this.postRepository = postRepository;
+        this.counters = counters;
+        this.versions = versions;
+        this.ranking = new HotRanking(Math.round(halfLifeHours * 3_600_000));
+        this.horizonMs = Math.round(horizonDays * 86_400_000);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void rebuild() {
+        ranking.clear();
+        rebucket();
+    }
+
+    @Scheduled(initialDelayString = "${feed.hot.rebucket-interval-ms:300000}",
+               fixedDelayString = "${feed.hot.rebucket-interval-ms:300000}")
+    public synchronized void rebucket() {
+        long now = System.currentTimeMillis();
+        long since = now - horizonMs;
+        Set<String> listed = new HashSet<>();
+        int moved = 0;
+        for (Object[] r : postRepository.findHotRankingRows(since)) {
+            String id = (String) r[0];
+            listed.add(id);
+            if (ranking.put(id, (String) r[1], isPublic(r[3]), (Long) r[2],
+                    (Long) r[4] + counters.pendingDelta(POST_LIKES, id),
+                    (Long) r[5] + counters.pendingDelta(POST_COMMENTS, id))) moved++;
+        }
+        int dropped = ranking.removeCreatedBefore(since)
+                + ranking.removeUnlisted(listed, now - CREATE_RACE_MARGIN_MS);
+        if (moved + dropped > 0) versions.onGlobalChange();
+        log.debug("Hot feed holds {} posts, moved {}, dropped {}", ranking.size(), moved, dropped);
+    }
+
+    // ── Maintenance ───────────────────────────────────────────────────────────
+
+    public void onPostCreated(Post post) {
+        if (post.getRespondingToId() != null || post.isModerated()) return;
+        ranking.put(post.getId(), post.getAuthorId(), isPublic(post.getVisibility()), post.getTimestamp(), 0, 0);
+    }
+
+    /** Called for deletions and moderation removals. */
+    public void onPostRemoved(Post post) {
+        ranking.remove(post.getId());
+    }
+
+    public void onAuthorRemoved(String authorId) {
+        ranking.removeIf(e -> e.authorId().equals(authorId));
+    }
+
+    public void onPostLikes(String postId, long delta) {
+        ranking.addEngagement(postId, delta, 0);
+    }
+
+    public void onPostComments(String postId, long delta) {
+        ranking.addEngagement(postId, 0, delta);
+    }
+
+    // ── Queries ───────────────────────────────────────────────────────────────
+
+    /**
+     * Up to {@code limit} posts after {@code after}, hottest first, as (id, hot time) feed entries.
+     * A null set means an anonymous viewer, who only sees public posts.
+     */
+    List<TimelineBuffer.Entry> readAfter(FeedCursor after, Set<String> friendAndSelfIds, int limit) {
+        return ranking.readAfter(after, friendAndSelfIds, limit).stream()
+                .map(e -> new TimelineBuffer.Entry(e.postId(), e.hotTime())).toList();
+    }
+
+    int size() {
+        return ranking.size();
+    }
+
+    private static boolean isPublic(Object visibility) {
+        return visibility == null || visibility == Post.Visibility.PUBLIC;
+    }
+}
@@ -0,0 +1,137 @@
+package com.nearrish.backend.service;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.function.Predicate;
+
+/**
+ * Posts ordered by a time-decayed engagement score.
+ *
+ * A post's score is {@code weight * 2^(-age / halfLife)} with {@code weight = 1 + likes + 2 * comments}. Every
+ * post decays by the same factor, so the order between two posts only changes when their engagement does. Each
+ * post is therefore kept under a fixed <em>hot time</em>, {@code createdAt + halfLife * log2(weight)}: it ranks as
+ * if it had been posted that much later, and doubling its engagement is worth one half-life of recency. Hot
+ * times sort and page exactly like timestamps, so the feed reuses {@link FeedCursor}.
+ *
+ * Entries live in a concurrent skip list; engagement changes move one entry and reads never block. Updates to
+ * the same post are serialized through the per-post state map.
+ */
+final class HotRanking {
+
+    static final int COMMENT_WEIGHT = 2;
+
+    record Entry(String postId, String authorId, boolean isPublic, long hotTime) {}
+
+    private record State(String authorId, boolean isPublic, long createdAt, long likes, long comments, Entry entry) {}
+
+    // Newest hot time first, then by id descending, as in TimelineBuffer.
+    private static final Comparator<Entry> HOTTEST_FIRST = Comparator.comparingLong(Entry::hotTime).reversed()
+            .thenComparing(Entry::postId, Comparator.reverseOrder());
+
+    private final long halfLifeMs;
+    private final ConcurrentSkipListSet<Entry> ranked = new ConcurrentSkipListSet<>(HOTTEST_FIRST);
+    private final Map<String, State> states = new ConcurrentHashMap<>();
+
+    HotRanking(long halfLifeMs) {
+        if (halfLifeMs <= 0) throw new IllegalArgumentException("halfLifeMs must be positive");
+        this.halfLifeMs = halfLifeMs;
+    }
+
+    /** Adds the post, or replaces its counts if it is already ranked. Returns whether its entry changed. */
+    boolean put(String postId, String authorId, boolean isPublic, long createdAt, long likes, long comments) {
+        boolean[] changed = {true};
+        states.compute(postId, (id, old) -> {
+            State s = new State(authorId, isPublic, createdAt, likes, comments, null);
+            if (old != null) {
+                Entry same = new Entry(id, authorId, isPublic, hotTime(createdAt, likes, comments));
+                if (same.equals(old.entry())) {
+                    changed[0] = false;
+                    return new State(authorId, isPublic, createdAt, likes, comments, old.entry());
+                }
+                ranked.remove(old.entry());
+            }
+            return place(s, id);
+        });
+        return changed[0];
+    }
+
+    /** Applies a like or comment delta; a no-op for posts that are not ranked. */
+    void addEngagement(String postId, long likes, long comments) {
+        states.computeIfPresent(postId, (id, old) -> {
+            ranked.remove(old.entry());
+            return place(new State(old.authorId(), old.isPublic(), old.createdAt(),
+                    old.likes() + likes, old.comments() + comments, null), id);
+        });
+    }
+
+    boolean remove(String postId) {
+        State old = states.remove(postId);
+        if (old == null) return false;
+        ranked.remove(old.entry());
+        return true;
+    }
+
+    void removeIf(Predicate<Entry> condition) {
+        for (Entry e : ranked) {
+            if (condition.test(e)) remove(e.postId());
+        }
+    }
+
+    /** Drops every post created before {@code cutoff}; returns how many were dropped. */
+    int removeCreatedBefore(long cutoff) {
+        int n = 0;
+        for (Map.Entry<String, State> e : states.entrySet()) {
+            if (e.getValue().createdAt() < cutoff && remove(e.getKey())) n++;
+        }
+        return n;
+    }
+
+    /** Drops posts missing from {@code listed} that were created before {@code createdBefore}. */
+    int removeUnlisted(Set<String> listed, long createdBefore) {
+        int n = 0;
+        for (Map.Entry<String, State> e : states.entrySet()) {
+            if (e.getValue().createdAt() < createdBefore && !listed.contains(e.getKey()) && remove(e.getKey())) n++;
+        }
+        return n;
+    }
+
+    void clear() {
+        states.clear();
+        ranked.clear();
+    }
+
+    /**
+     * Up to {@code max} visible entries strictly after {@code after}, hottest first. A null set means an anonymous
+     * viewer, who only sees public posts.
+     */
+    List<Entry> readAfter(FeedCursor after, Set<String> friendAndSelfIds, int max) {
+        List<Entry> out = new ArrayList<>(Math.min(max, 64));
+        Entry from = new Entry(after.id(), null, false, after.timestamp());
+        for (Entry e : ranked.tailSet(from, false)) {
+            if (out.size() >= max) break;
+            if (e.isPublic() || (friendAndSelfIds != null && friendAndSelfIds.contains(e.authorId()))) out.add(e);
+        }
+        return out;
+    }
+
+    int size() {
+        return states.size();
+    }
+
+    /** The post's hot time for the given counts; negative counts (drift) weigh nothing. */
+    long hotTime(long createdAt, long likes, long comments) {
+        double weight = 1 + Math.max(0, likes) + (double) COMMENT_WEIGHT * Math.max(0, comments);
+        return createdAt + Math.round(halfLifeMs * (Math.log(weight) / Math.log(2)));
+    }
+
+    private State place(State s, String postId) {
+        Entry e = new Entry(postId, s.authorId(), s.isPublic(), hotTime(s.createdAt(), s.likes(), s.comments()));
+        ranked.add(e);
+        return new State(s.authorId(), s.isPublic(), s.createdAt(), s.likes(), s.comments(), e);
+    }
+}
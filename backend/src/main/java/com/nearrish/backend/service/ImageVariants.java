@@ -0,0 +1,227 @@
+package com.nearrish.backend.service;
+
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReader;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Iterator;
+import java.util.Locale;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Downscaled copies of uploaded images, generated in the background after an upload is stored.
+ *
+ * A variant sits next to its original in the {@link UploadStore}, named by a size suffix before the extension:
+ * {@code ab/cd/<sha256>_s.png} for the original {@code ab/cd/<sha256>.png}. It keeps the original's format, so
+ * the extension stays truthful. Until a variant exists (or when the original is already small enough, or not an
+ * image ImageIO can read) the {@code /uploads/} handler serves the original for a variant URL, so clients can
+ * always ask for the size they display.
+ *
+ * Work runs on a small fixed pool with a bounded queue; when the queue is full an upload simply gets no variants.
+ */
+@Service
+public class ImageVariants {
+
+    private static final Logger log = LoggerFactory.getLogger(ImageVariants.class);
+
+    /** Variant sizes by longest edge in pixels. */
+    public enum Size {
+        S(96),    // avatars, up to 48px at 2x
+        M(480),   // feed and chat thumbnails
+        L(1080);  // full-width feed images
+
+        final int maxEdge;
+
+        Size(int maxEdge) {
+            this.maxEdge = maxEdge;
+        }
+
+        public String suffix() {
+            return "_" + name().toLowerCase(Locale.ROOT);
+        }
+    }
+
+    private static final Pattern VARIANT = Pattern.compile("(.*[0-9a-f]{64})_([sml])(\\.[a-z0-9]{1,5})?");
+    // Larger images are not decoded: a small compressed file can expand to gigabytes of pixels.
+    private static final long MAX_PIXELS = 50_000_000L;
+    private static final float JPEG_QUALITY = 0.82f;
+
+    private final UploadStore store;
+    private final ThreadPoolExecutor workers;
+
+    public ImageVariants(UploadStore store,
+                         @Value("${uploads.variants.threads:2}") int threads,
+                         @Value("${uploads.variants.queue-capacity:200}") int queueCapacity) {
+        this.store = store;
+        AtomicInteger n = new AtomicInteger();
+        this.workers = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                r -> {
+                    Thread t = new Thread(r, "image-variants-" + n.incrementAndGet());
+                    t.setDaemon(true);
+                    t.setPriority(Thread.NORM_PRIORITY - 1);
+                    return t;
+                },
+                (r, executor) -> log.warn("Image variant queue full, skipping an upload"));
+    }
+
+    /** Queues variant generation for a stored upload; returns immediately. */
+    public void submit(UploadStore.Stored stored) {
+        workers.execute(() -> {
+            try {
+                generate(store.root().resolve(stored.path()));
+            } catch (IOException | RuntimeException e) {
+                log.warn("Could not generate variants of {}: {}", stored.path(), e.getMessage());
+            }
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        workers.shutdownNow();
+    }
+
+    // ── Naming ────────────────────────────────────────────────────────────────
+
+    /** The variant's path for an original's path, both relative to the store root. */
+    public static String variantPath(String originalPath, Size size) {
+        int dot = originalPath.lastIndexOf('.');
+        int slash = originalPath.lastIndexOf('/');
+        return dot > slash
+                ? originalPath.substring(0, dot) + size.suffix() + originalPath.substring(dot)
+                : originalPath + size.suffix();
+    }
+
+    /** The original's path for a variant's path, or null if the path does not name a variant. */
+    public static String originalOf(String variantPath) {
+        Matcher m = VARIANT.matcher(variantPath);
+        if (!m.matches()) return null;
+        return m.group(3) != null ? m.group(1) + m.group(3) : m.group(1);
+    }
+
+    // ── Generation ────────────────────────────────────────────────────────────
+
+    // Writes every missing variant smaller than the original. Returns the number written.
+    int generate(Path original) throws IOException {
+        String name = original.getFileName().toString();
+        String format = writerFormat(name);
+        if (format == null || !fitsPixelBudget(original)) return 0;
+
+        BufferedImage image = null;
+        int written = 0;
+        for (Size size : Size.values()) {
+            Path target = original.resolveSibling(variantPath(name, size));
+            if (Files.exists(target)) continue;
+            if (image == null) {
+                image = ImageIO.read(original.toFile());
+                if (image == null) return written;
+            }
+            int edge = Math.max(image.getWidth(), image.getHeight());
+            if (edge <= size.maxEdge) continue;
+
+            double scale = (double) size.maxEdge / edge;
+            int w = Math.max(1, (int) Math.round(image.getWidth() * scale));
+            int h = Math.max(1, (int) Math.round(image.getHeight() * scale));
+            write(resize(image, w, h, "jpeg".equals(format)), format, target);
+            written++;
+        }
+        return written;
+    }
+
+    // Halves repeatedly while more than twice too large, then scales the rest bilinearly: fast, and without the
+    // aliasing a single large bilinear step leaves.
+    private static BufferedImage resize(BufferedImage src, int w, int h, boolean opaque) {
+        int type = opaque ? BufferedImage.TYPE_INT_RGB : BufferedImage.TYPE_INT_ARGB;
+        BufferedImage current = src;
+        int cw = src.getWidth(), ch = src.getHeight();
+        do {
+            cw = cw / 2 >= w ? cw / 2 : w;
+            ch = ch / 2 >= h ? ch / 2 : h;
+            BufferedImage next = new BufferedImage(cw, ch, type);
+            Graphics2D g = next.createGraphics();
+            try {
+                if (opaque) {
+                    // JPEG has no alpha: flatten transparency onto white rather than black.
+                    g.setColor(Color.WHITE);
+                    g.fillRect(0, 0, cw, ch);
+                }
+                g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+                g.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+                g.drawImage(current, 0, 0, cw, ch, null);
+            } finally {
+                g.dispose();
+            }
+            current = next;
+        } while (cw != w || ch != h);
+        return current;
+    }
+
+    private static void write(BufferedImage image, String format, Path target) throws IOException {
+        Path tmp = Files.createTempFile(target.getParent(), "variant-", ".part");
+        try {
+            Iterator<ImageWriter> writers = ImageIO.getImageWritersByFormatName(format);
+            if (!writers.hasNext()) return;
+            ImageWriter writer = writers.next();
+            try (ImageOutputStream out = ImageIO.createImageOutputStream(tmp.toFile())) {
+                writer.setOutput(out);
+                ImageWriteParam param = writer.getDefaultWriteParam();
+                if ("jpeg".equals(format)) {
+                    param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+                    param.setCompressionQuality(JPEG_QUALITY);
+                    param.setProgressiveMode(ImageWriteParam.MODE_DEFAULT);
+                }
+                writer.write(null, new IIOImage(image, null, null), param);
+            } finally {
+                writer.dispose();
+            }
+            Files.move(tmp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } finally {
+            Files.deleteIfExists(tmp);
+        }
+    }
+
+    private static boolean fitsPixelBudget(Path original) throws IOException {
+        try (ImageInputStream in = ImageIO.createImageInputStream(original.toFile())) {
+            if (in == null) return false;
+            Iterator<ImageReader> readers = ImageIO.getImageReaders(in);
+            if (!readers.hasNext()) return false;
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(in, true, true);
+                return (long) reader.getWidth(0) * reader.getHeight(0) <= MAX_PIXELS;
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    // Formats variants are re-encoded in, by the original's extension. Others get no variants.
+    private static String writerFormat(String fileName) {
+        String lower = fileName.toLowerCase(Locale.ROOT);
+        if (lower.endsWith(".jpg") || lower.endsWith(".jpeg")) return "jpeg";
+        if (lower.endsWith(".png")) return "png";
+        return null;
+    }
+}
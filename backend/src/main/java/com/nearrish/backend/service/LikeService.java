@@ -12,6 +12,9 @@ import org.springframework.messaging.simp.SimpMessagingTemplate;
 import org.springframework.stereotype.Service;
 import org.springframework.web.server.ResponseStatusException;
 
+import static com.nearrish.backend.service.EngagementCounterService.Counter.COMMENT_LIKES;
+import static com.nearrish.backend.service.EngagementCounterService.Counter.POST_LIKES;
+
 @Service
 public class LikeService {
 
@@ -19,15 +22,27 @@ public class LikeService {
     private final PostRepository postRepository;
     private final CommentRepository commentRepository;
     private final SimpMessagingTemplate messagingTemplate;
+    private final EngagementCounterService counters;
+    private final HotFeedService hotFeedService;
+    private final ContentVersions versions;
+    private final PostViewCache postViews;
 
     public LikeService(LikeRepository likeRepository,
                        PostRepository postRepository,
                        CommentRepository commentRepository,
-                       SimpMessagingTemplate messagingTemplate) {
+                       SimpMessagingTemplate messagingTemplate,
+                       EngagementCounterService counters,
+                       HotFeedService hotFeedService,
+                       ContentVersions versions,
+                       PostViewCache postViews) {
         this.likeRepository = likeRepository;
         this.postRepository = postRepository;
         this.commentRepository = commentRepository;
         this.messagingTemplate = messagingTemplate;
+        this.counters = counters;
+        this.hotFeedService = hotFeedService;
+        this.versions = versions;
+        this.postViews = postViews;
     }
 
     public Like likePost(User user, String postId) {
@@ -39,8 +54,11 @@ public class LikeService {
         }
 
         Like saved = likeRepository.save(Like.forPost(user, post));
-        messagingTemplate.convertAndSend("/topic/posts",
-                "LIKE_POST:" + postId + ":" + likeRepository.countByPostId(postId));
+        counters.add(POST_LIKES, postId, 1);
+        hotFeedService.onPostLikes(postId, 1);
+        versions.onPostChanged(post.getAuthorId());
+        postViews.invalidate(postId);
+        broadcastPostLikes(postId);
         return saved;
     }
 
@@ -49,15 +67,16 @@ public class LikeService {
                 .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Like not found"));
 
         likeRepository.delete(like);
-        messagingTemplate.convertAndSend("/topic/posts",
-                "LIKE_POST:" + postId + ":" + likeRepository.countByPostId(postId));
+        counters.add(POST_LIKES, postId, -1);
+        hotFeedService.onPostLikes(postId, -1);
+        versions.onPostChanged(like.getPost().getAuthorId());
+        postViews.invalidate(postId);
+        broadcastPostLikes(postId);
     }
 
     public long getPostLikeCount(String postId) {
-        if (!postRepository.existsById(postId)) {
-            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Post not found");
-        }
-        return likeRepository.countByPostId(postId);
+        return counters.current(POST_LIKES, postId)
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Post not found"));
     }
 
     public Like likeComment(User user, String commentId) {
@@ -69,8 +88,8 @@ public class LikeService {
         }
 
         Like saved = likeRepository.save(Like.forComment(user, comment));
-        messagingTemplate.convertAndSend("/topic/posts",
-                "LIKE_COMMENT:" + commentId + ":" + likeRepository.countByCommentId(commentId));
+        counters.add(COMMENT_LIKES, commentId, 1);
+        broadcastCommentLikes(commentId);
         return saved;
     }
 
@@ -79,8 +98,8 @@ public class LikeService {
                 .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Like not found"));
 
         likeRepository.delete(like);
-        messagingTemplate.convertAndSend("/topic/posts",
-                "LIKE_COMMENT:" + commentId + ":" + likeRepository.countByCommentId(commentId));
+        counters.add(COMMENT_LIKES, commentId, -1);
+        broadcastCommentLikes(commentId);
     }
 
     public boolean hasLikedPost(User user, String postId) {
@@ -92,9 +111,17 @@ public class LikeService {
     }
 
     public long getCommentLikeCount(String commentId) {
-        if (!commentRepository.existsById(commentId)) {
-            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Comment not found");
-        }
-        return likeRepository.countByCommentId(commentId);
+        return counters.current(COMMENT_LIKES, commentId)
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Comment not found"));
+    }
+
+    private void broadcastPostLikes(String postId) {
+        counters.current(POST_LIKES, postId).ifPresent(count ->
+                messagingTemplate.convertAndSend("/topic/posts", "LIKE_POST:" + postId + ":" + count));
+    }
+
+    private void broadcastCommentLikes(String commentId) {
+        counters.current(COMMENT_LIKES, commentId).ifPresent(count ->
+                messagingTemplate.convertAndSend("/topic/posts", "LIKE_COMMENT:" + commentId + ":" + count));
     }
 }
@@ -0,0 +1,10 @@
+package com.nearrish.backend.service;
+
+import java.util.List;
+
+/** One map tile (z/x/y, slippy-map numbering) of clustered post markers. */
+public record MapTile(int z, int x, int y, List<Cluster> clusters) {
+
+    /** A single post when {@code count} is 1 ({@code postId} set), otherwise a cluster at its centroid. */
+    public record Cluster(double latitude, double longitude, int count, String postId) {}
+}
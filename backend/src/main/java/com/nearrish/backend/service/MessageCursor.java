@@ -0,0 +1,38 @@
+package com.nearrish.backend.service;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.nio.charset.StandardCharsets;
+import java.time.DateTimeException;
+import java.time.LocalDateTime;
+import java.util.Base64;
+
+/**
+ * Keyset position in a listing ordered by (createdAt DESC, id DESC): a conversation's history, or the inbox,
+ * where {@code createdAt} is the conversation's last activity. Clients only ever see the opaque {@link #encode()} form.
+ */
+public record MessageCursor(LocalDateTime createdAt, String id) {
+
+    public static MessageCursor of(ChatService.MessageRow message) {
+        return new MessageCursor(message.createdAt(), message.id());
+    }
+
+    public String encode() {
+        String raw = createdAt + "|" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /** Returns null for a missing cursor, meaning the newest page; rejects malformed ones with 400. */
+    public static MessageCursor decode(String token) {
+        if (token == null || token.isBlank()) return null;
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            int sep = raw.indexOf('|');
+            if (sep <= 0 || sep == raw.length() - 1) throw new IllegalArgumentException(raw);
+            return new MessageCursor(LocalDateTime.parse(raw.substring(0, sep)), raw.substring(sep + 1));
+        } catch (IllegalArgumentException | DateTimeException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid cursor");
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package com.nearrish.backend.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.sql.Date;
+import java.time.LocalDate;
+
+/**
+ * Keeps monthly partitions of {@code messages} created ahead of time. On Postgres the table is range-partitioned
+ * by {@code created_at} (migration V1); a month that has no partition yet would send its rows to the default
+ * partition, which every query then scans. Other databases, such as H2 in tests, keep a plain table and this does
+ * nothing.
+ */
+@Service
+public class MessagePartitions {
+
+    private static final Logger log = LoggerFactory.getLogger(MessagePartitions.class);
+
+    private final JdbcTemplate jdbc;
+    private final int monthsAhead;
+
+    public MessagePartitions(JdbcTemplate jdbc, @Value("${chat.partitions.months-ahead:2}") int monthsAhead) {
+        this.jdbc = jdbc;
+        this.monthsAhead = monthsAhead;
+    }
+
+    /** Creates the partitions for this month and the next {@code monthsAhead}; existing ones are left alone. */
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(cron = "${chat.partitions.cron:0 0 3 * * *}")
+    public void ensureAhead() {
+        if (!partitioned()) return;
+        LocalDate month = LocalDate.now().withDayOfMonth(1);
+        for (int i = 0; i <= monthsAhead; i++) {
+            try {
+                jdbc.queryForList("SELECT ensure_message_partition(?)", Date.valueOf(month.plusMonths(i)));
+            } catch (DataAccessException e) {
+                // Typically rows for that month already sit in the default partition; they must be moved by hand.
+                log.warn("Could not create the messages partition for {}: {}", month.plusMonths(i), e.getMessage());
+            }
+        }
+    }
+
+    boolean partitioned() {
+        String product = jdbc.execute((ConnectionCallback<String>) c -> c.getMetaData().getDatabaseProductName());
+        if (!"PostgreSQL".equals(product)) return false;
+        return Boolean.TRUE.equals(jdbc.queryForObject(
+                "SELECT EXISTS (SELECT 1 FROM pg_partitioned_table WHERE partrelid = to_regclass('messages'))",
+                Boolean.class));
+    }
+}
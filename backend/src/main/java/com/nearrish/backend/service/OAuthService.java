@@ -21,6 +21,7 @@ public class OAuthService {
 
     private final RestClient restClient = RestClient.create();
     private final UserRepository userRepository;
+    private final UserSearchService userSearchService;
 
     @Value("${oauth.42.client-id:}")      private String client42Id;
     @Value("${oauth.42.client-secret:}")  private String client42Secret;
@@ -28,8 +29,9 @@ public class OAuthService {
     @Value("${oauth.google.client-secret:}") private String clientGoogleSecret;
     @Value("${oauth.base-url:https://localhost}") private String baseUrl;
 
-    public OAuthService(UserRepository userRepository) {
+    public OAuthService(UserRepository userRepository, UserSearchService userSearchService) {
         this.userRepository = userRepository;
+        this.userSearchService = userSearchService;
     }
 
     // ── Authorization URL ────────────────────────────────────────────────────
@@ -143,7 +145,9 @@ public class OAuthService {
         user.setNickname(username.length() > 8 ? username.substring(0, 8) : username);
         user.setOauthProvider(provider);
         user.setOauthId(info.id());
-        return userRepository.save(user);
+        User saved = userRepository.save(user);
+        userSearchService.onUserSaved(saved);
+        return saved;
     }
 
     // ── Helpers ──────────────────────────────────────────────────────────────
@@ -1,45 +1,125 @@
 package com.nearrish.backend.service;
 
-import com.nearrish.backend.entity.FriendRequest;
 import com.nearrish.backend.entity.Post;
 import com.nearrish.backend.entity.User;
-import com.nearrish.backend.repository.FriendRequestRepository;
+import com.nearrish.backend.repository.PostDisplayRow;
 import com.nearrish.backend.repository.PostRepository;
-import jakarta.transaction.Transactional;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
 import org.springframework.http.HttpStatus;
 import org.springframework.messaging.simp.SimpMessagingTemplate;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.server.ResponseStatusException;
 
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.PriorityQueue;
+import java.util.Set;
 import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
+
+import static com.nearrish.backend.service.EngagementCounterService.Counter.POST_COMMENTS;
+import static com.nearrish.backend.service.EngagementCounterService.Counter.POST_LIKES;
+import static com.nearrish.backend.service.EngagementCounterService.Counter.POST_REPLIES;
 
 @Service
 public class PostService {
 
+    private static final Logger log = LoggerFactory.getLogger(PostService.class);
+
+    // Upper bounds for a single feed page. The map needs more markers per request than the list view.
+    static final int MAX_FEED_PAGE = 100;
+    public static final int MAX_GEO_PAGE = 500;
+    public static final int MAX_TILE_ZOOM = 22;
+    static final double MAX_RADIUS_KM = 1000;
+    // Each level adds a 37-character id segment to the stored path, which must fit its column.
+    static final int MAX_THREAD_DEPTH = 50;
+    static final int MAX_THREAD_PAGE = 500;
+    // Ids per ranking-row query, well below the bind-parameter limits of the supported databases.
+    private static final int RANKING_CHUNK = 1000;
+
+    /** Orders for advanced search besides relevance. */
+    public enum Ranking { NEWEST, LIKES, COMMENTS, TOXICITY, CLOSEST }
+
     private final PostRepository postRepository;
-    private final FriendRequestRepository friendRequestRepository;
+    private final SocialGraph socialGraph;
     private final ModerationClient moderationClient;
     private final SimpMessagingTemplate messagingTemplate;
+    private final TimelineService timelineService;
+    private final GeoIndexService geoIndexService;
+    private final SearchIndexService searchIndexService;
+    private final EngagementCounterService counters;
+    private final HotFeedService hotFeedService;
+    private final FeedChangeLog changeLog;
+    private final ContentVersions versions;
+    private final PostViewCache postViews;
+    private final AuthorCache authorCache;
 
-    public PostService(PostRepository postRepository, FriendRequestRepository friendRequestRepository,
-                       ModerationClient moderationClient, SimpMessagingTemplate messagingTemplate) {
+    public PostService(PostRepository postRepository, SocialGraph socialGraph,
+                       ModerationClient moderationClient, SimpMessagingTemplate messagingTemplate,
+                       TimelineService timelineService, GeoIndexService geoIndexService,
+                       SearchIndexService searchIndexService, EngagementCounterService counters,
+                       HotFeedService hotFeedService, FeedChangeLog changeLog, ContentVersions versions,
+                       PostViewCache postViews, AuthorCache authorCache) {
         this.postRepository = postRepository;
-        this.friendRequestRepository = friendRequestRepository;
+        this.socialGraph = socialGraph;
         this.moderationClient = moderationClient;
         this.messagingTemplate = messagingTemplate;
+        this.timelineService = timelineService;
+        this.geoIndexService = geoIndexService;
+        this.searchIndexService = searchIndexService;
+        this.counters = counters;
+        this.hotFeedService = hotFeedService;
+        this.changeLog = changeLog;
+        this.versions = versions;
+        this.postViews = postViews;
+        this.authorCache = authorCache;
     }
 
     public Post createPost(User author, String text, String respondingToId, Double latitude, Double longitude, String imageUrl, Post.Visibility visibility) {
-        if (respondingToId != null && !postRepository.existsById(respondingToId)) {
-            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Parent post not found");
+        Post parent = null;
+        if (respondingToId != null) {
+            parent = postRepository.findById(respondingToId)
+                    .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Parent post not found"));
+            if (parent.getDepth() >= MAX_THREAD_DEPTH) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Reply thread is too deep");
+            }
         }
 
         Post post = new Post(text, author.getId(), respondingToId, latitude, longitude);
         post.setImageUrl(imageUrl);
         post.setVisibility(visibility != null ? visibility : Post.Visibility.PUBLIC);
+        if (parent != null) {
+            post.setThreadRootId(threadRoot(parent));
+            post.setThreadPath(childPath(parent));
+            post.setDepth(parent.getDepth() + 1);
+        }
         Post saved = postRepository.save(post);
+        if (respondingToId != null) counters.add(POST_REPLIES, respondingToId, 1);
+        timelineService.onPostCreated(saved);
+        geoIndexService.onPostCreated(saved);
+        searchIndexService.onPostCreated(saved);
+        hotFeedService.onPostCreated(saved);
+        changeLog.onPostCreated(saved);
+        versions.onPostChanged(saved.getAuthorId());
+        if (parent != null) {
+            versions.onPostChanged(parent.getAuthorId());
+            postViews.invalidate(parent.getId());
+        }
 
         String savedId = saved.getId();
         CompletableFuture.runAsync(() -> {
@@ -54,37 +134,287 @@ public class PostService {
                     p.setModerated(true);
                     p.setModerationReason(reason);
                     postRepository.save(p);
+                    timelineService.onPostRemoved(p);
+                    geoIndexService.onPostRemoved(p);
+                    searchIndexService.onPostRemoved(p);
+                    hotFeedService.onPostRemoved(p);
+                    changeLog.onPostModerated(p);
+                    versions.onPostChanged(p.getAuthorId());
+                    postViews.invalidate(savedId);
                     messagingTemplate.convertAndSend("/topic/posts",
                             "MODERATED_POST:" + savedId + ":" + reason);
                 } else {
                     postRepository.save(p);
+                    versions.onPostChanged(p.getAuthorId());
+                    postViews.invalidate(savedId);
                 }
             });
         });
         return saved;
     }
 
-    @Transactional
-    public List<Post> getFeed(User currentUser) {
-        return postRepository.findFeedForUser(friendAndSelfIds(currentUser));
+    @Transactional(readOnly = true)
+    public CursorPage<Post> getFeed(User currentUser, FeedCursor cursor, int limit) {
+        FeedCursor c = cursor != null ? cursor : FeedCursor.START;
+        int n = clamp(limit, MAX_FEED_PAGE);
+        Optional<List<TimelineBuffer.Entry>> timeline = timelineService.readHome(currentUser.getId(), c, n + 1);
+        if (timeline.isPresent()) return loadTimelinePage(timeline.get(), n);
+        return toPage(display(() -> postRepository.findFeedForUser(friendAndSelfIds(currentUser),
+                c.timestamp(), c.id(), PageRequest.of(0, n + 1))), n);
     }
 
-    @Transactional
-    public List<Post> getGeoFeed(User currentUser) {
-        return postRepository.findGeoFeedForUser(friendAndSelfIds(currentUser));
+    @Transactional(readOnly = true)
+    public CursorPage<Post> getGeoFeed(User currentUser, FeedCursor cursor, int limit) {
+        FeedCursor c = cursor != null ? cursor : FeedCursor.START;
+        int n = clamp(limit, MAX_GEO_PAGE);
+        return toPage(display(() -> postRepository.findGeoFeedForUser(friendAndSelfIds(currentUser),
+                c.timestamp(), c.id(), PageRequest.of(0, n + 1))), n);
+    }
+
+    @Transactional(readOnly = true)
+    public CursorPage<Post> getPublicFeed(FeedCursor cursor, int limit) {
+        FeedCursor c = cursor != null ? cursor : FeedCursor.START;
+        int n = clamp(limit, MAX_FEED_PAGE);
+        return toPage(display(() -> postRepository.findPublicFeed(c.timestamp(), c.id(), PageRequest.of(0, n + 1))),
+                n);
+    }
+
+    @Transactional(readOnly = true)
+    public CursorPage<Post> getPublicGeoFeed(FeedCursor cursor, int limit) {
+        FeedCursor c = cursor != null ? cursor : FeedCursor.START;
+        int n = clamp(limit, MAX_GEO_PAGE);
+        return toPage(display(() -> postRepository.findPublicGeoFeed(c.timestamp(), c.id(),
+                PageRequest.of(0, n + 1))), n);
+    }
+
+    /**
+     * Recent posts the viewer may see, hottest first, served from {@link HotFeedService}. The cursor is a position
+     * in hot-time order; a post whose engagement moves it across the cursor between pages is skipped or repeated.
+     * A null viewer means an anonymous request, which only sees public posts.
+     */
+    @Transactional(readOnly = true)
+    public CursorPage<Post> getHotFeed(User viewer, FeedCursor cursor, int limit) {
+        FeedCursor c = cursor != null ? cursor : FeedCursor.START;
+        int n = clamp(limit, MAX_FEED_PAGE);
+        return loadTimelinePage(hotFeedService.readAfter(c, visibilitySet(viewer), n + 1), n);
+    }
+
+    /**
+     * What changed in the viewer's feed after {@code since}: posts created since, newest first, and tombstones for
+     * posts deleted or moderated since. Without a watermark, or with one the change log can no longer answer, the
+     * result is a reset carrying the current watermark; the client reloads the feed and continues from it.
+     * A null viewer means an anonymous request, which only sees public posts.
+     */
+    @Transactional(readOnly = true)
+    public FeedDelta<Post> getFeedSince(User viewer, FeedWatermark since, int limit) {
+        int n = clamp(limit, MAX_FEED_PAGE);
+        Set<String> audience = visibilitySet(viewer);
+        FeedChangeLog.Slice slice = changeLog.readSince(since,
+                c -> c.isPublic() || (audience != null && audience.contains(c.authorId())), n);
+        if (slice.reset()) return new FeedDelta<>(List.of(), List.of(), slice.watermark().encode(), true, false);
+
+        // Only the last change to each post counts: one created and removed within the slice is just a tombstone.
+        Map<String, FeedChangeLog.Kind> latest = new LinkedHashMap<>();
+        for (FeedChangeLog.Change c : slice.changes()) {
+            latest.remove(c.postId());
+            latest.put(c.postId(), c.kind());
+        }
+        List<String> created = new ArrayList<>();
+        List<FeedDelta.Tombstone> removed = new ArrayList<>();
+        latest.forEach((id, kind) -> {
+            if (kind == FeedChangeLog.Kind.CREATED) created.add(id);
+            else removed.add(new FeedDelta.Tombstone(id, kind));
+        });
+        return new FeedDelta<>(loadInOrder(created.reversed()), removed, slice.watermark().encode(), false,
+                slice.hasMore());
+    }
+
+    // ── Spatial queries (served from GeoIndexService) ─────────────────────────
+    // A null viewer means an anonymous request, which only sees public posts.
+
+    /** Map viewport feed: posts inside the box, newest first. {@code west > east} crosses the antimeridian. */
+    @Transactional(readOnly = true)
+    public CursorPage<Post> getGeoFeedInBox(User viewer, double south, double north, double west, double east,
+                                            FeedCursor cursor, int limit) {
+        checkLatitude(south);
+        checkLatitude(north);
+        checkLongitude(west);
+        checkLongitude(east);
+        if (south > north) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "south must not be greater than north");
+        }
+        FeedCursor c = cursor != null ? cursor : FeedCursor.START;
+        int n = clamp(limit, MAX_GEO_PAGE);
+        return loadTimelinePage(geoIndexService.newestInBox(south, north, west, east,
+                visibilitySet(viewer), c, n + 1), n);
+    }
+
+    /** Posts within {@code radiusKm} of the point, nearest first. */
+    @Transactional(readOnly = true)
+    public List<Post> getPostsWithinRadius(User viewer, double lat, double lng, double radiusKm, int limit) {
+        checkLatitude(lat);
+        checkLongitude(lng);
+        if (!(radiusKm > 0 && radiusKm <= MAX_RADIUS_KM)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "radiusKm must be greater than 0 and at most " + (int) MAX_RADIUS_KM);
+        }
+        return loadInOrder(geoIndexService.withinRadius(lat, lng, radiusKm, visibilitySet(viewer),
+                clamp(limit, MAX_GEO_PAGE)).stream().map(h -> h.point().postId()).toList());
+    }
+
+    /** The {@code k} posts nearest to the point by great-circle distance, nearest first. */
+    @Transactional(readOnly = true)
+    public List<Post> getNearestPosts(User viewer, double lat, double lng, int k) {
+        checkLatitude(lat);
+        checkLongitude(lng);
+        return loadInOrder(geoIndexService.nearest(lat, lng, clamp(k, MAX_GEO_PAGE), visibilitySet(viewer))
+                .stream().map(h -> h.point().postId()).toList());
+    }
+
+    /**
+     * Clustered markers for map tile z/x/y (slippy-map numbering). Up to zoom 16 nearby posts are
+     * merged into clusters; beyond that each visible post in the tile is its own marker.
+     */
+    public MapTile getMapTile(User viewer, int z, int x, int y) {
+        if (z < 0 || z > MAX_TILE_ZOOM) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Zoom must be between 0 and " + MAX_TILE_ZOOM);
+        }
+        if (x < 0 || y < 0 || x >= 1 << z || y >= 1 << z) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Tile is outside the map at zoom " + z);
+        }
+        return geoIndexService.tile(z, x, y, visibilitySet(viewer));
+    }
+
+    /**
+     * One page of the posts nearest to the point. A non-null authorIds restricts them to those authors.
+     * Geotagged posts come first, nearest first; posts without a location follow, newest first, the way
+     * {@link Ranking#CLOSEST} sorts them last. Like {@link #rankMatchingPosts}, a deep page costs its offset.
+     */
+    @Transactional(readOnly = true)
+    public SearchPage<Post> browseNearest(User viewer, Collection<String> authorIds, double lat, double lng,
+                                          int page, int size) {
+        checkLatitude(lat);
+        checkLongitude(lng);
+        int n = clamp(size, MAX_FEED_PAGE);
+        int from = offset(page, n);
+        Set<String> visible = visibilitySet(viewer), authors = toSet(authorIds);
+        if (authors != null && authors.isEmpty()) return SearchPage.empty();
+
+        int located = geoIndexService.count(visible, authors);
+        List<String> ids = new ArrayList<>(n);
+        if (from < located) {
+            List<String> nearest = geoIndexService.nearest(lat, lng, Math.min(from + n, located), visible, authors)
+                    .stream().map(h -> h.point().postId()).toList();
+            ids.addAll(nearest.subList(Math.min(from, nearest.size()), nearest.size()));
+        }
+
+        int skip = Math.max(0, from - located), want = n - ids.size();
+        List<String> seen = visible == null ? List.of() : List.copyOf(visible);
+        PageRequest request = PageRequest.of(0, Math.max(1, skip + want));
+        Page<String> unlocated = authors == null
+                ? postRepository.browseUnlocatedIds(seen, request)
+                : postRepository.browseUnlocatedIdsByAuthors(authors, seen, request);
+        if (want > 0) {
+            List<String> rows = unlocated.getContent();
+            ids.addAll(rows.subList(Math.min(skip, rows.size()), Math.min(skip + want, rows.size())));
+        }
+        int total = (int) Math.min((long) located + unlocated.getTotalElements(), Integer.MAX_VALUE);
+        return new SearchPage<>(loadInOrder(ids), total);
+    }
+
+    // ── Full-text search (served from SearchIndexService) ─────────────────────
+    // Every term of q must match. A non-null authorIds further restricts results to those authors.
+
+    /** Top-level posts matching {@code q}, best match first. */
+    @Transactional(readOnly = true)
+    public SearchPage<Post> searchPosts(User viewer, String q, Collection<String> authorIds, int page, int size) {
+        return search(viewer, q, authorIds, TextIndex.Order.RELEVANCE, page, size);
+    }
+
+    /** Top-level posts matching {@code q}, newest first. */
+    @Transactional(readOnly = true)
+    public SearchPage<Post> searchRecentPosts(User viewer, String q, Collection<String> authorIds, int page, int size) {
+        return search(viewer, q, authorIds, TextIndex.Order.NEWEST, page, size);
     }
 
-    public List<Post> getPublicFeed() {
-        return postRepository.findPublicFeed();
+    /**
+     * Posts matching {@code q} in an order the index does not hold. Only the ranking columns of the matches
+     * are read, a bounded heap keeps the best {@code (page + 1) * size}, and only the page is hydrated.
+     * {@code lat}/{@code lng} are required for {@link Ranking#CLOSEST}; posts without a location sort last.
+     */
+    @Transactional(readOnly = true)
+    public SearchPage<Post> rankMatchingPosts(User viewer, String q, Collection<String> authorIds, Ranking ranking,
+                                              Double lat, Double lng, int page, int size) {
+        if (q == null || q.isBlank()) return SearchPage.empty();
+        int n = clamp(size, MAX_FEED_PAGE);
+        List<String> ids = searchIndexService.matchingPostIds(q, visibilitySet(viewer), toSet(authorIds));
+        int from = offset(page, n);
+        if (from >= ids.size()) return new SearchPage<>(List.of(), ids.size());
+
+        PriorityQueue<Ranked> top = new PriorityQueue<>(BEST_FIRST.reversed());
+        for (int i = 0; i < ids.size(); i += RANKING_CHUNK) {
+            List<String> chunk = ids.subList(i, Math.min(i + RANKING_CHUNK, ids.size()));
+            for (Object[] r : postRepository.findRankingRows(chunk)) {
+                String id = (String) r[0];
+                double key = switch (ranking) {
+                    case LIKES    -> (Long) r[1] + counters.pendingDelta(POST_LIKES, id);
+                    case COMMENTS -> (Long) r[2] + counters.pendingDelta(POST_COMMENTS, id);
+                    case TOXICITY -> r[3] == null ? -1 : (Integer) r[3];
+                    case CLOSEST  -> r[4] == null || r[5] == null || lat == null || lng == null
+                            ? Double.NEGATIVE_INFINITY
+                            : -GeoIndexService.distanceKm(lat, lng, (Double) r[4], (Double) r[5]);
+                    case NEWEST   -> (Long) r[6];
+                };
+                top.add(new Ranked(id, key, (Long) r[6]));
+                if (top.size() > from + n) top.poll();
+            }
+        }
+        List<Ranked> ranked = new ArrayList<>(top);
+        ranked.sort(BEST_FIRST);
+        List<String> pageIds = ranked.subList(Math.min(from, ranked.size()), ranked.size()).stream()
+                .map(Ranked::id).toList();
+        return new SearchPage<>(loadInOrder(pageIds), ids.size());
+    }
+
+    // ── Browsing (advanced search without a text query) ───────────────────────
+
+    /**
+     * One page of top-level posts in the given order, sorted and paged by the database. A null authorIds
+     * lists public posts; otherwise posts by those authors that the viewer may see. Counter orders use
+     * the stored columns, so a like still waiting in the write-behind buffer moves a post on the next flush.
+     * {@link Ranking#CLOSEST} is served by {@link #browseNearest} instead.
+     */
+    @Transactional(readOnly = true)
+    public SearchPage<Post> browsePosts(User viewer, Collection<String> authorIds, Ranking ranking,
+                                        int page, int size) {
+        if (authorIds != null && authorIds.isEmpty()) return SearchPage.empty();
+        int n = clamp(size, MAX_FEED_PAGE);
+        Sort sort = switch (ranking) {
+            case LIKES    -> Sort.by(Sort.Order.desc("likeCount"));
+            case COMMENTS -> Sort.by(Sort.Order.desc("commentCount"));
+            case TOXICITY -> Sort.by(Sort.Order.desc("moderationSeverity").nullsLast());
+            case NEWEST, CLOSEST -> Sort.unsorted();
+        };
+        PageRequest request = PageRequest.of(Math.max(0, page), n,
+                sort.and(Sort.by(Sort.Order.desc("timestamp"), Sort.Order.desc("id"))));
+        Page<Post> rows = authorIds == null
+                ? postRepository.browsePublic(request)
+                : postRepository.browseByAuthors(authorIds, friendAndSelfIds(viewer), request);
+        return new SearchPage<>(rows.getContent(), (int) Math.min(rows.getTotalElements(), Integer.MAX_VALUE));
     }
 
-    public List<Post> getPublicGeoFeed() {
-        return postRepository.findPublicGeoFeed();
+    @Transactional(readOnly = true)
+    public List<Post> searchPublicPosts(String q, int page, int size) {
+        return searchPosts(null, q, null, page, size).items();
     }
 
-    public List<Post> searchPublicPosts(String q) {
-        if (q == null || q.isBlank()) return List.of();
-        return postRepository.searchPublicPosts(q.trim());
+    private SearchPage<Post> search(User viewer, String q, Collection<String> authorIds,
+                                    TextIndex.Order order, int page, int size) {
+        if (q == null || q.isBlank()) return SearchPage.empty();
+        int n = clamp(size, MAX_FEED_PAGE);
+        TextIndex.Result r = searchIndexService.searchPosts(q, visibilitySet(viewer), toSet(authorIds), order,
+                offset(page, n), n);
+        return new SearchPage<>(loadInOrder(r.hits().stream().map(h -> h.doc().id()).toList()), r.total());
     }
 
     public Post getPost(String postId) {
@@ -92,6 +422,16 @@ public class PostService {
                 .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Post not found"));
     }
 
+    /** The post with its live counts, served from {@link PostViewCache}. */
+    public PostViewCache.PostView getPostView(String postId) {
+        PostViewCache.PostView view = postViews.get(postId, id -> postRepository.findById(id)
+                .map(p -> new PostViewCache.PostView(p, counters.postLikes(p), counters.postComments(p),
+                        counters.postReplies(p)))
+                .orElse(null));
+        if (view == null) throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Post not found");
+        return view;
+    }
+
     public List<Post> getPostsByAuthor(String authorId) {
         return postRepository.findByAuthorId(authorId);
     }
@@ -107,6 +447,61 @@ public class PostService {
         return postRepository.findByRespondingToId(postId);
     }
 
+    /**
+     * The whole reply subtree under a post in one query, breadth first, down to {@code maxDepth} levels
+     * below it and at most {@code limit} replies. Replies at the cut-off keep their reply counts, so a
+     * client can tell where to ask for more.
+     */
+    public ThreadSlice<Post> getThread(String postId, int maxDepth, int limit) {
+        Post top = getPost(postId);
+        int n = clamp(limit, MAX_THREAD_PAGE);
+        int deepest = top.getDepth() + clamp(maxDepth, MAX_THREAD_DEPTH);
+        List<Post> rows = postRepository.findSubtree(threadRoot(top), childPath(top) + "%", deepest,
+                PageRequest.of(0, n + 1));
+        if (rows.size() <= n) return new ThreadSlice<>(rows, false);
+        return new ThreadSlice<>(List.copyOf(rows.subList(0, n)), true);
+    }
+
+    /**
+     * Fills in thread root, path and depth for replies written before threads were materialized.
+     * Runs once per startup and is a single exists query when there is nothing left to do.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional
+    public void backfillReplyThreads() {
+        if (!postRepository.existsByRespondingToIdIsNotNullAndThreadRootIdIsNull()) return;
+
+        Map<String, Object[]> replies = new HashMap<>();
+        for (Object[] r : postRepository.findReplyThreadRows()) replies.put((String) r[0], r);
+        int updated = 0;
+        for (Object[] r : replies.values()) {
+            if (r[2] != null) continue;
+            // Unthreaded replies from this one upwards, up to a threaded reply or a top-level post.
+            List<Object[]> chain = new ArrayList<>();
+            Object[] node = r;
+            while (node != null && node[2] == null && chain.size() <= MAX_THREAD_DEPTH) {
+                chain.add(node);
+                node = replies.get((String) node[1]);
+            }
+            String parentId = (String) chain.getLast()[1];
+            String rootId = node != null ? (String) node[2] : parentId;
+            String path = (node != null ? (String) node[3] : "") + parentId + "/";
+            int depth = node != null ? (Integer) node[4] + 1 : 1;
+            // Cycles and threads deeper than the path column allows are left unthreaded.
+            if (rootId == null || depth + chain.size() - 1 > MAX_THREAD_DEPTH) continue;
+            for (Object[] reply : chain.reversed()) {
+                postRepository.setThread((String) reply[0], rootId, path, depth);
+                reply[2] = rootId;
+                reply[3] = path;
+                reply[4] = depth;
+                path += reply[0] + "/";
+                depth++;
+                updated++;
+            }
+        }
+        log.info("Backfilled reply threads for {} posts", updated);
+    }
+
     public void deletePost(User currentUser, String postId) {
         Post post = postRepository.findById(postId)
                 .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Post not found"));
@@ -116,19 +511,108 @@ public class PostService {
         }
 
         postRepository.delete(post);
+        if (post.getRespondingToId() != null) counters.add(POST_REPLIES, post.getRespondingToId(), -1);
+        timelineService.onPostRemoved(post);
+        geoIndexService.onPostRemoved(post);
+        searchIndexService.onPostRemoved(post);
+        hotFeedService.onPostRemoved(post);
+        changeLog.onPostDeleted(post);
+        versions.onPostChanged(post.getAuthorId());
+        postViews.invalidate(postId);
+        // The parent shows a reply count.
+        if (post.getRespondingToId() != null) {
+            postRepository.findById(post.getRespondingToId()).ifPresent(p -> versions.onPostChanged(p.getAuthorId()));
+            postViews.invalidate(post.getRespondingToId());
+        }
+    }
+
+    // Queries fetch one row past the page; its presence is what tells us there is a next page.
+    private static CursorPage<Post> toPage(List<Post> rows, int limit) {
+        if (rows.size() <= limit) return new CursorPage<>(rows, null);
+        List<Post> items = List.copyOf(rows.subList(0, limit));
+        return new CursorPage<>(items, FeedCursor.of(items.get(limit - 1)).encode());
+    }
+
+    // Hydrates timeline or index entries and keeps their order. The cursor comes from the entries
+    // themselves, so a post moderated since it was pushed only shortens the page.
+    private CursorPage<Post> loadTimelinePage(List<TimelineBuffer.Entry> entries, int limit) {
+        List<TimelineBuffer.Entry> pageEntries = entries.size() > limit ? entries.subList(0, limit) : entries;
+        List<Post> items = loadInOrder(pageEntries.stream().map(TimelineBuffer.Entry::postId).toList());
+        String next = entries.size() > limit ? pageEntries.getLast().cursor().encode() : null;
+        return new CursorPage<>(items, next);
+    }
+
+    // One display-row query; missing and moderated posts are dropped.
+    private List<Post> loadInOrder(List<String> ids) {
+        if (ids.isEmpty()) return List.of();
+        Map<String, Post> byId = new HashMap<>();
+        display(() -> postRepository.findDisplayRows(ids)).forEach(p -> byId.put(p.getId(), p));
+        return ids.stream()
+                .map(byId::get)
+                .filter(Objects::nonNull)
+                .toList();
+    }
+
+    // Runs a display-row query and hands the authors it joined to AuthorCache, so assembling the responses does
+    // not look them up again. The posts are detached copies for rendering only; changes to them are never saved.
+    private List<Post> display(Supplier<List<PostDisplayRow>> query) {
+        long authorsAt = authorCache.epoch();
+        List<PostDisplayRow> rows = query.get();
+        authorCache.offer(rows.stream()
+                .filter(r -> r.authorUsername() != null)
+                .map(r -> new AuthorCache.Author(r.authorId(), r.authorUsername(), r.authorAvatarUrl()))
+                .toList(), authorsAt);
+        return rows.stream().map(PostDisplayRow::toPost).toList();
+    }
+
+    private Set<String> visibilitySet(User viewer) {
+        return viewer == null ? null : new HashSet<>(friendAndSelfIds(viewer));
+    }
+
+    private record Ranked(String id, double key, long timestamp) {}
+
+    // Highest key first, then newest, then by id so that pages never overlap.
+    private static final Comparator<Ranked> BEST_FIRST = Comparator.comparingDouble(Ranked::key).reversed()
+            .thenComparing(Comparator.comparingLong(Ranked::timestamp).reversed())
+            .thenComparing(Ranked::id);
+
+    private static String threadRoot(Post post) {
+        return post.getThreadRootId() != null ? post.getThreadRootId() : post.getId();
+    }
+
+    // Path prefix shared by every reply below the post.
+    private static String childPath(Post post) {
+        return (post.getThreadPath() != null ? post.getThreadPath() : "") + post.getId() + "/";
+    }
+
+    private static void checkLatitude(double lat) {
+        if (!(lat >= -90 && lat <= 90)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Latitude must be between -90 and 90");
+        }
+    }
+
+    private static void checkLongitude(double lng) {
+        if (!(lng >= -180 && lng <= 180)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Longitude must be between -180 and 180");
+        }
+    }
+
+    private static int clamp(int limit, int max) {
+        return Math.max(1, Math.min(limit, max));
+    }
+
+    // Offset of a page, capped so that absurd page numbers cannot overflow.
+    static int offset(int page, int size) {
+        return (int) Math.min((long) Math.max(0, page) * size, Integer.MAX_VALUE - size);
+    }
+
+    private static Set<String> toSet(Collection<String> ids) {
+        return ids == null ? null : new HashSet<>(ids);
     }
 
     // Build list of IDs that includes the user themselves + all accepted friends.
     // Used for FRIENDS_ONLY visibility filtering.
     private List<String> friendAndSelfIds(User user) {
-        List<String> ids = new ArrayList<>();
-        ids.add(user.getId());
-        for (FriendRequest fr : friendRequestRepository.findAcceptedFriendships(user.getId())) {
-            String friendId = fr.getSender().getId().equals(user.getId())
-                    ? fr.getReceiver().getId()
-                    : fr.getSender().getId();
-            ids.add(friendId);
-        }
-        return ids;
+        return socialGraph.friendAndSelfIds(user.getId());
     }
 }
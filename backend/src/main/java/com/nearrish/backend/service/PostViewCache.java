@@ -0,0 +1,123 @@
+package com.nearrish.backend.service;
+
+import com.nearrish.backend.entity.Post;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * Read-through cache of single-post views: the post as loaded plus its live like, comment and reply counts, so a
+ * popular post is served without touching the database. Viewer-specific state (whether the viewer liked it) is
+ * not part of a view.
+ *
+ * Bounded by an estimate of retained bytes rather than by entry count, evicting least recently used views first.
+ * Entries are dropped after commit by {@link PostService}, {@link LikeService} and {@link CommentService} whenever
+ * a post, its counts or its moderation state change. The epoch moves on every invalidation, so a view loaded while
+ * one landed is returned but not cached.
+ */
+@Service
+public class PostViewCache {
+
+    /** A post and its live counts as of loading. The post is shared: callers must not modify it. */
+    public record PostView(Post post, long likes, long comments, long replies) {}
+
+    // Rough per-view overhead of the entity, the record and the map entry, on top of the strings' characters.
+    private static final int ENTRY_OVERHEAD_BYTES = 512;
+
+    private final long maxBytes;
+    private final LinkedHashMap<String, Weighed> views = new LinkedHashMap<>(256, 0.75f, true);
+    private long bytes;
+    private final AtomicLong epoch = new AtomicLong();
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+
+    private record Weighed(PostView view, int bytes) {}
+
+    public PostViewCache(@Value("${posts.view-cache.max-bytes:16777216}") long maxBytes) {
+        this.maxBytes = maxBytes;
+    }
+
+    /** The cached view of {@code postId}, or the loader's; a null from the loader is returned and not cached. */
+    public PostView get(String postId, Function<String, PostView> loader) {
+        synchronized (this) {
+            Weighed cached = views.get(postId);
+            if (cached != null) {
+                hits.incrementAndGet();
+                return cached.view();
+            }
+        }
+        misses.incrementAndGet();
+        long before = epoch.get();
+        PostView loaded = loader.apply(postId);
+        if (loaded != null) put(postId, loaded, before);
+        return loaded;
+    }
+
+    // ── Invalidation ──────────────────────────────────────────────────────────
+
+    public void invalidate(String postId) {
+        AfterCommit.run(() -> {
+            synchronized (this) {
+                epoch.incrementAndGet();
+                Weighed removed = views.remove(postId);
+                if (removed != null) bytes -= removed.bytes();
+            }
+        });
+    }
+
+    public void clear() {
+        AfterCommit.run(() -> {
+            synchronized (this) {
+                epoch.incrementAndGet();
+                views.clear();
+                bytes = 0;
+            }
+        });
+    }
+
+    // ── Metrics ───────────────────────────────────────────────────────────────
+
+    public synchronized Map<String, Object> stats() {
+        long h = hits.get(), m = misses.get();
+        Map<String, Object> out = new LinkedHashMap<>();
+        out.put("entries", views.size());
+        out.put("bytes", bytes);
+        out.put("maxBytes", maxBytes);
+        out.put("hits", h);
+        out.put("misses", m);
+        out.put("hitRate", h + m == 0 ? 0.0 : (double) h / (h + m));
+        out.put("evictions", evictions.get());
+        return out;
+    }
+
+    private synchronized void put(String postId, PostView view, long loadedAt) {
+        if (epoch.get() != loadedAt) return;
+        int size = weigh(view);
+        if (size > maxBytes) return;
+        Weighed old = views.put(postId, new Weighed(view, size));
+        bytes += size - (old == null ? 0 : old.bytes());
+        Iterator<Weighed> eldest = views.values().iterator();
+        while (bytes > maxBytes && eldest.hasNext()) {
+            bytes -= eldest.next().bytes();
+            eldest.remove();
+            evictions.incrementAndGet();
+        }
+    }
+
+    private static int weigh(PostView view) {
+        Post p = view.post();
+        return ENTRY_OVERHEAD_BYTES + 2 * (length(p.getText()) + length(p.getImageUrl())
+                + length(p.getThreadPath()) + length(p.getModerationReason()));
+    }
+
+    private static int length(String s) {
+        return s == null ? 0 : s.length();
+    }
+}
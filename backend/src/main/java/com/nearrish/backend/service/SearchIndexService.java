@@ -0,0 +1,129 @@
+package com.nearrish.backend.service;
+
+import com.nearrish.backend.entity.Comment;
+import com.nearrish.backend.entity.Post;
+import com.nearrish.backend.repository.CommentRepository;
+import com.nearrish.backend.repository.PostRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Predicate;
+
+/**
+ * Full-text search over top-level posts and comments, one {@link TextIndex} each.
+ *
+ * Built from the database once at startup and then kept current by {@link PostService} and
+ * {@link CommentService}: texts are added on create and dropped on delete or moderation. Queries return
+ * ids in rank order; callers hydrate them and still drop anything moderated or deleted since.
+ *
+ * A comment is as visible as the post it belongs to.
+ */
+@Service
+public class SearchIndexService {
+
+    private static final Logger log = LoggerFactory.getLogger(SearchIndexService.class);
+
+    private final PostRepository postRepository;
+    private final CommentRepository commentRepository;
+    private final TextIndex posts = new TextIndex();
+    private final TextIndex comments = new TextIndex();
+
+    public SearchIndexService(PostRepository postRepository, CommentRepository commentRepository) {
+        this.postRepository = postRepository;
+        this.commentRepository = commentRepository;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        posts.clear();
+        comments.clear();
+        for (Object[] r : postRepository.findSearchIndexRows()) {
+            String authorId = (String) r[1];
+            posts.put(new TextIndex.Doc((String) r[0], authorId, null, authorId, (Long) r[3], isPublic(r[4])),
+                    (String) r[2]);
+        }
+        for (Object[] r : commentRepository.findSearchIndexRows()) {
+            comments.put(new TextIndex.Doc((String) r[0], (String) r[1], (String) r[4], (String) r[5],
+                    epochMillis((LocalDateTime) r[3]), isPublic(r[6])), (String) r[2]);
+        }
+        log.info("Search index holds {} posts and {} comments", posts.size(), comments.size());
+    }
+
+    // ── Maintenance ───────────────────────────────────────────────────────────
+
+    public void onPostCreated(Post post) {
+        if (post.getRespondingToId() != null || post.isModerated()) return;
+        posts.put(new TextIndex.Doc(post.getId(), post.getAuthorId(), null, post.getAuthorId(),
+                post.getTimestamp(), isPublic(post.getVisibility())), post.getText());
+    }
+
+    /** Called for deletions and moderation removals; the post's comments go with it. */
+    public void onPostRemoved(Post post) {
+        posts.remove(post.getId());
+        comments.removeChildren(post.getId());
+    }
+
+    public void onCommentCreated(Comment comment) {
+        if (comment.isModerated()) return;
+        Post post = comment.getPost();
+        comments.put(new TextIndex.Doc(comment.getId(), comment.getAuthor().getId(), post.getId(),
+                post.getAuthorId(), comment.getCreatedAtMs(), isPublic(post.getVisibility())), comment.getContent());
+    }
+
+    /** Called for deletions and moderation removals. */
+    public void onCommentRemoved(String commentId) {
+        comments.remove(commentId);
+    }
+
+    public void onAuthorRemoved(String authorId) {
+        posts.removeIf(d -> d.authorId().equals(authorId));
+        comments.removeIf(d -> d.authorId().equals(authorId) || d.ownerId().equals(authorId));
+    }
+
+    // ── Queries ───────────────────────────────────────────────────────────────
+
+    /**
+     * Visibility filter: public texts, plus friends-only ones owned by the given users. A null set means an
+     * anonymous viewer, who only sees public texts. A non-null {@code authorIds} further restricts by author.
+     */
+    static Predicate<TextIndex.Doc> visibleTo(Set<String> friendAndSelfIds, Set<String> authorIds) {
+        Predicate<TextIndex.Doc> visible = friendAndSelfIds == null
+                ? TextIndex.Doc::isPublic
+                : d -> d.isPublic() || friendAndSelfIds.contains(d.ownerId());
+        return authorIds == null ? visible : visible.and(d -> authorIds.contains(d.authorId()));
+    }
+
+    TextIndex.Result searchPosts(String q, Set<String> friendAndSelfIds, Set<String> authorIds,
+                                 TextIndex.Order order, int offset, int limit) {
+        return posts.search(q, visibleTo(friendAndSelfIds, authorIds), order, offset, limit);
+    }
+
+    List<String> matchingPostIds(String q, Set<String> friendAndSelfIds, Set<String> authorIds) {
+        return posts.matching(q, visibleTo(friendAndSelfIds, authorIds)).stream().map(TextIndex.Doc::id).toList();
+    }
+
+    TextIndex.Result searchComments(String q, Set<String> friendAndSelfIds, Set<String> authorIds,
+                                    TextIndex.Order order, int offset, int limit) {
+        return comments.search(q, visibleTo(friendAndSelfIds, authorIds), order, offset, limit);
+    }
+
+    List<String> matchingCommentIds(String q, Set<String> friendAndSelfIds, Set<String> authorIds) {
+        return comments.matching(q, visibleTo(friendAndSelfIds, authorIds)).stream().map(TextIndex.Doc::id).toList();
+    }
+
+    private static boolean isPublic(Object visibility) {
+        return visibility == null || visibility == Post.Visibility.PUBLIC;
+    }
+
+    // Same conversion as Comment.getCreatedAtMs.
+    private static long epochMillis(LocalDateTime t) {
+        return t == null ? 0L : t.toInstant(ZoneOffset.UTC).toEpochMilli();
+    }
+}
@@ -0,0 +1,14 @@
+package com.nearrish.backend.service;
+
+import java.util.List;
+
+/**
+ * One page of ranked search results.
+ * {@code total} counts every visible match, not just this page.
+ */
+public record SearchPage<T>(List<T> items, int total) {
+
+    public static <T> SearchPage<T> empty() {
+        return new SearchPage<>(List.of(), 0);
+    }
+}
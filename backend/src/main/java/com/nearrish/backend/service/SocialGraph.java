@@ -0,0 +1,254 @@
+package com.nearrish.backend.service;
+
+import com.nearrish.backend.repository.FriendRequestRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory friendship graph.
+ *
+ * Each user id is mapped to a dense int, and each user's friends are a sorted int array, so membership is a
+ * binary search and mutual friends are a linear merge. Loaded from the accepted friend requests once at startup
+ * and then kept current by {@link FriendRequestService} and account deletion; nothing here touches the database
+ * after that.
+ *
+ * Inside a transaction a change is applied after commit, so readers never see an edge the database may still
+ * roll back. Reads share a lock, writes take it exclusively.
+ */
+@Service
+public class SocialGraph {
+
+    private static final Logger log = LoggerFactory.getLogger(SocialGraph.class);
+
+    private static final int[] NONE = new int[0];
+
+    private final FriendRequestRepository friendRequestRepository;
+
+    // Dense ids are never reused; a deleted user's slot just stays empty.
+    private final Map<String, Integer> denseIds = new HashMap<>();
+    private String[] userIds = new String[64];
+    private int[][] friends = new int[64][];
+    private int size;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    public SocialGraph(FriendRequestRepository friendRequestRepository) {
+        this.friendRequestRepository = friendRequestRepository;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        List<Object[]> rows = friendRequestRepository.findAcceptedPairs();
+        lock.writeLock().lock();
+        try {
+            denseIds.clear();
+            userIds = new String[64];
+            friends = new int[64][];
+            size = 0;
+
+            int[] edges = new int[rows.size() * 2];
+            for (int i = 0; i < rows.size(); i++) {
+                edges[2 * i] = intern((String) rows.get(i)[0]);
+                edges[2 * i + 1] = intern((String) rows.get(i)[1]);
+            }
+            int[] degree = new int[size];
+            for (int e : edges) degree[e]++;
+            for (int u = 0; u < size; u++) friends[u] = new int[degree[u]];
+            int[] fill = new int[size];
+            for (int i = 0; i < edges.length; i += 2) {
+                int a = edges[i], b = edges[i + 1];
+                friends[a][fill[a]++] = b;
+                friends[b][fill[b]++] = a;
+            }
+            // A pair may have accepted requests in both directions; keep one edge, and no self-loops.
+            for (int u = 0; u < size; u++) friends[u] = sortedDistinct(friends[u], u);
+            log.info("Social graph loaded {} users from {} accepted requests", size, rows.size());
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // ── Maintenance ───────────────────────────────────────────────────────────
+
+    public void onFriendshipAccepted(String userIdA, String userIdB) {
+        AfterCommit.run(() -> {
+            lock.writeLock().lock();
+            try {
+                int a = intern(userIdA), b = intern(userIdB);
+                if (a == b) return;
+                friends[a] = insert(friends[a], b);
+                friends[b] = insert(friends[b], a);
+            } finally {
+                lock.writeLock().unlock();
+            }
+        });
+    }
+
+    public void onFriendshipRemoved(String userIdA, String userIdB) {
+        AfterCommit.run(() -> {
+            lock.writeLock().lock();
+            try {
+                Integer a = denseIds.get(userIdA), b = denseIds.get(userIdB);
+                if (a == null || b == null) return;
+                friends[a] = delete(friends[a], b);
+                friends[b] = delete(friends[b], a);
+            } finally {
+                lock.writeLock().unlock();
+            }
+        });
+    }
+
+    public void onUserRemoved(String userId) {
+        AfterCommit.run(() -> {
+            lock.writeLock().lock();
+            try {
+                Integer u = denseIds.remove(userId);
+                if (u == null) return;
+                for (int f : friends[u]) friends[f] = delete(friends[f], u);
+                friends[u] = NONE;
+                userIds[u] = null;
+            } finally {
+                lock.writeLock().unlock();
+            }
+        });
+    }
+
+    // ── Queries ───────────────────────────────────────────────────────────────
+
+    public boolean areFriends(String userIdA, String userIdB) {
+        lock.readLock().lock();
+        try {
+            Integer a = denseIds.get(userIdA), b = denseIds.get(userIdB);
+            return a != null && b != null && Arrays.binarySearch(friends[a], b) >= 0;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public List<String> friendsOf(String userId) {
+        lock.readLock().lock();
+        try {
+            Integer u = denseIds.get(userId);
+            return u == null ? List.of() : toUserIds(friends[u], null);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /** The user followed by all of their friends; the audience of a FRIENDS_ONLY post. */
+    public List<String> friendAndSelfIds(String userId) {
+        lock.readLock().lock();
+        try {
+            Integer u = denseIds.get(userId);
+            return u == null ? List.of(userId) : toUserIds(friends[u], userId);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int friendCount(String userId) {
+        lock.readLock().lock();
+        try {
+            Integer u = denseIds.get(userId);
+            return u == null ? 0 : friends[u].length;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public List<String> mutualFriends(String userIdA, String userIdB) {
+        lock.readLock().lock();
+        try {
+            Integer a = denseIds.get(userIdA), b = denseIds.get(userIdB);
+            if (a == null || b == null) return List.of();
+            return toUserIds(intersect(friends[a], friends[b]), null);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int mutualFriendCount(String userIdA, String userIdB) {
+        lock.readLock().lock();
+        try {
+            Integer a = denseIds.get(userIdA), b = denseIds.get(userIdB);
+            return a == null || b == null ? 0 : intersect(friends[a], friends[b]).length;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // ── Helpers ───────────────────────────────────────────────────────────────
+
+    // Caller holds the write lock.
+    private int intern(String userId) {
+        Integer known = denseIds.get(userId);
+        if (known != null) return known;
+        if (size == userIds.length) {
+            userIds = Arrays.copyOf(userIds, size * 2);
+            friends = Arrays.copyOf(friends, size * 2);
+        }
+        int u = size++;
+        denseIds.put(userId, u);
+        userIds[u] = userId;
+        friends[u] = NONE;
+        return u;
+    }
+
+    private List<String> toUserIds(int[] dense, String first) {
+        List<String> out = new ArrayList<>(dense.length + 1);
+        if (first != null) out.add(first);
+        for (int d : dense) out.add(userIds[d]);
+        return out;
+    }
+
+    static int[] insert(int[] sorted, int value) {
+        int i = Arrays.binarySearch(sorted, value);
+        if (i >= 0) return sorted;
+        int at = -i - 1;
+        int[] out = new int[sorted.length + 1];
+        System.arraycopy(sorted, 0, out, 0, at);
+        out[at] = value;
+        System.arraycopy(sorted, at, out, at + 1, sorted.length - at);
+        return out;
+    }
+
+    static int[] delete(int[] sorted, int value) {
+        int at = Arrays.binarySearch(sorted, value);
+        if (at < 0) return sorted;
+        if (sorted.length == 1) return NONE;
+        int[] out = new int[sorted.length - 1];
+        System.arraycopy(sorted, 0, out, 0, at);
+        System.arraycopy(sorted, at + 1, out, at, sorted.length - at - 1);
+        return out;
+    }
+
+    static int[] intersect(int[] a, int[] b) {
+        int[] out = new int[Math.min(a.length, b.length)];
+        int i = 0, j = 0, n = 0;
+        while (i < a.length && j < b.length) {
+            if (a[i] < b[j]) i++;
+            else if (a[i] > b[j]) j++;
+            else { out[n++] = a[i]; i++; j++; }
+        }
+        return n == out.length ? out : Arrays.copyOf(out, n);
+    }
+
+    private static int[] sortedDistinct(int[] values, int self) {
+        Arrays.sort(values);
+        int n = 0;
+        for (int i = 0; i < values.length; i++) {
+            if (values[i] == self || (n > 0 && values[n - 1] == values[i])) continue;
+            values[n++] = values[i];
+        }
+        return n == 0 ? NONE : n == values.length ? values : Arrays.copyOf(values, n);
+    }
+}
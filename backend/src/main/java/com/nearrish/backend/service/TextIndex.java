@@ -0,0 +1,332 @@
+package com.nearrish.backend.service;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Predicate;
+
+/**
+ * Inverted index over short texts, ranked with BM25.
+ *
+ * Text is folded to lower-case ASCII where possible, split on anything that is not a letter or digit,
+ * and each token is reduced by a light English suffix stemmer. Every query term must match; the last
+ * one also matches as a prefix of indexed terms, so results keep up with a user who is still typing.
+ * A query only touches the postings of its own terms, never the whole corpus.
+ *
+ * Reads share a lock, writes take it exclusively.
+ */
+final class TextIndex {
+
+    // Standard BM25 parameters.
+    static final double K1 = 1.2;
+    static final double B = 0.75;
+    // How many indexed terms a trailing prefix may expand to; the most frequent win.
+    static final int MAX_PREFIX_EXPANSION = 32;
+    private static final int MIN_PREFIX_LENGTH = 2;
+    private static final int MAX_TOKEN_LENGTH = 64;
+
+    /**
+     * One searchable text. {@code parentId} groups documents that go away together (comments of a post);
+     * {@code ownerId} and {@code isPublic} decide visibility — for a comment they are its post's.
+     */
+    record Doc(String id, String authorId, String parentId, String ownerId, long timestamp, boolean isPublic) {}
+
+    record Hit(Doc doc, double score) {}
+
+    /** One page of hits and the number of visible documents that matched in total. */
+    record Result(List<Hit> hits, int total) {}
+
+    enum Order { RELEVANCE, NEWEST }
+
+    // Best score first; equal scores (and the NEWEST order) newest first, ties broken by id.
+    private static final Comparator<Hit> NEWEST_FIRST =
+            Comparator.comparingLong((Hit h) -> h.doc().timestamp()).thenComparing(h -> h.doc().id()).reversed();
+    private static final Comparator<Hit> BEST_FIRST =
+            Comparator.comparingDouble(Hit::score).reversed().thenComparing(NEWEST_FIRST);
+
+    private record Indexed(Doc doc, String[] terms, int length) {}
+
+    // term -> (doc id -> term frequency). Sorted, so a prefix is a sub-map.
+    private final TreeMap<String, Map<String, Integer>> postings = new TreeMap<>();
+    private final Map<String, Indexed> docs = new HashMap<>();
+    private final Map<String, Set<String>> byParent = new HashMap<>();
+    private long totalLength;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    int size() {
+        lock.readLock().lock();
+        try {
+            return docs.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    void clear() {
+        lock.writeLock().lock();
+        try {
+            postings.clear();
+            docs.clear();
+            byParent.clear();
+            totalLength = 0;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /** Indexes the text, replacing any earlier version of the same document. */
+    void put(Doc doc, String text) {
+        List<String> tokens = tokenize(text);
+        Map<String, Integer> tf = new LinkedHashMap<>();
+        for (String t : tokens) tf.merge(t, 1, Integer::sum);
+
+        lock.writeLock().lock();
+        try {
+            removeLocked(doc.id());
+            for (Map.Entry<String, Integer> e : tf.entrySet()) {
+                postings.computeIfAbsent(e.getKey(), k -> new HashMap<>()).put(doc.id(), e.getValue());
+            }
+            docs.put(doc.id(), new Indexed(doc, tf.keySet().toArray(String[]::new), tokens.size()));
+            if (doc.parentId() != null) byParent.computeIfAbsent(doc.parentId(), k -> new HashSet<>()).add(doc.id());
+            totalLength += tokens.size();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /** Returns the removed document, or null if it was not indexed. */
+    Doc remove(String id) {
+        lock.writeLock().lock();
+        try {
+            Indexed removed = removeLocked(id);
+            return removed == null ? null : removed.doc();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /** Removes every document whose parent is {@code parentId}. */
+    int removeChildren(String parentId) {
+        lock.writeLock().lock();
+        try {
+            Set<String> children = byParent.get(parentId);
+            if (children == null) return 0;
+            List<String> ids = List.copyOf(children);
+            ids.forEach(this::removeLocked);
+            return ids.size();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /** A full scan; meant for rare bulk removals such as account deletion. */
+    int removeIf(Predicate<Doc> condition) {
+        lock.writeLock().lock();
+        try {
+            List<String> ids = docs.values().stream().map(Indexed::doc).filter(condition).map(Doc::id).toList();
+            ids.forEach(this::removeLocked);
+            return ids.size();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private Indexed removeLocked(String id) {
+        Indexed old = docs.remove(id);
+        if (old == null) return null;
+        for (String term : old.terms()) {
+            Map<String, Integer> p = postings.get(term);
+            if (p == null) continue;
+            p.remove(id);
+            if (p.isEmpty()) postings.remove(term);
+        }
+        if (old.doc().parentId() != null) {
+            Set<String> siblings = byParent.get(old.doc().parentId());
+            if (siblings != null && siblings.remove(id) && siblings.isEmpty()) byParent.remove(old.doc().parentId());
+        }
+        totalLength -= old.length();
+        return old;
+    }
+
+    /**
+     * Visible documents matching every term of the query, {@code limit} of them after skipping {@code offset}.
+     * Only the best {@code offset + limit} go through the final sort; {@code total} still counts every match.
+     */
+    Result search(String query, Predicate<Doc> visible, Order order, int offset, int limit) {
+        lock.readLock().lock();
+        try {
+            List<Map<String, Double>> clauses = clauses(query);
+            if (clauses.isEmpty()) return new Result(List.of(), 0);
+
+            Comparator<Hit> cmp = order == Order.NEWEST ? NEWEST_FIRST : BEST_FIRST;
+            int keep = offset + limit;
+            PriorityQueue<Hit> top = new PriorityQueue<>(Math.max(1, Math.min(keep, 1024)) + 1, cmp.reversed());
+            int total = 0;
+            for (Hit h : matches(clauses, visible)) {
+                total++;
+                if (keep <= 0) continue;
+                top.add(h);
+                if (top.size() > keep) top.poll();
+            }
+            List<Hit> ranked = new ArrayList<>(top);
+            ranked.sort(cmp);
+            List<Hit> page = offset >= ranked.size() ? List.of() : List.copyOf(ranked.subList(offset, ranked.size()));
+            return new Result(page, total);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /** Every visible match, newest first; for callers that rank by something the index does not hold. */
+    List<Doc> matching(String query, Predicate<Doc> visible) {
+        lock.readLock().lock();
+        try {
+            List<Map<String, Double>> clauses = clauses(query);
+            if (clauses.isEmpty()) return List.of();
+            return matches(clauses, visible).stream().sorted(NEWEST_FIRST).map(Hit::doc).toList();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Candidates come from the rarest clause; every other clause is a postings lookup per candidate.
+    // Caller holds the read lock.
+    private List<Hit> matches(List<Map<String, Double>> clauses, Predicate<Doc> visible) {
+        List<Map<String, Double>> sorted = new ArrayList<>(clauses);
+        sorted.sort(Comparator.comparingInt(this::postingCount));
+        Map<String, Double> rarest = sorted.getFirst();
+
+        double avgLength = docs.isEmpty() ? 1 : Math.max(1.0, (double) totalLength / docs.size());
+        Set<String> candidates = new HashSet<>();
+        for (String term : rarest.keySet()) candidates.addAll(postings.get(term).keySet());
+
+        List<Hit> hits = new ArrayList<>();
+        for (String id : candidates) {
+            Indexed d = docs.get(id);
+            if (d == null || !visible.test(d.doc())) continue;
+            double score = 0;
+            for (Map<String, Double> clause : sorted) {
+                double best = 0;
+                for (Map.Entry<String, Double> alt : clause.entrySet()) {
+                    Integer tf = postings.get(alt.getKey()).get(id);
+                    if (tf != null) best = Math.max(best, alt.getValue() * bm25(tf, d.length(), avgLength));
+                }
+                if (best == 0) {
+                    score = -1;
+                    break;
+                }
+                score += best;
+            }
+            if (score > 0) hits.add(new Hit(d.doc(), score));
+        }
+        return hits;
+    }
+
+    private int postingCount(Map<String, Double> clause) {
+        int n = 0;
+        for (String term : clause.keySet()) n += postings.get(term).size();
+        return n;
+    }
+
+    // Each query term becomes a clause: the indexed terms it may match, weighted by their idf.
+    // A term with no match empties the whole query. Caller holds the read lock.
+    private List<Map<String, Double>> clauses(String query) {
+        List<String> raw = rawTokens(query);
+        List<Map<String, Double>> clauses = new ArrayList<>();
+        for (int i = 0; i < raw.size(); i++) {
+            String token = raw.get(i);
+            Map<String, Double> alts = new HashMap<>();
+            String term = stem(token);
+            if (postings.containsKey(term)) alts.put(term, idf(term));
+            if (i == raw.size() - 1 && token.length() >= MIN_PREFIX_LENGTH) {
+                addPrefixExpansions(token, alts);
+            }
+            if (alts.isEmpty()) return List.of();
+            clauses.add(alts);
+        }
+        return clauses;
+    }
+
+    private void addPrefixExpansions(String prefix, Map<String, Double> alts) {
+        NavigableMap<String, Map<String, Integer>> range =
+                postings.subMap(prefix, true, prefix + Character.MAX_VALUE, false);
+        range.entrySet().stream()
+                .sorted(Comparator.comparingInt((Map.Entry<String, Map<String, Integer>> e) -> e.getValue().size())
+                        .reversed())
+                .limit(MAX_PREFIX_EXPANSION)
+                .forEach(e -> alts.putIfAbsent(e.getKey(), idf(e.getKey())));
+    }
+
+    private double idf(String term) {
+        int df = postings.get(term).size();
+        return Math.log(1 + (docs.size() - df + 0.5) / (df + 0.5));
+    }
+
+    private static double bm25(int tf, int length, double avgLength) {
+        return tf * (K1 + 1) / (tf + K1 * (1 - B + B * length / avgLength));
+    }
+
+    // ── Analysis ──────────────────────────────────────────────────────────────
+
+    /** Index terms of the text: folded, split and stemmed. */
+    static List<String> tokenize(String text) {
+        return rawTokens(text).stream().map(TextIndex::stem).toList();
+    }
+
+    // Folded and split, not yet stemmed. Accents are stripped so "café" finds "cafe".
+    static List<String> rawTokens(String text) {
+        if (text == null || text.isBlank()) return List.of();
+        String folded = Normalizer.normalize(text, Normalizer.Form.NFD)
+                .replaceAll("\\p{M}+", "")
+                .toLowerCase(Locale.ROOT);
+        List<String> out = new ArrayList<>();
+        int start = -1;
+        for (int i = 0; i <= folded.length(); i++) {
+            boolean word = i < folded.length() && Character.isLetterOrDigit(folded.charAt(i));
+            if (word && start < 0) {
+                start = i;
+            } else if (!word && start >= 0) {
+                if (i - start <= MAX_TOKEN_LENGTH) out.add(folded.substring(start, i));
+                start = -1;
+            }
+        }
+        return out;
+    }
+
+    /**
+     * A deliberately light English stemmer: plurals and the -ing/-ed verb endings. It conflates
+     * "parks"/"park" and "running"/"run" without the over-stemming of a full Porter pass on short
+     * social posts. Stems never drop below three letters.
+     */
+    static String stem(String token) {
+        if (token.length() <= 3 || !Character.isLetter(token.charAt(token.length() - 1))) return token;
+        String s = token;
+        if (s.endsWith("ies") && s.length() > 4) s = s.substring(0, s.length() - 3) + "y";
+        else if (s.endsWith("sses")) s = s.substring(0, s.length() - 2);
+        else if (s.endsWith("s") && !s.endsWith("ss") && !s.endsWith("us") && !s.endsWith("is")) s = s.substring(0, s.length() - 1);
+
+        if (s.endsWith("ing") && s.length() > 5) s = undouble(s.substring(0, s.length() - 3));
+        else if (s.endsWith("ed") && !s.endsWith("eed") && s.length() > 4) s = undouble(s.substring(0, s.length() - 2));
+        return s;
+    }
+
+    // "runn" -> "run", but "fall" and "buzz" keep their doubled letters.
+    private static String undouble(String s) {
+        int n = s.length();
+        if (n >= 4 && s.charAt(n - 1) == s.charAt(n - 2) && "lsz".indexOf(s.charAt(n - 1)) < 0) {
+            return s.substring(0, n - 1);
+        }
+        return s;
+    }
+}
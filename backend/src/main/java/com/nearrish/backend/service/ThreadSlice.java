@@ -0,0 +1,10 @@
+package com.nearrish.backend.service;
+
+import java.util.List;
+
+/**
+ * A bounded slice of a reply thread, breadth first.
+ * {@code truncated} is true when more replies were within the depth limit than fit in the slice.
+ */
+public record ThreadSlice<T>(List<T> replies, boolean truncated) {
+}
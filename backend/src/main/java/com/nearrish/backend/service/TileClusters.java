@@ -0,0 +1,122 @@
+package com.nearrish.backend.service;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Per-zoom point counts for map clustering, in Web Mercator tile space.
+ *
+ * A tile at zoom z is split into {@value #CELLS_PER_SIDE}x{@value #CELLS_PER_SIDE} cells (64 px on a
+ * 256 px tile). Cells at zoom z are exactly four cells at zoom z + 1, so the levels form a quadtree of
+ * counts and centroid sums. Adding or removing a point touches one cell per zoom, and reading a tile
+ * is {@code CELLS_PER_SIDE²} lookups regardless of how many points lie beneath it.
+ */
+final class TileClusters {
+
+    static final int MAX_CLUSTER_ZOOM = 16;
+    static final int CELL_BITS = 2;
+    static final int CELLS_PER_SIDE = 1 << CELL_BITS;
+    private static final double MAX_MERCATOR_LAT = 85.05112878;
+
+    /** Aggregate of the points in one cell. */
+    record CellSum(int cx, int cy, int count, double latSum, double lngSum) {
+        CellSum plus(CellSum o) {
+            return new CellSum(cx, cy, count + o.count, latSum + o.latSum, lngSum + o.lngSum);
+        }
+    }
+
+    private static final class Cell {
+        int count;
+        double latSum;
+        double lngSum;
+    }
+
+    // levels.get(z): cells at zoom z keyed by (cx, cy)
+    private final List<Map<Long, Cell>> levels = new ArrayList<>();
+
+    TileClusters() {
+        for (int z = 0; z <= MAX_CLUSTER_ZOOM; z++) levels.add(new HashMap<>());
+    }
+
+    synchronized void add(double lat, double lng) {
+        apply(lat, lng, 1);
+    }
+
+    synchronized void remove(double lat, double lng) {
+        apply(lat, lng, -1);
+    }
+
+    synchronized void clear() {
+        levels.forEach(Map::clear);
+    }
+
+    /** Non-empty cells of tile (z, x, y); z must not exceed {@link #MAX_CLUSTER_ZOOM}. */
+    synchronized List<CellSum> tileCells(int z, int x, int y) {
+        Map<Long, Cell> level = levels.get(z);
+        List<CellSum> out = new ArrayList<>();
+        for (int dy = 0; dy < CELLS_PER_SIDE; dy++) {
+            for (int dx = 0; dx < CELLS_PER_SIDE; dx++) {
+                int cx = (x << CELL_BITS) + dx, cy = (y << CELL_BITS) + dy;
+                Cell c = level.get(key(cx, cy));
+                if (c != null) out.add(new CellSum(cx, cy, c.count, c.latSum, c.lngSum));
+            }
+        }
+        return out;
+    }
+
+    // ── Tile geometry ─────────────────────────────────────────────────────────
+
+    /** Cell column of a longitude at zoom z. */
+    static int cellX(double lng, int z) {
+        return clampIndex(Math.floor((lng + 180) / 360 * cellsAcross(z)), z);
+    }
+
+    /** Cell row of a latitude at zoom z (row 0 is the north edge). */
+    static int cellY(double lat, int z) {
+        double phi = Math.toRadians(Math.max(-MAX_MERCATOR_LAT, Math.min(MAX_MERCATOR_LAT, lat)));
+        double y = (1 - Math.log(Math.tan(phi) + 1 / Math.cos(phi)) / Math.PI) / 2;
+        return clampIndex(Math.floor(y * cellsAcross(z)), z);
+    }
+
+    /** {south, north, west, east} of tile (z, x, y). */
+    static double[] tileBounds(int z, int x, int y) {
+        double n = 1 << z;
+        return new double[]{ latOfRow(y + 1, n), latOfRow(y, n), x / n * 360 - 180, (x + 1) / n * 360 - 180 };
+    }
+
+    /** {south, north, west, east} of cell (cx, cy) at zoom z. */
+    static double[] cellBounds(int z, int cx, int cy) {
+        double n = cellsAcross(z);
+        return new double[]{ latOfRow(cy + 1, n), latOfRow(cy, n), cx / n * 360 - 180, (cx + 1) / n * 360 - 180 };
+    }
+
+    private void apply(double lat, double lng, int delta) {
+        for (int z = 0; z <= MAX_CLUSTER_ZOOM; z++) {
+            Map<Long, Cell> level = levels.get(z);
+            long k = key(cellX(lng, z), cellY(lat, z));
+            Cell c = level.computeIfAbsent(k, kk -> new Cell());
+            c.count += delta;
+            c.latSum += delta * lat;
+            c.lngSum += delta * lng;
+            if (c.count <= 0) level.remove(k);
+        }
+    }
+
+    private static long cellsAcross(int z) {
+        return 1L << (z + CELL_BITS);
+    }
+
+    private static int clampIndex(double v, int z) {
+        return (int) Math.max(0, Math.min(cellsAcross(z) - 1, v));
+    }
+
+    private static double latOfRow(double row, double rowsAcross) {
+        return Math.toDegrees(Math.atan(Math.sinh(Math.PI * (1 - 2 * row / rowsAcross))));
+    }
+
+    private static long key(int cx, int cy) {
+        return ((long) cx << 32) | (cy & 0xffffffffL);
+    }
+}
@@ -0,0 +1,141 @@
+package com.nearrish.backend.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * Fixed-capacity ring of (postId, timestamp) pairs kept newest-first in (timestamp, id) order.
+ * When full, inserting evicts the oldest entry and the buffer stops being {@link #isComplete() complete}.
+ * All methods are synchronized on the buffer; callers never see a half-applied change.
+ */
+final class TimelineBuffer {
+
+    record Entry(String postId, long timestamp) {
+        FeedCursor cursor() { return new FeedCursor(timestamp, postId); }
+    }
+
+    /**
+     * Result of a read. {@code truncated} means the buffer ran out before {@code max} entries while
+     * older posts exist that it no longer holds — nothing older than the last entry can be trusted.
+     */
+    record Slice(List<Entry> entries, boolean truncated) {}
+
+    private final String[] ids;
+    private final long[] timestamps;
+    private int start;   // physical slot of the newest entry
+    private int size;
+    // True while the buffer holds every post that belongs on the timeline, i.e. nothing has been
+    // evicted or cut off by the seed limit. An incomplete buffer can only answer pages it still covers.
+    private boolean complete = true;
+    private boolean seeded;
+
+    TimelineBuffer(int capacity) {
+        this.ids = new String[capacity];
+        this.timestamps = new long[capacity];
+    }
+
+    synchronized int size() { return size; }
+
+    synchronized boolean isComplete() { return complete; }
+
+    synchronized boolean isSeeded() { return seeded; }
+
+    /**
+     * Loads the initial contents once. Runs under the buffer lock so concurrent {@link #insert}s wait
+     * for the seed and are then de-duplicated against it instead of being lost.
+     */
+    synchronized void seedIfNeeded(Supplier<List<Entry>> loader) {
+        if (seeded) return;
+        List<Entry> rows = loader.get();
+        for (Entry e : rows) insert(e.postId(), e.timestamp());
+        if (rows.size() >= ids.length) complete = false;
+        seeded = true;
+    }
+
+    /** Empties the buffer; the next read seeds it again. */
+    synchronized void reset() {
+        start = 0;
+        size = 0;
+        complete = true;
+        seeded = false;
+    }
+
+    /** Replaces the contents with a previously saved state (newest first). */
+    synchronized void restore(List<Entry> entries, boolean wasComplete) {
+        start = 0;
+        size = 0;
+        complete = true;
+        for (Entry e : entries) insert(e.postId(), e.timestamp());
+        complete = wasComplete && entries.size() <= ids.length;
+        seeded = true;
+    }
+
+    /** Inserts at its sorted position; a no-op if the post is already present. */
+    synchronized void insert(String postId, long timestamp) {
+        int pos = 0;
+        while (pos < size && isNewer(at(pos), timestamps[slot(pos)], postId, timestamp)) pos++;
+        if (pos < size && timestamps[slot(pos)] == timestamp && at(pos).equals(postId)) return;
+
+        if (size == ids.length) {
+            complete = false;
+            if (pos == size) return;   // older than everything we keep
+            size--;                    // drop the oldest to make room
+        }
+        if (pos == 0) {
+            start = (start - 1 + ids.length) % ids.length;
+        } else {
+            for (int i = size; i > pos; i--) {
+                ids[slot(i)] = ids[slot(i - 1)];
+                timestamps[slot(i)] = timestamps[slot(i - 1)];
+            }
+        }
+        ids[slot(pos)] = postId;
+        timestamps[slot(pos)] = timestamp;
+        size++;
+    }
+
+    synchronized boolean remove(String postId) {
+        for (int pos = 0; pos < size; pos++) {
+            if (at(pos).equals(postId)) {
+                for (int i = pos; i < size - 1; i++) {
+                    ids[slot(i)] = ids[slot(i + 1)];
+                    timestamps[slot(i)] = timestamps[slot(i + 1)];
+                }
+                size--;
+                ids[slot(size)] = null;
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /** Up to {@code max} entries strictly older than {@code after}, newest first. */
+    synchronized Slice readAfter(FeedCursor after, int max) {
+        List<Entry> out = new ArrayList<>(Math.min(max, size));
+        for (int pos = 0; pos < size && out.size() < max; pos++) {
+            long ts = timestamps[slot(pos)];
+            String id = at(pos);
+            if (isNewer(id, ts, after.id(), after.timestamp()) || (ts == after.timestamp() && id.equals(after.id()))) {
+                continue;
+            }
+            out.add(new Entry(id, ts));
+        }
+        return new Slice(out, out.size() < max && !complete);
+    }
+
+    synchronized List<Entry> entries() {
+        List<Entry> out = new ArrayList<>(size);
+        for (int pos = 0; pos < size; pos++) out.add(new Entry(at(pos), timestamps[slot(pos)]));
+        return out;
+    }
+
+    /** True when (idA, tsA) sorts before — i.e. is newer than — (idB, tsB). */
+    static boolean isNewer(String idA, long tsA, String idB, long tsB) {
+        return tsA > tsB || (tsA == tsB && idA.compareTo(idB) > 0);
+    }
+
+    private String at(int pos) { return ids[slot(pos)]; }
+
+    private int slot(int pos) { return (start + pos) % ids.length; }
+}
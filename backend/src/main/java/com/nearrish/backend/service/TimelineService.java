@@ -0,0 +1,329 @@
+package com.nearrish.backend.service;
+
+import com.nearrish.backend.entity.Post;
+import com.nearrish.backend.repository.FriendRequestRepository;
+import com.nearrish.backend.repository.PostRepository;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Precomputed home timelines (fan-out on write).
+ *
+ * A home feed is the union of two sorted streams: posts by the user and their friends (any
+ * visibility), and public posts by anyone. The first lives in a per-user {@link TimelineBuffer}
+ * that createPost pushes into; the second is one shared buffer. Reading a page merges the two
+ * buffers from the cursor, so it costs O(page size) rather than a scan of the posts table.
+ *
+ * Buffers are bounded, so they only cover recent history. When a page reaches past what a buffer
+ * still holds, {@link #readHome} returns empty and the caller falls back to the keyset query.
+ * Personal buffers are created lazily on first read, dropped when the user's friendships change,
+ * and evicted least recently read first beyond {@code timeline.max-users}.
+ */
+@Service
+public class TimelineService {
+
+    private static final Logger log = LoggerFactory.getLogger(TimelineService.class);
+
+    static final int CAPACITY = 800;
+    private static final int SNAPSHOT_MAGIC = 0x4E52544C; // "NRTL"
+    private static final int SNAPSHOT_VERSION = 2;
+
+    private final PostRepository postRepository;
+    private final FriendRequestRepository friendRequestRepository;
+    private final SocialGraph socialGraph;
+    private final Path snapshotPath;
+    private final int maxUsers;
+
+    // Access-ordered, so the eldest entry is the least recently read timeline. Guarded by itself.
+    private final LinkedHashMap<String, TimelineBuffer> personal = new LinkedHashMap<>(256, 0.75f, true);
+    private final TimelineBuffer publicTimeline = new TimelineBuffer(CAPACITY);
+
+    public TimelineService(PostRepository postRepository,
+                           FriendRequestRepository friendRequestRepository,
+                           SocialGraph socialGraph,
+                           @Value("${timeline.snapshot-path:}") String snapshotPath,
+                           @Value("${timeline.max-users:20000}") int maxUsers) {
+        this.postRepository = postRepository;
+        this.friendRequestRepository = friendRequestRepository;
+        this.socialGraph = socialGraph;
+        this.snapshotPath = snapshotPath.isBlank() ? null : Paths.get(snapshotPath);
+        this.maxUsers = maxUsers;
+    }
+
+    // ── Writes ────────────────────────────────────────────────────────────────
+
+    public void onPostCreated(Post post) {
+        if (post.getRespondingToId() != null || post.isModerated()) return;
+        // Only timelines that are already resident need the push; cold ones are seeded from the DB.
+        for (String userId : friendAndSelfIds(post.getAuthorId())) {
+            TimelineBuffer t = resident(userId);
+            if (t != null) t.insert(post.getId(), post.getTimestamp());
+        }
+        if (isPublic(post)) publicTimeline.insert(post.getId(), post.getTimestamp());
+    }
+
+    /** Called for deletions and moderation removals. */
+    public void onPostRemoved(Post post) {
+        if (post.getRespondingToId() != null) return;
+        for (String userId : friendAndSelfIds(post.getAuthorId())) {
+            TimelineBuffer t = resident(userId);
+            if (t != null) t.remove(post.getId());
+        }
+        publicTimeline.remove(post.getId());
+    }
+
+    /**
+     * A friendship was accepted or removed; both users' personal streams change membership.
+     * Inside a transaction the buffers are dropped after commit, so a concurrent read cannot
+     * reseed them from the old friend list.
+     */
+    public void onFriendshipChanged(String userIdA, String userIdB) {
+        Runnable drop = () -> {
+            synchronized (personal) {
+                personal.remove(userIdA);
+                personal.remove(userIdB);
+            }
+        };
+        AfterCommit.run(drop);
+    }
+
+    /** Drops every buffer, e.g. after a bulk delete of an author's posts. */
+    public void invalidateAll() {
+        synchronized (personal) {
+            personal.clear();
+        }
+        publicTimeline.reset();
+    }
+
+    // ── Reads ─────────────────────────────────────────────────────────────────
+
+    /**
+     * Up to {@code want} timeline entries strictly after {@code after}, newest first, or empty when
+     * the buffers cannot answer this page exactly and the caller must query the database.
+     */
+    Optional<List<TimelineBuffer.Entry>> readHome(String userId, FeedCursor after, int want) {
+        TimelineBuffer mine;
+        synchronized (personal) {
+            mine = personal.computeIfAbsent(userId, k -> new TimelineBuffer(CAPACITY));
+            trim();
+        }
+        mine.seedIfNeeded(() -> toEntries(postRepository.findTimelineSeed(
+                friendAndSelfIds(userId), PageRequest.of(0, CAPACITY))));
+        publicTimeline.seedIfNeeded(() -> toEntries(postRepository.findPublicTimelineSeed(
+                PageRequest.of(0, CAPACITY))));
+
+        TimelineBuffer.Slice a = mine.readAfter(after, want);
+        TimelineBuffer.Slice b = publicTimeline.readAfter(after, want);
+
+        // A truncated slice vouches for nothing older than its last entry.
+        TimelineBuffer.Entry floor = null;
+        for (TimelineBuffer.Slice s : List.of(a, b)) {
+            if (!s.truncated()) continue;
+            if (s.entries().isEmpty()) return Optional.empty();
+            TimelineBuffer.Entry last = s.entries().getLast();
+            if (floor == null || TimelineBuffer.isNewer(last.postId(), last.timestamp(), floor.postId(), floor.timestamp())) {
+                floor = last;
+            }
+        }
+
+        List<TimelineBuffer.Entry> merged = merge(a.entries(), b.entries(), want);
+        if (floor != null) {
+            TimelineBuffer.Entry f = floor;
+            merged = merged.stream()
+                    .filter(e -> !TimelineBuffer.isNewer(f.postId(), f.timestamp(), e.postId(), e.timestamp()))
+                    .toList();
+            if (merged.size() < want) return Optional.empty();
+        }
+        return Optional.of(merged);
+    }
+
+    private static List<TimelineBuffer.Entry> merge(List<TimelineBuffer.Entry> a, List<TimelineBuffer.Entry> b, int max) {
+        List<TimelineBuffer.Entry> out = new ArrayList<>(Math.min(max, a.size() + b.size()));
+        int i = 0, j = 0;
+        while (out.size() < max && (i < a.size() || j < b.size())) {
+            TimelineBuffer.Entry next;
+            if (j >= b.size()) next = a.get(i++);
+            else if (i >= a.size()) next = b.get(j++);
+            else {
+                TimelineBuffer.Entry x = a.get(i), y = b.get(j);
+                if (x.postId().equals(y.postId())) { next = x; i++; j++; }   // public post by a friend
+                else if (TimelineBuffer.isNewer(x.postId(), x.timestamp(), y.postId(), y.timestamp())) { next = x; i++; }
+                else { next = y; j++; }
+            }
+            out.add(next);
+        }
+        return out;
+    }
+
+    // ── Snapshot (restart persistence) ────────────────────────────────────────
+
+    /**
+     * Restores the buffers saved by the last clean shutdown. The file is deleted once read, whether
+     * or not it was used: only a clean shutdown writes a new one, so a run that crashes after
+     * restoring cannot leave a snapshot behind for the next start to trust.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadSnapshot() {
+        if (snapshotPath == null || !Files.isRegularFile(snapshotPath)) return;
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(snapshotPath)))) {
+            if (in.readInt() != SNAPSHOT_MAGIC || in.readInt() != SNAPSHOT_VERSION) {
+                log.warn("Ignoring timeline snapshot with unknown format: {}", snapshotPath);
+                return;
+            }
+            long savedAt = in.readLong();
+            long friendships = in.readLong();
+            // Posts written after the snapshot (e.g. by a run that crashed before saving) make it stale.
+            if (postRepository.existsByTimestampGreaterThan(savedAt)) {
+                log.info("Timeline snapshot is older than the newest post; rebuilding lazily");
+                return;
+            }
+            // So does any friendship accepted or removed since: personal buffers hold friends-only posts.
+            if (friendships != friendshipMarker()) {
+                log.info("Friendships changed since the timeline snapshot; rebuilding lazily");
+                return;
+            }
+            boolean publicComplete = in.readBoolean();
+            publicTimeline.restore(readEntries(in), publicComplete);
+            int users = in.readInt();
+            synchronized (personal) {
+                for (int u = 0; u < users; u++) {
+                    String userId = in.readUTF();
+                    boolean complete = in.readBoolean();
+                    TimelineBuffer t = new TimelineBuffer(CAPACITY);
+                    t.restore(readEntries(in), complete);
+                    personal.putIfAbsent(userId, t);
+                }
+                trim();
+            }
+            log.info("Restored {} home timelines from {}", users, snapshotPath);
+        } catch (IOException e) {
+            log.warn("Could not read timeline snapshot {}: {}", snapshotPath, e.getMessage());
+        } finally {
+            try {
+                Files.deleteIfExists(snapshotPath);
+            } catch (IOException e) {
+                log.warn("Could not delete timeline snapshot {}: {}", snapshotPath, e.getMessage());
+            }
+        }
+    }
+
+    @PreDestroy
+    public void saveSnapshot() {
+        if (snapshotPath == null) return;
+        try {
+            Files.createDirectories(snapshotPath.toAbsolutePath().getParent());
+            Path tmp = snapshotPath.resolveSibling(snapshotPath.getFileName() + ".tmp");
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tmp)))) {
+                out.writeInt(SNAPSHOT_MAGIC);
+                out.writeInt(SNAPSHOT_VERSION);
+                out.writeLong(System.currentTimeMillis());
+                out.writeLong(friendshipMarker());
+                out.writeBoolean(publicTimeline.isComplete());
+                writeEntries(out, publicTimeline.entries());
+                List<Map.Entry<String, TimelineBuffer>> seeded;
+                synchronized (personal) {
+                    seeded = personal.entrySet().stream()
+                            .filter(e -> e.getValue().isSeeded())
+                            .toList();
+                }
+                out.writeInt(seeded.size());
+                for (Map.Entry<String, TimelineBuffer> e : seeded) {
+                    out.writeUTF(e.getKey());
+                    out.writeBoolean(e.getValue().isComplete());
+                    writeEntries(out, e.getValue().entries());
+                }
+            }
+            Files.move(tmp, snapshotPath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            log.warn("Could not write timeline snapshot {}: {}", snapshotPath, e.getMessage());
+        }
+    }
+
+    private static void writeEntries(DataOutputStream out, List<TimelineBuffer.Entry> entries) throws IOException {
+        out.writeInt(entries.size());
+        for (TimelineBuffer.Entry e : entries) {
+            out.writeUTF(e.postId());
+            out.writeLong(e.timestamp());
+        }
+    }
+
+    private static List<TimelineBuffer.Entry> readEntries(DataInputStream in) throws IOException {
+        int n = in.readInt();
+        List<TimelineBuffer.Entry> entries = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) entries.add(new TimelineBuffer.Entry(in.readUTF(), in.readLong()));
+        return entries;
+    }
+
+    /**
+     * Fingerprint of the accepted friendships: an order-independent sum of per-pair hashes, so it
+     * changes when any pair is added or removed, and not when rows are merely read back in another order.
+     */
+    long friendshipMarker() {
+        long marker = 0;
+        for (Object[] pair : friendRequestRepository.findAcceptedPairs()) {
+            String a = (String) pair[0], b = (String) pair[1];
+            String key = a.compareTo(b) < 0 ? a + ':' + b : b + ':' + a;
+            long h = 0xCBF29CE484222325L;                      // 64-bit FNV-1a
+            for (int i = 0; i < key.length(); i++) h = (h ^ key.charAt(i)) * 0x100000001B3L;
+            marker += h;
+        }
+        return marker;
+    }
+
+    // ── Helpers ───────────────────────────────────────────────────────────────
+
+    private TimelineBuffer resident(String userId) {
+        synchronized (personal) {
+            return personal.get(userId);
+        }
+    }
+
+    // Caller holds the lock on personal.
+    private void trim() {
+        Iterator<TimelineBuffer> eldest = personal.values().iterator();
+        while (personal.size() > maxUsers && eldest.hasNext()) {
+            eldest.next();
+            eldest.remove();
+        }
+    }
+
+    int residentUsers() {
+        synchronized (personal) {
+            return personal.size();
+        }
+    }
+
+    private static boolean isPublic(Post post) {
+        return post.getVisibility() == null || post.getVisibility() == Post.Visibility.PUBLIC;
+    }
+
+    private static List<TimelineBuffer.Entry> toEntries(List<Object[]> rows) {
+        return rows.stream().map(r -> new TimelineBuffer.Entry((String) r[0], (Long) r[1])).toList();
+    }
+
+    private List<String> friendAndSelfIds(String userId) {
+        return socialGraph.friendAndSelfIds(userId);
+    }
+}
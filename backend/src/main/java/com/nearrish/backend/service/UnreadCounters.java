@@ -0,0 +1,186 @@
+package com.nearrish.backend.service;
+
+import com.nearrish.backend.repository.ConversationReadStateRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * Unread message counts per user, in total and per conversation, kept in memory so that refreshing a badge is a map
+ * lookup instead of a query. The counters persisted on {@code ConversationReadState} stay the source of truth and
+ * are written in the same transaction as the message; a user's counts are loaded from them on first use and then
+ * moved by {@link ChatService} after each commit.
+ *
+ * Bounded by user count, evicting least recently used users first. From the moment a change is recorded until its
+ * transaction completes the user is pending: counts loaded meanwhile may or may not include the change, so they are
+ * returned but not cached, and only counts cached before the change started are moved by it.
+ */
+@Service
+public class UnreadCounters {
+
+    /** A user's unread messages: the total, and the count for each conversation that has any. */
+    public record Unread(long total, Map<String, Integer> conversations) {}
+
+    private static final class Counts {
+        private final Map<String, Integer> byConversation = new HashMap<>();
+        private long total;
+
+        synchronized void add(String conversationId, int delta) {
+            int current = byConversation.getOrDefault(conversationId, 0);
+            int next = Math.max(0, current + delta);
+            total += next - current;
+            if (next == 0) byConversation.remove(conversationId);
+            else byConversation.put(conversationId, next);
+        }
+
+        synchronized void reset(String conversationId) {
+            Integer current = byConversation.remove(conversationId);
+            if (current != null) total -= current;
+        }
+
+        synchronized long total() {
+            return total;
+        }
+
+        synchronized Unread snapshot() {
+            return new Unread(total, Map.copyOf(byConversation));
+        }
+    }
+
+    // Kept for a user while a change to their counts is open or their counts are loading. The sequence moves with
+    // every change, so a load can tell whether one started while it ran, whatever other users are doing.
+    private static final class Activity {
+        private int changes;
+        private int loads;
+        private long sequence;
+
+        boolean idle() {
+            return changes == 0 && loads == 0;
+        }
+    }
+
+    private final ConversationReadStateRepository readStateRepository;
+    private final int maxUsers;
+    private final LinkedHashMap<String, Counts> users = new LinkedHashMap<>(256, 0.75f, true);
+    private final Map<String, Activity> activity = new HashMap<>();
+    private final AtomicLong epoch = new AtomicLong();
+
+    public UnreadCounters(ConversationReadStateRepository readStateRepository,
+                          @Value("${chat.unread-cache.max-users:100000}") int maxUsers) {
+        this.readStateRepository = readStateRepository;
+        this.maxUsers = maxUsers;
+    }
+
+    public Unread get(String userId) {
+        return counts(userId).snapshot();
+    }
+
+    public long total(String userId) {
+        return counts(userId).total();
+    }
+
+    // ── Maintenance ───────────────────────────────────────────────────────────
+
+    /** A message was sent in the conversation; each recipient has one more unread. */
+    public void onMessage(String conversationId, Collection<String> recipientIds) {
+        for (String userId : recipientIds) {
+            change(userId, c -> c.add(conversationId, 1));
+        }
+    }
+
+    /** The user read the conversation, or is no longer in it. */
+    public void onRead(String userId, String conversationId) {
+        change(userId, c -> c.reset(conversationId));
+    }
+
+    /** Drops every loaded user, after the persisted counters were repaired in bulk. */
+    public void clear() {
+        AfterCommit.run(() -> {
+            synchronized (this) {
+                epoch.incrementAndGet();
+                users.clear();
+            }
+        });
+    }
+
+    synchronized int size() {
+        return users.size();
+    }
+
+    /** Marks the user pending now and applies the change to their cached counts once the transaction commits. */
+    private void change(String userId, Consumer<Counts> change) {
+        synchronized (this) {
+            Activity a = activity.computeIfAbsent(userId, id -> new Activity());
+            a.changes++;
+            a.sequence++;
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            complete(userId, change);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                complete(userId, status == STATUS_COMMITTED ? change : null);
+            }
+        });
+    }
+
+    private synchronized void complete(String userId, Consumer<Counts> change) {
+        Counts counts = users.get(userId);
+        if (counts != null && change != null) change.accept(counts);
+        Activity a = activity.get(userId);
+        a.changes--;
+        if (a.idle()) activity.remove(userId);
+    }
+
+    private Counts counts(String userId) {
+        Activity a;
+        long epochBefore, sequenceBefore;
+        synchronized (this) {
+            Counts cached = users.get(userId);
+            if (cached != null) return cached;
+            a = activity.computeIfAbsent(userId, id -> new Activity());
+            a.loads++;
+            epochBefore = epoch.get();
+            sequenceBefore = a.sequence;
+        }
+        Counts loaded = new Counts();
+        try {
+            for (Object[] row : readStateRepository.findUnreadRows(userId)) {
+                loaded.add((String) row[0], ((Number) row[1]).intValue());
+            }
+        } catch (RuntimeException e) {
+            synchronized (this) {
+                loadDone(userId, a);
+            }
+            throw e;
+        }
+        synchronized (this) {
+            loadDone(userId, a);
+            if (epoch.get() != epochBefore || a.changes > 0 || a.sequence != sequenceBefore) return loaded;
+            Counts raced = users.putIfAbsent(userId, loaded);
+            if (raced != null) return raced;
+            Iterator<Counts> eldest = users.values().iterator();
+            while (users.size() > maxUsers && eldest.hasNext()) {
+                eldest.next();
+                eldest.remove();
+            }
+        }
+        return loaded;
+    }
+
+    private void loadDone(String userId, Activity a) {
+        a.loads--;
+        if (a.idle()) activity.remove(userId);
+    }
+}
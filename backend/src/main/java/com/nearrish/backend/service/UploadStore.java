@@ -0,0 +1,222 @@
+package com.nearrish.backend.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.security.DigestOutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+/**
+ * Content-addressed storage for uploaded images. A file is named by the SHA-256 of its bytes and sharded by the
+ * first two hash bytes ({@code ab/cd/abcd….png}), so the same image uploaded twice is stored once and its URL never
+ * points at different content.
+ *
+ * The body is streamed once to a temporary file in the store while being hashed, then moved into place; if the
+ * hash is already stored the temporary file is dropped instead. Bodies over
+ * {@code spring.servlet.multipart.max-file-size} are rejected with 413 however they arrive.
+ *
+ * The extension comes from the file's leading bytes when they identify an image format, and otherwise from the
+ * original name with aliases folded ({@code .jpeg} → {@code .jpg}), so the same bytes uploaded under different
+ * names land on the same file.
+ *
+ * Stored files never change, so {@link #lookup} keeps their size, modification time and ETag in a bounded LRU and
+ * serving a warm file does not touch the filesystem metadata. Missing files are not remembered, since a variant
+ * may appear later.
+ */
+@Service
+public class UploadStore {
+
+    /** URL prefix under which {@link #root()} is served. */
+    public static final String URL_PREFIX = "/uploads/";
+
+    private static final Pattern EXTENSION = Pattern.compile("[a-z0-9]{1,5}");
+    private static final Pattern CONTENT_ADDRESSED = Pattern.compile("[0-9a-f]{64}(_[a-z])?(\\.[a-z0-9]{1,5})?");
+    private static final String TMP_DIR = ".tmp";
+    private static final Map<String, String> EXTENSION_ALIASES = Map.of(
+            "jpeg", "jpg", "jpe", "jpg", "jfif", "jpg", "tif", "tiff");
+
+    /** A stored upload: its hash, its path below the store root, its URL, and whether it was already stored. */
+    public record Stored(String sha256, String path, String url, long size, boolean deduplicated) {}
+
+    /**
+     * A stored file as served. {@code immutable} files are named by their content hash, so their URL can be
+     * cached forever; others are uploads from before content addressing.
+     */
+    public record FileInfo(Path file, long size, long lastModified, String etag, boolean immutable) {}
+
+    private final Path root;
+    private final int maxCachedFiles;
+    private final long maxBytes;
+    private final LinkedHashMap<String, FileInfo> files = new LinkedHashMap<>(256, 0.75f, true);
+
+    public UploadStore(@Value("${uploads.dir:/app/uploads}") String root,
+                       @Value("${uploads.metadata-cache.max-entries:10000}") int maxCachedFiles,
+                       @Value("${spring.servlet.multipart.max-file-size:250MB}") DataSize maxFileSize) {
+        this.root = Paths.get(root).toAbsolutePath().normalize();
+        this.maxCachedFiles = maxCachedFiles;
+        this.maxBytes = maxFileSize.toBytes();
+    }
+
+    public Path root() {
+        return root;
+    }
+
+    /**
+     * Streams {@code in} into the store, failing with 413 once it exceeds the size limit. {@code originalName} only
+     * contributes its extension, and only when the content does not name one.
+     */
+    public Stored store(InputStream in, String originalName) throws IOException {
+        Path tmpDir = root.resolve(TMP_DIR);
+        Files.createDirectories(tmpDir);
+        Path tmp = Files.createTempFile(tmpDir, "upload-", ".part");
+        try {
+            MessageDigest sha256 = sha256();
+            long size = 0;
+            try (OutputStream out = new DigestOutputStream(Files.newOutputStream(tmp), sha256)) {
+                byte[] buffer = new byte[8192];
+                for (int n; (n = in.read(buffer)) != -1; ) {
+                    size += n;
+                    if (size > maxBytes) {
+                        throw new ResponseStatusException(HttpStatus.CONTENT_TOO_LARGE, "Upload too large");
+                    }
+                    out.write(buffer, 0, n);
+                }
+            }
+            byte[] head;
+            try (InputStream stored = Files.newInputStream(tmp)) {
+                head = stored.readNBytes(12);
+            }
+            String ext = sniffExtension(head);
+            if (ext == null) ext = extension(originalName);
+            String hash = HexFormat.of().formatHex(sha256.digest());
+            String path = hash.substring(0, 2) + "/" + hash.substring(2, 4) + "/" + hash + ext;
+            Path target = root.resolve(path);
+
+            boolean deduplicated = Files.exists(target);
+            if (!deduplicated) {
+                Files.createDirectories(target.getParent());
+                deduplicated = !moveIntoPlace(tmp, target);
+            }
+            return new Stored(hash, path, URL_PREFIX + path, size, deduplicated);
+        } finally {
+            Files.deleteIfExists(tmp);
+        }
+    }
+
+    /**
+     * The stored file at {@code path} below the root, or null if there is none. Paths that leave the root or point
+     * into the temporary directory are never found.
+     */
+    public FileInfo lookup(String path) throws IOException {
+        synchronized (this) {
+            FileInfo cached = files.get(path);
+            if (cached != null) return cached;
+        }
+        Path file = root.resolve(path).normalize();
+        if (!file.startsWith(root) || file.startsWith(root.resolve(TMP_DIR))) return null;
+        BasicFileAttributes attrs;
+        try {
+            attrs = Files.readAttributes(file, BasicFileAttributes.class);
+        } catch (NoSuchFileException e) {
+            return null;
+        }
+        if (!attrs.isRegularFile()) return null;
+
+        String name = file.getFileName().toString();
+        boolean immutable = CONTENT_ADDRESSED.matcher(name).matches();
+        long lastModified = attrs.lastModifiedTime().toMillis();
+        String tag = immutable ? stripExtension(name)
+                : Long.toHexString(attrs.size()) + "-" + Long.toHexString(lastModified);
+        FileInfo info = new FileInfo(file, attrs.size(), lastModified, "\"" + tag + "\"", immutable);
+        synchronized (this) {
+            files.put(path, info);
+            Iterator<FileInfo> eldest = files.values().iterator();
+            while (files.size() > maxCachedFiles && eldest.hasNext()) {
+                eldest.next();
+                eldest.remove();
+            }
+        }
+        return info;
+    }
+
+    private static String stripExtension(String name) {
+        int dot = name.lastIndexOf('.');
+        return dot < 0 ? name : name.substring(0, dot);
+    }
+
+    // False if a concurrent upload of the same bytes got there first.
+    private static boolean moveIntoPlace(Path tmp, Path target) throws IOException {
+        try {
+            Files.move(tmp, target, StandardCopyOption.ATOMIC_MOVE);
+            return true;
+        } catch (AtomicMoveNotSupportedException e) {
+            try {
+                Files.move(tmp, target);
+                return true;
+            } catch (FileAlreadyExistsException alreadyStored) {
+                return false;
+            }
+        } catch (FileAlreadyExistsException alreadyStored) {
+            return false;
+        }
+    }
+
+    // The extension of an image format recognised by its leading bytes, or null.
+    static String sniffExtension(byte[] head) {
+        if (startsWith(head, 0, 0xFF, 0xD8, 0xFF)) return ".jpg";
+        if (startsWith(head, 0, 0x89, 'P', 'N', 'G', 0x0D, 0x0A, 0x1A, 0x0A)) return ".png";
+        if (startsWith(head, 0, 'G', 'I', 'F', '8')) return ".gif";
+        if (startsWith(head, 0, 'R', 'I', 'F', 'F') && startsWith(head, 8, 'W', 'E', 'B', 'P')) return ".webp";
+        if (startsWith(head, 4, 'f', 't', 'y', 'p', 'a', 'v', 'i')) return ".avif";
+        if (startsWith(head, 0, 'B', 'M')) return ".bmp";
+        return null;
+    }
+
+    private static boolean startsWith(byte[] head, int offset, int... magic) {
+        if (head.length < offset + magic.length) return false;
+        for (int i = 0; i < magic.length; i++) {
+            if ((head[offset + i] & 0xFF) != magic[i]) return false;
+        }
+        return true;
+    }
+
+    // A short alphanumeric extension from the original name with aliases folded, or none; the rest of the name is
+    // not kept.
+    static String extension(String originalName) {
+        if (originalName == null) return "";
+        int dot = originalName.lastIndexOf('.');
+        if (dot < 0) return "";
+        String ext = originalName.substring(dot + 1).toLowerCase(Locale.ROOT);
+        if (!EXTENSION.matcher(ext).matches()) return "";
+        return "." + EXTENSION_ALIASES.getOrDefault(ext, ext);
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
@@ -0,0 +1,256 @@
+package com.nearrish.backend.service;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Typeahead index over usernames, names and nicknames.
+ *
+ * Prefixes are answered from a sorted key dictionary (each full field and each word of a name), so a
+ * prefix is one contiguous range. Infixes of three or more characters are answered from trigram postings,
+ * intersected rarest first and then verified. Every candidate is scored from its own fields, so the two
+ * paths rank consistently.
+ *
+ * Reads share a lock, writes take it exclusively.
+ */
+final class UserDirectory {
+
+    // Higher is better. A friend's prefix match outranks a stranger's, but not a stranger's exact username.
+    static final int EXACT_USERNAME = 100;
+    static final int USERNAME_PREFIX = 80;
+    static final int NAME_PREFIX = 60;
+    static final int USERNAME_INFIX = 40;
+    static final int NAME_INFIX = 30;
+    static final int FRIEND_BOOST = 25;
+
+    private static final int GRAM = 3;
+
+    /** One page of hits and the number of users that matched in total. */
+    record Result(List<UserSummary> users, int total) {}
+
+    private record Indexed(UserSummary user, String username, List<String> names, Set<String> keys,
+                           Set<String> grams) {}
+
+    private record Hit(Indexed entry, int score) {}
+
+    // Best score first, then shorter usernames, then alphabetical.
+    private static final Comparator<Hit> BEST_FIRST = Comparator.comparingInt(Hit::score).reversed()
+            .thenComparingInt(h -> h.entry().username().length())
+            .thenComparing(h -> h.entry().username())
+            .thenComparing(h -> h.entry().user().id());
+
+    // Prefix keys -> user ids. Sorted, so a prefix is a sub-map.
+    private final TreeMap<String, Set<String>> prefixes = new TreeMap<>();
+    private final Map<String, Set<String>> trigrams = new HashMap<>();
+    private final Map<String, Indexed> users = new HashMap<>();
+    // Alphabetical listing for blank queries: folded username + id -> user id.
+    private final TreeMap<String, String> alphabetical = new TreeMap<>();
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    int size() {
+        lock.readLock().lock();
+        try {
+            return users.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    void clear() {
+        lock.writeLock().lock();
+        try {
+            prefixes.clear();
+            trigrams.clear();
+            users.clear();
+            alphabetical.clear();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /** Adds the user, replacing an earlier version with the same id. */
+    void put(UserSummary user) {
+        String username = fold(user.username());
+        List<String> names = new ArrayList<>();
+        for (String field : new String[] {user.name(), user.nickname()}) {
+            String f = fold(field);
+            if (!f.isEmpty()) names.add(f);
+        }
+        Set<String> keys = new HashSet<>();
+        if (!username.isEmpty()) keys.add(username);
+        for (String n : names) {
+            keys.add(n);
+            for (String word : n.split(" ")) if (!word.isEmpty()) keys.add(word);
+        }
+        Set<String> grams = new HashSet<>(trigramsOf(username));
+        for (String n : names) grams.addAll(trigramsOf(n));
+
+        lock.writeLock().lock();
+        try {
+            removeLocked(user.id());
+            Indexed entry = new Indexed(user, username, List.copyOf(names), keys, grams);
+            users.put(user.id(), entry);
+            for (String k : keys) prefixes.computeIfAbsent(k, x -> new HashSet<>()).add(user.id());
+            for (String g : grams) trigrams.computeIfAbsent(g, x -> new HashSet<>()).add(user.id());
+            alphabetical.put(sortKey(entry), user.id());
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /** Returns the removed user, or null if it was not indexed. */
+    UserSummary remove(String id) {
+        lock.writeLock().lock();
+        try {
+            Indexed removed = removeLocked(id);
+            return removed == null ? null : removed.user();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private Indexed removeLocked(String id) {
+        Indexed old = users.remove(id);
+        if (old == null) return null;
+        for (String k : old.keys()) unlink(prefixes, k, id);
+        for (String g : old.grams()) unlink(trigrams, g, id);
+        alphabetical.remove(sortKey(old));
+        return old;
+    }
+
+    private static void unlink(Map<String, Set<String>> postings, String key, String id) {
+        Set<String> ids = postings.get(key);
+        if (ids != null && ids.remove(id) && ids.isEmpty()) postings.remove(key);
+    }
+
+    /**
+     * Users matching {@code query}, best first. Friends get {@link #FRIEND_BOOST}; with {@code onlyAmong}
+     * set, only those users are considered. Only the best {@code offset + limit} go through the final sort.
+     */
+    Result search(String query, Set<String> friendIds, Collection<String> onlyAmong, int offset, int limit) {
+        String q = fold(query);
+        if (q.isEmpty()) return new Result(List.of(), 0);
+        lock.readLock().lock();
+        try {
+            Collection<String> candidates = onlyAmong != null ? onlyAmong : candidates(q);
+            int keep = offset + limit;
+            PriorityQueue<Hit> top = new PriorityQueue<>(BEST_FIRST.reversed());
+            int total = 0;
+            for (String id : candidates) {
+                Indexed e = users.get(id);
+                if (e == null) continue;
+                int score = score(e, q);
+                if (score == 0) continue;
+                if (friendIds != null && friendIds.contains(id)) score += FRIEND_BOOST;
+                total++;
+                if (keep <= 0) continue;
+                top.add(new Hit(e, score));
+                if (top.size() > keep) top.poll();
+            }
+            List<Hit> ranked = new ArrayList<>(top);
+            ranked.sort(BEST_FIRST);
+            List<UserSummary> page = offset >= ranked.size() ? List.of()
+                    : ranked.subList(offset, ranked.size()).stream().map(h -> h.entry().user()).toList();
+            return new Result(page, total);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /** Users in alphabetical order of username, optionally only among the given ids. */
+    Result list(Collection<String> onlyAmong, int offset, int limit) {
+        lock.readLock().lock();
+        try {
+            if (onlyAmong != null) {
+                List<String> keys = new ArrayList<>();
+                for (String id : onlyAmong) {
+                    Indexed e = users.get(id);
+                    if (e != null) keys.add(sortKey(e));
+                }
+                keys.sort(null);
+                List<UserSummary> page = new ArrayList<>();
+                for (int i = offset; i < keys.size() && page.size() < limit; i++) {
+                    page.add(users.get(alphabetical.get(keys.get(i))).user());
+                }
+                return new Result(page, keys.size());
+            }
+            List<UserSummary> page = new ArrayList<>();
+            Iterator<String> it = alphabetical.values().iterator();
+            for (int i = 0; i < offset && it.hasNext(); i++) it.next();
+            while (it.hasNext() && page.size() < limit) page.add(users.get(it.next()).user());
+            return new Result(page, users.size());
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Prefix matches, plus trigram matches for queries long enough to have a trigram.
+    // Caller holds the read lock.
+    private Set<String> candidates(String q) {
+        Set<String> out = new HashSet<>();
+        for (Set<String> ids : prefixes.subMap(q, true, q + Character.MAX_VALUE, false).values()) out.addAll(ids);
+        if (q.length() < GRAM) return out;
+
+        List<Set<String>> postings = new ArrayList<>();
+        for (String g : trigramsOf(q)) {
+            Set<String> ids = trigrams.get(g);
+            if (ids == null) return out;
+            postings.add(ids);
+        }
+        postings.sort(Comparator.comparingInt(Set::size));
+        outer:
+        for (String id : postings.getFirst()) {
+            for (int i = 1; i < postings.size(); i++) {
+                if (!postings.get(i).contains(id)) continue outer;
+            }
+            out.add(id);
+        }
+        return out;
+    }
+
+    // Scored from the fields themselves; 0 means the trigrams matched but the text does not.
+    private static int score(Indexed e, String q) {
+        if (e.username().equals(q)) return EXACT_USERNAME;
+        if (e.username().startsWith(q)) return USERNAME_PREFIX;
+        for (String n : e.names()) {
+            if (n.startsWith(q) || n.contains(" " + q)) return NAME_PREFIX;
+        }
+        if (e.username().contains(q)) return USERNAME_INFIX;
+        for (String n : e.names()) {
+            if (n.contains(q)) return NAME_INFIX;
+        }
+        return 0;
+    }
+
+    private static String sortKey(Indexed e) {
+        return e.username() + '\0' + e.user().id();
+    }
+
+    static List<String> trigramsOf(String s) {
+        List<String> out = new ArrayList<>();
+        for (int i = 0; i + GRAM <= s.length(); i++) out.add(s.substring(i, i + GRAM));
+        return out;
+    }
+
+    /** Lower-case, accents stripped, runs of whitespace collapsed to one space. */
+    static String fold(String s) {
+        if (s == null) return "";
+        return Normalizer.normalize(s, Normalizer.Form.NFD)
+                .replaceAll("\\p{M}+", "")
+                .toLowerCase(Locale.ROOT)
+                .trim()
+                .replaceAll("\\s+", " ");
+    }
+}
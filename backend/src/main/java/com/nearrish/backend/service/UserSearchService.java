@@ -0,0 +1,73 @@
+package com.nearrish.backend.service;
+
+import com.nearrish.backend.entity.User;
+import com.nearrish.backend.repository.UserRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * User lookup for typeahead and advanced search, served from a {@link UserDirectory}.
+ *
+ * Built from the database once at startup and then kept current on registration, profile edits and
+ * account deletion. Results carry everything a search row shows, so a lookup never touches the database.
+ */
+@Service
+public class UserSearchService {
+
+    private static final Logger log = LoggerFactory.getLogger(UserSearchService.class);
+
+    static final int MAX_PAGE = 100;
+
+    private final UserRepository userRepository;
+    private final UserDirectory directory = new UserDirectory();
+
+    public UserSearchService(UserRepository userRepository) {
+        this.userRepository = userRepository;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        directory.clear();
+        for (Object[] r : userRepository.findDirectoryRows()) {
+            directory.put(new UserSummary((String) r[0], (String) r[1], (String) r[2], (String) r[3], (String) r[4]));
+        }
+        log.info("User directory holds {} users", directory.size());
+    }
+
+    // ── Maintenance ───────────────────────────────────────────────────────────
+
+    /** Called after a user is created or their name, nickname or avatar changes. */
+    public void onUserSaved(User user) {
+        directory.put(UserSummary.of(user));
+    }
+
+    public void onUserRemoved(String userId) {
+        directory.remove(userId);
+    }
+
+    // ── Queries ───────────────────────────────────────────────────────────────
+
+    /**
+     * Users matching {@code q} by username, name or nickname, best match first; a blank query lists
+     * everyone alphabetically. {@code friendIds} boosts the viewer's friends (null for anonymous
+     * viewers); with {@code friendsOnly} the results are restricted to them.
+     */
+    public SearchPage<UserSummary> search(String q, Collection<String> friendIds, boolean friendsOnly,
+                                          int page, int size) {
+        int n = Math.max(1, Math.min(size, MAX_PAGE));
+        int offset = PostService.offset(page, n);
+        Set<String> friends = friendIds == null ? null : new HashSet<>(friendIds);
+        Set<String> among = friendsOnly ? (friends != null ? friends : Set.of()) : null;
+        UserDirectory.Result r = q == null || q.isBlank()
+                ? directory.list(among, offset, n)
+                : directory.search(q, friends, among, offset, n);
+        return new SearchPage<>(r.users(), r.total());
+    }
+}
@@ -0,0 +1,12 @@
+package com.nearrish.backend.service;
+
+import com.nearrish.backend.entity.User;
+
+/** The public face of a user as search results show it. */
+public record UserSummary(String id, String username, String name, String nickname, String avatarUrl) {
+
+    public static UserSummary of(User user) {
+        return new UserSummary(user.getId(), user.getUsername(), user.getName(), user.getNickname(),
+                user.getAvatarUrl());
+    }
+}
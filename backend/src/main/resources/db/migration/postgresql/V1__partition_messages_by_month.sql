@@ -0,0 +1,63 @@
+-- Messages become a table range-partitioned by month of created_at, so chat history reads that are bounded by
+-- created_at only touch recent partitions and old months can be detached or dropped whole.
+--
+-- Postgres requires the partition key in every unique constraint, so the primary key is (id, created_at). Ids
+-- are UUIDs and nothing references messages by foreign key, so id alone stays unique in practice.
+--
+-- Runs before Hibernate (ddl-auto=update), which afterwards adds the foreign keys and the history index to the
+-- partitioned table. An existing table is copied over month by month and dropped.
+
+CREATE OR REPLACE FUNCTION ensure_message_partition(month date) RETURNS void AS $$
+DECLARE
+    start_at date := date_trunc('month', month)::date;
+BEGIN
+    EXECUTE format('CREATE TABLE IF NOT EXISTS %I PARTITION OF messages FOR VALUES FROM (%L) TO (%L)',
+                   'messages_' || to_char(start_at, 'YYYY_MM'), start_at, (start_at + interval '1 month')::date);
+END;
+$$ LANGUAGE plpgsql;
+
+DO $$
+BEGIN
+    IF to_regclass('messages') IS NOT NULL THEN
+        ALTER TABLE messages RENAME TO messages_unpartitioned;
+    END IF;
+END;
+$$;
+
+CREATE TABLE messages (
+    id                varchar(255) NOT NULL,
+    conversation_id   varchar(255),
+    sender_id         varchar(255),
+    content           varchar(255),
+    is_read           boolean      NOT NULL DEFAULT false,
+    created_at        timestamp(6) NOT NULL,
+    moderated         boolean      NOT NULL DEFAULT false,
+    moderation_reason varchar(255),
+    PRIMARY KEY (id, created_at)
+) PARTITION BY RANGE (created_at);
+
+-- Rows outside every monthly partition (clock skew, a missed maintenance run) land here instead of failing.
+CREATE TABLE messages_default PARTITION OF messages DEFAULT;
+
+DO $$
+DECLARE
+    month date;
+BEGIN
+    -- The current month and the next are created here; MessagePartitions keeps creating them ahead from then on.
+    PERFORM ensure_message_partition(current_date);
+    PERFORM ensure_message_partition((current_date + interval '1 month')::date);
+
+    IF to_regclass('messages_unpartitioned') IS NOT NULL THEN
+        FOR month IN SELECT DISTINCT date_trunc('month', created_at)::date FROM messages_unpartitioned
+                     WHERE created_at IS NOT NULL LOOP
+            PERFORM ensure_message_partition(month);
+        END LOOP;
+        INSERT INTO messages (id, conversation_id, sender_id, content, is_read, created_at, moderated,
+                              moderation_reason)
+        SELECT id, conversation_id, sender_id, content, is_read, COALESCE(created_at, now()), moderated,
+               moderation_reason
+        FROM messages_unpartitioned;
+        DROP TABLE messages_unpartitioned;
+    END IF;
+END;
+$$;
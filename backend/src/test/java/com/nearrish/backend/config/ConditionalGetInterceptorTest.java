@@ -0,0 +1,111 @@
+package com.nearrish.backend.config;
+
+import com.nearrish.backend.service.ContentVersions;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ConditionalGetInterceptorTest {
+
+    private final ContentVersions versions = new ContentVersions();
+    private final ConditionalGetInterceptor interceptor = new ConditionalGetInterceptor(versions);
+
+    private static MockHttpServletRequest get(String uri, String ifNoneMatch) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", uri);
+        if (ifNoneMatch != null) request.addHeader("If-None-Match", ifNoneMatch);
+        return request;
+    }
+
+    private MockHttpServletResponse handle(MockHttpServletRequest request) {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        boolean proceed = interceptor.preHandle(request, response, new Object());
+        assertEquals(proceed, response.getStatus() != 304);
+        return response;
+    }
+
+    @Test
+    void firstRequest_proceedsWithValidatorsAndPublicCaching() {
+        MockHttpServletResponse response = handle(get("/api/public/posts/feed", null));
+
+        assertEquals(200, response.getStatus());
+        assertNotNull(response.getHeader("ETag"));
+        assertNotNull(response.getHeader("Last-Modified"));
+        assertTrue(response.getHeader("Cache-Control").contains("public"));
+    }
+
+    @Test
+    void matchingETag_isAnswered304() {
+        String etag = handle(get("/api/public/posts/feed", null)).getHeader("ETag");
+
+        assertEquals(304, handle(get("/api/public/posts/feed", etag)).getStatus());
+    }
+
+    @Test
+    void globalChange_invalidatesTheETag() {
+        String etag = handle(get("/api/public/posts/feed", null)).getHeader("ETag");
+
+        versions.onPostChanged("someone");
+
+        assertEquals(200, handle(get("/api/public/posts/feed", etag)).getStatus());
+    }
+
+    @Test
+    void queryString_isPartOfTheETag() {
+        String first = handle(get("/api/public/posts/feed", null)).getHeader("ETag");
+        MockHttpServletRequest next = get("/api/public/posts/feed", first);
+        next.setQueryString("cursor=abc");
+
+        assertEquals(200, handle(next).getStatus());
+    }
+
+    @Test
+    void userScopedEndpoint_onlyChangesWithThatUser() {
+        MockHttpServletRequest profile = get("/api/public/users/alice", null);
+        profile.setAttribute(HandlerMapping.URI_TEMPLATE_VARIABLES_ATTRIBUTE, Map.of("id", "alice"));
+        String etag = handle(profile).getHeader("ETag");
+
+        versions.onPostChanged("bob");
+        MockHttpServletRequest again = get("/api/public/users/alice", etag);
+        again.setAttribute(HandlerMapping.URI_TEMPLATE_VARIABLES_ATTRIBUTE, Map.of("id", "alice"));
+        assertEquals(304, handle(again).getStatus());
+
+        versions.onUserChanged("alice");
+        MockHttpServletRequest changed = get("/api/public/users/alice", etag);
+        changed.setAttribute(HandlerMapping.URI_TEMPLATE_VARIABLES_ATTRIBUTE, Map.of("id", "alice"));
+        assertEquals(200, handle(changed).getStatus());
+    }
+
+    @Test
+    void changeToAllUsers_invalidatesUserScopedETags() {
+        MockHttpServletRequest page = get("/api/posts/by-author/alice", null);
+        page.setAttribute(HandlerMapping.URI_TEMPLATE_VARIABLES_ATTRIBUTE, Map.of("authorId", "alice"));
+        String etag = handle(page).getHeader("ETag");
+
+        versions.onAllUsersChanged();
+        MockHttpServletRequest again = get("/api/posts/by-author/alice", etag);
+        again.setAttribute(HandlerMapping.URI_TEMPLATE_VARIABLES_ATTRIBUTE, Map.of("authorId", "alice"));
+        assertEquals(200, handle(again).getStatus());
+    }
+
+    @Test
+    void authenticatedEndpoint_isPrivate() {
+        MockHttpServletResponse response = handle(get("/api/posts/feed", null));
+
+        assertTrue(response.getHeader("Cache-Control").contains("private"));
+        assertEquals("AUTH", response.getHeader("Vary"));
+    }
+
+    @Test
+    void nonGetRequests_passThrough() {
+        MockHttpServletRequest post = new MockHttpServletRequest("POST", "/api/posts/feed");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        assertTrue(interceptor.preHandle(post, response, new Object()));
+        assertNull(response.getHeader("ETag"));
+    }
+}
@@ -1,6 +1,8 @@
 package com.nearrish.backend.controller;
 
 import com.auth0.jwt.interfaces.DecodedJWT;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.nearrish.backend.entity.*;
 import com.nearrish.backend.repository.*;
 import com.nearrish.backend.security.ApiAuthentication;
@@ -9,11 +11,13 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.mock.web.MockHttpServletResponse;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.server.ResponseStatusException;
 
 import com.auth0.jwt.interfaces.Claim;
 
+import java.io.IOException;
 import java.util.Arrays;
 import java.util.ArrayList;
 import java.util.Collections;
@@ -74,6 +78,12 @@ class AdminControllerTest {
         SecurityContextHolder.getContext().setAuthentication(auth);
     }
 
+    private List<Map<String, Object>> getUsers() throws IOException {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        adminController.getUsers(response);
+        return new ObjectMapper().readValue(response.getContentAsByteArray(), new TypeReference<>() {});
+    }
+
     // ── verify ────────────────────────────────────────────────────────────────
 
     @Test
@@ -93,8 +103,8 @@ class AdminControllerTest {
     // ── getUsers ──────────────────────────────────────────────────────────────
 
     @Test
-    void getUsers_asAdmin_returnsAllUsers() {
-        List<Map<String, Object>> users = adminController.getUsers();
+    void getUsers_asAdmin_returnsAllUsers() throws IOException {
+        List<Map<String, Object>> users = getUsers();
 
         assertTrue(users.size() >= 2);
         assertTrue(users.stream().anyMatch(u -> "adminUser".equals(u.get("username"))));
@@ -102,8 +112,8 @@ class AdminControllerTest {
     }
 
     @Test
-    void getUsers_includesExpectedFields() {
-        List<Map<String, Object>> users = adminController.getUsers();
+    void getUsers_includesExpectedFields() throws IOException {
+        List<Map<String, Object>> users = getUsers();
 
         Map<String, Object> first = users.get(0);
         assertTrue(first.containsKey("userId"));
@@ -111,11 +121,30 @@ class AdminControllerTest {
         assertTrue(first.containsKey("email"));
     }
 
+    @Test
+    void getUsers_includesToxicityReportWhenPresent() throws IOException {
+        UserToxicityReport report = new UserToxicityReport();
+        report.setUserId(regularUser.getId());
+        report.setScore(42);
+        report.setSummary("Mostly fine");
+        toxicityReportRepository.save(report);
+
+        List<Map<String, Object>> users = getUsers();
+
+        Map<String, Object> regular = users.stream()
+                .filter(u -> regularUser.getId().equals(u.get("userId"))).findFirst().orElseThrow();
+        Map<String, Object> adminRow = users.stream()
+                .filter(u -> admin.getId().equals(u.get("userId"))).findFirst().orElseThrow();
+        assertEquals(42, regular.get("toxicityScore"));
+        assertEquals("Mostly fine", regular.get("toxicitySummary"));
+        assertFalse(adminRow.containsKey("toxicityScore"));
+    }
+
     @Test
     void getUsers_asNonAdmin_throws403() {
         setAuth(regularUser);
         ResponseStatusException ex = assertThrows(ResponseStatusException.class,
-                () -> adminController.getUsers());
+                () -> adminController.getUsers(new MockHttpServletResponse()));
         assertEquals(403, ex.getStatusCode().value());
     }
 
@@ -200,6 +229,34 @@ class AdminControllerTest {
         assertEquals(403, ex.getStatusCode().value());
     }
 
+    // ── getPostActivity ───────────────────────────────────────────────────────
+
+    private void savePostAt(long timestamp, boolean moderated, Integer severity) {
+        Post p = new Post("Post", regularUser.getId(), null);
+        p.setTimestamp(timestamp);
+        p.setModerated(moderated);
+        p.setModerationSeverity(severity);
+        postRepository.save(p);
+    }
+
+    @Test
+    void getPostActivity_bucketsPostsByDayWithinTheWindow() {
+        long now = System.currentTimeMillis();
+        long day = 86_400_000L;
+        savePostAt(now - 3_600_000L, true, null);
+        savePostAt(now - 2 * day - 3_600_000L, false, 3);
+        savePostAt(now - 30 * day, false, null);
+
+        List<Map<String, Object>> activity = adminController.getPostActivity(7);
+
+        assertEquals(7, activity.size());
+        assertEquals(2L, activity.stream().mapToLong(r -> (long) r.get("posts")).sum());
+        assertEquals(1L, activity.get(6).get("posts"));
+        assertEquals(1L, activity.get(6).get("blocked"));
+        assertEquals(1L, activity.get(4).get("posts"));
+        assertEquals(1L, activity.get(4).get("flagged"));
+    }
+
     // ── getToxicity ───────────────────────────────────────────────────────────
 
     @Test
@@ -0,0 +1,108 @@
+package com.nearrish.backend.controller;
+
+import com.auth0.jwt.interfaces.DecodedJWT;
+import com.nearrish.backend.entity.Conversation;
+import com.nearrish.backend.entity.User;
+import com.nearrish.backend.repository.ConversationReadStateRepository;
+import com.nearrish.backend.repository.ConversationRepository;
+import com.nearrish.backend.repository.MessageRepository;
+import com.nearrish.backend.repository.UserRepository;
+import com.nearrish.backend.security.ApiAuthentication;
+import com.nearrish.backend.service.ChatService;
+import com.nearrish.backend.service.CursorPage;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+@SpringBootTest(properties = {
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.datasource.url=jdbc:h2:mem:testdb;DB_CLOSE_DELAY=-1",
+        "spring.datasource.driverClassName=org.h2.Driver",
+        "spring.datasource.username=sa",
+        "spring.datasource.password="
+})
+class ChatControllerTest {
+
+    @MockitoBean
+    private SimpMessagingTemplate messagingTemplate;
+
+    @Autowired private ChatController chatController;
+    @Autowired private ChatService chatService;
+    @Autowired private MessageRepository messageRepository;
+    @Autowired private ConversationReadStateRepository readStateRepository;
+    @Autowired private ConversationRepository conversationRepository;
+    @Autowired private UserRepository userRepository;
+
+    private User alice;
+    private User bob;
+
+    @BeforeEach
+    void setUp() {
+        alice = userRepository.save(new User("alice", "alice@example.com", "password", ""));
+        // An OAuth account without an email address.
+        bob = userRepository.save(new User("bob", null, "password", ""));
+
+        DecodedJWT jwt = mock(DecodedJWT.class);
+        when(jwt.getSubject()).thenReturn(alice.getId());
+        SecurityContextHolder.getContext().setAuthentication(new ApiAuthentication(jwt, alice, Collections.emptyList()));
+    }
+
+    @AfterEach
+    void tearDown() {
+        messageRepository.deleteAll();
+        readStateRepository.deleteAll();
+        conversationRepository.deleteAll();
+        userRepository.deleteAll();
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void getMessages_returnsCursorPagesOldestFirst() {
+        Conversation conversation = chatService.getOrCreateConversation(alice, bob.getId());
+        for (int i = 1; i <= 5; i++) chatService.sendMessage(bob, conversation.getId(), "m" + i);
+
+        CursorPage<Map<String, Object>> newest = chatController.getMessages(conversation.getId(), 3, null);
+        CursorPage<Map<String, Object>> older =
+                chatController.getMessages(conversation.getId(), 3, newest.nextCursor());
+
+        assertEquals(List.of("m3", "m4", "m5"), newest.items().stream().map(m -> m.get("content")).toList());
+        assertEquals(List.of("m1", "m2"), older.items().stream().map(m -> m.get("content")).toList());
+        assertNull(older.nextCursor());
+        Map<String, Object> sender = (Map<String, Object>) newest.items().get(0).get("sender");
+        assertEquals(bob.getId(), sender.get("id"));
+        assertNull(sender.get("email"));
+    }
+
+    @Test
+    void getConversations_returnsCursorPagesMostRecentFirst() {
+        List<String> ids = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            User other = userRepository.save(new User("user" + i, "user" + i + "@example.com", "password", ""));
+            Conversation c = chatService.getOrCreateConversation(alice, other.getId());
+            chatService.sendMessage(other, c.getId(), "hi " + i);
+            ids.add(0, c.getId());
+        }
+
+        CursorPage<Map<String, Object>> first = chatController.getConversations(2, null);
+        CursorPage<Map<String, Object>> second = chatController.getConversations(2, first.nextCursor());
+
+        assertEquals(ids.subList(0, 2), first.items().stream().map(c -> c.get("id")).toList());
+        assertEquals(ids.subList(2, 3), second.items().stream().map(c -> c.get("id")).toList());
+        assertNull(second.nextCursor());
+    }
+}
@@ -10,12 +10,14 @@ import com.nearrish.backend.repository.PostRepository;
 import com.nearrish.backend.repository.UserRepository;
 import com.nearrish.backend.repository.UserToxicityReportRepository;
 import com.nearrish.backend.security.ApiAuthentication;
+import com.nearrish.backend.service.PostService;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
 import org.springframework.security.core.context.SecurityContextHolder;
 
 import java.util.Collections;
@@ -39,6 +41,7 @@ class MeControllerTest {
     @Autowired private PostRepository postRepository;
     @Autowired private UserToxicityReportRepository toxicityReportRepository;
     @Autowired private ConversationReadStateRepository conversationReadStateRepository;
+    @Autowired private PostService postService;
 
     private User user;
 
@@ -165,6 +168,18 @@ class MeControllerTest {
         assertTrue(postRepository.findByAuthorId(user.getId()).isEmpty(), "Posts must be deleted with the user");
     }
 
+    @Test
+    void deleteMe_dropsCachedViewsOfUserPosts() {
+        Post post = postRepository.save(new Post("hello world", user.getId(), null));
+        postService.getPostView(post.getId());
+
+        meController.deleteMe();
+
+        ResponseStatusException ex = assertThrows(ResponseStatusException.class,
+                () -> postService.getPostView(post.getId()));
+        assertEquals(HttpStatus.NOT_FOUND, ex.getStatusCode());
+    }
+
     @Test
     void deleteMe_deletesToxicityReport() {
         UserToxicityReport report = new UserToxicityReport();
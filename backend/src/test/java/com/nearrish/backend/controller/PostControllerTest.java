@@ -8,6 +8,8 @@ import com.nearrish.backend.repository.LikeRepository;
 import com.nearrish.backend.repository.PostRepository;
 import com.nearrish.backend.repository.UserRepository;
 import com.nearrish.backend.security.ApiAuthentication;
+import com.nearrish.backend.service.LikeService;
+import com.nearrish.backend.service.TimelineService;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -37,6 +39,8 @@ class PostControllerTest {
     @Autowired private UserRepository userRepository;
     @Autowired private CommentRepository commentRepository;
     @Autowired private LikeRepository likeRepository;
+    @Autowired private TimelineService timelineService;
+    @Autowired private LikeService likeService;
 
     private User alice;
     private User bob;
@@ -54,6 +58,7 @@ class PostControllerTest {
         likeRepository.deleteAll();
         postRepository.deleteAll();
         userRepository.deleteAll();
+        timelineService.invalidateAll();
         SecurityContextHolder.clearContext();
     }
 
@@ -112,7 +117,7 @@ class PostControllerTest {
     void getFeed_returnsOwnPost() {
         postController.createPost("My post", null, null, null, null, "PUBLIC");
 
-        List<PostResponse> feed = postController.getFeed();
+        List<PostResponse> feed = postController.getFeed(null, 20).items();
 
         assertFalse(feed.isEmpty());
         assertTrue(feed.stream().anyMatch(p -> "My post".equals(p.getText())));
@@ -126,7 +131,7 @@ class PostControllerTest {
 
         // alice (not bob's friend) fetches feed
         setAuth(alice);
-        List<PostResponse> feed = postController.getFeed();
+        List<PostResponse> feed = postController.getFeed(null, 20).items();
 
         assertTrue(feed.stream().noneMatch(p -> "Bob private".equals(p.getText())));
     }
@@ -202,4 +207,38 @@ class PostControllerTest {
         assertEquals(1, replies.size());
         assertEquals("Reply", replies.get(0).getText());
     }
+
+    @Test
+    void getThread_returnsNestedRepliesWithCounts() {
+        PostResponse parent = postController.createPost("Parent", null, null, null, null, "PUBLIC");
+        PostResponse reply = postController.createPost("Reply", parent.getId(), null, null, null, "PUBLIC");
+        postController.createPost("Nested", reply.getId(), null, null, null, "PUBLIC");
+
+        List<PostResponse> thread = postController.getThread(parent.getId(), 10, 50).replies();
+
+        assertEquals(List.of("Reply", "Nested"), thread.stream().map(PostResponse::getText).toList());
+        assertEquals(1, thread.get(0).getReplyCount());
+        assertEquals(2, thread.get(1).getDepth());
+        assertEquals(1, postController.getPost(parent.getId()).getReplyCount());
+    }
+
+    // ── enrichment ────────────────────────────────────────────────────────────
+
+    @Test
+    void getPostsByAuthor_batchEnrichesCountsAndViewerLike() {
+        PostResponse liked = postController.createPost("Liked", null, null, null, null, "PUBLIC");
+        PostResponse plain = postController.createPost("Plain", null, null, null, null, "PUBLIC");
+        likeService.likePost(alice, liked.getId());
+        likeService.likePost(bob, liked.getId());
+
+        List<PostResponse> posts = postController.getPostsByAuthor(alice.getId());
+
+        PostResponse a = posts.stream().filter(p -> p.getId().equals(liked.getId())).findFirst().orElseThrow();
+        PostResponse b = posts.stream().filter(p -> p.getId().equals(plain.getId())).findFirst().orElseThrow();
+        assertEquals(2, a.getLikeCount());
+        assertTrue(a.isUserLiked());
+        assertEquals(0, b.getLikeCount());
+        assertFalse(b.isUserLiked());
+        assertEquals("alice", a.getAuthor().username());
+    }
 }
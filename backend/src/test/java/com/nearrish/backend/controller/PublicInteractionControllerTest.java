@@ -7,6 +7,7 @@ import com.nearrish.backend.repository.CommentRepository;
 import com.nearrish.backend.repository.LikeRepository;
 import com.nearrish.backend.repository.PostRepository;
 import com.nearrish.backend.repository.UserRepository;
+import com.nearrish.backend.service.EngagementCounterService;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -34,6 +35,7 @@ class PublicInteractionControllerTest {
     @Autowired private CommentRepository commentRepository;
     @Autowired private LikeRepository likeRepository;
     @Autowired private UserRepository userRepository;
+    @Autowired private EngagementCounterService counters;
 
     private User alice;
     private Post post;
@@ -90,6 +92,8 @@ class PublicInteractionControllerTest {
     void getCommentCount_returnsCorrectCount() {
         commentRepository.save(new Comment(post, alice, "One"));
         commentRepository.save(new Comment(post, alice, "Two"));
+        // Rows written behind CommentService's back only reach the counter through reconciliation.
+        counters.reconcile();
 
         Map<String, Long> result = publicInteractionController.getCommentCount(post.getId());
 
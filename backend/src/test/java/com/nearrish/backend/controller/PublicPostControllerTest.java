@@ -6,6 +6,7 @@ import com.nearrish.backend.repository.CommentRepository;
 import com.nearrish.backend.repository.LikeRepository;
 import com.nearrish.backend.repository.PostRepository;
 import com.nearrish.backend.repository.UserRepository;
+import com.nearrish.backend.service.HotFeedService;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -31,6 +32,7 @@ class PublicPostControllerTest {
     @Autowired private UserRepository userRepository;
     @Autowired private LikeRepository likeRepository;
     @Autowired private CommentRepository commentRepository;
+    @Autowired private HotFeedService hotFeedService;
 
     private User alice;
 
@@ -65,7 +67,7 @@ class PublicPostControllerTest {
     void getPublicFeed_returnsPublicPosts() {
         savePublicPost("Public post");
 
-        List<PostResponse> feed = publicPostController.getPublicFeed();
+        List<PostResponse> feed = publicPostController.getPublicFeed(null, 20).items();
 
         assertFalse(feed.isEmpty());
         assertTrue(feed.stream().anyMatch(p -> "Public post".equals(p.getText())));
@@ -76,7 +78,7 @@ class PublicPostControllerTest {
         savePublicPost("Visible");
         saveFriendsOnlyPost("Hidden");
 
-        List<PostResponse> feed = publicPostController.getPublicFeed();
+        List<PostResponse> feed = publicPostController.getPublicFeed(null, 20).items();
 
         assertTrue(feed.stream().noneMatch(p -> "Hidden".equals(p.getText())));
     }
@@ -85,7 +87,7 @@ class PublicPostControllerTest {
     void getPublicFeed_enrichesWithAuthorInfo() {
         savePublicPost("Enriched");
 
-        List<PostResponse> feed = publicPostController.getPublicFeed();
+        List<PostResponse> feed = publicPostController.getPublicFeed(null, 20).items();
 
         assertFalse(feed.isEmpty());
         PostResponse first = feed.get(0);
@@ -96,7 +98,7 @@ class PublicPostControllerTest {
 
     @Test
     void getPublicFeed_emptyWhenNoPosts() {
-        List<PostResponse> feed = publicPostController.getPublicFeed();
+        List<PostResponse> feed = publicPostController.getPublicFeed(null, 20).items();
 
         assertTrue(feed.isEmpty());
     }
@@ -105,13 +107,26 @@ class PublicPostControllerTest {
     void getPublicFeed_enrichesWithLikeAndCommentCounts() {
         savePublicPost("Counted post");
 
-        List<PostResponse> feed = publicPostController.getPublicFeed();
+        List<PostResponse> feed = publicPostController.getPublicFeed(null, 20).items();
 
         assertFalse(feed.isEmpty());
         assertEquals(0, feed.get(0).getLikeCount());
         assertEquals(0, feed.get(0).getCommentCount());
     }
 
+    // ── getPublicHotFeed ──────────────────────────────────────────────────────
+
+    @Test
+    void getPublicHotFeed_listsPublicPostsOnly() {
+        savePublicPost("Visible");
+        saveFriendsOnlyPost("Hidden");
+        hotFeedService.rebuild();
+
+        List<PostResponse> feed = publicPostController.getPublicHotFeed(null, 20).items();
+
+        assertEquals(List.of("Visible"), feed.stream().map(PostResponse::getText).toList());
+    }
+
     // ── getPublicGeoFeed ──────────────────────────────────────────────────────
 
     @Test
@@ -122,7 +137,7 @@ class PublicPostControllerTest {
 
         savePublicPost("No geo");
 
-        List<PostResponse> geoFeed = publicPostController.getPublicGeoFeed();
+        List<PostResponse> geoFeed = publicPostController.getPublicGeoFeed(null, 200).items();
 
         assertEquals(1, geoFeed.size());
         assertEquals("Geo post", geoFeed.get(0).getText());
@@ -134,7 +149,7 @@ class PublicPostControllerTest {
     void getPublicGeoFeed_emptyWhenNoGeotaggedPosts() {
         savePublicPost("No coords");
 
-        List<PostResponse> geoFeed = publicPostController.getPublicGeoFeed();
+        List<PostResponse> geoFeed = publicPostController.getPublicGeoFeed(null, 200).items();
 
         assertTrue(geoFeed.isEmpty());
     }
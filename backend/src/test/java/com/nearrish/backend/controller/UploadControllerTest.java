@@ -0,0 +1,111 @@
+package com.nearrish.backend.controller;
+
+import com.nearrish.backend.service.UploadStore;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.util.unit.DataSize;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class UploadControllerTest {
+
+    @TempDir
+    Path dir;
+
+    private UploadStore store;
+    private UploadController controller;
+    private UploadStore.Stored hello;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        store = new UploadStore(dir.resolve("uploads").toString(), 100, DataSize.ofMegabytes(1));
+        controller = new UploadController(store);
+        hello = store.store(new ByteArrayInputStream("hello".getBytes(StandardCharsets.UTF_8)), "hello.png");
+    }
+
+    private MockHttpServletResponse get(String url, String... headers) throws IOException {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", url);
+        for (int i = 0; i < headers.length; i += 2) request.addHeader(headers[i], headers[i + 1]);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        controller.serve(request, response);
+        return response;
+    }
+
+    @Test
+    void serve_contentAddressedFile_isImmutable() throws IOException {
+        MockHttpServletResponse response = get(hello.url());
+
+        assertEquals(200, response.getStatus());
+        assertEquals("hello", response.getContentAsString());
+        assertEquals("image/png", response.getContentType());
+        assertEquals("\"" + hello.sha256() + "\"", response.getHeader("ETag"));
+        assertTrue(response.getHeader("Cache-Control").contains("immutable"));
+    }
+
+    @Test
+    void serve_matchingIfNoneMatch_returns304() throws IOException {
+        MockHttpServletResponse response = get(hello.url(), "If-None-Match", "\"" + hello.sha256() + "\"");
+
+        assertEquals(304, response.getStatus());
+        assertEquals(0, response.getContentAsByteArray().length);
+    }
+
+    @Test
+    void serve_byteRange_returnsPartialContent() throws IOException {
+        MockHttpServletResponse response = get(hello.url(), "Range", "bytes=1-3");
+
+        assertEquals(206, response.getStatus());
+        assertEquals("ell", response.getContentAsString());
+        assertEquals("bytes 1-3/5", response.getHeader("Content-Range"));
+    }
+
+    @Test
+    void serve_suffixRange_returnsLastBytes() throws IOException {
+        MockHttpServletResponse response = get(hello.url(), "Range", "bytes=-2");
+
+        assertEquals(206, response.getStatus());
+        assertEquals("lo", response.getContentAsString());
+    }
+
+    @Test
+    void serve_rangePastTheEnd_returns416() throws IOException {
+        MockHttpServletResponse response = get(hello.url(), "Range", "bytes=9-");
+
+        assertEquals(416, response.getStatus());
+        assertEquals("bytes */5", response.getHeader("Content-Range"));
+    }
+
+    @Test
+    void serve_staleIfRange_returnsWholeFile() throws IOException {
+        MockHttpServletResponse response = get(hello.url(), "Range", "bytes=1-3", "If-Range", "\"other\"");
+
+        assertEquals(200, response.getStatus());
+        assertEquals("hello", response.getContentAsString());
+    }
+
+    @Test
+    void serve_missingVariant_fallsBackToOriginalBriefly() throws IOException {
+        MockHttpServletResponse response = get(hello.url().replace(".png", "_s.png"));
+
+        assertEquals(200, response.getStatus());
+        assertEquals("hello", response.getContentAsString());
+        assertFalse(response.getHeader("Cache-Control").contains("immutable"));
+    }
+
+    @Test
+    void serve_unknownOrEscapingPath_returns404() throws IOException {
+        Files.writeString(dir.resolve("secret.txt"), "secret");
+
+        assertEquals(404, get("/uploads/nope.png").getStatus());
+        assertEquals(404, get("/uploads/../secret.txt").getStatus());
+    }
+}
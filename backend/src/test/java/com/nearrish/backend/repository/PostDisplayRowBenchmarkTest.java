@@ -0,0 +1,131 @@
+package com.nearrish.backend.repository;
+
+import com.nearrish.backend.entity.Post;
+import com.nearrish.backend.entity.User;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.IntSupplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Before/after timing of hydrating one feed page: managed {@code Post} entities plus the author lookup, against one
+ * {@link PostDisplayRow} projection query. Off by default; run with {@code FEED_BENCHMARK=true ./gradlew test
+ * --tests '*PostDisplayRowBenchmarkTest'} and read the timings from the test output.
+ */
+@EnabledIfEnvironmentVariable(named = "FEED_BENCHMARK", matches = "true")
+@SpringBootTest(properties = {
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.datasource.url=jdbc:h2:mem:testdb;DB_CLOSE_DELAY=-1",
+        "spring.datasource.driverClassName=org.h2.Driver",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "MODERATION_ENABLED=false"
+})
+class PostDisplayRowBenchmarkTest {
+
+    private static final int AUTHORS = 50;
+    private static final int POSTS = 5_000;
+    private static final int PAGE = 50;
+    private static final int WARMUP = 300;
+    private static final int ROUNDS = 2_000;
+
+    @Autowired private PostRepository postRepository;
+    @Autowired private UserRepository userRepository;
+    @Autowired private EntityManager entityManager;
+    @Autowired private PlatformTransactionManager transactionManager;
+
+    private final List<List<String>> pages = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        List<User> authors = new ArrayList<>();
+        for (int i = 0; i < AUTHORS; i++) {
+            authors.add(new User("author" + i, "author" + i + "@example.com", "password", ""));
+        }
+        authors = userRepository.saveAll(authors);
+        List<Post> posts = new ArrayList<>();
+        for (int i = 0; i < POSTS; i++) {
+            Post p = new Post("Post number " + i + " ".repeat(i % 7) + "with some text to render in the feed",
+                    authors.get(i % AUTHORS).getId(), null, 52.0 + i * 1e-4, 13.0 + i * 1e-4);
+            p.setModerationSeverity(i % 4);
+            p.setModerationReason(i % 9 == 0 ? "Reviewed and allowed" : null);
+            posts.add(p);
+        }
+        List<String> ids = postRepository.saveAll(posts).stream().map(Post::getId).toList();
+        for (int from = 0; from + PAGE <= ids.size(); from += PAGE) pages.add(ids.subList(from, from + PAGE));
+    }
+
+    @AfterEach
+    void tearDown() {
+        postRepository.deleteAll();
+        userRepository.deleteAll();
+    }
+
+    @Test
+    void hydrateFeedPage_entitiesVersusDisplayRows() {
+        TransactionTemplate readWrite = new TransactionTemplate(transactionManager);
+        TransactionTemplate readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+
+        // Before: managed entities in the caller's read-write transaction, then the authors in a second query.
+        IntSupplier entities = page(ids -> readWrite.execute(status -> {
+            List<Post> posts = entityManager.createQuery(
+                    "SELECT p FROM Post p WHERE p.id IN :ids AND p.moderated = false", Post.class)
+                    .setParameter("ids", ids).getResultList();
+            Set<String> authorIds = new HashSet<>();
+            posts.forEach(p -> authorIds.add(p.getAuthorId()));
+            return posts.size() + userRepository.findAuthorRows(authorIds).size();
+        }));
+        // The read-only hint alone: same entities, read-only transaction.
+        IntSupplier readOnlyEntities = page(ids -> readOnly.execute(status -> {
+            List<Post> posts = entityManager.createQuery(
+                    "SELECT p FROM Post p WHERE p.id IN :ids AND p.moderated = false", Post.class)
+                    .setParameter("ids", ids).getResultList();
+            Set<String> authorIds = new HashSet<>();
+            posts.forEach(p -> authorIds.add(p.getAuthorId()));
+            return posts.size() + userRepository.findAuthorRows(authorIds).size();
+        }));
+        // After: one projection query with the author joined, in a read-only transaction.
+        IntSupplier displayRows = page(ids -> readOnly.execute(status -> {
+            List<PostDisplayRow> rows = postRepository.findDisplayRows(ids);
+            return rows.size() + (int) rows.stream().map(PostDisplayRow::authorId).distinct().count();
+        }));
+
+        int loaded = run("entities", entities);
+        assertEquals(loaded, run("entities, read-only", readOnlyEntities));
+        assertEquals(loaded, run("display rows", displayRows));
+    }
+
+    private interface PageQuery {
+        Integer load(List<String> ids);
+    }
+
+    private IntSupplier page(PageQuery query) {
+        int[] next = {0};
+        return () -> query.load(pages.get(next[0]++ % pages.size()));
+    }
+
+    // Returns a checksum of what was loaded, so the variants are compared on equal work.
+    private static int run(String name, IntSupplier query) {
+        for (int i = 0; i < WARMUP; i++) query.getAsInt();
+        long sum = 0;
+        long start = System.nanoTime();
+        for (int i = 0; i < ROUNDS; i++) sum += query.getAsInt();
+        long micros = (System.nanoTime() - start) / 1_000 / ROUNDS;
+        System.out.printf("feed page of %d, %-20s %6d us/page%n", PAGE, name + ":", micros);
+        return (int) (sum / ROUNDS);
+    }
+}
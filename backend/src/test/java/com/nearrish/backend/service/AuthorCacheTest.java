@@ -0,0 +1,76 @@
+package com.nearrish.backend.service;
+
+import com.nearrish.backend.entity.User;
+import com.nearrish.backend.repository.UserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = {
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.datasource.url=jdbc:h2:mem:testdb;DB_CLOSE_DELAY=-1",
+        "spring.datasource.driverClassName=org.h2.Driver",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "MODERATION_ENABLED=false"
+})
+class AuthorCacheTest {
+
+    @Autowired private AuthorCache authorCache;
+    @Autowired private UserRepository userRepository;
+
+    private User alice;
+    private User bob;
+
+    @BeforeEach
+    void setUp() {
+        alice = userRepository.save(new User("alice", "alice@example.com", "password", ""));
+        bob   = userRepository.save(new User("bob",   "bob@example.com",   "password", ""));
+    }
+
+    @AfterEach
+    void tearDown() {
+        userRepository.deleteAll();
+    }
+
+    @Test
+    void getAll_resolvesKnownUsersAndSkipsUnknown() {
+        Map<String, AuthorCache.Author> authors =
+                authorCache.getAll(Arrays.asList(alice.getId(), bob.getId(), "missing", null));
+
+        assertEquals(2, authors.size());
+        assertEquals("alice", authors.get(alice.getId()).username());
+        assertEquals("bob", authors.get(bob.getId()).username());
+        assertNull(authorCache.get("missing"));
+    }
+
+    @Test
+    void get_servesCachedAuthorUntilInvalidated() {
+        assertNull(authorCache.get(alice.getId()).avatarUrl());
+
+        alice.setAvatarUrl("/uploads/a.png");
+        userRepository.save(alice);
+        assertNull(authorCache.get(alice.getId()).avatarUrl());
+
+        authorCache.invalidate(alice.getId());
+        assertEquals("/uploads/a.png", authorCache.get(alice.getId()).avatarUrl());
+    }
+
+    @Test
+    void invalidate_deletedUserIsNoLongerResolved() {
+        authorCache.getAll(List.of(alice.getId()));
+
+        userRepository.delete(alice);
+        authorCache.invalidate(alice.getId());
+
+        assertNull(authorCache.get(alice.getId()));
+    }
+}
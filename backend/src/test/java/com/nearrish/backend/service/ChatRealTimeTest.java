@@ -56,13 +56,19 @@ class ChatRealTimeTest {
     @Autowired private UserRepository userRepository;
     @Autowired private BlockRepository blockRepository;
     @Autowired private ConversationReadStateRepository readStateRepository;
+    @Autowired private UnreadCounters unreadCounters;
 
     private User alice;
     private User bob;
     private User charlie;
 
-    /** Mirrors the production unread-count logic: uses per-user lastReadAt timestamp. */
+    /** The unread count badges show, from the in-memory counters. */
     private long unreadFor(String conversationId, String userId) {
+        return unreadCounters.get(userId).conversations().getOrDefault(conversationId, 0);
+    }
+
+    /** Recounts from the messages table using the per-user lastReadAt timestamp. */
+    private long recountUnread(String conversationId, String userId) {
         LocalDateTime lastReadAt = readStateRepository
                 .findByConversationIdAndUserId(conversationId, userId)
                 .map(ConversationReadState::getLastReadAt)
@@ -196,6 +202,27 @@ class ChatRealTimeTest {
             // Alice still hasn't read bob's reply
             assertEquals(1, unreadFor(conv.getId(), alice.getId()));
         }
+
+        @Test
+        @DisplayName("Counters loaded before messages arrive follow sends and reads, and match a recount")
+        void loadedCounters_followSendsAndReads() {
+            Conversation conv = chatService.getOrCreateConversation(alice, bob.getId());
+            Conversation group = chatService.createGroupConversation(alice, "Test Group",
+                    Arrays.asList(bob.getId(), charlie.getId()));
+            assertEquals(0, unreadCounters.total(bob.getId()));
+
+            chatService.sendMessage(alice, conv.getId(), "Hi");
+            chatService.sendMessage(alice, conv.getId(), "Hi again");
+            chatService.sendMessage(charlie, group.getId(), "Hi all");
+
+            assertEquals(3, unreadCounters.total(bob.getId()));
+            assertEquals(recountUnread(conv.getId(), bob.getId()), unreadFor(conv.getId(), bob.getId()));
+
+            chatService.markAsRead(bob, conv.getId());
+
+            assertEquals(1, unreadCounters.total(bob.getId()));
+            assertEquals(java.util.Map.of(group.getId(), 1), unreadCounters.get(bob.getId()).conversations());
+        }
     }
 
     // ─────────────────────────────────────────────────────────────────────────
@@ -236,9 +263,26 @@ class ChatRealTimeTest {
 
             chatService.markAsRead(bob, conv.getId());
 
-            // Bob (the reader) must not receive any WS notification
+            // Bob (the reader) only receives the unread delta for his badges
             verify(messagingTemplate, never()).convertAndSendToUser(
-                    eq(bob.getUsername()), any(), any());
+                    eq(bob.getUsername()), any(), eq("READ:" + conv.getId()));
+            verify(messagingTemplate, times(1)).convertAndSendToUser(eq(bob.getUsername()), any(), any());
+        }
+
+        @Test
+        @DisplayName("markAsRead sends the reader 'UNREAD:convId:-n' for the messages it cleared")
+        void markAsRead_sendsReaderNegativeUnreadDelta() {
+            Conversation conv = chatService.getOrCreateConversation(alice, bob.getId());
+            chatService.sendMessage(alice, conv.getId(), "Hello!");
+            chatService.sendMessage(alice, conv.getId(), "Still there?");
+            reset(messagingTemplate);
+
+            chatService.markAsRead(bob, conv.getId());
+            chatService.markAsRead(bob, conv.getId());
+
+            // Only the first read cleared anything
+            verify(messagingTemplate, times(1)).convertAndSendToUser(
+                    eq(bob.getUsername()), eq("/queue/chat"), eq("UNREAD:" + conv.getId() + ":-2"));
         }
 
         @Test
@@ -377,7 +421,7 @@ class ChatRealTimeTest {
             verify(messagingTemplate).convertAndSendToUser(eq(alice.getUsername()),   eq("/queue/chat"), eq(expected));
             verify(messagingTemplate).convertAndSendToUser(eq(charlie.getUsername()), eq("/queue/chat"), eq(expected));
             // Bob (the reader) must not
-            verify(messagingTemplate, never()).convertAndSendToUser(eq(bob.getUsername()), any(), any());
+            verify(messagingTemplate, never()).convertAndSendToUser(eq(bob.getUsername()), any(), eq(expected));
         }
     }
 
@@ -4,6 +4,7 @@ import com.nearrish.backend.entity.Conversation;
 import com.nearrish.backend.entity.Message;
 import com.nearrish.backend.entity.User;
 import com.nearrish.backend.repository.BlockRepository;
+import com.nearrish.backend.repository.ConversationReadStateRepository;
 import com.nearrish.backend.repository.ConversationRepository;
 import com.nearrish.backend.repository.MessageRepository;
 import com.nearrish.backend.repository.UserRepository;
@@ -15,8 +16,12 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.messaging.simp.SimpMessagingTemplate;
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.util.ReflectionTestUtils;
 import org.springframework.web.server.ResponseStatusException;
 
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Arrays;
 
@@ -52,6 +57,9 @@ class ChatServiceTest {
     @Autowired
     private UserRepository userRepository;
 
+    @Autowired
+    private ConversationReadStateRepository readStateRepository;
+
     private User alice;
     private User bob;
 
@@ -64,6 +72,7 @@ class ChatServiceTest {
     @AfterEach
     void tearDown() {
         messageRepository.deleteAll();
+        readStateRepository.deleteAll();
         conversationRepository.deleteAll();
         blockRepository.deleteAll();
         userRepository.deleteAll();
@@ -152,13 +161,49 @@ class ChatServiceTest {
         chatService.sendMessage(alice, conversation.getId(), "Third");
 
         // Act
-        List<Message> messages = chatService.getMessages(alice, conversation.getId(), 50, null);
+        CursorPage<ChatService.MessageRow> page = chatService.getMessages(alice, conversation.getId(), null, 50);
 
         // Assert
+        List<ChatService.MessageRow> messages = page.items();
         assertEquals(3, messages.size());
-        assertEquals("First", messages.get(0).getContent());
-        assertEquals("Second", messages.get(1).getContent());
-        assertEquals("Third", messages.get(2).getContent());
+        assertEquals("First", messages.get(0).content());
+        assertEquals("Second", messages.get(1).content());
+        assertEquals("Third", messages.get(2).content());
+        assertEquals(bob.getUsername(), messages.get(1).senderUsername());
+        assertNull(page.nextCursor());
+    }
+
+    @Test
+    void getMessages_sameTimestamp_pagesWithoutSkippingOrRepeating() {
+        Conversation conversation = chatService.getOrCreateConversation(alice, bob.getId());
+        LocalDateTime sameInstant = LocalDateTime.of(2024, 5, 1, 12, 0);
+        for (int i = 0; i < 5; i++) {
+            Message m = new Message(conversation, i % 2 == 0 ? alice : bob, "m" + i);
+            ReflectionTestUtils.setField(m, "createdAt", sameInstant);
+            messageRepository.save(m);
+        }
+        chatService.sendMessage(alice, conversation.getId(), "latest");
+
+        List<String> seen = new ArrayList<>();
+        MessageCursor cursor = null;
+        do {
+            CursorPage<ChatService.MessageRow> page = chatService.getMessages(alice, conversation.getId(), cursor, 2);
+            assertTrue(page.items().size() <= 2);
+            List<String> ids = page.items().stream().map(ChatService.MessageRow::id).toList();
+            seen.addAll(0, ids);
+            cursor = MessageCursor.decode(page.nextCursor());
+        } while (cursor != null);
+
+        assertEquals(6, seen.size());
+        assertEquals(6, new HashSet<>(seen).size());
+        assertEquals("latest", messageRepository.findById(seen.get(5)).orElseThrow().getContent());
+    }
+
+    @Test
+    void getMessages_malformedCursor_throwsBadRequest() {
+        ResponseStatusException ex = assertThrows(ResponseStatusException.class,
+                () -> MessageCursor.decode("not a cursor"));
+        assertEquals(400, ex.getStatusCode().value());
     }
 
     @Test
@@ -169,7 +214,7 @@ class ChatServiceTest {
 
         // Act & Assert
         ResponseStatusException ex = assertThrows(ResponseStatusException.class,
-                () -> chatService.getMessages(charlie, conversation.getId(), 50, null));
+                () -> chatService.getMessages(charlie, conversation.getId(), null, 50));
         assertEquals(403, ex.getStatusCode().value());
     }
 
@@ -194,6 +239,104 @@ class ChatServiceTest {
         assertTrue(conversations.isEmpty());
     }
 
+    // --- Inbox ---
+
+    @Test
+    void getInbox_ordersByLastActivityWithLastMessageAndUnreadCount() {
+        User charlie = userRepository.save(new User("charlie", "charlie@example.com", "password", ""));
+        Conversation withBob = chatService.getOrCreateConversation(alice, bob.getId());
+        Conversation withCharlie = chatService.getOrCreateConversation(alice, charlie.getId());
+        chatService.sendMessage(bob, withBob.getId(), "first");
+        chatService.sendMessage(bob, withBob.getId(), "second");
+        chatService.sendMessage(charlie, withCharlie.getId(), "hi");
+
+        List<ChatService.InboxEntry> inbox = chatService.getInbox(alice, null, 20).items();
+
+        assertEquals(List.of(withCharlie.getId(), withBob.getId()),
+                inbox.stream().map(ChatService.InboxEntry::id).toList());
+        ChatService.InboxEntry bobEntry = inbox.get(1);
+        assertEquals("second", bobEntry.lastMessage().preview());
+        assertEquals(bob.getId(), bobEntry.lastMessage().senderId());
+        assertEquals(2, bobEntry.unreadCount());
+        assertEquals(2, bobEntry.participants().size());
+    }
+
+    @Test
+    void getInbox_senderHasNothingUnreadAndMarkAsReadResetsCount() {
+        Conversation conversation = chatService.getOrCreateConversation(alice, bob.getId());
+        chatService.sendMessage(alice, conversation.getId(), "Hello Bob!");
+
+        assertEquals(0, chatService.getInbox(alice, null, 20).items().get(0).unreadCount());
+        assertEquals(1, chatService.getInbox(bob, null, 20).items().get(0).unreadCount());
+
+        chatService.markAsRead(bob, conversation.getId());
+
+        assertEquals(0, chatService.getInbox(bob, null, 20).items().get(0).unreadCount());
+    }
+
+    @Test
+    void getInbox_conversationWithoutMessages_hasNoLastMessage() {
+        chatService.getOrCreateConversation(alice, bob.getId());
+
+        ChatService.InboxEntry entry = chatService.getInbox(alice, null, 20).items().get(0);
+
+        assertNull(entry.lastMessage());
+        assertEquals(0, entry.unreadCount());
+    }
+
+    @Test
+    void getInbox_pagesByLastActivity() {
+        User charlie = userRepository.save(new User("charlie", "charlie@example.com", "password", ""));
+        Conversation withBob = chatService.getOrCreateConversation(alice, bob.getId());
+        Conversation withCharlie = chatService.getOrCreateConversation(alice, charlie.getId());
+        chatService.sendMessage(charlie, withCharlie.getId(), "older");
+        chatService.sendMessage(bob, withBob.getId(), "newer");
+
+        CursorPage<ChatService.InboxEntry> first = chatService.getInbox(alice, null, 1);
+        CursorPage<ChatService.InboxEntry> second =
+                chatService.getInbox(alice, MessageCursor.decode(first.nextCursor()), 1);
+
+        assertEquals(withBob.getId(), first.items().get(0).id());
+        assertNotNull(first.nextCursor());
+        assertEquals(List.of(withCharlie.getId()), second.items().stream().map(ChatService.InboxEntry::id).toList());
+        assertNull(second.nextCursor());
+    }
+
+    @Test
+    void getInbox_conversationsWithoutMessages_pageByCreationWithoutRepeats() {
+        List<String> ids = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            User other = userRepository.save(new User("user" + i, "user" + i + "@example.com", "password", ""));
+            ids.add(chatService.getOrCreateConversation(alice, other.getId()).getId());
+        }
+
+        List<String> seen = new ArrayList<>();
+        String cursor = null;
+        do {
+            CursorPage<ChatService.InboxEntry> page = chatService.getInbox(alice, MessageCursor.decode(cursor), 2);
+            page.items().forEach(e -> seen.add(e.id()));
+            cursor = page.nextCursor();
+        } while (cursor != null);
+
+        assertEquals(ids.size(), seen.size());
+        assertTrue(seen.containsAll(ids));
+    }
+
+    @Test
+    void sendMessage_groupMemberAddedLater_countsOnlyNewMessages() {
+        User charlie = userRepository.save(new User("charlie", "charlie@example.com", "password", ""));
+        User dave = userRepository.save(new User("dave", "dave@example.com", "password", ""));
+        Conversation group = chatService.createGroupConversation(alice, "Test Group",
+                Arrays.asList(bob.getId(), charlie.getId()));
+        chatService.sendMessage(alice, group.getId(), "before dave");
+
+        chatService.addGroupMember(alice, group.getId(), dave.getId());
+        chatService.sendMessage(alice, group.getId(), "welcome dave");
+
+        assertEquals(1, chatService.getInbox(dave, null, 20).items().get(0).unreadCount());
+        assertEquals(2, chatService.getInbox(bob, null, 20).items().get(0).unreadCount());
+    }
+
     // --- Block enforcement ---
 
     @Test
@@ -38,6 +38,12 @@ class CommentServiceTest {
     @Autowired
     private UserRepository userRepository;
 
+    @Autowired
+    private SearchIndexService searchIndexService;
+
+    @Autowired
+    private EngagementCounterService counters;
+
     private User alice;
     private User bob;
     private Post post;
@@ -47,6 +53,7 @@ class CommentServiceTest {
         alice = userRepository.save(new User("alice", "alice@example.com", "password", ""));
         bob = userRepository.save(new User("bob", "bob@example.com", "password", ""));
         post = postRepository.save(new Post("Hello world", alice.getId(), null));
+        searchIndexService.rebuild();
     }
 
     @AfterEach
@@ -129,4 +136,69 @@ class CommentServiceTest {
                 () -> commentService.deleteComment(alice, "non-existent-id"));
         assertEquals(404, ex.getStatusCode().value());
     }
+
+    @Test
+    void searchComments_findsCommentUntilDeleted() {
+        // Arrange
+        Comment comment = commentService.addComment(bob, post.getId(), "Lovely sunset tonight");
+
+        // Act
+        SearchPage<Comment> hits = commentService.searchComments(alice, "sunset", null, 0, 20);
+        commentService.deleteComment(bob, comment.getId());
+
+        // Assert
+        assertEquals(List.of(comment.getId()), hits.items().stream().map(Comment::getId).toList());
+        assertEquals(0, commentService.searchComments(alice, "sunset", null, 0, 20).total());
+    }
+
+    @Test
+    void searchComments_onFriendsOnlyPost_hiddenFromStrangers() {
+        // Arrange
+        Post priv = new Post("Private", alice.getId(), null);
+        priv.setVisibility(Post.Visibility.FRIENDS_ONLY);
+        priv = postRepository.save(priv);
+        commentService.addComment(alice, priv.getId(), "Private reply");
+
+        // Act & Assert
+        assertEquals(1, commentService.searchComments(alice, "reply", null, 0, 20).total());
+        assertEquals(0, commentService.searchComments(bob, "reply", null, 0, 20).total());
+        assertEquals(0, commentService.searchComments(null, "reply", null, 0, 20).total());
+    }
+
+    @Test
+    void searchMostLikedComments_ranksMatchesByLiveLikes() {
+        // Arrange
+        Comment once = commentService.addComment(bob, post.getId(), "Great photo");
+        Comment twice = commentService.addComment(alice, post.getId(), "Photo of the year");
+        commentService.addComment(bob, post.getId(), "Unrelated");
+        counters.add(EngagementCounterService.Counter.COMMENT_LIKES, once.getId(), 1);
+        counters.add(EngagementCounterService.Counter.COMMENT_LIKES, twice.getId(), 2);
+
+        // Act
+        SearchPage<Comment> first = commentService.searchMostLikedComments(alice, "photo", null, 0, 1);
+        SearchPage<Comment> second = commentService.searchMostLikedComments(alice, "photo", null, 1, 1);
+
+        // Assert
+        assertEquals(List.of(twice.getId()), first.items().stream().map(Comment::getId).toList());
+        assertEquals(2, first.items().getFirst().getLikeCount());
+        assertEquals(List.of(once.getId()), second.items().stream().map(Comment::getId).toList());
+        assertEquals(2, first.total());
+    }
+
+    @Test
+    void browseComments_pagesNewestFirstAndFiltersByAuthor() throws InterruptedException {
+        // Arrange
+        Comment older = commentService.addComment(bob, post.getId(), "First");
+        Thread.sleep(2);
+        Comment newer = commentService.addComment(bob, post.getId(), "Second");
+        commentService.addComment(alice, post.getId(), "Third");
+
+        // Act
+        SearchPage<Comment> page = commentService.browseComments(List.of(bob.getId()), false, 0, 10);
+
+        // Assert
+        assertEquals(List.of(newer.getId(), older.getId()), page.items().stream().map(Comment::getId).toList());
+        assertEquals(2, page.total());
+        assertEquals(3, commentService.browseComments(null, false, 0, 1).total());
+    }
 }
@@ -0,0 +1,131 @@
+package com.nearrish.backend.service;
+
+import com.nearrish.backend.entity.Comment;
+import com.nearrish.backend.entity.Like;
+import com.nearrish.backend.entity.Post;
+import com.nearrish.backend.entity.User;
+import com.nearrish.backend.repository.CommentRepository;
+import com.nearrish.backend.repository.LikeRepository;
+import com.nearrish.backend.repository.PostRepository;
+import com.nearrish.backend.repository.UserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import static com.nearrish.backend.service.EngagementCounterService.Counter.COMMENT_LIKES;
+import static com.nearrish.backend.service.EngagementCounterService.Counter.POST_COMMENTS;
+import static com.nearrish.backend.service.EngagementCounterService.Counter.POST_LIKES;
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = {
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.datasource.url=jdbc:h2:mem:testdb;DB_CLOSE_DELAY=-1",
+        "spring.datasource.driverClassName=org.h2.Driver",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "MODERATION_ENABLED=false"
+})
+class EngagementCounterServiceTest {
+
+    @Autowired private EngagementCounterService counters;
+    @Autowired private LikeService likeService;
+    @Autowired private CommentService commentService;
+    @Autowired private PostRepository postRepository;
+    @Autowired private CommentRepository commentRepository;
+    @Autowired private LikeRepository likeRepository;
+    @Autowired private UserRepository userRepository;
+    @Autowired private ContentVersions versions;
+
+    private User alice;
+    private User bob;
+    private Post post;
+
+    @BeforeEach
+    void setUp() {
+        alice = userRepository.save(new User("alice", "alice@example.com", "pass", ""));
+        bob   = userRepository.save(new User("bob",   "bob@example.com",   "pass", ""));
+        post  = postRepository.save(new Post("Hello world", alice.getId(), null));
+    }
+
+    @AfterEach
+    void tearDown() {
+        counters.flush();
+        likeRepository.deleteAll();
+        commentRepository.deleteAll();
+        postRepository.deleteAll();
+        userRepository.deleteAll();
+    }
+
+    @Test
+    void pendingDeltas_areVisibleBeforeAndAfterFlush() {
+        likeService.likePost(alice, post.getId());
+        likeService.likePost(bob, post.getId());
+        assertEquals(2L, counters.current(POST_LIKES, post.getId()).orElseThrow());
+
+        counters.flush();
+
+        assertEquals(2L, postRepository.findLikeCount(post.getId()).orElseThrow());
+        assertEquals(0L, counters.pendingDelta(POST_LIKES, post.getId()));
+        assertEquals(2L, counters.postLikes(postRepository.findById(post.getId()).orElseThrow()));
+    }
+
+    @Test
+    void likeAndUnlike_cancelOut() {
+        likeService.likePost(alice, post.getId());
+        likeService.unlikePost(alice, post.getId());
+        counters.flush();
+
+        assertEquals(0L, postRepository.findLikeCount(post.getId()).orElseThrow());
+    }
+
+    @Test
+    void commentCounter_tracksAddAndDelete() {
+        Comment c = commentService.addComment(bob, post.getId(), "Nice");
+        commentService.addComment(bob, post.getId(), "Again");
+        commentService.deleteComment(bob, c.getId());
+        counters.flush();
+
+        assertEquals(1L, postRepository.findCommentCount(post.getId()).orElseThrow());
+    }
+
+    @Test
+    void reconcile_repairsDriftFromRowsWrittenOutsideServices() {
+        Comment c = commentRepository.save(new Comment(post, bob, "Direct"));
+        likeRepository.save(Like.forPost(bob, post));
+        likeRepository.save(Like.forComment(alice, c));
+
+        counters.reconcile();
+
+        assertEquals(1L, counters.current(POST_LIKES, post.getId()).orElseThrow());
+        assertEquals(1L, counters.current(POST_COMMENTS, post.getId()).orElseThrow());
+        assertEquals(1L, counters.current(COMMENT_LIKES, c.getId()).orElseThrow());
+    }
+
+    @Test
+    void reconcile_pendingDeltaOfCommittedRow_isNotCountedTwice() {
+        likeRepository.save(Like.forPost(bob, post));
+        counters.add(POST_LIKES, post.getId(), 1);
+
+        counters.reconcile();
+        counters.flush();
+
+        assertEquals(1L, postRepository.findLikeCount(post.getId()).orElseThrow());
+    }
+
+    @Test
+    void reconcile_repair_movesEveryUserVersion() {
+        likeRepository.save(Like.forPost(bob, post));
+        long before = versions.user(alice.getId());
+
+        counters.reconcile();
+
+        assertTrue(versions.user(alice.getId()) > before, "Author pages must not revalidate to pre-repair counts");
+    }
+
+    @Test
+    void current_missingRow_isEmpty() {
+        assertTrue(counters.current(POST_LIKES, "non-existent-id").isEmpty());
+    }
+}
@@ -0,0 +1,108 @@
+package com.nearrish.backend.service;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.List;
+
+import static com.nearrish.backend.service.FeedChangeLog.Kind.CREATED;
+import static com.nearrish.backend.service.FeedChangeLog.Kind.DELETED;
+import static org.junit.jupiter.api.Assertions.*;
+
+class FeedChangeLogTest {
+
+    private static List<String> ids(FeedChangeLog.Slice slice) {
+        return slice.changes().stream().map(FeedChangeLog.Change::postId).toList();
+    }
+
+    @Test
+    void readSince_returnsChangesAfterTheWatermarkOldestFirst() {
+        FeedChangeLog log = new FeedChangeLog(10);
+        log.append("a", "u", true, CREATED);
+        FeedWatermark seen = log.head();
+        log.append("b", "u", true, CREATED);
+        log.append("a", "u", true, DELETED);
+
+        FeedChangeLog.Slice slice = log.readSince(seen, c -> true, 10);
+
+        assertFalse(slice.reset());
+        assertFalse(slice.hasMore());
+        assertEquals(List.of("b", "a"), ids(slice));
+        assertEquals(log.head(), slice.watermark());
+    }
+
+    @Test
+    void readSince_atHead_isEmpty() {
+        FeedChangeLog log = new FeedChangeLog(10);
+        log.append("a", "u", true, CREATED);
+
+        FeedChangeLog.Slice slice = log.readSince(log.head(), c -> true, 10);
+
+        assertTrue(slice.changes().isEmpty());
+        assertFalse(slice.reset());
+    }
+
+    @Test
+    void readSince_skipsHiddenChangesButAdvancesTheWatermark() {
+        FeedChangeLog log = new FeedChangeLog(10);
+        FeedWatermark start = log.head();
+        log.append("public", "u", true, CREATED);
+        log.append("private", "u", false, CREATED);
+
+        FeedChangeLog.Slice slice = log.readSince(start, FeedChangeLog.Change::isPublic, 10);
+
+        assertEquals(List.of("public"), ids(slice));
+        assertEquals(log.head(), slice.watermark());
+    }
+
+    @Test
+    void readSince_pagesWhenMoreThanMax() {
+        FeedChangeLog log = new FeedChangeLog(10);
+        FeedWatermark start = log.head();
+        for (int i = 0; i < 5; i++) log.append("p" + i, "u", true, CREATED);
+
+        FeedChangeLog.Slice first = log.readSince(start, c -> true, 3);
+        FeedChangeLog.Slice second = log.readSince(first.watermark(), c -> true, 3);
+
+        assertEquals(List.of("p0", "p1", "p2"), ids(first));
+        assertTrue(first.hasMore());
+        assertEquals(List.of("p3", "p4"), ids(second));
+        assertFalse(second.hasMore());
+    }
+
+    @Test
+    void readSince_watermarkOlderThanTheRing_resets() {
+        FeedChangeLog log = new FeedChangeLog(3);
+        FeedWatermark start = log.head();
+        for (int i = 0; i < 3; i++) log.append("p" + i, "u", true, CREATED);
+        assertFalse(log.readSince(start, c -> true, 10).reset());
+
+        log.append("p3", "u", true, CREATED);
+
+        FeedChangeLog.Slice slice = log.readSince(start, c -> true, 10);
+        assertTrue(slice.reset());
+        assertEquals(log.head(), slice.watermark());
+    }
+
+    @Test
+    void readSince_missingOrForeignWatermark_resets() {
+        FeedChangeLog log = new FeedChangeLog(10);
+        log.append("a", "u", true, CREATED);
+        FeedWatermark before = log.head();
+
+        log.invalidateAll();
+
+        assertTrue(log.readSince(null, c -> true, 10).reset());
+        assertTrue(log.readSince(before, c -> true, 10).reset());
+        assertNotEquals(before.epoch(), log.head().epoch());
+    }
+
+    @Test
+    void watermark_roundTripsAndRejectsGarbage() {
+        FeedWatermark w = new FeedWatermark(-42, 7);
+
+        assertEquals(w, FeedWatermark.decode(w.encode()));
+        assertNull(FeedWatermark.decode(null));
+        assertThrows(ResponseStatusException.class, () -> FeedWatermark.decode("not-a-watermark"));
+    }
+}
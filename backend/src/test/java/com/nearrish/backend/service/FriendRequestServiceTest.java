@@ -168,6 +168,35 @@ class FriendRequestServiceTest {
         assertTrue(friends.isEmpty());
     }
 
+    @Test
+    void unfriend_removesFriendshipAndStatus() {
+        // Arrange
+        FriendRequest request = friendRequestService.sendRequest(alice, bob.getId());
+        friendRequestService.acceptRequest(bob, request.getId());
+
+        // Act
+        friendRequestService.unfriend(bob, alice.getId());
+
+        // Assert
+        assertTrue(friendRequestService.getFriends(alice).isEmpty());
+        assertEquals("NONE", friendRequestService.getFriendshipStatus(alice, bob.getId()).get("status"));
+        assertTrue(friendRequestRepository.findAll().isEmpty());
+    }
+
+    @Test
+    void getMutualFriends_returnsSharedFriends() {
+        // Arrange
+        User carol = userRepository.save(new User("carol", "carol@example.com", "password", ""));
+        friendRequestService.acceptRequest(carol, friendRequestService.sendRequest(alice, carol.getId()).getId());
+        friendRequestService.acceptRequest(carol, friendRequestService.sendRequest(bob, carol.getId()).getId());
+
+        // Act
+        List<User> mutual = friendRequestService.getMutualFriends(alice, bob.getId());
+
+        // Assert
+        assertEquals(List.of(carol.getId()), mutual.stream().map(User::getId).toList());
+    }
+
     @Test
     void getIncomingRequests_returnsPendingRequests() {
         // Arrange
@@ -0,0 +1,108 @@
+package com.nearrish.backend.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.function.Predicate;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GeoGridTest {
+
+    private static final Predicate<GeoGrid.Point> ALL = p -> true;
+
+    private static GeoGrid.Point point(String id, double lat, double lng, long ts) {
+        return new GeoGrid.Point(id, "author", lat, lng, ts, true);
+    }
+
+    private static List<String> ids(List<GeoGrid.Point> points) {
+        return points.stream().map(GeoGrid.Point::postId).toList();
+    }
+
+    private static List<String> hitIds(List<GeoGrid.Hit> hits) {
+        return hits.stream().map(h -> h.point().postId()).toList();
+    }
+
+    @Test
+    void newestWithin_returnsPointsInBoxNewestFirst() {
+        GeoGrid grid = new GeoGrid(0.1);
+        grid.put(point("berlin-old", 52.52, 13.40, 100));
+        grid.put(point("berlin-new", 52.50, 13.35, 200));
+        grid.put(point("paris", 48.85, 2.35, 300));
+
+        assertEquals(List.of("berlin-new", "berlin-old"),
+                ids(grid.newestWithin(52, 53, 13, 14, ALL, FeedCursor.START, 10)));
+    }
+
+    @Test
+    void newestWithin_pagesWithCursor() {
+        GeoGrid grid = new GeoGrid(0.1);
+        grid.put(point("a", 52.5, 13.4, 100));
+        grid.put(point("b", 52.5, 13.4, 200));
+        grid.put(point("c", 52.5, 13.4, 300));
+
+        List<GeoGrid.Point> first = grid.newestWithin(-90, 90, -180, 180, ALL, FeedCursor.START, 2);
+        GeoGrid.Point last = first.getLast();
+        List<GeoGrid.Point> second = grid.newestWithin(-90, 90, -180, 180, ALL,
+                new FeedCursor(last.timestamp(), last.postId()), 2);
+
+        assertEquals(List.of("c", "b"), ids(first));
+        assertEquals(List.of("a"), ids(second));
+    }
+
+    @Test
+    void newestWithin_boxAcrossAntimeridian() {
+        GeoGrid grid = new GeoGrid(0.5);
+        grid.put(point("fiji", -17.7, 178.0, 100));
+        grid.put(point("samoa", -13.8, -172.1, 200));
+        grid.put(point("sydney", -33.9, 151.2, 300));
+
+        assertEquals(List.of("samoa", "fiji"),
+                ids(grid.newestWithin(-20, -10, 175, -170, ALL, FeedCursor.START, 10)));
+    }
+
+    @Test
+    void nearestWithin_filtersByHaversineDistanceAndSortsNearestFirst() {
+        GeoGrid grid = new GeoGrid(0.1);
+        grid.put(point("potsdam", 52.39, 13.06, 1));
+        grid.put(point("mitte", 52.52, 13.40, 2));
+        grid.put(point("hamburg", 53.55, 9.99, 3));
+
+        assertEquals(List.of("mitte", "potsdam"), hitIds(grid.nearestWithin(52.52, 13.41, 50, ALL, 10)));
+    }
+
+    @Test
+    void nearest_expandsUntilKFound() {
+        GeoGrid grid = new GeoGrid(0.1);
+        grid.put(point("berlin", 52.52, 13.40, 1));
+        grid.put(point("paris", 48.85, 2.35, 2));
+        grid.put(point("tokyo", 35.68, 139.69, 3));
+
+        assertEquals(List.of("berlin", "paris"), hitIds(grid.nearest(52.0, 13.0, 2, ALL)));
+    }
+
+    @Test
+    void nearest_respectsVisibilityFilter() {
+        GeoGrid grid = new GeoGrid(0.1);
+        grid.put(new GeoGrid.Point("hidden", "stranger", 52.52, 13.40, 1, false));
+        grid.put(point("visible", 48.85, 2.35, 2));
+
+        assertEquals(List.of("visible"), hitIds(grid.nearest(52.52, 13.40, 1, GeoGrid.Point::isPublic)));
+    }
+
+    @Test
+    void remove_dropsPointFromQueries() {
+        GeoGrid grid = new GeoGrid(0.1);
+        grid.put(point("a", 52.5, 13.4, 1));
+        assertNotNull(grid.remove("a"));
+        assertNull(grid.remove("a"));
+
+        assertEquals(0, grid.size());
+        assertTrue(grid.nearest(52.5, 13.4, 1, ALL).isEmpty());
+    }
+
+    @Test
+    void haversine_berlinToParis() {
+        assertEquals(878, GeoGrid.haversineKm(52.52, 13.40, 48.85, 2.35), 5);
+    }
+}
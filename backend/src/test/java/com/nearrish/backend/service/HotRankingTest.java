@@ -0,0 +1,132 @@
+package com.nearrish.backend.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HotRankingTest {
+
+    private static final long HOUR = 3_600_000;
+
+    private static List<String> ids(List<HotRanking.Entry> entries) {
+        return entries.stream().map(HotRanking.Entry::postId).toList();
+    }
+
+    private static List<String> all(HotRanking ranking) {
+        return ids(ranking.readAfter(FeedCursor.START, null, 100));
+    }
+
+    @Test
+    void hotTime_doublingEngagementIsWorthOneHalfLife() {
+        HotRanking ranking = new HotRanking(HOUR);
+
+        assertEquals(0, ranking.hotTime(0, 0, 0));
+        assertEquals(HOUR, ranking.hotTime(0, 1, 0));
+        assertEquals(2 * HOUR, ranking.hotTime(0, 1, 1));
+        assertEquals(0, ranking.hotTime(0, -3, -1));
+    }
+
+    @Test
+    void readAfter_withoutEngagement_isNewestFirst() {
+        HotRanking ranking = new HotRanking(HOUR);
+        ranking.put("a", "u", true, 100, 0, 0);
+        ranking.put("c", "u", true, 300, 0, 0);
+        ranking.put("b", "u", true, 200, 0, 0);
+
+        assertEquals(List.of("c", "b", "a"), all(ranking));
+    }
+
+    @Test
+    void addEngagement_movesPostUpAndBackDown() {
+        HotRanking ranking = new HotRanking(HOUR);
+        ranking.put("old", "u", true, 0, 0, 0);
+        ranking.put("new", "u", true, HOUR / 2, 0, 0);
+
+        ranking.addEngagement("old", 1, 0);
+        assertEquals(List.of("old", "new"), all(ranking));
+
+        ranking.addEngagement("old", -1, 0);
+        assertEquals(List.of("new", "old"), all(ranking));
+        assertEquals(2, ranking.size());
+    }
+
+    @Test
+    void addEngagement_unknownPost_isIgnored() {
+        HotRanking ranking = new HotRanking(HOUR);
+        ranking.addEngagement("missing", 5, 5);
+
+        assertEquals(0, ranking.size());
+    }
+
+    @Test
+    void put_existingPost_replacesItsEntry() {
+        HotRanking ranking = new HotRanking(HOUR);
+        assertTrue(ranking.put("a", "u", true, 0, 0, 0));
+        assertTrue(ranking.put("a", "u", true, 0, 3, 0));
+        assertFalse(ranking.put("a", "u", true, 0, 3, 0));
+
+        List<HotRanking.Entry> entries = ranking.readAfter(FeedCursor.START, null, 10);
+        assertEquals(1, entries.size());
+        assertEquals(2 * HOUR, entries.getFirst().hotTime());
+    }
+
+    @Test
+    void readAfter_pagesWithCursor() {
+        HotRanking ranking = new HotRanking(HOUR);
+        for (int i = 1; i <= 5; i++) ranking.put("p" + i, "u", true, i, 0, 0);
+
+        List<HotRanking.Entry> first = ranking.readAfter(FeedCursor.START, null, 2);
+        HotRanking.Entry last = first.getLast();
+        List<HotRanking.Entry> second = ranking.readAfter(new FeedCursor(last.hotTime(), last.postId()), null, 2);
+
+        assertEquals(List.of("p5", "p4"), ids(first));
+        assertEquals(List.of("p3", "p2"), ids(second));
+    }
+
+    @Test
+    void readAfter_friendsOnlyPostsOnlyForTheirAudience() {
+        HotRanking ranking = new HotRanking(HOUR);
+        ranking.put("public", "alice", true, 100, 0, 0);
+        ranking.put("private", "bob", false, 200, 0, 0);
+
+        assertEquals(List.of("public"), all(ranking));
+        assertEquals(List.of("public"), ids(ranking.readAfter(FeedCursor.START, Set.of("alice"), 10)));
+        assertEquals(List.of("private", "public"), ids(ranking.readAfter(FeedCursor.START, Set.of("bob"), 10)));
+    }
+
+    @Test
+    void removeCreatedBefore_dropsOldPostsEvenIfHot() {
+        HotRanking ranking = new HotRanking(HOUR);
+        ranking.put("old", "u", true, 100, 1000, 0);
+        ranking.put("new", "u", true, 300, 0, 0);
+
+        assertEquals(1, ranking.removeCreatedBefore(200));
+        assertEquals(List.of("new"), all(ranking));
+    }
+
+    @Test
+    void removeUnlisted_keepsPostsCreatedSinceTheListing() {
+        HotRanking ranking = new HotRanking(HOUR);
+        ranking.put("listed", "u", true, 100, 0, 0);
+        ranking.put("gone", "u", true, 150, 0, 0);
+        ranking.put("fresh", "u", true, 300, 0, 0);
+
+        assertEquals(1, ranking.removeUnlisted(Set.of("listed"), 200));
+        assertEquals(List.of("fresh", "listed"), all(ranking));
+    }
+
+    @Test
+    void removeIf_dropsMatchingAuthors() {
+        HotRanking ranking = new HotRanking(HOUR);
+        ranking.put("a1", "alice", true, 100, 0, 0);
+        ranking.put("b1", "bob", true, 200, 0, 0);
+
+        ranking.removeIf(e -> e.authorId().equals("bob"));
+
+        assertEquals(List.of("a1"), all(ranking));
+        assertEquals(1, ranking.size());
+    }
+}
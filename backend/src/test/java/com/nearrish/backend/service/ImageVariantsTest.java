@@ -0,0 +1,87 @@
+package com.nearrish.backend.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.util.unit.DataSize;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ImageVariantsTest {
+
+    @TempDir
+    Path dir;
+
+    private UploadStore store;
+    private ImageVariants variants;
+
+    @BeforeEach
+    void setUp() {
+        store = new UploadStore(dir.toString(), 100, DataSize.ofMegabytes(64));
+        variants = new ImageVariants(store, 1, 10);
+    }
+
+    @AfterEach
+    void tearDown() {
+        variants.shutdown();
+    }
+
+    private UploadStore.Stored upload(int width, int height, String format, String name) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        ImageIO.write(new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB), format, bytes);
+        return store.store(new ByteArrayInputStream(bytes.toByteArray()), name);
+    }
+
+    private BufferedImage variant(UploadStore.Stored stored, ImageVariants.Size size) throws IOException {
+        return ImageIO.read(dir.resolve(ImageVariants.variantPath(stored.path(), size)).toFile());
+    }
+
+    @Test
+    void generate_writesEverySizeKeepingAspectRatio() throws IOException {
+        UploadStore.Stored stored = upload(2000, 1000, "png", "wide.png");
+
+        assertEquals(3, variants.generate(dir.resolve(stored.path())));
+
+        assertEquals(96, variant(stored, ImageVariants.Size.S).getWidth());
+        assertEquals(48, variant(stored, ImageVariants.Size.S).getHeight());
+        assertEquals(480, variant(stored, ImageVariants.Size.M).getWidth());
+        assertEquals(1080, variant(stored, ImageVariants.Size.L).getWidth());
+    }
+
+    @Test
+    void generate_skipsSizesNotSmallerThanTheOriginalAndExistingVariants() throws IOException {
+        UploadStore.Stored stored = upload(300, 200, "jpg", "small.jpg");
+        Path original = dir.resolve(stored.path());
+
+        assertEquals(1, variants.generate(original));
+        assertEquals(0, variants.generate(original));
+        assertFalse(Files.exists(dir.resolve(ImageVariants.variantPath(stored.path(), ImageVariants.Size.M))));
+    }
+
+    @Test
+    void generate_unsupportedFormat_writesNothing() throws IOException {
+        UploadStore.Stored stored = upload(2000, 1000, "bmp", "old.bmp");
+
+        assertEquals(0, variants.generate(dir.resolve(stored.path())));
+    }
+
+    @Test
+    void originalOf_reversesVariantPath() {
+        String original = "2c/f2/" + "a".repeat(64) + ".png";
+
+        assertEquals(original, ImageVariants.originalOf(ImageVariants.variantPath(original, ImageVariants.Size.M)));
+        assertEquals("2c/f2/" + "a".repeat(64) + "_m.png",
+                ImageVariants.variantPath(original, ImageVariants.Size.M));
+        assertNull(ImageVariants.originalOf(original));
+        assertNull(ImageVariants.originalOf("avatar_s.png"));
+    }
+}
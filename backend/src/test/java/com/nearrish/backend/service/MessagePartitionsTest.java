@@ -0,0 +1,91 @@
+package com.nearrish.backend.service;
+
+import com.nearrish.backend.entity.Conversation;
+import com.nearrish.backend.entity.Message;
+import com.nearrish.backend.entity.User;
+import com.nearrish.backend.repository.ConversationReadStateRepository;
+import com.nearrish.backend.repository.ConversationRepository;
+import com.nearrish.backend.repository.MessageRepository;
+import com.nearrish.backend.repository.UserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import org.testcontainers.postgresql.PostgreSQLContainer;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/** Runs against a real Postgres, since H2 has no partitioning; skipped where Docker is not available. */
+@Testcontainers(disabledWithoutDocker = true)
+@SpringBootTest(properties = {
+        "spring.jpa.hibernate.ddl-auto=update",
+        "MODERATION_ENABLED=false"
+})
+class MessagePartitionsTest {
+
+    @Container
+    @ServiceConnection
+    static PostgreSQLContainer postgres = new PostgreSQLContainer("postgres:17-alpine");
+
+    private static final DateTimeFormatter MONTH = DateTimeFormatter.ofPattern("yyyy_MM");
+
+    @Autowired private MessagePartitions partitions;
+    @Autowired private ChatService chatService;
+    @Autowired private MessageRepository messageRepository;
+    @Autowired private ConversationReadStateRepository readStateRepository;
+    @Autowired private ConversationRepository conversationRepository;
+    @Autowired private UserRepository userRepository;
+    @Autowired private JdbcTemplate jdbc;
+
+    @AfterEach
+    void tearDown() {
+        messageRepository.deleteAll();
+        readStateRepository.deleteAll();
+        conversationRepository.deleteAll();
+        userRepository.deleteAll();
+    }
+
+    @Test
+    void migration_partitionsMessagesByMonthAhead() {
+        assertTrue(partitions.partitioned());
+
+        List<String> names = jdbc.queryForList("SELECT c.relname FROM pg_inherits i " +
+                "JOIN pg_class c ON c.oid = i.inhrelid WHERE i.inhparent = 'messages'::regclass", String.class);
+
+        LocalDate month = LocalDate.now().withDayOfMonth(1);
+        for (int i = 0; i <= 2; i++) {
+            assertTrue(names.contains("messages_" + month.plusMonths(i).format(MONTH)), names.toString());
+        }
+        assertTrue(names.contains("messages_default"));
+    }
+
+    @Test
+    void sendMessage_landsInTheCurrentMonthsPartition() {
+        User alice = userRepository.save(new User("alice", "alice@example.com", "password", ""));
+        User bob = userRepository.save(new User("bob", "bob@example.com", "password", ""));
+        Conversation conversation = chatService.getOrCreateConversation(alice, bob.getId());
+
+        Message sent = chatService.sendMessage(alice, conversation.getId(), "hello");
+
+        assertEquals("messages_" + LocalDate.now().format(MONTH), jdbc.queryForObject(
+                "SELECT tableoid::regclass::text FROM messages WHERE id = ?", String.class, sent.getId()));
+    }
+
+    @Test
+    void historyBeforeCursor_prunesLaterMonths() {
+        String plan = String.join("\n", jdbc.queryForList("EXPLAIN SELECT id FROM messages " +
+                "WHERE conversation_id = 'c' AND created_at < date_trunc('month', now()::timestamp) " +
+                "ORDER BY created_at DESC, id DESC LIMIT 20", String.class));
+
+        assertFalse(plan.contains("messages_" + LocalDate.now().format(MONTH)), plan);
+        assertFalse(plan.contains("messages_" + LocalDate.now().plusMonths(1).format(MONTH)), plan);
+    }
+}
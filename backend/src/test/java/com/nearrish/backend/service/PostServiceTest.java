@@ -1,8 +1,11 @@
 package com.nearrish.backend.service;
 
+import com.nearrish.backend.entity.FriendRequest;
 import com.nearrish.backend.entity.Post;
 import com.nearrish.backend.entity.User;
 import com.nearrish.backend.repository.FriendRequestRepository;
+import com.nearrish.backend.repository.LikeRepository;
+import com.nearrish.backend.repository.PostDisplayRow;
 import com.nearrish.backend.repository.PostRepository;
 import com.nearrish.backend.repository.UserRepository;
 import org.junit.jupiter.api.AfterEach;
@@ -12,7 +15,10 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.web.server.ResponseStatusException;
 
+import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -29,7 +35,16 @@ class PostServiceTest {
     @Autowired private PostService postService;
     @Autowired private PostRepository postRepository;
     @Autowired private UserRepository userRepository;
+    @Autowired private LikeRepository likeRepository;
     @Autowired private FriendRequestRepository friendRequestRepository;
+    @Autowired private FriendRequestService friendRequestService;
+    @Autowired private TimelineService timelineService;
+    @Autowired private GeoIndexService geoIndexService;
+    @Autowired private SearchIndexService searchIndexService;
+    @Autowired private EngagementCounterService counters;
+    @Autowired private HotFeedService hotFeedService;
+    @Autowired private LikeService likeService;
+    @Autowired private AuthorCache authorCache;
 
     private User alice;
     private User bob;
@@ -38,13 +53,19 @@ class PostServiceTest {
     void setUp() {
         alice = userRepository.save(new User("alice", "alice@example.com", "password", ""));
         bob   = userRepository.save(new User("bob",   "bob@example.com",   "password", ""));
+        // Other test classes share this context; drop any geotagged posts they left in the index.
+        geoIndexService.rebuild();
+        searchIndexService.rebuild();
+        hotFeedService.rebuild();
     }
 
     @AfterEach
     void tearDown() {
         friendRequestRepository.deleteAll();
+        likeRepository.deleteAll();
         postRepository.deleteAll();
         userRepository.deleteAll();
+        timelineService.invalidateAll();
     }
 
     private Post create(User author, String text) {
@@ -132,6 +153,23 @@ class PostServiceTest {
         assertEquals(404, ex.getStatusCode().value());
     }
 
+    @Test
+    void getPostView_likeInvalidatesCachedCounts() {
+        Post created = create(alice, "Cached");
+        assertEquals(0, postService.getPostView(created.getId()).likes());
+
+        likeService.likePost(bob, created.getId());
+
+        assertEquals(1, postService.getPostView(created.getId()).likes());
+    }
+
+    @Test
+    void getPostView_nonExistent_throws404() {
+        ResponseStatusException ex = assertThrows(ResponseStatusException.class,
+                () -> postService.getPostView("non-existent"));
+        assertEquals(404, ex.getStatusCode().value());
+    }
+
     // ── getPostsByAuthor ──────────────────────────────────────────────────────
 
     @Test
@@ -157,7 +195,7 @@ class PostServiceTest {
         postService.createPost(bob, "Reply", parent.getId(), null, null, null, Post.Visibility.PUBLIC);
         create(bob, "Another top level");
 
-        List<Post> feed = postService.getFeed(alice);
+        List<Post> feed = postService.getFeed(alice, null, 20).items();
 
         assertEquals(2, feed.size());
         assertTrue(feed.stream().allMatch(p -> p.getRespondingToId() == null));
@@ -168,7 +206,7 @@ class PostServiceTest {
         create(alice, "First");
         create(bob,   "Second");
 
-        List<Post> feed = postService.getFeed(alice);
+        List<Post> feed = postService.getFeed(alice, null, 20).items();
 
         assertEquals(2, feed.size());
         assertTrue(feed.get(0).getTimestamp() >= feed.get(1).getTimestamp());
@@ -178,14 +216,83 @@ class PostServiceTest {
     void getFeed_excludesFriendsOnlyFromStranger() {
         postService.createPost(bob, "Bob private", null, null, null, null, Post.Visibility.FRIENDS_ONLY);
 
-        List<Post> feed = postService.getFeed(alice);  // alice is not bob's friend
+        List<Post> feed = postService.getFeed(alice, null, 20).items();  // alice is not bob's friend
 
         assertTrue(feed.stream().noneMatch(p -> "Bob private".equals(p.getText())));
     }
 
     @Test
     void getFeed_emptyWhenNoPosts() {
-        assertTrue(postService.getFeed(alice).isEmpty());
+        assertTrue(postService.getFeed(alice, null, 20).items().isEmpty());
+    }
+
+    @Test
+    void getFeed_cursorPagesWithoutGapsOrDuplicates() {
+        // Posts created in the same millisecond share a timestamp; the id tie-breaker keeps pages exact.
+        for (int i = 0; i < 5; i++) create(alice, "Post " + i);
+
+        CursorPage<Post> first = postService.getFeed(alice, null, 2);
+        CursorPage<Post> second = postService.getFeed(alice, FeedCursor.decode(first.nextCursor()), 2);
+        CursorPage<Post> third = postService.getFeed(alice, FeedCursor.decode(second.nextCursor()), 2);
+
+        assertEquals(2, first.items().size());
+        assertEquals(2, second.items().size());
+        assertEquals(1, third.items().size());
+        assertNull(third.nextCursor());
+
+        Set<String> seen = new HashSet<>();
+        for (CursorPage<Post> page : List.of(first, second, third)) {
+            page.items().forEach(p -> assertTrue(seen.add(p.getId()), "duplicate post across pages"));
+        }
+        assertEquals(5, seen.size());
+    }
+
+    @Test
+    void getFeed_lastPageHasNoNextCursor() {
+        create(alice, "Only");
+
+        assertNull(postService.getFeed(alice, null, 20).nextCursor());
+    }
+
+    @Test
+    void feedCursor_malformed_throws400() {
+        ResponseStatusException ex = assertThrows(ResponseStatusException.class,
+                () -> FeedCursor.decode("not-a-cursor"));
+        assertEquals(400, ex.getStatusCode().value());
+    }
+
+    @Test
+    void getFeed_showsFriendsOnlyPostAfterFriendshipAccepted() {
+        postService.createPost(bob, "Bob private", null, null, null, null, Post.Visibility.FRIENDS_ONLY);
+        assertTrue(postService.getFeed(alice, null, 20).items().isEmpty());   // warms alice's timeline
+
+        FriendRequest request = friendRequestService.sendRequest(alice, bob.getId());
+        friendRequestService.acceptRequest(bob, request.getId());
+
+        assertTrue(postService.getFeed(alice, null, 20).items().stream()
+                .anyMatch(p -> "Bob private".equals(p.getText())));
+    }
+
+    @Test
+    void getFeed_newPostAppearsInWarmTimeline() {
+        create(alice, "Before");
+        postService.getFeed(alice, null, 20);
+
+        create(bob, "After");
+
+        List<Post> feed = postService.getFeed(alice, null, 20).items();
+        assertEquals(2, feed.size());
+        assertTrue(feed.stream().anyMatch(p -> "After".equals(p.getText())));
+    }
+
+    @Test
+    void getFeed_deletedPostLeavesWarmTimeline() {
+        Post post = create(alice, "Short-lived");
+        assertEquals(1, postService.getFeed(alice, null, 20).items().size());
+
+        postService.deletePost(alice, post.getId());
+
+        assertTrue(postService.getFeed(alice, null, 20).items().isEmpty());
     }
 
     // ── getPublicFeed ─────────────────────────────────────────────────────────
@@ -195,12 +302,154 @@ class PostServiceTest {
         create(alice, "Public");
         postService.createPost(bob, "Private", null, null, null, null, Post.Visibility.FRIENDS_ONLY);
 
-        List<Post> feed = postService.getPublicFeed();
+        List<Post> feed = postService.getPublicFeed(null, 20).items();
 
         assertEquals(1, feed.size());
         assertEquals("Public", feed.get(0).getText());
     }
 
+    @Test
+    void getPublicFeed_readsDisplayRowsWithAuthorAndCounts() {
+        Post post = postService.createPost(alice, "Projected", null, 52.52, 13.40, null, Post.Visibility.PUBLIC);
+        likeService.likePost(bob, post.getId());
+        counters.flush();
+
+        List<PostDisplayRow> rows = postRepository.findDisplayRows(List.of(post.getId()));
+        assertEquals(1, rows.size());
+        assertEquals("alice", rows.get(0).authorUsername());
+        assertEquals(1, rows.get(0).likeCount());
+
+        Post shown = postService.getPublicFeed(null, 20).items().get(0);
+        assertEquals(post.getId(), shown.getId());
+        assertEquals("Projected", shown.getText());
+        assertEquals(52.52, shown.getLatitude());
+        assertEquals(Post.Visibility.PUBLIC, shown.getVisibility());
+        assertEquals(1, counters.postLikes(shown));
+        assertEquals("alice", authorCache.get(alice.getId()).username());
+    }
+
+    @Test
+    void findDisplayRows_skipsModeratedPostsAndKeepsDeletedAuthors() {
+        Post kept = create(alice, "Kept");
+        Post hidden = new Post("Hidden", alice.getId(), null);
+        hidden.setModerated(true);
+        hidden = postRepository.save(hidden);
+        Post orphan = create(bob, "Orphan");
+        userRepository.delete(bob);
+
+        List<PostDisplayRow> rows = postRepository.findDisplayRows(List.of(kept.getId(), hidden.getId(),
+                orphan.getId()));
+
+        assertEquals(Set.of(kept.getId(), orphan.getId()),
+                new HashSet<>(rows.stream().map(PostDisplayRow::id).toList()));
+        PostDisplayRow orphanRow = rows.stream().filter(r -> r.id().equals(orphan.getId())).findFirst().orElseThrow();
+        assertNull(orphanRow.authorUsername());
+    }
+
+    // ── getHotFeed ────────────────────────────────────────────────────────────
+
+    @Test
+    void getHotFeed_likedPostOutranksNewerOne() throws InterruptedException {
+        Post older = create(alice, "Older");
+        Thread.sleep(2);
+        create(alice, "Newer");
+        likeService.likePost(bob, older.getId());
+
+        List<Post> feed = postService.getHotFeed(null, null, 20).items();
+
+        assertEquals(List.of("Older", "Newer"), feed.stream().map(Post::getText).toList());
+    }
+
+    @Test
+    void getHotFeed_hidesFriendsOnlyPostsFromStrangersAndAnonymous() {
+        postService.createPost(bob, "Bob private", null, null, null, null, Post.Visibility.FRIENDS_ONLY);
+
+        assertTrue(postService.getHotFeed(null, null, 20).items().isEmpty());
+        assertTrue(postService.getHotFeed(alice, null, 20).items().isEmpty());
+        assertEquals(1, postService.getHotFeed(bob, null, 20).items().size());
+    }
+
+    @Test
+    void getHotFeed_cursorPagesWithoutGapsOrDuplicates() throws InterruptedException {
+        for (int i = 0; i < 5; i++) {
+            create(alice, "Post " + i);
+            Thread.sleep(2);
+        }
+
+        CursorPage<Post> first = postService.getHotFeed(null, null, 2);
+        CursorPage<Post> second = postService.getHotFeed(null, FeedCursor.decode(first.nextCursor()), 2);
+        CursorPage<Post> third = postService.getHotFeed(null, FeedCursor.decode(second.nextCursor()), 2);
+
+        Set<String> seen = new HashSet<>();
+        for (CursorPage<Post> page : List.of(first, second, third)) {
+            page.items().forEach(p -> assertTrue(seen.add(p.getId())));
+        }
+        assertEquals(5, seen.size());
+        assertNull(third.nextCursor());
+    }
+
+    @Test
+    void getHotFeed_dropsDeletedPostsAndRebuildsFromTheDatabase() {
+        Post gone = create(alice, "Gone");
+        create(alice, "Kept");
+        postService.deletePost(alice, gone.getId());
+
+        assertEquals(List.of("Kept"), postService.getHotFeed(null, null, 20).items().stream().map(Post::getText).toList());
+        hotFeedService.rebuild();
+        assertEquals(1, hotFeedService.size());
+    }
+
+    // ── getFeedSince ──────────────────────────────────────────────────────────
+
+    @Test
+    void getFeedSince_withoutWatermark_resetsWithTheCurrentOne() {
+        FeedDelta<Post> delta = postService.getFeedSince(alice, null, 20);
+
+        assertTrue(delta.reset());
+        assertTrue(delta.posts().isEmpty());
+        assertNotNull(FeedWatermark.decode(delta.watermark()));
+    }
+
+    @Test
+    void getFeedSince_returnsOnlyNewPostsAndTombstones() throws InterruptedException {
+        Post old = create(alice, "Old");
+        String watermark = postService.getFeedSince(null, null, 20).watermark();
+        create(alice, "New 1");
+        Thread.sleep(2);
+        create(alice, "New 2");
+        postService.deletePost(alice, old.getId());
+
+        FeedDelta<Post> delta = postService.getFeedSince(null, FeedWatermark.decode(watermark), 20);
+
+        assertFalse(delta.reset());
+        assertEquals(List.of("New 2", "New 1"), delta.posts().stream().map(Post::getText).toList());
+        assertEquals(List.of(new FeedDelta.Tombstone(old.getId(), FeedChangeLog.Kind.DELETED)), delta.removed());
+        FeedDelta<Post> again = postService.getFeedSince(null, FeedWatermark.decode(delta.watermark()), 20);
+        assertTrue(again.posts().isEmpty() && again.removed().isEmpty());
+    }
+
+    @Test
+    void getFeedSince_postCreatedAndDeletedInWindow_isOnlyATombstone() {
+        String watermark = postService.getFeedSince(null, null, 20).watermark();
+        Post gone = create(alice, "Gone");
+        postService.deletePost(alice, gone.getId());
+
+        FeedDelta<Post> delta = postService.getFeedSince(null, FeedWatermark.decode(watermark), 20);
+
+        assertTrue(delta.posts().isEmpty());
+        assertEquals(1, delta.removed().size());
+    }
+
+    @Test
+    void getFeedSince_hidesFriendsOnlyPostsFromStrangersAndAnonymous() {
+        String watermark = postService.getFeedSince(null, null, 20).watermark();
+        postService.createPost(bob, "Bob private", null, null, null, null, Post.Visibility.FRIENDS_ONLY);
+
+        assertTrue(postService.getFeedSince(null, FeedWatermark.decode(watermark), 20).posts().isEmpty());
+        assertTrue(postService.getFeedSince(alice, FeedWatermark.decode(watermark), 20).posts().isEmpty());
+        assertEquals(1, postService.getFeedSince(bob, FeedWatermark.decode(watermark), 20).posts().size());
+    }
+
     // ── getGeoFeed ────────────────────────────────────────────────────────────
 
     @Test
@@ -208,7 +457,7 @@ class PostServiceTest {
         postService.createPost(alice, "With loc", null, 52.52, 13.40, null, Post.Visibility.PUBLIC);
         create(bob, "No loc");
 
-        List<Post> geoFeed = postService.getGeoFeed(alice);
+        List<Post> geoFeed = postService.getGeoFeed(alice, null, 200).items();
 
         assertEquals(1, geoFeed.size());
         assertNotNull(geoFeed.get(0).getLatitude());
@@ -218,11 +467,115 @@ class PostServiceTest {
     void getPublicGeoFeed_excludesFriendsOnlyPosts() {
         postService.createPost(alice, "Geo private", null, 48.85, 2.35, null, Post.Visibility.FRIENDS_ONLY);
 
-        List<Post> feed = postService.getPublicGeoFeed();
+        List<Post> feed = postService.getPublicGeoFeed(null, 200).items();
 
         assertTrue(feed.isEmpty());
     }
 
+    // ── spatial index ─────────────────────────────────────────────────────────
+
+    @Test
+    void getGeoFeedInBox_returnsOnlyPostsInsideTheBox() {
+        postService.createPost(alice, "Berlin", null, 52.52, 13.40, null, Post.Visibility.PUBLIC);
+        postService.createPost(alice, "Paris", null, 48.85, 2.35, null, Post.Visibility.PUBLIC);
+
+        List<Post> feed = postService.getGeoFeedInBox(alice, 52, 53, 13, 14, null, 200).items();
+
+        assertEquals(1, feed.size());
+        assertEquals("Berlin", feed.get(0).getText());
+    }
+
+    @Test
+    void getGeoFeedInBox_hidesFriendsOnlyPostsFromStrangersAndAnonymous() {
+        postService.createPost(alice, "Private", null, 52.52, 13.40, null, Post.Visibility.FRIENDS_ONLY);
+
+        assertEquals(1, postService.getGeoFeedInBox(alice, 52, 53, 13, 14, null, 200).items().size());
+        assertTrue(postService.getGeoFeedInBox(bob, 52, 53, 13, 14, null, 200).items().isEmpty());
+        assertTrue(postService.getGeoFeedInBox(null, 52, 53, 13, 14, null, 200).items().isEmpty());
+    }
+
+    @Test
+    void getPostsWithinRadius_ordersByDistance() {
+        postService.createPost(alice, "Potsdam", null, 52.39, 13.06, null, Post.Visibility.PUBLIC);
+        postService.createPost(alice, "Mitte", null, 52.52, 13.40, null, Post.Visibility.PUBLIC);
+        postService.createPost(alice, "Paris", null, 48.85, 2.35, null, Post.Visibility.PUBLIC);
+
+        List<Post> near = postService.getPostsWithinRadius(bob, 52.52, 13.41, 50, 200);
+
+        assertEquals(List.of("Mitte", "Potsdam"), near.stream().map(Post::getText).toList());
+    }
+
+    @Test
+    void getNearestPosts_dropsDeletedPosts() {
+        Post mitte = postService.createPost(alice, "Mitte", null, 52.52, 13.40, null, Post.Visibility.PUBLIC);
+        postService.createPost(alice, "Paris", null, 48.85, 2.35, null, Post.Visibility.PUBLIC);
+        postService.deletePost(alice, mitte.getId());
+
+        List<Post> nearest = postService.getNearestPosts(null, 52.52, 13.41, 1);
+
+        assertEquals(1, nearest.size());
+        assertEquals("Paris", nearest.get(0).getText());
+    }
+
+    @Test
+    void getPostsWithinRadius_invalidRadius_throws400() {
+        ResponseStatusException ex = assertThrows(ResponseStatusException.class,
+                () -> postService.getPostsWithinRadius(alice, 52.52, 13.41, 0, 10));
+        assertEquals(400, ex.getStatusCode().value());
+    }
+
+    private static int markerTotal(MapTile tile) {
+        return tile.clusters().stream().mapToInt(MapTile.Cluster::count).sum();
+    }
+
+    @Test
+    void getMapTile_clustersPublicPostsAndOverlaysOwnFriendsOnlyPosts() {
+        postService.createPost(alice, "Mitte", null, 52.52, 13.40, null, Post.Visibility.PUBLIC);
+        postService.createPost(alice, "Kreuzberg", null, 52.50, 13.42, null, Post.Visibility.PUBLIC);
+        postService.createPost(alice, "Private", null, 52.51, 13.41, null, Post.Visibility.FRIENDS_ONLY);
+
+        MapTile world = postService.getMapTile(null, 0, 0, 0);
+        assertEquals(1, world.clusters().size());
+        assertEquals(2, world.clusters().get(0).count());
+        assertNull(world.clusters().get(0).postId());
+
+        assertEquals(3, markerTotal(postService.getMapTile(alice, 0, 0, 0)));
+        assertEquals(2, markerTotal(postService.getMapTile(bob, 0, 0, 0)));
+    }
+
+    @Test
+    void getMapTile_reflectsCreateAndDeleteAfterCaching() {
+        Post mitte = postService.createPost(alice, "Mitte", null, 52.52, 13.40, null, Post.Visibility.PUBLIC);
+        MapTile before = postService.getMapTile(null, 0, 0, 0);
+        assertEquals(List.of(mitte.getId()), before.clusters().stream().map(MapTile.Cluster::postId).toList());
+
+        postService.createPost(alice, "Paris", null, 48.85, 2.35, null, Post.Visibility.PUBLIC);
+        assertEquals(2, markerTotal(postService.getMapTile(null, 0, 0, 0)));
+
+        postService.deletePost(alice, mitte.getId());
+        assertEquals(1, markerTotal(postService.getMapTile(null, 0, 0, 0)));
+    }
+
+    @Test
+    void getMapTile_beyondClusterZoom_listsPostsIndividually() {
+        Post mitte = postService.createPost(alice, "Mitte", null, 52.52, 13.40, null, Post.Visibility.PUBLIC);
+        int z = 18;
+        int x = TileClusters.cellX(13.40, z) >> TileClusters.CELL_BITS;
+        int y = TileClusters.cellY(52.52, z) >> TileClusters.CELL_BITS;
+
+        MapTile tile = postService.getMapTile(null, z, x, y);
+
+        assertEquals(1, tile.clusters().size());
+        assertEquals(mitte.getId(), tile.clusters().get(0).postId());
+    }
+
+    @Test
+    void getMapTile_outsideTheMap_throws400() {
+        ResponseStatusException ex = assertThrows(ResponseStatusException.class,
+                () -> postService.getMapTile(null, 2, 4, 0));
+        assertEquals(400, ex.getStatusCode().value());
+    }
+
     // ── getReplies ────────────────────────────────────────────────────────────
 
     @Test
@@ -247,6 +600,229 @@ class PostServiceTest {
         assertTrue(postService.getReplies(parent.getId()).isEmpty());
     }
 
+    // ── reply threads ─────────────────────────────────────────────────────────
+
+    private Post reply(User author, Post parent, String text) {
+        return postService.createPost(author, text, parent.getId(), null, null, null, Post.Visibility.PUBLIC);
+    }
+
+    @Test
+    void createPost_asReply_materializesThreadPath() {
+        Post root = create(alice, "Root");
+        Post child = reply(bob, root, "Child");
+        Post grandchild = reply(alice, child, "Grandchild");
+
+        assertEquals(root.getId(), grandchild.getThreadRootId());
+        assertEquals(root.getId() + "/" + child.getId() + "/", grandchild.getThreadPath());
+        assertEquals(2, grandchild.getDepth());
+        assertEquals(1, counters.postReplies(postRepository.findById(root.getId()).orElseThrow()));
+    }
+
+    @Test
+    void getThread_returnsWholeSubtreeBreadthFirst() throws InterruptedException {
+        Post root = create(alice, "Root");
+        Post a = reply(bob, root, "A");
+        Thread.sleep(2);
+        Post b = reply(alice, root, "B");
+        Post a1 = reply(alice, a, "A1");
+        Post a1x = reply(bob, a1, "A1x");
+        reply(bob, create(alice, "Other thread"), "Elsewhere");
+
+        ThreadSlice<Post> all = postService.getThread(root.getId(), 10, 100);
+        ThreadSlice<Post> underA = postService.getThread(a.getId(), 10, 100);
+
+        assertEquals(List.of(a.getId(), b.getId(), a1.getId(), a1x.getId()),
+                all.replies().stream().map(Post::getId).toList());
+        assertFalse(all.truncated());
+        assertEquals(List.of(a1.getId(), a1x.getId()), underA.replies().stream().map(Post::getId).toList());
+    }
+
+    @Test
+    void getThread_boundsDepthAndSize() throws InterruptedException {
+        Post root = create(alice, "Root");
+        Post a = reply(bob, root, "A");
+        Thread.sleep(2);
+        reply(alice, root, "B");
+        reply(alice, a, "A1");
+
+        assertEquals(2, postService.getThread(root.getId(), 1, 100).replies().size());
+        ThreadSlice<Post> slice = postService.getThread(root.getId(), 10, 2);
+        assertEquals(List.of("A", "B"), slice.replies().stream().map(Post::getText).toList());
+        assertTrue(slice.truncated());
+    }
+
+    @Test
+    void deletePost_reply_decrementsParentReplyCount() {
+        Post root = create(alice, "Root");
+        Post child = reply(bob, root, "Child");
+
+        postService.deletePost(bob, child.getId());
+
+        assertEquals(0, counters.postReplies(postRepository.findById(root.getId()).orElseThrow()));
+    }
+
+    @Test
+    void backfillReplyThreads_threadsLegacyReplies() {
+        Post root = create(alice, "Root");
+        Post child = postRepository.save(new Post("Legacy child", bob.getId(), root.getId()));
+        Post grandchild = postRepository.save(new Post("Legacy grandchild", alice.getId(), child.getId()));
+
+        postService.backfillReplyThreads();
+
+        Post threaded = postRepository.findById(grandchild.getId()).orElseThrow();
+        assertEquals(root.getId(), threaded.getThreadRootId());
+        assertEquals(root.getId() + "/" + child.getId() + "/", threaded.getThreadPath());
+        assertEquals(2, threaded.getDepth());
+        assertEquals(2, postService.getThread(root.getId(), 10, 100).replies().size());
+    }
+
+    // ── advanced-search ranking ───────────────────────────────────────────────
+
+    // Saved directly, so the async moderation of createPost cannot overwrite the severity.
+    private Post rated(User author, String text, Integer severity, Post.Visibility visibility) {
+        Post post = new Post(text, author.getId(), null);
+        post.setModerationSeverity(severity);
+        post.setVisibility(visibility);
+        Post saved = postRepository.save(post);
+        searchIndexService.onPostCreated(saved);
+        return saved;
+    }
+
+    private static List<String> ids(SearchPage<Post> page) {
+        return page.items().stream().map(Post::getId).toList();
+    }
+
+    @Test
+    void browsePosts_sortsAndPagesInTheDatabase() {
+        Post mild = rated(alice, "Mild", 1, Post.Visibility.PUBLIC);
+        Post harsh = rated(bob, "Harsh", 3, Post.Visibility.PUBLIC);
+        rated(alice, "Unrated", null, Post.Visibility.PUBLIC);
+        rated(bob, "Friends only", 5, Post.Visibility.FRIENDS_ONLY);
+
+        SearchPage<Post> first = postService.browsePosts(alice, null, PostService.Ranking.TOXICITY, 0, 2);
+        SearchPage<Post> byBob = postService.browsePosts(alice, List.of(bob.getId()),
+                PostService.Ranking.NEWEST, 0, 10);
+
+        assertEquals(List.of(harsh.getId(), mild.getId()), ids(first));
+        assertEquals(3, first.total());
+        assertEquals(List.of(harsh.getId()), ids(byBob));
+    }
+
+    @Test
+    void rankMatchingPosts_ranksOnlyTheMatchedSet() {
+        rated(alice, "Noisy street party", 2, Post.Visibility.PUBLIC);
+        Post loud = rated(bob, "Loud street music", 3, Post.Visibility.PUBLIC);
+        rated(alice, "Quiet park", 4, Post.Visibility.PUBLIC);
+
+        SearchPage<Post> first = postService.rankMatchingPosts(alice, "street", null,
+                PostService.Ranking.TOXICITY, null, null, 0, 1);
+
+        assertEquals(List.of(loud.getId()), ids(first));
+        assertEquals(2, first.total());
+    }
+
+    @Test
+    void rankMatchingPosts_closestPutsUnlocatedPostsLast() {
+        Post far = postService.createPost(alice, "Bakery in Paris", null, 48.85, 2.35, null, Post.Visibility.PUBLIC);
+        Post none = create(alice, "Bakery somewhere");
+        Post near = postService.createPost(alice, "Bakery in Mitte", null, 52.52, 13.40, null, Post.Visibility.PUBLIC);
+
+        SearchPage<Post> page = postService.rankMatchingPosts(null, "bakery", null,
+                PostService.Ranking.CLOSEST, 52.5, 13.4, 0, 10);
+
+        assertEquals(List.of(near.getId(), far.getId(), none.getId()), ids(page));
+    }
+
+    @Test
+    void browseNearest_restrictsToAuthors() {
+        Post bobs = postService.createPost(bob, "Bob here", null, 52.52, 13.40, null, Post.Visibility.PUBLIC);
+        postService.createPost(alice, "Alice closer", null, 52.5, 13.4, null, Post.Visibility.PUBLIC);
+
+        SearchPage<Post> page = postService.browseNearest(alice, List.of(bob.getId()), 52.5, 13.4, 0, 10);
+
+        assertEquals(List.of(bobs.getId()), ids(page));
+        assertEquals(1, page.total());
+    }
+
+    @Test
+    void browseNearest_pagesOnIntoPostsWithoutLocation() {
+        Post near = postService.createPost(alice, "Mitte", null, 52.52, 13.40, null, Post.Visibility.PUBLIC);
+        Post mid = postService.createPost(alice, "Potsdam", null, 52.39, 13.06, null, Post.Visibility.PUBLIC);
+        Post far = postService.createPost(alice, "Paris", null, 48.85, 2.35, null, Post.Visibility.PUBLIC);
+        Post older = create(alice, "Somewhere");
+        Post newer = create(alice, "Somewhere else");
+
+        List<String> seen = new ArrayList<>();
+        for (int page = 0; page < 3; page++) {
+            SearchPage<Post> p = postService.browseNearest(null, null, 52.5, 13.4, page, 2);
+            assertEquals(5, p.total());
+            seen.addAll(ids(p));
+        }
+
+        // Without a location, newest first; the two may share a millisecond, so only membership is checked.
+        assertEquals(List.of(near.getId(), mid.getId(), far.getId()), seen.subList(0, 3));
+        assertEquals(Set.of(newer.getId(), older.getId()), Set.copyOf(seen.subList(3, seen.size())));
+        assertEquals(5, seen.size());
+    }
+
+    @Test
+    void browseNearest_postsWithoutLocation_followVisibility() {
+        Post open = create(bob, "Public, no location");
+        postService.createPost(bob, "Friends only, no location", null, null, null, null, Post.Visibility.FRIENDS_ONLY);
+
+        SearchPage<Post> page = postService.browseNearest(null, List.of(bob.getId()), 52.5, 13.4, 0, 10);
+
+        assertEquals(List.of(open.getId()), ids(page));
+        assertEquals(1, page.total());
+    }
+
+    // ── full-text search ──────────────────────────────────────────────────────
+
+    @Test
+    void searchPosts_ranksMatchesAndSkipsReplies() {
+        Post once = create(alice, "Coffee at the corner bakery this morning");
+        Post twice = create(alice, "Coffee, more coffee");
+        postService.createPost(alice, "coffee reply", once.getId(), null, null, null, Post.Visibility.PUBLIC);
+        create(alice, "Tea only");
+
+        SearchPage<Post> hits = postService.searchPosts(bob, "coffee", null, 0, 20);
+
+        assertEquals(List.of(twice.getId(), once.getId()), hits.items().stream().map(Post::getId).toList());
+        assertEquals(2, hits.total());
+    }
+
+    @Test
+    void searchPosts_hidesFriendsOnlyPostsFromStrangersAndAnonymous() {
+        postService.createPost(alice, "Secret picnic", null, null, null, null, Post.Visibility.FRIENDS_ONLY);
+
+        assertEquals(1, postService.searchPosts(alice, "picnic", null, 0, 20).total());
+        assertEquals(0, postService.searchPosts(bob, "picnic", null, 0, 20).total());
+        assertTrue(postService.searchPublicPosts("picnic", 0, 20).isEmpty());
+    }
+
+    @Test
+    void searchPosts_deletedPostLeavesIndex() {
+        Post post = create(alice, "Lost umbrella");
+        postService.deletePost(alice, post.getId());
+
+        assertEquals(0, postService.searchPosts(alice, "umbrella", null, 0, 20).total());
+    }
+
+    @Test
+    void searchRecentPosts_pagesNewestFirstAndFiltersByAuthor() throws InterruptedException {
+        Post first = create(alice, "Street festival");
+        Thread.sleep(2);
+        Post second = create(alice, "Festival again");
+        create(bob, "Bob at the festival");
+
+        SearchPage<Post> page = postService.searchRecentPosts(bob, "festival", List.of(alice.getId()), 1, 1);
+
+        assertEquals(List.of(first.getId()), page.items().stream().map(Post::getId).toList());
+        assertEquals(2, page.total());
+        assertEquals(second.getId(),
+                postService.searchRecentPosts(bob, "festival", List.of(alice.getId()), 0, 1).items().get(0).getId());
+    }
+
     // ── deletePost ────────────────────────────────────────────────────────────
 
     @Test
@@ -0,0 +1,78 @@
+package com.nearrish.backend.service;
+
+import com.nearrish.backend.entity.Post;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PostViewCacheTest {
+
+    private static PostViewCache.PostView view(String text, long likes) {
+        Post post = new Post();
+        post.setText(text);
+        return new PostViewCache.PostView(post, likes, 0, 0);
+    }
+
+    @Test
+    void get_loadsOnceThenHits() {
+        PostViewCache cache = new PostViewCache(1 << 20);
+        AtomicInteger loads = new AtomicInteger();
+
+        cache.get("p", id -> { loads.incrementAndGet(); return view("hello", 1); });
+        PostViewCache.PostView second = cache.get("p", id -> { loads.incrementAndGet(); return view("other", 2); });
+
+        assertEquals(1, loads.get());
+        assertEquals(1, second.likes());
+        assertEquals(1L, cache.stats().get("hits"));
+        assertEquals(1L, cache.stats().get("misses"));
+    }
+
+    @Test
+    void get_missingPost_isNotCached() {
+        PostViewCache cache = new PostViewCache(1 << 20);
+
+        assertNull(cache.get("p", id -> null));
+        assertEquals(0, cache.stats().get("entries"));
+    }
+
+    @Test
+    void invalidate_reloadsOnNextGet() {
+        PostViewCache cache = new PostViewCache(1 << 20);
+        cache.get("p", id -> view("hello", 1));
+
+        cache.invalidate("p");
+
+        assertEquals(2, cache.get("p", id -> view("hello", 2)).likes());
+    }
+
+    @Test
+    void get_loadRacingAnInvalidation_isReturnedButNotCached() {
+        PostViewCache cache = new PostViewCache(1 << 20);
+
+        PostViewCache.PostView loaded = cache.get("p", id -> {
+            cache.invalidate("p");
+            return view("stale", 1);
+        });
+
+        assertEquals(1, loaded.likes());
+        assertEquals(0, cache.stats().get("entries"));
+    }
+
+    @Test
+    void put_overByteBound_evictsLeastRecentlyUsed() {
+        // Room for two views with empty text.
+        PostViewCache cache = new PostViewCache(2 * 512);
+        cache.get("a", id -> view("", 1));
+        cache.get("b", id -> view("", 1));
+        cache.get("a", id -> view("", 9));
+
+        cache.get("c", id -> view("", 1));
+
+        assertEquals(2, cache.stats().get("entries"));
+        assertEquals(1L, cache.stats().get("evictions"));
+        assertEquals(1, cache.get("a", id -> view("", 9)).likes());
+        assertEquals(9, cache.get("b", id -> view("", 9)).likes());
+    }
+}
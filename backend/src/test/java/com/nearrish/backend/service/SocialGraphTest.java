@@ -0,0 +1,99 @@
+package com.nearrish.backend.service;
+
+import com.nearrish.backend.repository.FriendRequestRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class SocialGraphTest {
+
+    private FriendRequestRepository repository;
+    private SocialGraph graph;
+
+    @BeforeEach
+    void setUp() {
+        repository = mock(FriendRequestRepository.class);
+        graph = new SocialGraph(repository);
+    }
+
+    @Test
+    void rebuild_loadsEdgesBothWaysAndDropsDuplicates() {
+        when(repository.findAcceptedPairs()).thenReturn(List.of(
+                new Object[] {"a", "b"}, new Object[] {"b", "a"}, new Object[] {"a", "c"}, new Object[] {"d", "d"}));
+
+        graph.rebuild();
+
+        assertTrue(graph.areFriends("a", "b"));
+        assertTrue(graph.areFriends("b", "a"));
+        assertFalse(graph.areFriends("b", "c"));
+        assertEquals(2, graph.friendCount("a"));
+        assertEquals(0, graph.friendCount("d"));
+        assertEquals(List.of("a"), graph.friendsOf("b"));
+    }
+
+    @Test
+    void friendAndSelfIds_startsWithTheUser() {
+        graph.onFriendshipAccepted("a", "b");
+
+        assertEquals(List.of("a", "b"), graph.friendAndSelfIds("a"));
+        assertEquals(List.of("stranger"), graph.friendAndSelfIds("stranger"));
+    }
+
+    @Test
+    void mutualFriends_intersectsBothLists() {
+        graph.onFriendshipAccepted("a", "x");
+        graph.onFriendshipAccepted("a", "y");
+        graph.onFriendshipAccepted("a", "z");
+        graph.onFriendshipAccepted("b", "y");
+        graph.onFriendshipAccepted("b", "z");
+        graph.onFriendshipAccepted("b", "w");
+
+        assertEquals(List.of("y", "z"), graph.mutualFriends("a", "b"));
+        assertEquals(2, graph.mutualFriendCount("b", "a"));
+        assertEquals(0, graph.mutualFriendCount("a", "nobody"));
+    }
+
+    @Test
+    void onFriendshipRemoved_dropsTheEdgeOnly() {
+        graph.onFriendshipAccepted("a", "b");
+        graph.onFriendshipAccepted("a", "c");
+
+        graph.onFriendshipRemoved("b", "a");
+
+        assertFalse(graph.areFriends("a", "b"));
+        assertEquals(List.of("c"), graph.friendsOf("a"));
+        assertTrue(graph.friendsOf("b").isEmpty());
+    }
+
+    @Test
+    void onUserRemoved_detachesFromEveryFriend() {
+        graph.onFriendshipAccepted("a", "b");
+        graph.onFriendshipAccepted("c", "b");
+
+        graph.onUserRemoved("b");
+
+        assertTrue(graph.friendsOf("a").isEmpty());
+        assertTrue(graph.friendsOf("c").isEmpty());
+        assertFalse(graph.areFriends("a", "b"));
+    }
+
+    @Test
+    void growsPastInitialCapacity() {
+        for (int i = 0; i < 200; i++) graph.onFriendshipAccepted("hub", "u" + i);
+
+        assertEquals(200, graph.friendCount("hub"));
+        assertTrue(graph.areFriends("u150", "hub"));
+    }
+
+    @Test
+    void sortedArrayHelpers() {
+        assertArrayEquals(new int[] {1, 3, 5}, SocialGraph.insert(new int[] {1, 5}, 3));
+        assertArrayEquals(new int[] {1, 5}, SocialGraph.insert(new int[] {1, 5}, 5));
+        assertArrayEquals(new int[] {5}, SocialGraph.delete(new int[] {1, 5}, 1));
+        assertArrayEquals(new int[] {2, 4}, SocialGraph.intersect(new int[] {1, 2, 4, 7}, new int[] {2, 3, 4}));
+    }
+}
@@ -0,0 +1,131 @@
+package com.nearrish.backend.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.function.Predicate;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TextIndexTest {
+
+    private static final Predicate<TextIndex.Doc> ALL = d -> true;
+
+    private static TextIndex.Doc doc(String id, long ts) {
+        return new TextIndex.Doc(id, "author", null, "author", ts, true);
+    }
+
+    private static List<String> ids(TextIndex.Result r) {
+        return r.hits().stream().map(h -> h.doc().id()).toList();
+    }
+
+    @Test
+    void tokenize_foldsCaseAndAccentsAndStems() {
+        assertEquals(List.of("cafe", "park", "run", "berlin"), TextIndex.tokenize("Café PARKS, running... Berlin!"));
+    }
+
+    @Test
+    void stem_keepsShortWordsAndDoubledEndings() {
+        assertEquals("bus", TextIndex.stem("bus"));
+        assertEquals("class", TextIndex.stem("class"));
+        assertEquals("fall", TextIndex.stem("falling"));
+        assertEquals("stop", TextIndex.stem("stopped"));
+        assertEquals("speed", TextIndex.stem("speed"));
+        assertEquals("city", TextIndex.stem("cities"));
+    }
+
+    @Test
+    void search_requiresEveryTerm() {
+        TextIndex index = new TextIndex();
+        index.put(doc("both", 1), "sunny day in the park");
+        index.put(doc("park-only", 2), "the park is closed");
+        index.put(doc("sun-only", 3), "sunny again");
+
+        assertEquals(List.of("both"), ids(index.search("park sunny", ALL, TextIndex.Order.RELEVANCE, 0, 10)));
+    }
+
+    @Test
+    void search_ranksByTermFrequencyAndRarity() {
+        TextIndex index = new TextIndex();
+        index.put(doc("once", 1), "coffee and cake at the market today");
+        index.put(doc("twice", 2), "coffee coffee");
+        index.put(doc("none", 3), "market today");
+
+        assertEquals(List.of("twice", "once"), ids(index.search("coffee", ALL, TextIndex.Order.RELEVANCE, 0, 10)));
+    }
+
+    @Test
+    void search_newestOrderAndPaging() {
+        TextIndex index = new TextIndex();
+        for (int i = 0; i < 5; i++) index.put(doc("p" + i, i), "street festival");
+
+        TextIndex.Result first = index.search("festival", ALL, TextIndex.Order.NEWEST, 0, 2);
+        TextIndex.Result second = index.search("festival", ALL, TextIndex.Order.NEWEST, 2, 2);
+        TextIndex.Result past = index.search("festival", ALL, TextIndex.Order.NEWEST, 10, 2);
+
+        assertEquals(List.of("p4", "p3"), ids(first));
+        assertEquals(List.of("p2", "p1"), ids(second));
+        assertTrue(past.hits().isEmpty());
+        assertEquals(5, first.total());
+        assertEquals(5, past.total());
+    }
+
+    @Test
+    void search_lastTermMatchesAsPrefix() {
+        TextIndex index = new TextIndex();
+        index.put(doc("market", 1), "farmers market on saturday");
+        index.put(doc("marathon", 2), "city marathon");
+
+        assertEquals(List.of("market"), ids(index.search("farmers mark", ALL, TextIndex.Order.RELEVANCE, 0, 10)));
+        assertEquals(2, index.search("mar", ALL, TextIndex.Order.RELEVANCE, 0, 10).total());
+        assertEquals(0, index.search("mark farmers", ALL, TextIndex.Order.RELEVANCE, 0, 10).total());
+    }
+
+    @Test
+    void search_appliesVisibilityBeforeCounting() {
+        TextIndex index = new TextIndex();
+        index.put(doc("public", 1), "picnic");
+        index.put(new TextIndex.Doc("private", "bob", null, "bob", 2, false), "picnic");
+
+        TextIndex.Result r = index.search("picnic", TextIndex.Doc::isPublic, TextIndex.Order.RELEVANCE, 0, 10);
+
+        assertEquals(List.of("public"), ids(r));
+        assertEquals(1, r.total());
+    }
+
+    @Test
+    void put_replacesAndRemoveDropsPostings() {
+        TextIndex index = new TextIndex();
+        index.put(doc("a", 1), "old text");
+        index.put(doc("a", 1), "new text");
+
+        assertEquals(0, index.search("old", ALL, TextIndex.Order.RELEVANCE, 0, 10).total());
+        assertEquals(1, index.search("new", ALL, TextIndex.Order.RELEVANCE, 0, 10).total());
+
+        assertNotNull(index.remove("a"));
+        assertNull(index.remove("a"));
+        assertEquals(0, index.size());
+        assertEquals(0, index.search("text", ALL, TextIndex.Order.RELEVANCE, 0, 10).total());
+    }
+
+    @Test
+    void removeChildren_dropsOnlyThatParentsDocuments() {
+        TextIndex index = new TextIndex();
+        index.put(new TextIndex.Doc("c1", "a", "post-1", "a", 1, true), "nice photo");
+        index.put(new TextIndex.Doc("c2", "b", "post-1", "a", 2, true), "great photo");
+        index.put(new TextIndex.Doc("c3", "b", "post-2", "a", 3, true), "photo");
+
+        assertEquals(2, index.removeChildren("post-1"));
+        assertEquals(List.of("c3"), ids(index.search("photo", ALL, TextIndex.Order.RELEVANCE, 0, 10)));
+    }
+
+    @Test
+    void search_blankOrUnknownQuery_isEmpty() {
+        TextIndex index = new TextIndex();
+        index.put(doc("a", 1), "hello world");
+
+        assertEquals(0, index.search("  ", ALL, TextIndex.Order.RELEVANCE, 0, 10).total());
+        assertEquals(0, index.search("?!", ALL, TextIndex.Order.RELEVANCE, 0, 10).total());
+        assertEquals(0, index.search("hello nowhere", ALL, TextIndex.Order.RELEVANCE, 0, 10).total());
+    }
+}
@@ -0,0 +1,74 @@
+package com.nearrish.backend.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TileClustersTest {
+
+    private static int total(List<TileClusters.CellSum> cells) {
+        return cells.stream().mapToInt(TileClusters.CellSum::count).sum();
+    }
+
+    @Test
+    void everyZoomCountsEachPointOnce() {
+        TileClusters clusters = new TileClusters();
+        clusters.add(52.52, 13.40);
+        clusters.add(52.50, 13.42);
+        clusters.add(-33.87, 151.21);
+
+        assertEquals(3, total(clusters.tileCells(0, 0, 0)));
+        for (int z = 1; z <= TileClusters.MAX_CLUSTER_ZOOM; z++) {
+            int x = TileClusters.cellX(13.40, z) >> TileClusters.CELL_BITS;
+            int y = TileClusters.cellY(52.52, z) >> TileClusters.CELL_BITS;
+            int berlin = total(clusters.tileCells(z, x, y));
+            assertTrue(berlin >= 1 && berlin <= 2, "zoom " + z);
+        }
+    }
+
+    @Test
+    void nearbyPointsMergeAtLowZoomAndSplitAtHighZoom() {
+        TileClusters clusters = new TileClusters();
+        clusters.add(52.52, 13.40);
+        clusters.add(52.50, 13.42);
+
+        assertEquals(1, clusters.tileCells(0, 0, 0).size());
+        int z = TileClusters.MAX_CLUSTER_ZOOM;
+        int x = TileClusters.cellX(13.40, z) >> TileClusters.CELL_BITS;
+        int y = TileClusters.cellY(52.52, z) >> TileClusters.CELL_BITS;
+        assertEquals(List.of(1), clusters.tileCells(z, x, y).stream().map(TileClusters.CellSum::count).toList());
+    }
+
+    @Test
+    void centroidIsTheMeanOfTheCellsPoints() {
+        TileClusters clusters = new TileClusters();
+        clusters.add(52.0, 13.0);
+        clusters.add(53.0, 14.0);
+
+        TileClusters.CellSum cell = clusters.tileCells(0, 0, 0).get(0);
+        assertEquals(52.5, cell.latSum() / cell.count(), 1e-9);
+        assertEquals(13.5, cell.lngSum() / cell.count(), 1e-9);
+    }
+
+    @Test
+    void removeDropsEmptyCells() {
+        TileClusters clusters = new TileClusters();
+        clusters.add(52.52, 13.40);
+        clusters.remove(52.52, 13.40);
+
+        assertTrue(clusters.tileCells(0, 0, 0).isEmpty());
+    }
+
+    @Test
+    void tileBoundsContainTheirCells() {
+        int z = 10;
+        int x = TileClusters.cellX(13.40, z) >> TileClusters.CELL_BITS;
+        int y = TileClusters.cellY(52.52, z) >> TileClusters.CELL_BITS;
+        double[] b = TileClusters.tileBounds(z, x, y);
+
+        assertTrue(52.52 >= b[0] && 52.52 <= b[1]);
+        assertTrue(13.40 >= b[2] && 13.40 <= b[3]);
+    }
+}
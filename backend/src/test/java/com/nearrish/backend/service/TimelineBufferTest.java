@@ -0,0 +1,98 @@
+package com.nearrish.backend.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TimelineBufferTest {
+
+    private static List<String> ids(List<TimelineBuffer.Entry> entries) {
+        return entries.stream().map(TimelineBuffer.Entry::postId).toList();
+    }
+
+    @Test
+    void insert_keepsNewestFirstRegardlessOfArrivalOrder() {
+        TimelineBuffer buffer = new TimelineBuffer(10);
+        buffer.insert("b", 200);
+        buffer.insert("a", 100);
+        buffer.insert("c", 300);
+
+        assertEquals(List.of("c", "b", "a"), ids(buffer.entries()));
+    }
+
+    @Test
+    void insert_sameTimestamp_ordersByIdDescending() {
+        TimelineBuffer buffer = new TimelineBuffer(10);
+        buffer.insert("a", 100);
+        buffer.insert("c", 100);
+        buffer.insert("b", 100);
+
+        assertEquals(List.of("c", "b", "a"), ids(buffer.entries()));
+    }
+
+    @Test
+    void insert_duplicate_isIgnored() {
+        TimelineBuffer buffer = new TimelineBuffer(10);
+        buffer.insert("a", 100);
+        buffer.insert("a", 100);
+
+        assertEquals(1, buffer.size());
+    }
+
+    @Test
+    void insert_whenFull_evictsOldestAndMarksIncomplete() {
+        TimelineBuffer buffer = new TimelineBuffer(3);
+        for (int i = 1; i <= 4; i++) buffer.insert("p" + i, i);
+
+        assertEquals(List.of("p4", "p3", "p2"), ids(buffer.entries()));
+        assertFalse(buffer.isComplete());
+    }
+
+    @Test
+    void remove_dropsEntry() {
+        TimelineBuffer buffer = new TimelineBuffer(5);
+        buffer.insert("a", 1);
+        buffer.insert("b", 2);
+        buffer.insert("c", 3);
+
+        assertTrue(buffer.remove("b"));
+        assertFalse(buffer.remove("missing"));
+        assertEquals(List.of("c", "a"), ids(buffer.entries()));
+    }
+
+    @Test
+    void readAfter_startsStrictlyAfterCursor() {
+        TimelineBuffer buffer = new TimelineBuffer(5);
+        for (int i = 1; i <= 5; i++) buffer.insert("p" + i, i);
+
+        TimelineBuffer.Slice slice = buffer.readAfter(new FeedCursor(4, "p4"), 2);
+
+        assertEquals(List.of("p3", "p2"), ids(slice.entries()));
+        assertFalse(slice.truncated());
+    }
+
+    @Test
+    void readAfter_pastEndOfIncompleteBuffer_isTruncated() {
+        TimelineBuffer buffer = new TimelineBuffer(2);
+        for (int i = 1; i <= 3; i++) buffer.insert("p" + i, i);
+
+        TimelineBuffer.Slice slice = buffer.readAfter(FeedCursor.START, 5);
+
+        assertEquals(2, slice.entries().size());
+        assertTrue(slice.truncated());
+    }
+
+    @Test
+    void seedIfNeeded_mergesWithConcurrentInserts() {
+        TimelineBuffer buffer = new TimelineBuffer(5);
+        buffer.insert("new", 10);
+
+        buffer.seedIfNeeded(() -> List.of(new TimelineBuffer.Entry("new", 10), new TimelineBuffer.Entry("old", 1)));
+        buffer.seedIfNeeded(() -> { throw new AssertionError("seeded twice"); });
+
+        assertEquals(List.of("new", "old"), ids(buffer.entries()));
+        assertTrue(buffer.isComplete());
+    }
+}
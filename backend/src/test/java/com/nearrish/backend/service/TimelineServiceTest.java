@@ -0,0 +1,115 @@
+package com.nearrish.backend.service;
+
+import com.nearrish.backend.repository.FriendRequestRepository;
+import com.nearrish.backend.repository.PostRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+class TimelineServiceTest {
+
+    @TempDir
+    Path dir;
+
+    private final PostRepository postRepository = mock(PostRepository.class);
+    private final FriendRequestRepository friendRequestRepository = mock(FriendRequestRepository.class);
+    private final SocialGraph socialGraph = mock(SocialGraph.class);
+    private Path snapshot;
+
+    @BeforeEach
+    void setUp() {
+        snapshot = dir.resolve("timelines.bin");
+        when(socialGraph.friendAndSelfIds(any())).thenAnswer(inv -> List.of((String) inv.getArgument(0)));
+        when(postRepository.findTimelineSeed(anyList(), any()))
+                .thenReturn(List.<Object[]>of(new Object[]{"p1", 100L}));
+        friends(new Object[]{"alice", "bob"});
+    }
+
+    private void friends(Object[]... pairs) {
+        when(friendRequestRepository.findAcceptedPairs()).thenReturn(List.of(pairs));
+    }
+
+    private TimelineService service(int maxUsers) {
+        return new TimelineService(postRepository, friendRequestRepository, socialGraph, snapshot.toString(), maxUsers);
+    }
+
+    private TimelineService savedAndRestarted() {
+        TimelineService before = service(100);
+        before.readHome("alice", FeedCursor.START, 20);
+        before.saveSnapshot();
+        clearInvocations(postRepository);
+        return service(100);
+    }
+
+    @Test
+    void loadSnapshot_restoresTimelinesAndDeletesTheFile() {
+        TimelineService after = savedAndRestarted();
+
+        after.loadSnapshot();
+
+        assertFalse(Files.exists(snapshot));
+        assertEquals(1, after.residentUsers());
+        assertEquals("p1", after.readHome("alice", FeedCursor.START, 20).orElseThrow().get(0).postId());
+        verify(postRepository, never()).findTimelineSeed(anyList(), any());
+    }
+
+    @Test
+    void loadSnapshot_friendshipsChangedSinceSave_discardsIt() {
+        TimelineService after = savedAndRestarted();
+        friends();   // alice and bob unfriended by a run that never saved
+
+        after.loadSnapshot();
+
+        assertFalse(Files.exists(snapshot));
+        assertEquals(0, after.residentUsers());
+    }
+
+    @Test
+    void loadSnapshot_newerPosts_discardsIt() {
+        TimelineService after = savedAndRestarted();
+        when(postRepository.existsByTimestampGreaterThan(anyLong())).thenReturn(true);
+
+        after.loadSnapshot();
+
+        assertFalse(Files.exists(snapshot));
+        assertEquals(0, after.residentUsers());
+    }
+
+    @Test
+    void friendshipMarker_ignoresRowOrderAndDirection() {
+        TimelineService service = service(100);
+        friends(new Object[]{"alice", "bob"}, new Object[]{"carol", "dave"});
+        long marker = service.friendshipMarker();
+
+        friends(new Object[]{"dave", "carol"}, new Object[]{"bob", "alice"});
+        assertEquals(marker, service.friendshipMarker());
+
+        friends(new Object[]{"alice", "bob"}, new Object[]{"carol", "erin"});
+        assertNotEquals(marker, service.friendshipMarker());
+    }
+
+    @Test
+    void readHome_beyondMaxUsers_evictsLeastRecentlyRead() {
+        TimelineService service = service(2);
+        service.readHome("alice", FeedCursor.START, 20);
+        service.readHome("bob", FeedCursor.START, 20);
+        service.readHome("alice", FeedCursor.START, 20);
+        service.readHome("carol", FeedCursor.START, 20);
+        clearInvocations(postRepository);
+
+        assertEquals(2, service.residentUsers());
+        service.readHome("alice", FeedCursor.START, 20);
+        verify(postRepository, never()).findTimelineSeed(anyList(), any());
+        service.readHome("bob", FeedCursor.START, 20);
+        verify(postRepository).findTimelineSeed(eq(List.of("bob")), any());
+    }
+}
@@ -0,0 +1,114 @@
+package com.nearrish.backend.service;
+
+import com.nearrish.backend.repository.ConversationReadStateRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class UnreadCountersTest {
+
+    private final ConversationReadStateRepository repository = mock(ConversationReadStateRepository.class);
+    private UnreadCounters counters;
+
+    @BeforeEach
+    void setUp() {
+        counters = new UnreadCounters(repository, 100);
+        persisted(0);
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void loadBetweenCommitAndAfterCommit_isNotCountedTwice() {
+        TransactionSynchronizationManager.initSynchronization();
+        counters.onMessage("c1", List.of("bob"));
+        List<TransactionSynchronization> commit = takeSynchronizations();
+
+        // The +1 is committed, a badge request loads it, and only then does afterCommit run
+        persisted(1);
+        assertEquals(1, counters.total("bob"));
+        commit.forEach(s -> s.afterCompletion(TransactionSynchronization.STATUS_COMMITTED));
+
+        assertEquals(1, counters.total("bob"));
+    }
+
+    @Test
+    void cachedCounts_moveOnCommitAndNotOnRollback() {
+        persisted(2);
+        assertEquals(2, counters.total("bob"));
+
+        TransactionSynchronizationManager.initSynchronization();
+        counters.onMessage("c1", List.of("bob"));
+        takeSynchronizations().forEach(s -> s.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+        assertEquals(2, counters.total("bob"));
+
+        TransactionSynchronizationManager.initSynchronization();
+        counters.onRead("bob", "c1");
+        takeSynchronizations().forEach(s -> s.afterCompletion(TransactionSynchronization.STATUS_COMMITTED));
+        assertEquals(0, counters.total("bob"));
+    }
+
+    @Test
+    void loadWhileChangePending_isServedButNotCached() {
+        TransactionSynchronizationManager.initSynchronization();
+        counters.onMessage("c1", List.of("bob"));
+        List<TransactionSynchronization> commit = takeSynchronizations();
+
+        counters.total("bob");
+        assertEquals(0, counters.size());
+
+        commit.forEach(s -> s.afterCompletion(TransactionSynchronization.STATUS_COMMITTED));
+        persisted(1);
+        assertEquals(1, counters.total("bob"));
+        assertEquals(1, counters.size());
+    }
+
+    @Test
+    void otherUsersTraffic_duringLoad_doesNotPreventCaching() {
+        when(repository.findUnreadRows("bob")).thenAnswer(inv -> {
+            counters.onMessage("c2", List.of("alice"));
+            counters.onRead("carol", "c3");
+            return List.<Object[]>of(new Object[]{"c1", 1});
+        });
+
+        assertEquals(1, counters.total("bob"));
+        assertEquals(1, counters.size());
+    }
+
+    @Test
+    void changeStartedAndCompletedDuringLoad_isNotCached() {
+        when(repository.findUnreadRows("bob")).thenAnswer(inv -> {
+            counters.onMessage("c1", List.of("bob"));
+            return List.<Object[]>of();
+        });
+
+        assertEquals(0, counters.total("bob"));
+        assertEquals(0, counters.size());
+    }
+
+    private void persisted(int unread) {
+        List<Object[]> rows = new ArrayList<>();
+        if (unread > 0) rows.add(new Object[]{"c1", unread});
+        when(repository.findUnreadRows("bob")).thenReturn(rows);
+    }
+
+    private static List<TransactionSynchronization> takeSynchronizations() {
+        List<TransactionSynchronization> registered = TransactionSynchronizationManager.getSynchronizations();
+        TransactionSynchronizationManager.clearSynchronization();
+        return registered;
+    }
+}
@@ -0,0 +1,105 @@
+package com.nearrish.backend.service;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.http.HttpStatus;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class UploadStoreTest {
+
+    // SHA-256 of "hello"
+    private static final String HELLO = "2cf24dba5fb0a30e26e83b2ac5b9e29e1b161e5c1fa7425e73043362938b9824";
+
+    @TempDir
+    Path dir;
+
+    private UploadStore.Stored store(UploadStore store, String content, String name) throws IOException {
+        return store.store(new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8)), name);
+    }
+
+    @Test
+    void store_namesFileByHashShardedByPrefix() throws IOException {
+        UploadStore store = new UploadStore(dir.toString(), 100, DataSize.ofMegabytes(1));
+
+        UploadStore.Stored stored = store(store, "hello", "photo.PNG");
+
+        assertEquals(HELLO, stored.sha256());
+        assertEquals("2c/f2/" + HELLO + ".png", stored.path());
+        assertEquals("/uploads/2c/f2/" + HELLO + ".png", stored.url());
+        assertEquals(5, stored.size());
+        assertFalse(stored.deduplicated());
+        assertEquals("hello", Files.readString(dir.resolve(stored.path())));
+    }
+
+    @Test
+    void store_sameBytesTwice_storesOnce() throws IOException {
+        UploadStore store = new UploadStore(dir.toString(), 100, DataSize.ofMegabytes(1));
+
+        UploadStore.Stored first = store(store, "hello", "a.png");
+        UploadStore.Stored second = store(store, "hello", "b.png");
+
+        assertEquals(first.url(), second.url());
+        assertTrue(second.deduplicated());
+        try (Stream<Path> files = Files.list(dir.resolve(".tmp"))) {
+            assertEquals(0, files.count());
+        }
+    }
+
+    @Test
+    void store_sameImageUnderDifferentNames_storesOnce() throws IOException {
+        UploadStore store = new UploadStore(dir.toString(), 100, DataSize.ofMegabytes(1));
+        byte[] jpeg = {(byte) 0xFF, (byte) 0xD8, (byte) 0xFF, (byte) 0xE0, 0, 16, 'J', 'F', 'I', 'F', 0};
+
+        UploadStore.Stored first = store.store(new ByteArrayInputStream(jpeg), "a.jpeg");
+        UploadStore.Stored second = store.store(new ByteArrayInputStream(jpeg), "b.JPG");
+        UploadStore.Stored third = store.store(new ByteArrayInputStream(jpeg), "upload.png");
+
+        assertTrue(first.path().endsWith(".jpg"));
+        assertEquals(first.path(), second.path());
+        assertEquals(first.path(), third.path());
+        assertTrue(second.deduplicated());
+        assertTrue(third.deduplicated());
+    }
+
+    @Test
+    void store_overSizeLimit_rejectsAndLeavesNothingBehind() throws IOException {
+        UploadStore store = new UploadStore(dir.toString(), 100, DataSize.ofBytes(4));
+
+        ResponseStatusException e = assertThrows(ResponseStatusException.class,
+                () -> store(store, "hello", "a.png"));
+
+        assertEquals(HttpStatus.CONTENT_TOO_LARGE, e.getStatusCode());
+        try (Stream<Path> files = Files.walk(dir)) {
+            assertEquals(0, files.filter(Files::isRegularFile).count());
+        }
+    }
+
+    @Test
+    void sniffExtension_recognisesImageSignatures() {
+        assertEquals(".png", UploadStore.sniffExtension(new byte[]{(byte) 0x89, 'P', 'N', 'G', 0x0D, 0x0A, 0x1A, 0x0A}));
+        assertEquals(".gif", UploadStore.sniffExtension("GIF89a".getBytes(StandardCharsets.US_ASCII)));
+        assertEquals(".webp", UploadStore.sniffExtension("RIFF\0\0\0\0WEBPVP8 ".getBytes(StandardCharsets.US_ASCII)));
+        assertNull(UploadStore.sniffExtension("hello".getBytes(StandardCharsets.US_ASCII)));
+        assertNull(UploadStore.sniffExtension(new byte[0]));
+    }
+
+    @Test
+    void extension_keepsOnlyShortAlphanumericSuffix() {
+        assertEquals(".jpg", UploadStore.extension("me.JPG"));
+        assertEquals(".jpg", UploadStore.extension("me.jpeg"));
+        assertEquals("", UploadStore.extension("noext"));
+        assertEquals("", UploadStore.extension(null));
+        assertEquals("", UploadStore.extension("x.svg+xml"));
+        assertEquals("", UploadStore.extension("../../etc/passwd."));
+    }
+}
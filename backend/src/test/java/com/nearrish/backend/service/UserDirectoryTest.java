@@ -0,0 +1,100 @@
+package com.nearrish.backend.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class UserDirectoryTest {
+
+    private UserDirectory directory;
+
+    @BeforeEach
+    void setUp() {
+        directory = new UserDirectory();
+        directory.put(new UserSummary("1", "alice", "Alice Smith", "ali", null));
+        directory.put(new UserSummary("2", "alicia", "Alicia Keys", null, null));
+        directory.put(new UserSummary("3", "bob", "Bob Malice", "bobby", null));
+        directory.put(new UserSummary("4", "zoe", "Zoë Lane", null, null));
+    }
+
+    private static List<String> ids(UserDirectory.Result r) {
+        return r.users().stream().map(UserSummary::id).toList();
+    }
+
+    @Test
+    void search_ranksPrefixAboveInfix() {
+        UserDirectory.Result r = directory.search("ali", null, null, 0, 10);
+
+        assertEquals(List.of("1", "2", "3"), ids(r));
+        assertEquals(3, r.total());
+    }
+
+    @Test
+    void search_exactUsernameFirst() {
+        directory.put(new UserSummary("5", "alic", "Someone", null, null));
+
+        assertEquals(List.of("5", "1", "2", "3"), ids(directory.search("alic", null, null, 0, 10)));
+    }
+
+    @Test
+    void search_matchesWordsOfNamesAndFoldsAccents() {
+        assertEquals(List.of("1"), ids(directory.search("smi", null, null, 0, 10)));
+        assertEquals(List.of("4"), ids(directory.search("ZOE", null, null, 0, 10)));
+        assertEquals(List.of("4"), ids(directory.search("lane", null, null, 0, 10)));
+    }
+
+    @Test
+    void search_findsInfixesThroughTrigrams() {
+        assertEquals(List.of("1", "3"), ids(directory.search("lice", null, null, 0, 10)));
+    }
+
+    @Test
+    void search_boostsFriendsAmongEqualMatches() {
+        assertEquals(List.of("1", "2", "3"), ids(directory.search("alic", null, null, 0, 10)));
+        assertEquals(List.of("2", "1", "3"), ids(directory.search("alic", Set.of("2"), null, 0, 10)));
+    }
+
+    @Test
+    void search_restrictedToGivenUsers() {
+        UserDirectory.Result r = directory.search("ali", null, Set.of("2", "3"), 0, 10);
+
+        assertEquals(List.of("2", "3"), ids(r));
+        assertEquals(2, r.total());
+    }
+
+    @Test
+    void search_pagesWithOffset() {
+        UserDirectory.Result r = directory.search("ali", null, null, 1, 1);
+
+        assertEquals(List.of("2"), ids(r));
+        assertEquals(3, r.total());
+    }
+
+    @Test
+    void list_isAlphabeticalAndPaged() {
+        assertEquals(List.of("2", "3"), ids(directory.list(null, 1, 2)));
+        assertEquals(4, directory.list(null, 1, 2).total());
+        assertEquals(List.of("3", "4"), ids(directory.list(List.of("4", "3"), 0, 10)));
+    }
+
+    @Test
+    void put_replacesOldNames() {
+        directory.put(new UserSummary("1", "alice", "Anna", null, null));
+
+        assertTrue(directory.search("smith", null, null, 0, 10).users().isEmpty());
+        assertEquals(List.of("1"), ids(directory.search("anna", null, null, 0, 10)));
+    }
+
+    @Test
+    void remove_dropsUserFromEveryIndex() {
+        assertNotNull(directory.remove("2"));
+
+        assertEquals(List.of("1", "3"), ids(directory.search("alic", null, null, 0, 10)));
+        assertEquals(List.of("1", "3", "4"), ids(directory.list(null, 0, 10)));
+        assertEquals(3, directory.size());
+    }
+}
@@ -70,11 +70,11 @@ export default function BottomNav() {
   const [unreadMsgs, setUnreadMsgs] = useState(0);
   const { subscribe } = useWs();
 
-  // Initialize unread count from conversations (single endpoint returns DMs + groups)
+  // Initialize unread count from the per-user total (DMs + groups)
   useEffect(() => {
     if (!isLoggedIn) { setUnreadMsgs(0); return; }
-    apiFetch<{ unreadCount?: number }[]>('/api/chat/conversations')
-      .then(convs => setUnreadMsgs(convs.reduce((s, c) => s + (c.unreadCount || 0), 0)))
+    apiFetch<{ total: number }>('/api/chat/unread')
+      .then(u => setUnreadMsgs(u.total))
       .catch(() => {});
   }, [isLoggedIn]);
 
@@ -93,6 +93,15 @@ export default function BottomNav() {
     const unsub = subscribe('chat', (payload) => {
       const msgId = (payload as { messageId?: string }).messageId ?? '';
       if (msgId.startsWith('READ:') || msgId.startsWith('REMOVED:')) return;
+      if (msgId.startsWith('UNREAD:')) {
+        // Unread delta, e.g. "UNREAD:convId:-3" after reading in another tab.
+        // The tab reading that conversation skipped its increments and refetches on messagesRead.
+        const sep = msgId.lastIndexOf(':');
+        if (msgId.substring('UNREAD:'.length, sep) === activeConvIdRef.current) return;
+        const delta = Number(msgId.substring(sep + 1)) || 0;
+        setUnreadMsgs(prev => Math.max(0, prev + delta));
+        return;
+      }
       // New message — payload format: "convId:msgId"
       const colonIdx = msgId.indexOf(':');
       const incomingConvId = colonIdx > 0 ? msgId.substring(0, colonIdx) : null;
@@ -104,8 +113,8 @@ export default function BottomNav() {
 
   useEffect(() => {
     const onRead = () => {
-      apiFetch<{ unreadCount?: number }[]>('/api/chat/conversations')
-        .then(convs => setUnreadMsgs(convs.reduce((s, c) => s + (c.unreadCount || 0), 0)))
+      apiFetch<{ total: number }>('/api/chat/unread')
+        .then(u => setUnreadMsgs(u.total))
         .catch(() => setUnreadMsgs(0));
     };
     window.addEventListener('messagesRead', onRead);
@@ -3,7 +3,7 @@ import { useState, useEffect, useRef } from "react";
 import Link from "next/link";
 import { useRouter } from "next/navigation";
 import styles from "./SearchModal.module.css";
-import { apiFetch, API_BASE } from "../lib/api";
+import { apiFetch, uploadUrl } from "../lib/api";
 import { DS } from "../lib/tokens";
 
 type GlobalSearchModalProps = {
@@ -144,7 +144,7 @@ export default function GlobalSearchModal({ open, onClose }: GlobalSearchModalPr
                   display: 'flex', alignItems: 'center', justifyContent: 'center',
                 }}>
                   {u.avatarUrl
-                    ? <img src={`${API_BASE}${u.avatarUrl}`} alt="" style={{ width: '100%', height: '100%', objectFit: 'cover' }} />
+                    ? <img src={uploadUrl(u.avatarUrl, 's')} alt="" style={{ width: '100%', height: '100%', objectFit: 'cover' }} />
                     : <span style={{ color: DS.primary, fontWeight: 700, fontSize: 13 }}>{u.username?.[0]?.toUpperCase()}</span>
                   }
                 </div>
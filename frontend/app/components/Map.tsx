@@ -4,7 +4,7 @@ import { MapContainer, TileLayer, Marker, Popup, useMap, CircleMarker } from 're
 import L from 'leaflet';
 import { useEffect, useRef, useCallback, useState } from 'react'
 import MiniPostCard from './MiniPostCard'
-import { apiFetch, API_BASE } from '../lib/api'
+import { apiFetch, uploadUrl } from '../lib/api'
 import { DS } from '../lib/tokens'
 
 import 'leaflet/dist/leaflet.css'
@@ -50,7 +50,7 @@ function createPostIcon(avatarUrl: string | null, username: string, isSelected:
 
   const letter = username ? username[0].toUpperCase() : '?';
   const innerContent = avatarUrl
-    ? `<img src="${API_BASE}${avatarUrl}" style="width:100%;height:100%;object-fit:cover;display:block;" />`
+    ? `<img src="${uploadUrl(avatarUrl, 's')}" style="width:100%;height:100%;object-fit:cover;display:block;" />`
     : `<span style="color:#fff;font-weight:700;font-size:${Math.round(size * 0.45)}px;font-family:inherit;">${letter}</span>`;
 
   const html = `<div style="
@@ -1,7 +1,7 @@
 'use client';
 
 import { useEffect, useState } from 'react';
-import { apiFetch, API_BASE } from '../lib/api';
+import { apiFetch, uploadUrl } from '../lib/api';
 import { DS } from '../lib/tokens';
 
 type MiniPostCardProps = {
@@ -37,7 +37,7 @@ function Avatar({ name, avatarUrl }: { name: string; avatarUrl: string | null })
     }}>
       {avatarUrl
         ? <img
-            src={`${API_BASE}${avatarUrl}`}
+            src={uploadUrl(avatarUrl, 's')}
             alt={name}
             style={{ width: '100%', height: '100%', objectFit: 'cover', display: 'block' }}
           />
@@ -88,7 +88,7 @@ export default function MiniPostCard({ post }: MiniPostCardProps) {
       {/* Image thumbnail */}
       {post.imageUrl && (
         <img
-          src={`${API_BASE}${post.imageUrl}`}
+          src={uploadUrl(post.imageUrl, 'm')}
           alt="Post image"
           style={{
             width: '100%',
@@ -4,7 +4,7 @@ import { useState, useEffect, useRef, useCallback } from "react";
 import { usePathname } from "next/navigation";
 import { useAuth } from "../lib/auth-context";
 import { useWs } from "../lib/ws-context";
-import { apiFetch, API_BASE } from "../lib/api";
+import { apiFetch, uploadUrl } from "../lib/api";
 import styles from "./Navbar.module.css";
 import Link from "next/link";
 import GlobalSearchModal from "./GlobalSearchModal";
@@ -54,11 +54,11 @@ export default function Navbar() {
     useEffect(() => {
         if (!isLoggedIn) { setUserAvatar(null); setUnreadMsgs(0); return; }
         apiFetch<{ avatarUrl?: string | null }>('/api/users/me')
-            .then(me => setUserAvatar(me.avatarUrl ? `${API_BASE}${me.avatarUrl}` : null))
+            .then(me => setUserAvatar(me.avatarUrl ? uploadUrl(me.avatarUrl, 's') : null))
             .catch(() => setUserAvatar(null));
-        // Initialize unread count from conversations (single endpoint returns DMs + groups)
-        apiFetch<{ unreadCount?: number }[]>('/api/chat/conversations')
-            .then(convs => setUnreadMsgs(convs.reduce((s, c) => s + (c.unreadCount || 0), 0)))
+        // Initialize unread count from the per-user total (DMs + groups)
+        apiFetch<{ total: number }>('/api/chat/unread')
+            .then(u => setUnreadMsgs(u.total))
             .catch(() => {});
     }, [isLoggedIn]);
 
@@ -76,6 +76,15 @@ export default function Navbar() {
         const unsubChat = subscribe('chat', (payload) => {
             const msgId = (payload as { messageId?: string }).messageId ?? '';
             if (msgId.startsWith('READ:')) return;
+            if (msgId.startsWith('UNREAD:')) {
+                // Unread delta, e.g. "UNREAD:convId:-3" after reading in another tab.
+                // The tab reading that conversation skipped its increments and refetches on messagesRead.
+                const sep = msgId.lastIndexOf(':');
+                if (msgId.substring('UNREAD:'.length, sep) === activeConvIdRef.current) return;
+                const delta = Number(msgId.substring(sep + 1)) || 0;
+                setUnreadMsgs(prev => Math.max(0, prev + delta));
+                return;
+            }
             if (msgId.startsWith('REMOVED:')) {
                 setUnreadMsgs(prev => Math.max(0, prev - 1));
                 return;
@@ -104,8 +113,8 @@ export default function Navbar() {
 
     useEffect(() => {
         const onMsgsRead = () => {
-            apiFetch<{ unreadCount?: number }[]>('/api/chat/conversations')
-                .then(convs => setUnreadMsgs(convs.reduce((s, c) => s + (c.unreadCount || 0), 0)))
+            apiFetch<{ total: number }>('/api/chat/unread')
+                .then(u => setUnreadMsgs(u.total))
                 .catch(() => setUnreadMsgs(0));
         };
         const onFriendsChanged = () => loadFriendReqCount();
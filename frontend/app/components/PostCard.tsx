@@ -2,7 +2,7 @@
 
 import { useEffect, useRef, useState, useCallback } from 'react';
 import Link from 'next/link';
-import { apiFetch, API_BASE } from '../lib/api';
+import { apiFetch, uploadUrl } from '../lib/api';
 import { useAuth } from '../lib/auth-context';
 import { useWs } from '../lib/ws-context';
 import { DS } from '../lib/tokens';
@@ -56,7 +56,7 @@ function AvatarSquare({ name, avatarUrl, size = 48 }: { name: string; avatarUrl?
   if (avatarUrl) {
     return (
       <img
-        src={`${API_BASE}${avatarUrl}`}
+        src={uploadUrl(avatarUrl, 's')}
         alt={name}
         style={{
           width: size, height: size, borderRadius: 0,
@@ -439,7 +439,7 @@ export default function PostCard({ post }: PostCardProps) {
             marginBottom: 20,
           }}>
             <img
-              src={`${API_BASE}${post.imageUrl}`}
+              src={uploadUrl(post.imageUrl, 'l')}
               alt="Post image"
               style={{ width: '100%', height: '100%', objectFit: 'cover' }}
             />
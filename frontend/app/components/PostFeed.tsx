@@ -2,7 +2,7 @@
 
 import { useState, useEffect, useCallback } from 'react';
 import dynamic from 'next/dynamic';
-import { apiFetch, apiUpload, API_BASE } from '../lib/api';
+import { apiFetch, apiUpload, API_BASE, uploadUrl } from '../lib/api';
 import { useAuth } from '../lib/auth-context';
 import PostCard from './PostCard';
 import { DS } from '../lib/tokens';
@@ -27,6 +27,8 @@ type Post = {
   userLiked?: boolean;
 };
 
+type FeedPage = { items: Post[]; nextCursor: string | null };
+
 function ImageIcon() {
   return (
     <svg width="16" height="16" viewBox="0 0 24 24" fill="none" stroke="currentColor" strokeWidth="2" strokeLinecap="round" strokeLinejoin="round">
@@ -47,6 +49,8 @@ function LocationIcon() {
 export default function PostFeed({ readOnly = false }: { readOnly?: boolean } = {}) {
   const { user } = useAuth();
   const [posts, setPosts]         = useState<Post[]>([]);
+  const [nextCursor, setNextCursor] = useState<string | null>(null);
+  const [loadingMore, setLoadingMore] = useState(false);
   const [text, setText]           = useState('');
   const [imageUrl, setImageUrl]   = useState<string | null>(null);
   const [uploading, setUploading] = useState(false);
@@ -56,16 +60,29 @@ export default function PostFeed({ readOnly = false }: { readOnly?: boolean } =
   const [postError, setPostError] = useState('');
   const [visibility, setVisibility] = useState<'PUBLIC' | 'FRIENDS_ONLY'>('PUBLIC');
 
+  const feedEndpoint = readOnly ? '/api/public/posts/feed' : '/api/posts/feed';
+
   const loadFeed = useCallback(async () => {
     try {
-      const endpoint = readOnly ? '/api/public/posts/feed' : '/api/posts/feed';
-      const feed = await apiFetch<Post[]>(endpoint);
-      setPosts(feed);
+      const page = await apiFetch<FeedPage>(feedEndpoint);
+      setPosts(page.items);
+      setNextCursor(page.nextCursor);
     } catch { /* empty */ }
-  }, [readOnly]);
+  }, [feedEndpoint]);
 
   useEffect(() => { loadFeed(); }, [loadFeed]);
 
+  const loadMore = async () => {
+    if (!nextCursor || loadingMore) return;
+    setLoadingMore(true);
+    try {
+      const page = await apiFetch<FeedPage>(`${feedEndpoint}?cursor=${encodeURIComponent(nextCursor)}`);
+      setPosts(prev => [...prev, ...page.items]);
+      setNextCursor(page.nextCursor);
+    } catch { /* empty */ }
+    setLoadingMore(false);
+  };
+
   const handleImageUpload = async (e: React.ChangeEvent<HTMLInputElement>) => {
     const file = e.target.files?.[0];
     if (!file) return;
@@ -119,7 +136,7 @@ export default function PostFeed({ readOnly = false }: { readOnly?: boolean } =
     setPosting(false);
   };
 
-  const userAvatarUrl = user?.avatarUrl ? `${API_BASE}${user.avatarUrl}` : null;
+  const userAvatarUrl = user?.avatarUrl ? uploadUrl(user.avatarUrl, 's') : null;
 
   return (
     <div style={{ maxWidth: 660, margin: '0 auto', padding: '24px 16px' }}>
@@ -309,6 +326,24 @@ export default function PostFeed({ readOnly = false }: { readOnly?: boolean } =
       {posts.map(post => (
         <PostCard key={post.id} post={post} />
       ))}
+      {nextCursor && (
+        <div style={{ textAlign: 'center', padding: 24 }}>
+          <button
+            onClick={loadMore}
+            disabled={loadingMore}
+            style={{
+              background: '#fff',
+              border: `2px solid ${DS.tertiary}`,
+              boxShadow: DS.shadowSm,
+              padding: '8px 20px',
+              fontSize: TYPE.size.sm,
+              cursor: loadingMore ? 'default' : 'pointer',
+            }}
+          >
+            {loadingMore ? 'Loading…' : 'Load more'}
+          </button>
+        </div>
+      )}
     </div>
   );
 }
@@ -35,6 +35,7 @@ vi.mock('../MiniPostCard', () => ({
 vi.mock('../../lib/api', () => ({
   apiFetch: vi.fn(),
   API_BASE: '',
+  uploadUrl: (path: string) => path,
 }))
 
 // ── Mock design tokens (not needed for logic) ─────────────────────────────
@@ -3,7 +3,7 @@
 import dynamic from 'next/dynamic'
 import { useEffect, useState, useRef, useCallback } from 'react'
 import { useAuth } from '../lib/auth-context'
-import { apiFetch, API_BASE } from '../lib/api'
+import { apiFetch, uploadUrl } from '../lib/api'
 import { H1_STYLE } from '../lib/typography';
 import { DS } from '../lib/tokens';
 // eslint-disable-next-line @typescript-eslint/no-explicit-any
@@ -91,7 +91,7 @@ function FeedCard({ post, isActive, onClick }: {
           display: 'flex', alignItems: 'center', justifyContent: 'center',
         }}>
           {avatarUrl
-            ? <img src={`${API_BASE}${avatarUrl}`} alt="" style={{ width: '100%', height: '100%', objectFit: 'cover' }} />
+            ? <img src={uploadUrl(avatarUrl, 's')} alt="" style={{ width: '100%', height: '100%', objectFit: 'cover' }} />
             : <span style={{ color: '#fff', fontWeight: 700, fontSize: 14 }}>{author?.[0]?.toUpperCase() || '?'}</span>
           }
         </div>
@@ -103,7 +103,7 @@ function FeedCard({ post, isActive, onClick }: {
       <div style={{ fontSize: 13, color: '#333', lineHeight: 1.45, marginBottom: 6 }}>{truncated}</div>
       {post.imageUrl && (
         <img
-          src={`${API_BASE}${post.imageUrl}`}
+          src={uploadUrl(post.imageUrl, 'm')}
           alt=""
           style={{ width: '100%', maxHeight: 120, objectFit: 'cover', borderRadius: 0, marginBottom: 6 }}
         />
@@ -159,7 +159,7 @@ export default function ExplorePage() {
         const endpoint = status === 'authenticated'
           ? '/api/posts/feed/geo'
           : '/api/public/posts/feed/geo';
-        const data = await apiFetch<ApiPost[]>(endpoint);
+        const { items: data } = await apiFetch<{ items: ApiPost[]; nextCursor: string | null }>(endpoint);
         if (!active) return;
         setPosts(data.map(p => ({
           id: p.id, text: p.text, authorId: p.authorId,
@@ -19,7 +19,7 @@ import { useAuth }  from '../lib/auth-context';
 import { H1_STYLE } from '../lib/typography';
 import { useRouter }   from 'next/navigation';
 import Link from 'next/link';
-import { apiFetch, API_BASE } from '../lib/api';
+import { apiFetch, uploadUrl } from '../lib/api';
 import { useWs } from '../lib/ws-context';
 import { DS } from '../lib/tokens';
 
@@ -102,24 +102,24 @@ export default function FriendsPage() {
       for (const u of allPublicUsers) {
         userMap.set(u.id, {
           id: u.id, name: u.username, nickname: u.username,
-          photo: u.avatarUrl ? `${API_BASE}${u.avatarUrl}` : null, friends: 0, status: 'NONE',
+          photo: u.avatarUrl ? uploadUrl(u.avatarUrl, 'm') : null, friends: 0, status: 'NONE',
         });
       }
 
       // Overwrite with actual relationship status
       for (const u of friends) {
         const existing = userMap.get(u.id);
-        userMap.set(u.id, { ...(existing ?? { id: u.id, name: u.username, nickname: u.username, photo: u.avatarUrl ? `${API_BASE}${u.avatarUrl}` : null, friends: 0 }), status: 'FRIEND' });
+        userMap.set(u.id, { ...(existing ?? { id: u.id, name: u.username, nickname: u.username, photo: u.avatarUrl ? uploadUrl(u.avatarUrl, 'm') : null, friends: 0 }), status: 'FRIEND' });
       }
       for (const req of incoming) {
         const u = req.sender;
         const existing = userMap.get(u.id);
-        userMap.set(u.id, { ...(existing ?? { id: u.id, name: u.username, nickname: u.username, photo: u.avatarUrl ? `${API_BASE}${u.avatarUrl}` : null, friends: 0 }), status: 'PENDING_RECEIVED', requestId: req.id, createdAt: req.createdAt });
+        userMap.set(u.id, { ...(existing ?? { id: u.id, name: u.username, nickname: u.username, photo: u.avatarUrl ? uploadUrl(u.avatarUrl, 'm') : null, friends: 0 }), status: 'PENDING_RECEIVED', requestId: req.id, createdAt: req.createdAt });
       }
       for (const req of outgoing) {
         const u = req.receiver;
         const existing = userMap.get(u.id);
-        userMap.set(u.id, { ...(existing ?? { id: u.id, name: u.username, nickname: u.username, photo: u.avatarUrl ? `${API_BASE}${u.avatarUrl}` : null, friends: 0 }), status: 'PENDING_SENT', requestId: req.id });
+        userMap.set(u.id, { ...(existing ?? { id: u.id, name: u.username, nickname: u.username, photo: u.avatarUrl ? uploadUrl(u.avatarUrl, 'm') : null, friends: 0 }), status: 'PENDING_SENT', requestId: req.id });
       }
 
       setUsers(Array.from(userMap.values()));
@@ -65,6 +65,21 @@ export async function apiFetch<T>(
 
 export { API_BASE };
 
+/**
+ * Downscaled copies the backend writes next to each uploaded image (see ImageVariants):
+ * 's' is 96px for avatars, 'm' 480px for thumbnails, 'l' 1080px for full-width images.
+ */
+export type ImageSize = 's' | 'm' | 'l';
+
+// Only content-addressed uploads have variants; other URLs (older avatars, external images) are used as-is.
+const UPLOAD_WITH_VARIANTS = /^(\/uploads\/.*[0-9a-f]{64})(\.[a-z0-9]{1,5})?$/;
+
+/** Absolute URL of an uploaded image, at the given variant size where the upload has one. */
+export function uploadUrl(path: string, size: ImageSize): string {
+  const m = UPLOAD_WITH_VARIANTS.exec(path);
+  return `${API_BASE}${m ? `${m[1]}_${size}${m[2] ?? ''}` : path}`;
+}
+
 export async function apiUpload(path: string, formData: FormData): Promise<{ filename: string; url: string }> {
   const token = typeof window !== 'undefined' ? localStorage.getItem('session_token') : null;
   const headers: Record<string, string> = {};
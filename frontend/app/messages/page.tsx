@@ -23,7 +23,7 @@ import { useAuth } from '../lib/auth-context';
 import { useWs } from '../lib/ws-context';
 import { H1_STYLE } from '../lib/typography';
 import Link from 'next/link';
-import { apiFetch, API_BASE } from '../lib/api';
+import { apiFetch, uploadUrl } from '../lib/api';
 import { DS } from '../lib/tokens';
 
 // ── Types ──────────────────────────────────────────────────────────────────────
@@ -100,6 +100,12 @@ interface BackendMessage {
   moderationReason?: string | null;
 }
 
+/** One page of history, oldest first; nextCursor fetches the page before it. */
+type MessagePage = { items: BackendMessage[]; nextCursor: string | null };
+
+/** One page of the inbox, most recently active first; nextCursor fetches the page after it. */
+type InboxPage = { items: BackendConversation[]; nextCursor: string | null };
+
 interface BackendFriendRequest {
   id: string;
   sender: BackendUser;
@@ -252,6 +258,12 @@ function MessagesPage() {
   const [activeConvId, setActiveConvId] = useState<string | null>(null);
 
   const [hasMore,      setHasMore]      = useState(false);
+  const [inboxCursor,  setInboxCursor]  = useState<string | null>(null);
+  const [inboxLoadingMore, setInboxLoadingMore] = useState(false);
+  // Every conversation loaded so far, and whether pages past the first were loaded into it.
+  const inboxRef          = useRef<BackendConversation[]>([]);
+  const inboxPagedRef     = useRef(false);
+  const [olderCursor,  setOlderCursor]  = useState<string | null>(null);
   const [loadingMore,  setLoadingMore]  = useState(false);
 
   const messagesEndRef    = useRef<HTMLDivElement>(null);
@@ -263,53 +275,89 @@ function MessagesPage() {
 
   // ── Data loaders ──────────────────────────────────────────────────────────────
 
+  const applyInbox = useCallback((backendConvs: BackendConversation[]) => {
+    const newConvMap = new Map<string, string>();
+    const convList: Conversation[] = [];
+    const groupList: GroupConversation[] = [];
+
+    for (const conv of backendConvs) {
+      const last = conv.lastMessage;
+      const lastMessage = last
+        ? { content: last.content, createdAt: last.createdAt, senderId: last.sender.id }
+        : { content: '', createdAt: conv.createdAt, senderId: '' };
+
+      if (conv.group) {
+        groupList.push({
+          id: conv.id,
+          name: conv.name ?? 'Group',
+          members: conv.participants.map(p => ({
+            id: p.id, name: p.username,
+            photo: p.avatarUrl ? uploadUrl(p.avatarUrl, 's') : null,
+          })),
+          lastMessage,
+          unread: conv.unreadCount ?? 0,
+        });
+      } else {
+        const partner = conv.participants.find(p => p.id !== currentUserId);
+        if (!partner) continue;
+        newConvMap.set(partner.id, conv.id);
+        convList.push({
+          partner: { id: partner.id, name: partner.username, nickname: partner.username, photo: partner.avatarUrl ? uploadUrl(partner.avatarUrl, 's') : null },
+          lastMessage,
+          unread: conv.unreadCount ?? 0,
+        });
+      }
+    }
+
+    setConvMap(newConvMap);
+    convList.sort((a, b) => new Date(b.lastMessage.createdAt).getTime() - new Date(a.lastMessage.createdAt).getTime());
+    groupList.sort((a, b) => new Date(b.lastMessage.createdAt).getTime() - new Date(a.lastMessage.createdAt).getTime());
+    setConversations(convList);
+    setGroupConversations(groupList);
+  }, [currentUserId]);
+
   const loadConversations = useCallback(async () => {
     if (!currentUserId) return;
     try {
-      const backendConvs = await apiFetch<BackendConversation[]>('/api/chat/conversations');
-      const newConvMap = new Map<string, string>();
-      const convList: Conversation[] = [];
-      const groupList: GroupConversation[] = [];
-
-      for (const conv of backendConvs) {
-        const last = conv.lastMessage;
-        const lastMessage = last
-          ? { content: last.content, createdAt: last.createdAt, senderId: last.sender.id }
-          : { content: '', createdAt: conv.createdAt, senderId: '' };
-
-        if (conv.group) {
-          groupList.push({
-            id: conv.id,
-            name: conv.name ?? 'Group',
-            members: conv.participants.map(p => ({
-              id: p.id, name: p.username,
-              photo: p.avatarUrl ? `${API_BASE}${p.avatarUrl}` : null,
-            })),
-            lastMessage,
-            unread: conv.unreadCount ?? 0,
-          });
-        } else {
-          const partner = conv.participants.find(p => p.id !== currentUserId);
-          if (!partner) continue;
-          newConvMap.set(partner.id, conv.id);
-          convList.push({
-            partner: { id: partner.id, name: partner.username, nickname: partner.username, photo: partner.avatarUrl ? `${API_BASE}${partner.avatarUrl}` : null },
-            lastMessage,
-            unread: conv.unreadCount ?? 0,
-          });
-        }
-      }
-
-      setConvMap(newConvMap);
-      convList.sort((a, b) => new Date(b.lastMessage.createdAt).getTime() - new Date(a.lastMessage.createdAt).getTime());
-      groupList.sort((a, b) => new Date(b.lastMessage.createdAt).getTime() - new Date(a.lastMessage.createdAt).getTime());
-      setConversations(convList);
-      setGroupConversations(groupList);
+      const page = await apiFetch<InboxPage>('/api/chat/conversations');
+      // The first page replaces whatever it now contains; conversations from older pages stay loaded.
+      const fresh = new Set(page.items.map(c => c.id));
+      inboxRef.current = inboxPagedRef.current
+        ? [...page.items, ...inboxRef.current.filter(c => !fresh.has(c.id))]
+        : page.items;
+      if (!inboxPagedRef.current) setInboxCursor(page.nextCursor);
+      applyInbox(inboxRef.current);
     } catch (err) {
       console.error('[MESSAGES] Failed to load conversations:', err);
     }
     setConvLoading(false);
-  }, [currentUserId]);
+  }, [currentUserId, applyInbox]);
+
+  const loadMoreConversations = useCallback(async () => {
+    if (!inboxCursor || inboxLoadingMore) return;
+    setInboxLoadingMore(true);
+    try {
+      const page = await apiFetch<InboxPage>(`/api/chat/conversations?cursor=${encodeURIComponent(inboxCursor)}`);
+      const seen = new Set(inboxRef.current.map(c => c.id));
+      inboxRef.current = [...inboxRef.current, ...page.items.filter(c => !seen.has(c.id))];
+      inboxPagedRef.current = true;
+      setInboxCursor(page.nextCursor);
+      applyInbox(inboxRef.current);
+    } catch (err) {
+      console.error('[MESSAGES] Failed to load more conversations:', err);
+    }
+    setInboxLoadingMore(false);
+  }, [inboxCursor, inboxLoadingMore, applyInbox]);
+
+  const loadMoreButton = inboxCursor && (
+    <button onClick={loadMoreConversations} disabled={inboxLoadingMore} style={{
+      width: '100%', padding: '0.7rem 1rem', border: 'none', background: 'transparent',
+      color: DS.secondary, fontSize: 11, fontWeight: 700, letterSpacing: '0.06em',
+      cursor: inboxLoadingMore ? 'default' : 'pointer', fontFamily: 'inherit', opacity: inboxLoadingMore ? 0.5 : 1,
+    }}>
+      {inboxLoadingMore ? 'Loading…' : 'Load more'}
+    </button>
+  );
 
   const loadRequests = useCallback(async () => {
     if (!currentUserId) return;
@@ -318,7 +366,7 @@ function MessagesPage() {
       setPendingReqs(incoming.map(req => ({
         fromUser: {
           id: req.sender.id, name: req.sender.username,
-          nickname: req.sender.username, photo: req.sender.avatarUrl ? `${API_BASE}${req.sender.avatarUrl}` : null,
+          nickname: req.sender.username, photo: req.sender.avatarUrl ? uploadUrl(req.sender.avatarUrl, 's') : null,
         },
         createdAt: req.createdAt,
         requestId: req.id,
@@ -354,8 +402,8 @@ function MessagesPage() {
       // Mark messages as read
       await apiFetch(`/api/chat/conversations/${cId}/read`, { method: 'POST' }).catch(() => {});
 
-      const msgs = await apiFetch<BackendMessage[]>(`/api/chat/conversations/${cId}/messages?limit=${PAGE_SIZE}`);
-      const mapped = msgs.map(m => ({
+      const page = await apiFetch<MessagePage>(`/api/chat/conversations/${cId}/messages?limit=${PAGE_SIZE}`);
+      const mapped = page.items.map(m => ({
         id: m.id,
         content: m.moderated ? `🚫 ${m.moderationReason || 'Removed by moderation'}` : m.content,
         createdAt: m.createdAt,
@@ -363,7 +411,8 @@ function MessagesPage() {
         readAt: m.read ? m.createdAt : null,
         moderated: m.moderated ?? false,
       }));
-      setHasMore(mapped.length === PAGE_SIZE);
+      setHasMore(page.nextCursor !== null);
+      setOlderCursor(page.nextCursor);
 
       // Detect new incoming messages for animation
       if (silent) {
@@ -410,8 +459,8 @@ function MessagesPage() {
     try {
       setActiveConvId(groupId);
       await apiFetch(`/api/chat/conversations/${groupId}/read`, { method: 'POST' }).catch(() => {});
-      const msgs = await apiFetch<BackendMessage[]>(`/api/chat/conversations/${groupId}/messages?limit=${PAGE_SIZE}`);
-      const mapped = msgs.map(m => ({
+      const page = await apiFetch<MessagePage>(`/api/chat/conversations/${groupId}/messages?limit=${PAGE_SIZE}`);
+      const mapped = page.items.map(m => ({
         id: m.id,
         content: m.moderated ? `🚫 ${m.moderationReason || 'Removed by moderation'}` : m.content,
         createdAt: m.createdAt,
@@ -420,7 +469,8 @@ function MessagesPage() {
         readAt: m.read ? m.createdAt : null,
         moderated: m.moderated ?? false,
       }));
-      setHasMore(mapped.length === PAGE_SIZE);
+      setHasMore(page.nextCursor !== null);
+      setOlderCursor(page.nextCursor);
 
       if (silent) {
         setMessages(prev => {
@@ -469,6 +519,9 @@ function MessagesPage() {
         return;
       }
 
+      // Unread deltas only drive the nav badges; this page reloads its own counts
+      if (msgId.startsWith('UNREAD:')) return;
+
       if (msgId.startsWith('REMOVED:')) {
         const parts = msgId.split(':');
         const removedId = parts[1];
@@ -527,20 +580,18 @@ function MessagesPage() {
     if (area) area.scrollTop = area.scrollHeight;
   }, [messages]);
 
-  // Load older messages (cursor = createdAt of oldest loaded message)
+  // Load older messages (opaque cursor returned with the oldest loaded page)
   const loadMoreMessages = useCallback(async () => {
-    if (!activeConvId || loadingMore || !hasMore || isLoadingMoreRef.current) return;
-    const oldest = messages[0];
-    if (!oldest) return;
+    if (!activeConvId || loadingMore || !hasMore || !olderCursor || isLoadingMoreRef.current) return;
     setLoadingMore(true);
     isLoadingMoreRef.current = true;
     const scrollArea = scrollAreaRef.current;
     const prevScrollHeight = scrollArea?.scrollHeight ?? 0;
     try {
-      const older = await apiFetch<BackendMessage[]>(
-        `/api/chat/conversations/${activeConvId}/messages?limit=${PAGE_SIZE}&before=${encodeURIComponent(oldest.createdAt)}`
+      const older = await apiFetch<MessagePage>(
+        `/api/chat/conversations/${activeConvId}/messages?limit=${PAGE_SIZE}&cursor=${encodeURIComponent(olderCursor)}`
       );
-      const mapped = older.map(m => ({
+      const mapped = older.items.map(m => ({
         id: m.id,
         content: m.moderated ? `🚫 ${m.moderationReason || 'Removed by moderation'}` : m.content,
         createdAt: m.createdAt,
@@ -548,7 +599,8 @@ function MessagesPage() {
         readAt: m.read ? m.createdAt : null,
         moderated: m.moderated ?? false,
       }));
-      setHasMore(mapped.length === PAGE_SIZE);
+      setHasMore(older.nextCursor !== null);
+      setOlderCursor(older.nextCursor);
       if (mapped.length > 0) {
         setMessages(prev => [...mapped, ...prev]);
         requestAnimationFrame(() => {
@@ -563,7 +615,7 @@ function MessagesPage() {
       isLoadingMoreRef.current = false;
     }
     setLoadingMore(false);
-  }, [activeConvId, loadingMore, hasMore, messages]);
+  }, [activeConvId, loadingMore, hasMore, olderCursor]);
 
   // Trigger load-more when user scrolls near the top
   useEffect(() => {
@@ -583,6 +635,7 @@ function MessagesPage() {
     setActiveGroup(null);
     setMessages([]);
     setHasMore(false);
+    setOlderCursor(null);
     setActiveConvId(null);
     setBlockedByPartnerIds(prev => { const s = new Set(prev); s.delete(partner.id); return s; });
     loadThread(partner.id);
@@ -597,6 +650,7 @@ function MessagesPage() {
     setEditingGroupName(false);
     setMessages([]);
     setHasMore(false);
+    setOlderCursor(null);
     setActiveConvId(null);
     loadGroupThread(group.id);
     setMobileView('chat');
@@ -622,7 +676,7 @@ function MessagesPage() {
         name: conv.name ?? groupName.trim(),
         members: conv.participants.map(p => ({
           id: p.id, name: p.username,
-          photo: p.avatarUrl ? `${API_BASE}${p.avatarUrl}` : null,
+          photo: p.avatarUrl ? uploadUrl(p.avatarUrl, 's') : null,
         })),
         lastMessage: { content: '', createdAt: conv.createdAt, senderId: '' },
         unread: 0,
@@ -779,7 +833,7 @@ function MessagesPage() {
       setAllUsers(users
         .filter(u => u.id !== currentUserId)
         .map(u => ({
-          userId: u.id, name: u.username, nickname: u.username, avatar: u.avatarUrl ? `${API_BASE}${u.avatarUrl}` : null,
+          userId: u.id, name: u.username, nickname: u.username, avatar: u.avatarUrl ? uploadUrl(u.avatarUrl, 's') : null,
         })));
     } catch (err) {
       console.error('[MESSAGES] Failed to load users:', err);
@@ -1014,6 +1068,7 @@ function MessagesPage() {
                     </div>
                   );
                 })}
+                {!convLoading && loadMoreButton}
               </>
             ) : (
               <>
@@ -1093,6 +1148,7 @@ function MessagesPage() {
                     </div>
                   );
                 })}
+                {!convLoading && loadMoreButton}
               </>
             )}
           </div>
@@ -1226,7 +1282,7 @@ function MessagesPage() {
                             const users = await apiFetch<BackendUser[]>('/api/public/users');
                             setAllUsers(users.filter(u => u.id !== currentUserId).map(u => ({
                               userId: u.id, name: u.username, nickname: u.username,
-                              avatar: u.avatarUrl ? `${API_BASE}${u.avatarUrl}` : null,
+                              avatar: u.avatarUrl ? uploadUrl(u.avatarUrl, 's') : null,
                             })));
                           } catch {}
                           setUsersLoading(false);
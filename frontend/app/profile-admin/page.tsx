@@ -2,7 +2,7 @@
 
 import { useCallback, useEffect, useState } from 'react';
 import { H1_STYLE } from '../lib/typography';
-import { apiFetch, API_BASE } from '../lib/api';
+import { apiFetch, uploadUrl } from '../lib/api';
 import { useAuth } from '../lib/auth-context';
 import { useRouter } from 'next/navigation';
 import Speedometer from '../components/Speedometer';
@@ -161,7 +161,7 @@ export default function ProfileAdminPage() {
                   overflow: 'hidden', display: 'flex', alignItems: 'center', justifyContent: 'center',
                   marginBottom: '0.4rem', flexShrink: 0 }}>
                   {u.avatarUrl
-                    ? <img src={`${API_BASE}${u.avatarUrl}`} alt="avatar"
+                    ? <img src={uploadUrl(u.avatarUrl, 'm')} alt="avatar"
                         style={{ width: '100%', height: '100%', objectFit: 'cover' }} />
                     : <svg viewBox="0 0 100 100" width="66%" height="66%">
                         <circle cx="50" cy="36" r="22" fill={DS.primary} />
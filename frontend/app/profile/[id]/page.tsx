@@ -6,7 +6,7 @@ import Link from 'next/link';
 import styles from './ProfileView.module.css';
 import { H1_STYLE, TYPE } from '../../lib/typography';
 import { useAuth } from '../../lib/auth-context';
-import { apiFetch, API_BASE } from '../../lib/api';
+import { apiFetch, API_BASE, uploadUrl } from '../../lib/api';
 import { DS } from '../../lib/tokens';
 import PostCard from '../../components/PostCard';
 
@@ -196,7 +196,7 @@ export default function ProfileViewPage() {
           name:     resolvedName,
           nickname: resolvedNickname,
           address:  resolvedAddress,
-          avatar: data.avatarUrl ? `${API_BASE}${data.avatarUrl}` : null,
+          avatar: data.avatarUrl ? uploadUrl(data.avatarUrl, 'm') : null,
           friends: friendCount,
         });
         setEditName(resolvedName);
@@ -264,7 +264,7 @@ export default function ProfileViewPage() {
         });
         if (!res.ok) throw new Error('Upload failed');
         const saved = await res.json() as { avatarUrl: string };
-        setProfile(p => p ? { ...p, avatar: `${API_BASE}${saved.avatarUrl}` } : p);
+        setProfile(p => p ? { ...p, avatar: uploadUrl(saved.avatarUrl, 'm') } : p);
         URL.revokeObjectURL(editBlobUrl);
         setEditBlobUrl(null);
       }
@@ -3,7 +3,7 @@
 import { useRef, useState, useEffect } from 'react';
 import { useRouter } from 'next/navigation';
 import { useAuth } from '../../lib/auth-context';
-import { apiFetch, API_BASE } from '../../lib/api';
+import { apiFetch, API_BASE, uploadUrl } from '../../lib/api';
 import styles from '../Profile.module.css';
 import { H1_STYLE } from '../../lib/typography';
 
@@ -217,7 +217,7 @@ export default function EditProfilePage() {
   }
 
   // The avatar to display: new blob preview takes priority, then the saved URL
-  const displayAvatar = avatarBlob ?? (avatarUrl ? `${API_BASE}${avatarUrl}` : null);
+  const displayAvatar = avatarBlob ?? (avatarUrl ? uploadUrl(avatarUrl, 'm') : null);
 
   if (status === 'loading') {
     return (
@@ -2,14 +2,14 @@
 import { useState, useEffect, useRef, Suspense } from "react";
 import { useSearchParams, useRouter } from "next/navigation";
 import Link from "next/link";
-import { apiFetch, API_BASE } from "../../lib/api";
+import { apiFetch, uploadUrl } from "../../lib/api";
 import { DS } from "../../lib/tokens";
 import { TYPE } from "../../lib/typography";
 
 // ── Types ─────────────────────────────────────────────────────────────────────
 
 type ContentType = "posts" | "comments" | "users";
-type SortOption  = "recent" | "likes" | "comments" | "toxicity" | "closest";
+type SortOption  = "relevance" | "recent" | "likes" | "comments" | "toxicity" | "closest";
 
 type PostResult = {
   id: string; text: string; authorId: string; timestamp: number;
@@ -57,7 +57,7 @@ function Avatar({ url, username }: { url?: string | null; username: string }) {
       display: "flex", alignItems: "center", justifyContent: "center",
     }}>
       {url
-        ? <img src={`${API_BASE}${url}`} alt="" style={{ width: "100%", height: "100%", objectFit: "cover" }} />
+        ? <img src={uploadUrl(url, 's')} alt="" style={{ width: "100%", height: "100%", objectFit: "cover" }} />
         : <span style={{ color: DS.primary, fontWeight: 700, fontSize: 11 }}>{username?.[0]?.toUpperCase()}</span>
       }
     </div>
@@ -261,6 +261,7 @@ function AdvancedSearchContent() {
   }
 
   const SORT_OPTIONS: { value: SortOption; label: string }[] = [
+    { value: "relevance", label: "Best Match" },
     { value: "recent",   label: "Most Recent" },
     { value: "likes",    label: "Most Likes" },
     { value: "comments", label: "Most Comments" },
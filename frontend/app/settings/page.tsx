@@ -4,7 +4,7 @@ import { useState, useEffect, useRef } from 'react';
 import { useAuth }              from '../lib/auth-context';
 import { useRouter }           from 'next/navigation';
 import { H1_STYLE } from '@/lib/typography';
-import { apiFetch, API_BASE } from '../lib/api';
+import { apiFetch, API_BASE, uploadUrl } from '../lib/api';
 import { DS, PAGE_STYLE, CARD_STYLE, PANEL_STYLE, INPUT_STYLE, BTN_PRIMARY_STYLE, SECTION_LABEL_STYLE } from '../lib/tokens';
 import styles from '../components/ProfileModal.module.css';
 import QRCode from 'qrcode';
@@ -528,7 +528,7 @@ export default function SettingsPage() {
               display: 'flex', alignItems: 'center', justifyContent: 'center',
             }}>
               {avatarUrl
-                ? <img src={`${API_BASE}${avatarUrl}`} alt="avatar"
+                ? <img src={uploadUrl(avatarUrl, 'm')} alt="avatar"
                     style={{ width: '100%', height: '100%', objectFit: 'cover', display: 'block' }} />
                 : <span style={{ color: DS.earth, fontWeight: 700, fontSize: 30 }}>
                     {user?.name?.[0]?.toUpperCase() ?? '?'}